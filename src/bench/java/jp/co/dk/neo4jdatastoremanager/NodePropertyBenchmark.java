@@ -0,0 +1,160 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import java.io.Serializable;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>NodePropertyBenchmarkは、ノードのプロパティの登録、取得時の変換の処理時間を計測するベンチマークです。</p>
+ * 通信を除いた変換の処理時間を計測するため、ノードはサーバに要求を行わないNeo4Jノードオブジェクトを基に生成します。<br/>
+ * オブジェクトプロパティは、変換方式が直接扱う型のみで構成された値（map）と、
+ * Javaの標準シリアライズで変換される値（serializable）の両方を計測します。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NodePropertyBenchmark {
+
+	/** オブジェクトプロパティの種類 */
+	@Param({"map", "serializable"})
+	public String payload;
+
+	/** オブジェクトプロパティの値 */
+	protected Serializable value;
+
+	/** プロパティを登録するノード */
+	protected Node node;
+
+	/** バイト配列として格納されたプロパティを保持するノード */
+	protected Node binaryNode;
+
+	/** "base64:"を接頭辞とした文字列として格納されたプロパティを保持するノード（REST経由の形式） */
+	protected Node base64Node;
+
+	@Setup
+	public void setup() throws Neo4JDataStoreManagerException {
+		this.value = "map".equals(this.payload) ? newMap() : new Payload();
+		byte[] encoded = Node.DEFAULT_CODEC.encode(this.value);
+		Map<String, Object> binary = new HashMap<String, Object>();
+		binary.put("value", encoded);
+		Map<String, Object> base64 = new HashMap<String, Object>();
+		base64.put("value", Node.BASE64_PREFIX + Base64.getEncoder().encodeToString(encoded));
+		Map<String, Object> plain = new HashMap<String, Object>();
+		plain.put("name", "name");
+		plain.put("age", Integer.valueOf(30));
+		plain.put("active", Boolean.TRUE);
+		this.node       = new Node(stubNode(1L), null, plain , null);
+		this.binaryNode = new Node(stubNode(2L), null, binary, null);
+		this.base64Node = new Node(stubNode(3L), null, base64, null);
+	}
+
+	@Benchmark
+	public Node setPropertyString() {
+		this.node.setProperty("name", "name");
+		return this.node;
+	}
+
+	@Benchmark
+	public Node setPropertySerializable() throws Neo4JDataStoreManagerException {
+		this.node.setProperty("value", this.value);
+		return this.node;
+	}
+
+	@Benchmark
+	public Object getPropertyObjectBinary() throws Neo4JDataStoreManagerException {
+		return this.binaryNode.getPropertyObject("value");
+	}
+
+	@Benchmark
+	public Object getPropertyObjectBase64() throws Neo4JDataStoreManagerException {
+		return this.base64Node.getPropertyObject("value");
+	}
+
+	@Benchmark
+	public Map<String, Object> getProperty() {
+		return this.node.getProperty();
+	}
+
+	/**
+	 * <p>変換方式が直接扱う型のみで構成されたマップを生成します。</p>
+	 * @return マップ
+	 */
+	protected static HashMap<String, Object> newMap() {
+		HashMap<String, Object> map = new HashMap<String, Object>();
+		map.put("name"   , "name");
+		map.put("age"    , Integer.valueOf(30));
+		map.put("score"  , Double.valueOf(12.5d));
+		map.put("created", new Date(0L));
+		map.put("ids"    , new long[]{1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L});
+		map.put("tags"   , new ArrayList<String>(Arrays.asList("a", "b", "c", "d")));
+		return map;
+	}
+
+	/**
+	 * <p>サーバに要求を行わないNeo4Jノードオブジェクトを生成します。</p>
+	 * ノードＩＤの取得以外のメソッドは何もせず、nullまたは既定値を返却します。
+	 * @param id ノードＩＤ
+	 * @return Neo4Jノードオブジェクト
+	 */
+	protected static org.neo4j.graphdb.Node stubNode(long id) {
+		return (org.neo4j.graphdb.Node)Proxy.newProxyInstance(NodePropertyBenchmark.class.getClassLoader(), new Class<?>[]{org.neo4j.graphdb.Node.class}, (proxy, method, args) -> {
+			switch (method.getName()) {
+				case "getId":    return Long.valueOf(id);
+				case "hashCode": return Integer.valueOf(Long.hashCode(id));
+				case "equals":   return Boolean.valueOf(proxy == args[0]);
+				case "toString": return "StubNode[" + id + "]";
+				default:
+					Class<?> type = method.getReturnType();
+					if (type == boolean.class) return Boolean.FALSE;
+					if (type == int.class)     return Integer.valueOf(0);
+					if (type == long.class)    return Long.valueOf(0L);
+					return null;
+			}
+		});
+	}
+
+	/**
+	 * <p>Payloadは、Javaの標準シリアライズで変換されるオブジェクトプロパティです。</p>
+	 */
+	public static class Payload implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		protected String name = "name";
+
+		protected int age = 30;
+
+		protected double score = 12.5d;
+
+		protected Date created = new Date(0L);
+
+		protected List<String> tags = new ArrayList<String>(Arrays.asList("a", "b", "c", "d"));
+	}
+}
@@ -0,0 +1,123 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import jp.co.dk.neo4jdatastoremanager.bench.StubNeo4JServer;
+import jp.co.dk.neo4jdatastoremanager.columnar.ColumnarResult;
+import jp.co.dk.neo4jdatastoremanager.cypher.Cypher;
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerCypherException;
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * <p>TransactionDecodeBenchmarkは、トランザクションが検索結果の応答を読み込み、変換する処理時間を計測するベンチマークです。</p>
+ * Neo4Jサーバの代わりに固定の応答を返却する{@link StubNeo4JServer}に接続するため、Neo4Jサーバなしで実行できます。
+ * 計測結果には同一ホスト内の通信の処理時間も含まれるため、応答の行数（rows）を変えて行数あたりの処理時間を比較してください。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionDecodeBenchmark {
+
+	/** 応答の行数 */
+	@Param({"100", "10000"})
+	public int rows;
+
+	/** Neo4Jサーバの代わりのサーバ */
+	protected StubNeo4JServer server;
+
+	/** トランザクション */
+	protected Transaction transaction;
+
+	/** 数値を取得するCypher */
+	protected Cypher valueCypher;
+
+	/** ノードを取得するCypher */
+	protected Cypher nodeCypher;
+
+	/** 複数列を取得するCypher */
+	protected Cypher rowCypher;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException, Neo4JDataStoreManagerException, Neo4JDataStoreManagerCypherException {
+		this.server = new StubNeo4JServer();
+		String url = this.server.getUrl();
+		this.server.respond("BenchValue", StubNeo4JServer.numberResult("n.value", this.rows))
+			.respond("BenchNode"  , StubNeo4JServer.nodeResult(url, "n", this.rows))
+			.respond("BenchRow"   , StubNeo4JServer.rowResult(this.rows))
+			.respond("labels(n)"  , StubNeo4JServer.labelResult(this.rows));
+		this.transaction = new Transaction(new Neo4JDataStoreParameter(url));
+		this.valueCypher = new Cypher("MATCH (n:BenchValue) RETURN n.value").freeze();
+		this.nodeCypher  = new Cypher("MATCH (n:BenchNode) RETURN n").freeze();
+		this.rowCypher   = new Cypher("MATCH (n:BenchRow) RETURN n.name, n.age, n.active, n.score").freeze();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		if (this.transaction != null) this.transaction.close();
+		Neo4JDataStoreManager.shutdownConnectionPool();
+		if (this.server != null) this.server.close();
+	}
+
+	@Benchmark
+	public List<Integer> selectIntList() throws Neo4JDataStoreManagerCypherException {
+		return this.transaction.selectIntList(this.valueCypher);
+	}
+
+	@Benchmark
+	public long[] selectLongArray() throws Neo4JDataStoreManagerCypherException {
+		return this.transaction.selectLongArray(this.valueCypher);
+	}
+
+	@Benchmark
+	public long[] selectNodeIds() throws Neo4JDataStoreManagerCypherException {
+		return this.transaction.selectNodeIds(this.nodeCypher);
+	}
+
+	@Benchmark
+	public List<Node> selectNodeList() throws Neo4JDataStoreManagerCypherException {
+		// 取得済みのノードを再利用しないよう、毎回トランザクションが管理するノードを破棄する
+		this.transaction.identityMap.clear();
+		return this.transaction.selectNodeList(this.nodeCypher);
+	}
+
+	@Benchmark
+	public void selectNodeStream(Blackhole blackhole) throws Neo4JDataStoreManagerCypherException {
+		this.transaction.identityMap.clear();
+		try (ResultIterator<Node> iterator = this.transaction.selectNodeStream(this.nodeCypher)) {
+			while (iterator.hasNext()) blackhole.consume(iterator.next());
+		}
+	}
+
+	@Benchmark
+	public List<Object[]> selectRows() throws Neo4JDataStoreManagerCypherException {
+		return this.transaction.selectRows(this.rowCypher, row -> new Object[]{row.getString(0), row.getInteger(1), row.getBoolean(2), row.getObject(3)});
+	}
+
+	@Benchmark
+	public ColumnarResult selectColumns() throws Neo4JDataStoreManagerCypherException {
+		return this.transaction.selectColumns(this.rowCypher);
+	}
+}
@@ -0,0 +1,370 @@
+package jp.co.dk.neo4jdatastoremanager.bench;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jp.co.dk.logger.Logger;
+import jp.co.dk.logger.LoggerFactory;
+import jp.co.dk.neo4jdatastoremanager.Neo4JDataStoreManager;
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerCypherException;
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerException;
+import jp.co.dk.neo4jdatastoremanager.metrics.DataStoreMetrics;
+import jp.co.dk.neo4jdatastoremanager.metrics.LatencyHistogram;
+import jp.co.dk.neo4jdatastoremanager.property.Neo4JDataStoreManagerProperty;
+
+/**
+ * <p>LoadTestは、{@link StubNeo4JServer}に対して複数のクライアントから{@link LoadTransaction}の組み合わせを実行し、
+ * スループット、処理時間のパーセンタイル、一回の処理あたりのメモリ割当量を出力する負荷試験です。</p>
+ * 引数は「キー=値」の形式で指定します。指定しない項目は既定値で実行されます。
+ * <ul>
+ * <li>clients   : 同時に実行するクライアント数（既定値8）</li>
+ * <li>duration  : 計測時間（秒、既定値30）</li>
+ * <li>warmup    : 計測前の暖機時間（秒、既定値5）</li>
+ * <li>latency   : サーバの応答までの待ち時間（マイクロ秒、「最小-最大」または固定値、既定値0）</li>
+ * <li>errorRate : サーバがエラー応答を返却する更新要求の割合（0.0～1.0、既定値0.0）</li>
+ * <li>rows      : 検索結果の行数（既定値100）</li>
+ * <li>mix       : 処理の種類ごとの比率（「種類:比率」をカンマ区切り、既定値READ_VALUES:40,READ_NODES:20,READ_ROWS:20,WRITE_NODES:10,PIPELINE:10）</li>
+ * <li>think     : クライアントが処理の間に待機する時間（ミリ秒、既定値0）</li>
+ * <li>poolSize  : 接続先ごとのコネクションプールの上限（既定値はクライアント数）</li>
+ * <li>logLevel  : 実行中に出力するログのレベル（既定値WARN）</li>
+ * </ul>
+ * メモリ割当量はクライアントのスレッドで割り当てられた量のみを計測し、サーバのスレッドで割り当てられた量は含みません。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+public class LoadTest {
+
+	/** クライアント数 */
+	protected int clients = 8;
+
+	/** 計測時間（秒） */
+	protected long duration = 30L;
+
+	/** 暖機時間（秒） */
+	protected long warmup = 5L;
+
+	/** 応答までの最小待ち時間（マイクロ秒） */
+	protected long minLatency = 0L;
+
+	/** 応答までの最大待ち時間（マイクロ秒） */
+	protected long maxLatency = 0L;
+
+	/** エラー応答を返却する要求の割合 */
+	protected double errorRate = 0.0d;
+
+	/** 検索結果の行数 */
+	protected int rows = 100;
+
+	/** 処理の種類ごとの比率 */
+	protected Map<LoadTransaction, Integer> mix = parseMix("READ_VALUES:40,READ_NODES:20,READ_ROWS:20,WRITE_NODES:10,PIPELINE:10");
+
+	/** 処理の間の待機時間（ミリ秒） */
+	protected long thinkTime = 0L;
+
+	/** コネクションプールの上限（未指定の場合0） */
+	protected int poolSize = 0;
+
+	/** ログのレベル */
+	protected String logLevel = "WARN";
+
+	/** ロガーインスタンス */
+	protected Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	/** 処理の種類ごとの計測結果 */
+	protected final Map<LoadTransaction, Statistics> statistics = new EnumMap<LoadTransaction, Statistics>(LoadTransaction.class);
+
+	/** すべての処理の種類の計測結果 */
+	protected final Statistics total = new Statistics();
+
+	/**
+	 * <p>指定の引数で負荷試験を実行し、結果を標準出力に出力します。</p>
+	 * @param args 「キー=値」形式の引数
+	 * @throws Exception 負荷試験の準備に失敗した場合
+	 */
+	public static void main(String[] args) throws Exception {
+		LoadTest loadTest = new LoadTest();
+		for (String arg : args) loadTest.setOption(arg);
+		try {
+			loadTest.run(System.out);
+		} finally {
+			Neo4JDataStoreManager.shutdownConnectionPool();
+		}
+		// ログ出力スレッドが終了しないため、明示的に終了する
+		System.exit(0);
+	}
+
+	/**
+	 * <p>「キー=値」形式の引数を設定します。</p>
+	 * @param option 引数
+	 * @throws IllegalArgumentException 引数の形式が不正な場合
+	 */
+	protected void setOption(String option) {
+		int index = option.indexOf('=');
+		if (index <= 0) throw new IllegalArgumentException("option must be key=value option=[" + option + "]");
+		String key   = option.substring(0, index).trim();
+		String value = option.substring(index + 1).trim();
+		switch (key) {
+			case "clients"   : this.clients   = Integer.parseInt(value); break;
+			case "duration"  : this.duration  = Long.parseLong(value); break;
+			case "warmup"    : this.warmup    = Long.parseLong(value); break;
+			case "errorRate" : this.errorRate = Double.parseDouble(value); break;
+			case "rows"      : this.rows      = Integer.parseInt(value); break;
+			case "mix"       : this.mix       = parseMix(value); break;
+			case "think"     : this.thinkTime = Long.parseLong(value); break;
+			case "poolSize"  : this.poolSize  = Integer.parseInt(value); break;
+			case "logLevel"  : this.logLevel  = value; break;
+			case "latency"   :
+				int separator = value.indexOf('-');
+				this.minLatency = Long.parseLong((separator < 0) ? value : value.substring(0, separator).trim());
+				this.maxLatency = (separator < 0) ? this.minLatency : Long.parseLong(value.substring(separator + 1).trim());
+				break;
+			default : throw new IllegalArgumentException("unknown option key=[" + key + "]");
+		}
+		if (this.clients <= 0) throw new IllegalArgumentException("clients must be positive clients=[" + this.clients + "]");
+	}
+
+	/**
+	 * <p>「種類:比率」をカンマ区切りで指定した文字列から、処理の種類ごとの比率を生成します。</p>
+	 * @param value 処理の種類ごとの比率
+	 * @return 処理の種類ごとの比率
+	 * @throws IllegalArgumentException 形式が不正な場合、比率の合計が0の場合
+	 */
+	protected static Map<LoadTransaction, Integer> parseMix(String value) {
+		Map<LoadTransaction, Integer> mix = new EnumMap<LoadTransaction, Integer>(LoadTransaction.class);
+		int total = 0;
+		for (String entry : value.split(",")) {
+			String[] pair = entry.split(":");
+			if (pair.length != 2) throw new IllegalArgumentException("mix must be TYPE:WEIGHT mix=[" + value + "]");
+			int weight = Integer.parseInt(pair[1].trim());
+			if (weight < 0) throw new IllegalArgumentException("weight must not be negative mix=[" + value + "]");
+			mix.put(LoadTransaction.valueOf(pair[0].trim()), Integer.valueOf(weight));
+			total += weight;
+		}
+		if (total == 0) throw new IllegalArgumentException("total weight must be positive mix=[" + value + "]");
+		return mix;
+	}
+
+	/**
+	 * <p>負荷試験を実行し、結果を指定の出力先に出力します。</p>
+	 * @param out 出力先
+	 * @throws IOException サーバの起動に失敗した場合
+	 * @throws InterruptedException 実行中に割り込まれた場合
+	 * @throws Neo4JDataStoreManagerException データストア管理オブジェクトの生成に失敗した場合
+	 */
+	public void run(PrintStream out) throws IOException, InterruptedException, Neo4JDataStoreManagerException {
+		// 処理ごとのログ出力が計測結果に影響しないよう、ログのレベルを変更する
+		// （ロガーの初期化時にLogger.propertiesの設定で上書きされるため、ロガーの生成後に変更する）
+		org.apache.log4j.Logger.getLogger("jp.co.dk").setLevel(org.apache.log4j.Level.toLevel(this.logLevel, org.apache.log4j.Level.WARN));
+		this.logger.warn("load test start log level=[" + this.logLevel + "]");
+		for (LoadTransaction transaction : LoadTransaction.values()) this.statistics.put(transaction, new Statistics());
+		LoadTransaction[] choices = this.choices();
+		try (StubNeo4JServer server = new StubNeo4JServer()) {
+			LoadTransaction.respond(server, this.rows);
+			server.setLatency(this.minLatency, this.maxLatency).setErrorRate(this.errorRate);
+
+			Neo4JDataStoreManagerProperty property = new Neo4JDataStoreManagerProperty();
+			property.setProperty("neo4j.server", server.getUrl());
+			property.setProperty("neo4j.embedded.path", "");
+			property.setProperty("neo4j.pool.maxConnections", Integer.toString((this.poolSize > 0) ? this.poolSize : this.clients));
+			List<Neo4JDataStoreManager> managers = new ArrayList<Neo4JDataStoreManager>(this.clients);
+			for (int i=0; i<this.clients; i++) managers.add(new Neo4JDataStoreManager(property));
+
+			long start        = System.nanoTime();
+			long measureStart = start + TimeUnit.SECONDS.toNanos(this.warmup);
+			long measureEnd   = measureStart + TimeUnit.SECONDS.toNanos(this.duration);
+			List<Thread> threads = new ArrayList<Thread>(this.clients);
+			for (int i=0; i<this.clients; i++) {
+				Neo4JDataStoreManager manager = managers.get(i);
+				Thread thread = new Thread(() -> this.client(manager, choices, measureStart, measureEnd), "load-client-" + i);
+				thread.setDaemon(true);
+				threads.add(thread);
+			}
+			for (Thread thread : threads) thread.start();
+
+			TimeUnit.NANOSECONDS.sleep(Math.max(0L, measureStart - System.nanoTime()));
+			DataStoreMetrics metrics = Neo4JDataStoreManager.getMetrics(Neo4JDataStoreManager.DEFAULT_DATASTORE_NAME);
+			metrics.reset();
+			server.resetCount();
+			long[] gcStart = gcSnapshot();
+			for (Thread thread : threads) thread.join();
+			long[] gcEnd = gcSnapshot();
+
+			this.report(out, server, metrics, gcEnd[0] - gcStart[0], gcEnd[1] - gcStart[1]);
+		}
+	}
+
+	/**
+	 * <p>比率に応じた件数の処理の種類を並べた、無作為に選択するための配列を生成します。</p>
+	 * @return 処理の種類の配列
+	 */
+	protected LoadTransaction[] choices() {
+		List<LoadTransaction> choices = new ArrayList<LoadTransaction>();
+		for (Map.Entry<LoadTransaction, Integer> entry : this.mix.entrySet()) {
+			for (int i=0; i<entry.getValue().intValue(); i++) choices.add(entry.getKey());
+		}
+		return choices.toArray(new LoadTransaction[choices.size()]);
+	}
+
+	/**
+	 * <p>一つのクライアントとして、計測終了まで処理を繰り返し実行します。</p>
+	 * 計測開始前に開始した処理は記録しません。
+	 * @param manager      このクライアントが使用するデータストア管理オブジェクト
+	 * @param choices      処理の種類の配列
+	 * @param measureStart 計測開始時刻（ナノ秒）
+	 * @param measureEnd   計測終了時刻（ナノ秒）
+	 */
+	protected void client(Neo4JDataStoreManager manager, LoadTransaction[] choices, long measureStart, long measureEnd) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long threadId = Thread.currentThread().getId();
+		long begin;
+		while ((begin = System.nanoTime()) < measureEnd) {
+			LoadTransaction transaction = choices[random.nextInt(choices.length)];
+			long allocated = allocatedBytes(threadId);
+			boolean succeeded = execute(manager, transaction);
+			long end = System.nanoTime();
+			if (begin >= measureStart) {
+				long allocation = allocatedBytes(threadId) - allocated;
+				this.statistics.get(transaction).record(end - begin, allocation, succeeded);
+				this.total.record(end - begin, allocation, succeeded);
+			}
+			if (this.thinkTime > 0L) {
+				try {
+					Thread.sleep(this.thinkTime);
+				} catch (InterruptedException e) {
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * <p>一つのトランザクション内で指定の種類の処理を実行します。</p>
+	 * 処理に失敗した場合はロールバックした上でトランザクションを終了します。
+	 * @param manager     データストア管理オブジェクト
+	 * @param transaction 処理の種類
+	 * @return 処理が成功した場合true
+	 */
+	protected static boolean execute(Neo4JDataStoreManager manager, LoadTransaction transaction) {
+		try {
+			manager.startTrunsaction();
+			boolean succeeded = false;
+			try {
+				transaction.execute(manager.getDataAccessObject(null));
+				succeeded = true;
+			} finally {
+				if (succeeded) {
+					manager.finishTrunsaction();
+				} else {
+					try {
+						manager.rollback();
+					} finally {
+						manager.finishTrunsaction();
+					}
+				}
+			}
+			return true;
+		} catch (Neo4JDataStoreManagerException | Neo4JDataStoreManagerCypherException | RuntimeException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * <p>計測結果を出力します。</p>
+	 * @param out      出力先
+	 * @param server   サーバ
+	 * @param metrics  デフォルトのデータストアのメトリクス
+	 * @param gcCount  計測中のGC回数
+	 * @param gcTime   計測中のGC時間（ミリ秒）
+	 */
+	protected void report(PrintStream out, StubNeo4JServer server, DataStoreMetrics metrics, long gcCount, long gcTime) {
+		out.printf("clients=%d warmup=%ds duration=%ds latency=%d-%dus errorRate=%s rows=%d think=%dms mix=%s%n",
+			this.clients, this.warmup, this.duration, this.minLatency, this.maxLatency, this.errorRate, this.rows, this.thinkTime, this.mix);
+		out.printf("%-12s %9s %7s %10s %9s %9s %9s %9s %9s %9s %12s%n", "TRANSACTION", "COUNT", "ERRORS", "TPS", "MEAN(ms)", "P50(ms)", "P90(ms)", "P99(ms)", "P99.9(ms)", "MAX(ms)", "ALLOC/OP(B)");
+		for (Map.Entry<LoadTransaction, Statistics> entry : this.statistics.entrySet()) {
+			if (this.mix.containsKey(entry.getKey())) this.report(out, entry.getKey().name(), entry.getValue());
+		}
+		this.report(out, "TOTAL", this.total);
+		long operations = Math.max(1L, this.total.latency.getCount());
+		out.printf("server    : requests=%d (%.2f/op) injectedErrors=%d responseBytes=%d (%d/op)%n",
+			server.getRequestCount(), server.getRequestCount() / (double)operations, server.getErrorCount(), server.getResponseBytes(), server.getResponseBytes() / operations);
+		out.printf("datastore : roundTrips=%d (%.2f/op) commits=%d rollbacks=%d%n",
+			metrics.getRoundTripCount(), metrics.getRoundTripCount() / (double)operations, metrics.getCommitCount(), metrics.getRollbackCount());
+		out.printf("gc        : count=%d time=%dms%n", gcCount, gcTime);
+	}
+
+	/**
+	 * <p>一つの処理の種類の計測結果を一行で出力します。</p>
+	 * @param out        出力先
+	 * @param name       処理の種類の名称
+	 * @param statistics 計測結果
+	 */
+	protected void report(PrintStream out, String name, Statistics statistics) {
+		LatencyHistogram latency = statistics.latency;
+		long count = latency.getCount();
+		out.printf("%-12s %9d %7d %10.1f %9.3f %9.3f %9.3f %9.3f %9.3f %9.3f %12d%n", name, count, statistics.errorCount.get(),
+			count / (double)Math.max(1L, this.duration), latency.getMean(), latency.getPercentile(50.0d), latency.getPercentile(90.0d),
+			latency.getPercentile(99.0d), latency.getPercentile(99.9d), latency.getMax(), (count == 0) ? 0L : statistics.allocatedBytes.get() / count);
+	}
+
+	/**
+	 * <p>指定のスレッドがこれまでに割り当てたメモリ量を取得します。</p>
+	 * @param threadId スレッドＩＤ
+	 * @return 割り当てたメモリ量（バイト、取得できない場合0）
+	 */
+	protected static long allocatedBytes(long threadId) {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean)) return 0L;
+		return Math.max(0L, ((com.sun.management.ThreadMXBean)bean).getThreadAllocatedBytes(threadId));
+	}
+
+	/**
+	 * <p>すべてのガベージコレクタの合計の実行回数と実行時間を取得します。</p>
+	 * @return 実行回数と実行時間（ミリ秒）の配列
+	 */
+	protected static long[] gcSnapshot() {
+		long[] snapshot = new long[2];
+		for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			snapshot[0] += Math.max(0L, bean.getCollectionCount());
+			snapshot[1] += Math.max(0L, bean.getCollectionTime());
+		}
+		return snapshot;
+	}
+
+	/**
+	 * <p>Statisticsは、一つの処理の種類の計測結果を保持するクラスです。</p>
+	 * 処理時間はエラーとなった処理も含めて記録します。
+	 */
+	protected static class Statistics {
+
+		/** 処理時間 */
+		protected final LatencyHistogram latency = new LatencyHistogram();
+
+		/** エラーとなった処理の件数 */
+		protected final AtomicLong errorCount = new AtomicLong();
+
+		/** 割り当てたメモリ量の合計（バイト） */
+		protected final AtomicLong allocatedBytes = new AtomicLong();
+
+		/**
+		 * <p>一回の処理の計測結果を記録します。</p>
+		 * @param nanos          処理時間（ナノ秒）
+		 * @param allocatedBytes 割り当てたメモリ量（バイト）
+		 * @param succeeded      処理が成功した場合true
+		 */
+		protected void record(long nanos, long allocatedBytes, boolean succeeded) {
+			this.latency.record(nanos);
+			this.allocatedBytes.addAndGet(allocatedBytes);
+			if (!succeeded) this.errorCount.incrementAndGet();
+		}
+	}
+}
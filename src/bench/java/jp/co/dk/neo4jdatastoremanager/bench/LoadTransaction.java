@@ -0,0 +1,145 @@
+package jp.co.dk.neo4jdatastoremanager.bench;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jp.co.dk.neo4jdatastoremanager.CypherPipeline;
+import jp.co.dk.neo4jdatastoremanager.Neo4JDataStore;
+import jp.co.dk.neo4jdatastoremanager.cypher.Cypher;
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerCypherException;
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerException;
+
+import org.neo4j.graphdb.DynamicLabel;
+import org.neo4j.graphdb.Label;
+
+/**
+ * <p>LoadTransactionは、負荷試験にて一回のトランザクション内で実行する処理の種類を表す列挙型です。</p>
+ * 各処理は{@link StubNeo4JServer}に登録した応答と対応するラベルをCypherに含み、
+ * {@link #respond(StubNeo4JServer, int)}にて処理ごとの応答を登録します。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+public enum LoadTransaction {
+
+	/** 数値の一覧を取得する */
+	READ_VALUES("LoadValue") {
+		@Override
+		protected void execute(Neo4JDataStore dataStore) throws Neo4JDataStoreManagerException, Neo4JDataStoreManagerCypherException {
+			dataStore.selectIntList(new Cypher("MATCH (n:LoadValue) RETURN n.value"));
+		}
+
+		@Override
+		protected String response(String url, int rows) {
+			return StubNeo4JServer.numberResult("n.value", rows);
+		}
+	},
+
+	/** ノードの一覧をラベルとあわせて取得する */
+	READ_NODES("LoadNode") {
+		@Override
+		protected void execute(Neo4JDataStore dataStore) throws Neo4JDataStoreManagerException, Neo4JDataStoreManagerCypherException {
+			dataStore.selectNodeList(new Cypher("MATCH (n:LoadNode) RETURN n"));
+		}
+
+		@Override
+		protected String response(String url, int rows) {
+			return StubNeo4JServer.nodeResult(url, "n", rows);
+		}
+	},
+
+	/** 複数列の検索結果を行ごとに変換して取得する */
+	READ_ROWS("LoadRow") {
+		@Override
+		protected void execute(Neo4JDataStore dataStore) throws Neo4JDataStoreManagerException, Neo4JDataStoreManagerCypherException {
+			dataStore.selectRows(new Cypher("MATCH (n:LoadRow) RETURN n.name, n.age, n.active, n.score"), row -> new Object[]{row.getString(0), row.getInteger(1), row.getBoolean(2), row.getObject(3)});
+		}
+
+		@Override
+		protected String response(String url, int rows) {
+			return StubNeo4JServer.rowResult(rows);
+		}
+	},
+
+	/** ノードを一括で作成する */
+	WRITE_NODES("LoadWrite") {
+		@Override
+		protected void execute(Neo4JDataStore dataStore) throws Neo4JDataStoreManagerException, Neo4JDataStoreManagerCypherException {
+			List<Map<String, Object>> propertiesList = new ArrayList<Map<String, Object>>(WRITE_BATCH_SIZE);
+			for (int i=0; i<WRITE_BATCH_SIZE; i++) {
+				Map<String, Object> properties = new HashMap<String, Object>();
+				properties.put("name", "name" + i);
+				properties.put("age", Integer.valueOf(i));
+				propertiesList.add(properties);
+			}
+			dataStore.createNodes(WRITE_LABEL, propertiesList);
+		}
+
+		@Override
+		protected String response(String url, int rows) {
+			return StubNeo4JServer.numberResult("id(n)", WRITE_BATCH_SIZE);
+		}
+	},
+
+	/** 複数の更新をパイプラインで一回の要求にまとめてコミットする */
+	PIPELINE("LoadPipeline") {
+		@Override
+		protected void execute(Neo4JDataStore dataStore) throws Neo4JDataStoreManagerException, Neo4JDataStoreManagerCypherException {
+			try (CypherPipeline pipeline = dataStore.pipeline()) {
+				for (int i=0; i<PIPELINE_SIZE; i++) pipeline.add(new Cypher("MATCH (n:LoadPipeline) WHERE n.id = ? SET n.count = n.count + 1").setParameter(i));
+				pipeline.commit();
+			}
+		}
+
+		@Override
+		protected String response(String url, int rows) {
+			return StubNeo4JServer.transactionResult(PIPELINE_SIZE);
+		}
+	};
+
+	/** 一括作成するノードの件数 */
+	protected static final int WRITE_BATCH_SIZE = 10;
+
+	/** パイプラインにまとめるCypherの件数 */
+	protected static final int PIPELINE_SIZE = 3;
+
+	/** 一括作成するノードのラベル */
+	protected static final Label WRITE_LABEL = DynamicLabel.label("LoadWrite");
+
+	/** 応答を選択するための、Cypherに含まれる文字列 */
+	protected final String marker;
+
+	private LoadTransaction(String marker) {
+		this.marker = marker;
+	}
+
+	/**
+	 * <p>指定のデータストアにて、この種類の処理を実行します。</p>
+	 * トランザクションの開始、終了は呼び出し元で行います。
+	 * @param dataStore データストア
+	 * @throws Neo4JDataStoreManagerException 処理に失敗した場合
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	protected abstract void execute(Neo4JDataStore dataStore) throws Neo4JDataStoreManagerException, Neo4JDataStoreManagerCypherException;
+
+	/**
+	 * <p>この種類の処理に対する応答を生成します。</p>
+	 * @param url  サーバのURL
+	 * @param rows 検索結果の行数
+	 * @return 応答（JSON）
+	 */
+	protected abstract String response(String url, int rows);
+
+	/**
+	 * <p>すべての種類の処理に対する応答と、ノードの一覧の取得時に実行されるラベルの取得に対する応答をサーバに登録します。</p>
+	 * @param server サーバ
+	 * @param rows   検索結果の行数
+	 */
+	public static void respond(StubNeo4JServer server, int rows) {
+		String url = server.getUrl();
+		for (LoadTransaction transaction : values()) server.respond(transaction.marker, transaction.response(url, rows));
+		server.respond("labels(n)", StubNeo4JServer.labelResult(rows));
+	}
+}
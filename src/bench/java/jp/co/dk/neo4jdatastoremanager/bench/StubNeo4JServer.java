@@ -0,0 +1,329 @@
+package jp.co.dk.neo4jdatastoremanager.bench;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * <p>StubNeo4JServerは、ベンチマーク用にNeo4Jサーバの代わりに固定の応答を返却するHTTPサーバです。</p>
+ * 要求の本文に登録済みの文字列が含まれる場合、その文字列に紐づく応答を返却し、含まれない場合は空の検索結果を返却します。<br/>
+ * 応答の本文は登録時にバイト配列に変換されるため、計測対象にサーバ側の処理時間はほとんど含まれません。<br/>
+ * 負荷試験用に、応答までの待ち時間（{@link #setLatency(long, long)}）と、
+ * 指定の割合の更新要求に対するエラー応答（{@link #setErrorRate(double)}）を設定できます。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+public class StubNeo4JServer implements AutoCloseable {
+
+	/** 登録された応答が存在しない場合の応答 */
+	protected static final byte[] EMPTY_RESULT = "{\"columns\":[],\"data\":[]}".getBytes(StandardCharsets.UTF_8);
+
+	/** エラーを発生させた要求に対する応答 */
+	protected static final byte[] ERROR_RESULT = "{\"message\":\"injected error\",\"exception\":\"StubInjectedException\",\"errors\":[{\"code\":\"Neo.DatabaseError.General.UnknownFailure\",\"message\":\"injected error\"}]}".getBytes(StandardCharsets.UTF_8);
+
+	/** エラー応答の対象とする更新文を判定するパターン */
+	protected static final Pattern WRITE_PATTERN = Pattern.compile("\\b(CREATE|MERGE|SET|DELETE|REMOVE)\\b");
+
+	static {
+		// 小さな応答が遅延ACKの待ち時間（約40ms）に律速されないよう、Nagleアルゴリズムを無効にする
+		if (System.getProperty("sun.net.httpserver.nodelay") == null) System.setProperty("sun.net.httpserver.nodelay", "true");
+	}
+
+	/** 要求の本文に含まれる文字列をキーとした応答 */
+	protected final Map<String, byte[]> responses = new ConcurrentHashMap<String, byte[]>();
+
+	/** HTTPサーバ */
+	protected final HttpServer server;
+
+	/** 要求を処理するスレッドプール */
+	protected final ExecutorService executor;
+
+	/** 応答までの最小待ち時間（マイクロ秒） */
+	protected volatile long minLatency = 0L;
+
+	/** 応答までの最大待ち時間（マイクロ秒） */
+	protected volatile long maxLatency = 0L;
+
+	/** エラー応答を返却する更新要求の割合（0.0～1.0） */
+	protected volatile double errorRate = 0.0d;
+
+	/** 受け付けた要求の件数 */
+	protected final AtomicLong requestCount = new AtomicLong();
+
+	/** エラー応答を返却した要求の件数 */
+	protected final AtomicLong errorCount = new AtomicLong();
+
+	/** 返却した応答の本文の合計バイト数 */
+	protected final AtomicLong responseBytes = new AtomicLong();
+
+	/**
+	 * <p>空いているポートでサーバを起動します。</p>
+	 * @throws IOException サーバの起動に失敗した場合
+	 */
+	public StubNeo4JServer() throws IOException {
+		this(0);
+	}
+
+	/**
+	 * <p>指定のポートでサーバを起動します。</p>
+	 * @param port ポート番号（0の場合、空いているポート）
+	 * @throws IOException サーバの起動に失敗した場合
+	 */
+	public StubNeo4JServer(int port) throws IOException {
+		this.executor = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "stub-neo4j-server");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+		this.server.createContext("/", this::handle);
+		this.server.setExecutor(this.executor);
+		this.server.start();
+	}
+
+	/**
+	 * <p>要求の本文に指定の文字列が含まれる場合に返却する応答を登録します。</p>
+	 * @param marker   要求の本文に含まれる文字列
+	 * @param response 応答（JSON）
+	 * @return 本オブジェクトインスタンス
+	 */
+	public StubNeo4JServer respond(String marker, String response) {
+		this.responses.put(marker, response.getBytes(StandardCharsets.UTF_8));
+		return this;
+	}
+
+	/**
+	 * <p>応答までの待ち時間を設定します。</p>
+	 * 要求ごとに最小値と最大値の間の一様乱数の時間だけ待機してから応答を返却します。
+	 * @param minLatency 最小待ち時間（マイクロ秒）
+	 * @param maxLatency 最大待ち時間（マイクロ秒）
+	 * @return 本オブジェクトインスタンス
+	 */
+	public StubNeo4JServer setLatency(long minLatency, long maxLatency) {
+		if (minLatency < 0 || maxLatency < minLatency) throw new IllegalArgumentException("latency=" + minLatency + "-" + maxLatency);
+		this.minLatency = minLatency;
+		this.maxLatency = maxLatency;
+		return this;
+	}
+
+	/**
+	 * <p>エラー応答を返却する更新要求の割合を設定します。</p>
+	 * エラー応答の対象は本文に更新文（CREATE、MERGE、SET、DELETE、REMOVE）を含む要求のみで、
+	 * 参照のみの要求、接続時のサービス情報の取得、トランザクションのロールバック等は対象外です。
+	 * @param errorRate エラー応答を返却する更新要求の割合（0.0～1.0）
+	 * @return 本オブジェクトインスタンス
+	 */
+	public StubNeo4JServer setErrorRate(double errorRate) {
+		if (errorRate < 0.0d || errorRate > 1.0d) throw new IllegalArgumentException("errorRate=" + errorRate);
+		this.errorRate = errorRate;
+		return this;
+	}
+
+	/**
+	 * <p>受け付けた要求の件数を取得します。</p>
+	 * @return 要求の件数
+	 */
+	public long getRequestCount() {
+		return this.requestCount.get();
+	}
+
+	/**
+	 * <p>エラー応答を返却した要求の件数を取得します。</p>
+	 * @return エラー応答の件数
+	 */
+	public long getErrorCount() {
+		return this.errorCount.get();
+	}
+
+	/**
+	 * <p>返却した応答の本文の合計バイト数を取得します。</p>
+	 * @return 合計バイト数
+	 */
+	public long getResponseBytes() {
+		return this.responseBytes.get();
+	}
+
+	/**
+	 * <p>要求の件数、エラー応答の件数、応答の合計バイト数を初期化します。</p>
+	 */
+	public void resetCount() {
+		this.requestCount.set(0L);
+		this.errorCount.set(0L);
+		this.responseBytes.set(0L);
+	}
+
+	/**
+	 * <p>このサーバに接続するためのURLを取得します。</p>
+	 * @return URL
+	 */
+	public String getUrl() {
+		return "http://localhost:" + this.server.getAddress().getPort() + "/db/data";
+	}
+
+	/**
+	 * <p>要求を読み込み、登録された応答を返却します。</p>
+	 * @param exchange 要求と応答
+	 * @throws IOException 要求の読込、応答の書込に失敗した場合
+	 */
+	protected void handle(HttpExchange exchange) throws IOException {
+		try {
+			this.requestCount.incrementAndGet();
+			String body = read(exchange.getRequestBody());
+			byte[] response = EMPTY_RESULT;
+			int status = 200;
+			if (this.errorRate > 0.0d && WRITE_PATTERN.matcher(body).find() && ThreadLocalRandom.current().nextDouble() < this.errorRate) {
+				this.errorCount.incrementAndGet();
+				response = ERROR_RESULT;
+				status = 500;
+			} else {
+				for (Map.Entry<String, byte[]> entry : this.responses.entrySet()) {
+					if (body.contains(entry.getKey())) {
+						response = entry.getValue();
+						break;
+					}
+				}
+			}
+			this.delay();
+			this.responseBytes.addAndGet(response.length);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(status, response.length);
+			try (OutputStream output = exchange.getResponseBody()) {
+				output.write(response);
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * <p>設定された待ち時間の範囲で待機します。</p>
+	 */
+	protected void delay() {
+		long min = this.minLatency;
+		long max = this.maxLatency;
+		if (max <= 0L) return;
+		long latency = (min == max) ? min : ThreadLocalRandom.current().nextLong(min, max + 1);
+		try {
+			TimeUnit.MICROSECONDS.sleep(latency);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * <p>指定の入力ストリームをすべて読み込み、文字列として返却します。</p>
+	 * @param input 入力ストリーム
+	 * @return 文字列
+	 * @throws IOException 読込に失敗した場合
+	 */
+	protected static String read(InputStream input) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int length;
+		while ((length = input.read(buffer)) > 0) output.write(buffer, 0, length);
+		return new String(output.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * <p>先頭列に数値を持つ指定の行数の検索結果を生成します。</p>
+	 * @param column 列名
+	 * @param rows   行数
+	 * @return 検索結果（JSON）
+	 */
+	public static String numberResult(String column, int rows) {
+		StringBuilder builder = new StringBuilder(rows * 12);
+		builder.append("{\"columns\":[\"").append(column).append("\"],\"data\":[");
+		for (int i=0; i<rows; i++) {
+			if (i > 0) builder.append(',');
+			builder.append('[').append(i).append(']');
+		}
+		return builder.append("]}").toString();
+	}
+
+	/**
+	 * <p>先頭列にノードを持つ指定の行数の検索結果を生成します。</p>
+	 * ノードＩＤは0から連番で、各ノードはname、age、activeのプロパティを持ちます。
+	 * @param url    サーバのURL
+	 * @param column 列名
+	 * @param rows   行数
+	 * @return 検索結果（JSON）
+	 */
+	public static String nodeResult(String url, String column, int rows) {
+		StringBuilder builder = new StringBuilder(rows * 160);
+		builder.append("{\"columns\":[\"").append(column).append("\"],\"data\":[");
+		for (int i=0; i<rows; i++) {
+			if (i > 0) builder.append(',');
+			builder.append("[{\"self\":\"").append(url).append("/node/").append(i)
+				.append("\",\"data\":{\"name\":\"name").append(i)
+				.append("\",\"age\":").append(i % 100)
+				.append(",\"active\":").append(i % 2 == 0).append("}}]");
+		}
+		return builder.append("]}").toString();
+	}
+
+	/**
+	 * <p>ノードＩＤ、ラベル一覧を持つ指定の行数の検索結果を生成します。</p>
+	 * @param rows 行数
+	 * @return 検索結果（JSON）
+	 */
+	public static String labelResult(int rows) {
+		StringBuilder builder = new StringBuilder(rows * 20);
+		builder.append("{\"columns\":[\"id(n)\",\"labels(n)\"],\"data\":[");
+		for (int i=0; i<rows; i++) {
+			if (i > 0) builder.append(',');
+			builder.append('[').append(i).append(",[\"Person\"]]");
+		}
+		return builder.append("]}").toString();
+	}
+
+	/**
+	 * <p>文字列、数値、真偽値、小数の4列を持つ指定の行数の検索結果を生成します。</p>
+	 * @param rows 行数
+	 * @return 検索結果（JSON）
+	 */
+	public static String rowResult(int rows) {
+		StringBuilder builder = new StringBuilder(rows * 40);
+		builder.append("{\"columns\":[\"name\",\"age\",\"active\",\"score\"],\"data\":[");
+		for (int i=0; i<rows; i++) {
+			if (i > 0) builder.append(',');
+			builder.append("[\"name").append(i % 50).append("\",").append(i % 100).append(',').append(i % 2 == 0).append(',').append(i * 0.5d).append(']');
+		}
+		return builder.append("]}").toString();
+	}
+
+	/**
+	 * <p>トランザクションエンドポイントに対する、指定の件数のCypherの空の検索結果を生成します。</p>
+	 * @param statements Cypherの件数
+	 * @return 検索結果（JSON）
+	 */
+	public static String transactionResult(int statements) {
+		StringBuilder builder = new StringBuilder(32 + statements * 28);
+		builder.append("{\"results\":[");
+		for (int i=0; i<statements; i++) {
+			if (i > 0) builder.append(',');
+			builder.append("{\"columns\":[],\"data\":[]}");
+		}
+		return builder.append("],\"errors\":[]}").toString();
+	}
+
+	@Override
+	public void close() {
+		this.server.stop(0);
+		this.executor.shutdownNow();
+	}
+}
@@ -0,0 +1,92 @@
+package jp.co.dk.neo4jdatastoremanager.cypher;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerCypherException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * <p>CypherBenchmarkは、Cypher本文の変換、パラメータの生成、取得の処理時間を計測するベンチマークです。</p>
+ * 1件の検索ごとに必ず実行される処理であるため、割当量（-prof gc）もあわせて計測します。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CypherBenchmark {
+
+	/** パラメータ数 */
+	@Param({"3", "20"})
+	public int parameters;
+
+	/** Cypher本文 */
+	protected String text;
+
+	/** パラメータ設定済みのCypher */
+	protected Cypher cypher;
+
+	@Setup
+	public void setup() throws Neo4JDataStoreManagerCypherException {
+		StringBuilder builder = new StringBuilder("MATCH (n:Person) WHERE n.name = ?");
+		for (int i=1; i<this.parameters; i++) builder.append(" OR n.key").append(i).append(" = ?");
+		this.text   = builder.append(" RETURN n").toString();
+		this.cypher = this.newCypher();
+	}
+
+	/**
+	 * <p>Cypherを生成し、パラメータ数分のパラメータ（文字列、数値、真偽値）を設定します。</p>
+	 * @return Cypher
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの生成に失敗した場合
+	 */
+	protected Cypher newCypher() throws Neo4JDataStoreManagerCypherException {
+		Cypher cypher = new Cypher(this.text);
+		for (int i=0; i<this.parameters; i++) {
+			switch (i % 3) {
+				case 0:  cypher.setParameter("value" + i); break;
+				case 1:  cypher.setParameter(i);           break;
+				default: cypher.setParameter(true);        break;
+			}
+		}
+		return cypher;
+	}
+
+	@Benchmark
+	public Cypher createParameter() throws Neo4JDataStoreManagerCypherException {
+		return this.newCypher();
+	}
+
+	@Benchmark
+	public String getCypher() {
+		return this.cypher.getCypher();
+	}
+
+	@Benchmark
+	public Map<String, Object> getParameter() {
+		return this.cypher.getParameter();
+	}
+
+	@Benchmark
+	public void createAndBind(Blackhole blackhole) throws Neo4JDataStoreManagerCypherException {
+		Cypher cypher = this.newCypher();
+		blackhole.consume(cypher.getCypher());
+		blackhole.consume(cypher.getParameter());
+	}
+}
@@ -0,0 +1,116 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.graphdb.Label;
+import org.neo4j.rest.graphdb.entity.RestNode;
+
+/**
+ * <p>CachedNodeは、検索結果キャッシュに保持するノードの不変の複製です。</p>
+ * ノードＩＤ、REST経由の場合はノードのURI、取得済みのラベル、プロパティのみを保持し、トランザクションに紐づくオブジェクトは保持しません。<br/>
+ * キャッシュから取得する際は、{@link Transaction#toNode(CachedNode)}にて取得元のトランザクションのノードとして再生成します。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+final class CachedNode {
+
+	/** ノードＩＤ */
+	protected final long id;
+
+	/** ノードのURI（組込みデータベースの場合null） */
+	protected final String uri;
+
+	/** ラベル名一覧（未取得の場合null） */
+	protected final List<String> labels;
+
+	/** プロパティ（未取得の場合null） */
+	protected final Map<String, Object> properties;
+
+	/**
+	 * <p>指定のノードの複製を生成します。</p>
+	 * 複製は生成時点でノードが保持しているラベル、プロパティを基に生成し、以降のノードの変更は反映されません。
+	 * @param node ノード
+	 */
+	CachedNode(Node node) {
+		this.id  = node.id;
+		this.uri = (node.node instanceof RestNode) ? ((RestNode)node.node).getUri() : null;
+		if (node.labels != null) {
+			List<String> labels = new ArrayList<String>(node.labels.size());
+			for (Label label : node.labels) labels.add(label.name());
+			this.labels = Collections.unmodifiableList(labels);
+		} else {
+			this.labels = null;
+		}
+		if (node.properties != null) {
+			Map<String, Object> properties = new HashMap<String, Object>();
+			for (Map.Entry<String, Object> property : node.properties.entrySet()) properties.put(property.getKey(), immutable(property.getValue()));
+			this.properties = Collections.unmodifiableMap(properties);
+		} else {
+			this.properties = null;
+		}
+	}
+
+	/**
+	 * <p>指定のノード一覧の複製を生成します。</p>
+	 * @param nodes ノード一覧
+	 * @return 複製の一覧（変更不可）
+	 */
+	static List<CachedNode> of(List<Node> nodes) {
+		List<CachedNode> cachedNodes = new ArrayList<CachedNode>(nodes.size());
+		for (Node node : nodes) cachedNodes.add((node == null) ? null : new CachedNode(node));
+		return Collections.unmodifiableList(cachedNodes);
+	}
+
+	/**
+	 * <p>保持しているプロパティの変更可能な複製を取得します。</p>
+	 * 一覧、配列のプロパティも複製するため、複製を変更しても保持しているプロパティは変更されません。
+	 * @return プロパティの複製（未取得の場合null）
+	 */
+	Map<String, Object> copyProperties() {
+		if (this.properties == null) return null;
+		Map<String, Object> properties = new HashMap<String, Object>();
+		for (Map.Entry<String, Object> property : this.properties.entrySet()) {
+			Object value = property.getValue();
+			if (value instanceof List) value = new ArrayList<Object>((List<?>)value);
+			properties.put(property.getKey(), copyArray(value));
+		}
+		return properties;
+	}
+
+	/**
+	 * <p>プロパティの値を変更不可の値に変換します。</p>
+	 * 一覧は変更不可の複製に、配列は複製に変換します。
+	 * @param value プロパティの値
+	 * @return 変更不可の値
+	 */
+	protected static Object immutable(Object value) {
+		if (value instanceof List) return Collections.unmodifiableList(new ArrayList<Object>((List<?>)value));
+		return copyArray(value);
+	}
+
+	/**
+	 * <p>値が配列の場合、その複製を返却します。</p>
+	 * @param value 値
+	 * @return 配列の場合は複製、それ以外の場合は指定の値
+	 */
+	protected static Object copyArray(Object value) {
+		if (value == null || !value.getClass().isArray()) return value;
+		int length = Array.getLength(value);
+		Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+		System.arraycopy(value, 0, copy, 0, length);
+		return copy;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("CACHEDNODE ID=[").append(this.id).append("] LABELS=").append(this.labels).append(" PROPERTIES=").append(this.properties);
+		return builder.toString();
+	}
+}
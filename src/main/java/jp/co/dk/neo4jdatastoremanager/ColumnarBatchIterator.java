@@ -0,0 +1,82 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import jp.co.dk.neo4jdatastoremanager.columnar.ColumnarResult;
+import jp.co.dk.neo4jdatastoremanager.columnar.ColumnarResultBuilder;
+import jp.co.dk.neo4jdatastoremanager.columnar.StringDictionary;
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerFatalException;
+
+import org.codehaus.jackson.JsonParser;
+
+import static jp.co.dk.neo4jdatastoremanager.message.Neo4JDataStoreManagerMessage.*;
+
+/**
+ * <p>ColumnarBatchIteratorは、Cypherの応答を指定の行数ごとに列形式の検索結果として読み込むイテレータです。</p>
+ * 文字列の辞書はすべてのバッチで共有されるため、同一の文字列はバッチをまたいで同一の番号となります。<br/>
+ * 読込中に通信、または応答の解析に失敗した場合、実行時例外を送出します。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+class ColumnarBatchIterator implements ResultIterator<ColumnarResult> {
+
+	/** 応答読込オブジェクト */
+	protected CypherResultReader reader;
+
+	/** 列名一覧 */
+	protected List<String> columns;
+
+	/** バッチあたりの行数 */
+	protected int batchSize;
+
+	/** 列ごとの文字列の辞書 */
+	protected StringDictionary[] dictionaries;
+
+	/** 先読みしたバッチ */
+	protected ColumnarResult nextBatch;
+
+	/**
+	 * <p>指定の応答読込オブジェクト、列名一覧、バッチあたりの行数を基にイテレータを生成します。</p>
+	 * @param reader    応答読込オブジェクト
+	 * @param columns   列名一覧
+	 * @param batchSize バッチあたりの行数
+	 */
+	ColumnarBatchIterator(CypherResultReader reader, List<String> columns, int batchSize) {
+		this.reader       = reader;
+		this.columns      = columns;
+		this.batchSize    = batchSize;
+		this.dictionaries = ColumnarResultBuilder.newDictionaries(columns.size());
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (this.nextBatch != null) return true;
+		ColumnarResultBuilder builder = new ColumnarResultBuilder(this.columns, this.batchSize, this.dictionaries);
+		try {
+			JsonParser parser;
+			while (!builder.isFull() && (parser = this.reader.nextFirstColumn()) != null) builder.readRow(parser);
+		} catch (IOException e) {
+			this.close();
+			throw new Neo4JDataStoreManagerFatalException(RESULT_FAILED_TO_READ, String.valueOf(this.reader.getCypher()), e);
+		}
+		if (builder.size() == 0) return false;
+		this.nextBatch = builder.build();
+		return true;
+	}
+
+	@Override
+	public ColumnarResult next() {
+		if (!this.hasNext()) throw new NoSuchElementException();
+		ColumnarResult batch = this.nextBatch;
+		this.nextBatch = null;
+		return batch;
+	}
+
+	@Override
+	public void close() {
+		this.reader.close();
+	}
+}
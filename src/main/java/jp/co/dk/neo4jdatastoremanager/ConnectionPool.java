@@ -0,0 +1,152 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import jp.co.dk.logger.Logger;
+import jp.co.dk.logger.LoggerFactory;
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerException;
+
+import org.neo4j.rest.graphdb.util.Config;
+
+import static jp.co.dk.neo4jdatastoremanager.message.Neo4JDataStoreManagerMessage.*;
+
+/**
+ * <p>ConnectionPoolは、Neo4JデータストアパラメータごとにNeo4Jへの接続を保持するコネクションプールです。</p>
+ * トランザクションはこのプールからコネクションを借用し、トランザクション終了時に返却します。<br/>
+ * 同時に借用できるコネクション数は最大接続数までに制限され、上限に達している場合は取得タイムアウトまで返却を待機します。<br/>
+ * 返却後、アイドルタイムアウトを超えて利用されなかったコネクションはプールから破棄されます。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+class ConnectionPool {
+
+	/** データストアパラメータごとのコネクションプール */
+	protected static final Map<Neo4JDataStoreParameter, ConnectionPool> connectionPools = new ConcurrentHashMap<>();
+
+	/** データストアパラメータ */
+	protected Neo4JDataStoreParameter parameter;
+
+	/** 未使用コネクション一覧 */
+	protected ConcurrentLinkedDeque<PooledConnection> idleConnections = new ConcurrentLinkedDeque<>();
+
+	/** 借用可能なコネクション数 */
+	protected Semaphore permits;
+
+	/** ロガーインスタンス */
+	protected Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	/**
+	 * <p>指定のNeo4Jデータストア接続パラメータに紐づくコネクションプールを取得します。</p>
+	 * コネクションプールが存在しない場合、新たに生成します。
+	 * @param parameter Neo4Jデータストア接続パラメータ
+	 * @return コネクションプール
+	 */
+	static ConnectionPool getConnectionPool(Neo4JDataStoreParameter parameter) {
+		return connectionPools.computeIfAbsent(parameter, ConnectionPool::new);
+	}
+
+	/**
+	 * <p>すべてのコネクションプールを破棄します。</p>
+	 */
+	static void closeAll() {
+		Iterator<ConnectionPool> pools = connectionPools.values().iterator();
+		while (pools.hasNext()) {
+			pools.next().close();
+			pools.remove();
+		}
+	}
+
+	/**
+	 * <p>指定のNeo4Jデータストア接続パラメータを基にコネクションプールを生成します。</p>
+	 * HTTPのキープアライブはJVM全体の設定であるため、システムプロパティが未設定の場合のみ設定します。
+	 * @param parameter Neo4Jデータストア接続パラメータ
+	 */
+	protected ConnectionPool(Neo4JDataStoreParameter parameter) {
+		this.logger.constractor(this.getClass(), parameter);
+		this.parameter = parameter;
+		this.permits   = new Semaphore(parameter.getMaxConnections(), true);
+		if (System.getProperty("http.keepAlive") == null) System.setProperty("http.keepAlive", Boolean.toString(parameter.isKeepAlive()));
+		if (System.getProperty("http.maxConnections") == null) System.setProperty("http.maxConnections", Integer.toString(parameter.getMaxConnections()));
+	}
+
+	/**
+	 * <p>このプールからコネクションを借用します。</p>
+	 * 未使用のコネクションが存在する場合はそれを返却し、存在しない場合は新たに生成します。<br/>
+	 * 最大接続数に達している場合、取得タイムアウトまで待機し、それでも取得できなかった場合は例外を送出します。
+	 * @return コネクション
+	 * @throws Neo4JDataStoreManagerException コネクションの取得がタイムアウトした場合
+	 */
+	PooledConnection acquire() throws Neo4JDataStoreManagerException {
+		try {
+			if (!this.permits.tryAcquire(this.parameter.getAcquireTimeout(), TimeUnit.MILLISECONDS)) {
+				throw new Neo4JDataStoreManagerException(CONNECTION_ACQUIRE_TIMEOUT, this.parameter.toString());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new Neo4JDataStoreManagerException(CONNECTION_ACQUIRE_TIMEOUT, this.parameter.toString(), e);
+		}
+		try {
+			this.evictIdleConnections();
+			PooledConnection connection = this.idleConnections.pollFirst();
+			if (connection == null) connection = new PooledConnection(this.parameter);
+			connection.touch();
+			return connection;
+		} catch (RuntimeException | Error e) {
+			this.permits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * <p>借用したコネクションをこのプールへ返却します。</p>
+	 * @param connection コネクション
+	 */
+	void release(PooledConnection connection) {
+		if (connection == null) return;
+		connection.touch();
+		this.idleConnections.offerFirst(connection);
+		this.permits.release();
+	}
+
+	/**
+	 * <p>アイドルタイムアウトを超えて利用されていないコネクションを破棄します。</p>
+	 * 未使用コネクション一覧は最近返却されたものが先頭になるため、末尾から判定します。<br/>
+	 * 破棄するコネクションのグラフデータベースサービスはシャットダウンします。
+	 * ただし、バッチトランザクションが有効な場合、シャットダウンは全スレッドのバッチトランザクションを破棄するため、プールの破棄時まで行いません。
+	 */
+	void evictIdleConnections() {
+		long now = System.currentTimeMillis();
+		long idleTimeout = this.parameter.getIdleTimeout();
+		boolean shutdown = !Config.useBatchTransactions();
+		Iterator<PooledConnection> connections = this.idleConnections.descendingIterator();
+		while (connections.hasNext()) {
+			PooledConnection connection = connections.next();
+			if (!connection.isIdle(now, idleTimeout)) break;
+			connections.remove();
+			connection.close(shutdown);
+			this.logger.debug("evict idle connection=[" + connection + "]");
+		}
+	}
+
+	/**
+	 * <p>このプールが保持しているすべての未使用コネクションを破棄します。</p>
+	 * 各コネクションのCypher送信用HTTPクライアントを破棄し、グラフデータベースサービスをシャットダウンします。
+	 */
+	void close() {
+		PooledConnection connection;
+		while ((connection = this.idleConnections.pollFirst()) != null) connection.close(true);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("CONNECTIONPOOL PARAMETER=[").append(this.parameter).append("] IDLE=").append(this.idleConnections.size()).append(" AVAILABLE=").append(this.permits.availablePermits());
+		return builder.toString();
+	}
+}
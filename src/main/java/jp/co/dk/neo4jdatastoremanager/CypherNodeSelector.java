@@ -0,0 +1,343 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jp.co.dk.neo4jdatastoremanager.cypher.Cypher;
+
+import org.neo4j.graphdb.DynamicLabel;
+import org.neo4j.graphdb.DynamicRelationshipType;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.RelationshipType;
+
+/**
+ * <p>CypherNodeSelectorは、関連するノードの選択条件をCypherのWHERE句として定義するクラスです。</p>
+ * ラベル、リレーションの種類、プロパティに対する条件を定義でき、REST経由で接続している場合は条件の判定をサーバ側で行います。<br/>
+ * これにより、条件に合致しない関連ノードを取得することなく、合致したノードのみを一回の要求で取得します。<br/>
+ * 任意の判定処理が必要な場合は、従来どおり{@link NodeSelector}を使用してください。
+ *
+ * <pre>
+ * node.getOutGoingNodes(new CypherNodeSelector().relationshipType(FOLLOW).label(USER).equal("status", "active"));
+ * </pre>
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+public class CypherNodeSelector implements NodeSelector {
+
+	/** 起点ノードＩＤのパラメータ名 */
+	protected static final String START_ID = "id";
+
+	/** ラベル一覧 */
+	protected List<String> labels = new ArrayList<String>();
+
+	/** リレーションの種類一覧 */
+	protected List<String> relationshipTypes = new ArrayList<String>();
+
+	/** プロパティに対する条件一覧 */
+	protected List<Condition> conditions = new ArrayList<Condition>();
+
+	/**
+	 * <p>指定のラベルを持つノードを選択の条件に追加します。</p>
+	 * 複数指定した場合、すべてのラベルを持つノードが選択されます。
+	 * @param label ラベル
+	 * @return 本オブジェクトインスタンス
+	 */
+	public CypherNodeSelector label(Label label) {
+		this.labels.add(label.name());
+		return this;
+	}
+
+	/**
+	 * <p>指定の種類のリレーションで関連するノードを選択の条件に追加します。</p>
+	 * 複数指定した場合、いずれかの種類のリレーションで関連するノードが選択されます。
+	 * @param relationshipType リレーションの種類
+	 * @return 本オブジェクトインスタンス
+	 */
+	public CypherNodeSelector relationshipType(RelationshipType relationshipType) {
+		this.relationshipTypes.add(relationshipType.name());
+		return this;
+	}
+
+	/**
+	 * <p>指定のプロパティを持つノードを選択の条件に追加します。</p>
+	 * @param key プロパティキー
+	 * @return 本オブジェクトインスタンス
+	 */
+	public CypherNodeSelector hasProperty(String key) {
+		this.conditions.add(new Condition(key, Operator.EXISTS, null));
+		return this;
+	}
+
+	/**
+	 * <p>指定のプロパティが指定の値と等しいノードを選択の条件に追加します。</p>
+	 * @param key   プロパティキー
+	 * @param value プロパティ値
+	 * @return 本オブジェクトインスタンス
+	 */
+	public CypherNodeSelector equal(String key, String value) {
+		this.conditions.add(new Condition(key, Operator.EQUAL, value));
+		return this;
+	}
+
+	/**
+	 * <p>指定のプロパティが指定の値と等しいノードを選択の条件に追加します。</p>
+	 * @param key   プロパティキー
+	 * @param value プロパティ値
+	 * @return 本オブジェクトインスタンス
+	 */
+	public CypherNodeSelector equal(String key, int value) {
+		this.conditions.add(new Condition(key, Operator.EQUAL, Integer.valueOf(value)));
+		return this;
+	}
+
+	/**
+	 * <p>指定のプロパティが指定の値と等しいノードを選択の条件に追加します。</p>
+	 * @param key   プロパティキー
+	 * @param value プロパティ値
+	 * @return 本オブジェクトインスタンス
+	 */
+	public CypherNodeSelector equal(String key, boolean value) {
+		this.conditions.add(new Condition(key, Operator.EQUAL, Boolean.valueOf(value)));
+		return this;
+	}
+
+	/**
+	 * <p>指定のプロパティが指定の値と等しくないノードを選択の条件に追加します。</p>
+	 * 指定のプロパティを持たないノードは選択されません。
+	 * @param key   プロパティキー
+	 * @param value プロパティ値
+	 * @return 本オブジェクトインスタンス
+	 */
+	public CypherNodeSelector notEqual(String key, String value) {
+		this.conditions.add(new Condition(key, Operator.NOT_EQUAL, value));
+		return this;
+	}
+
+	/**
+	 * <p>指定のプロパティが指定の値と等しくないノードを選択の条件に追加します。</p>
+	 * 指定のプロパティを持たないノードは選択されません。
+	 * @param key   プロパティキー
+	 * @param value プロパティ値
+	 * @return 本オブジェクトインスタンス
+	 */
+	public CypherNodeSelector notEqual(String key, int value) {
+		this.conditions.add(new Condition(key, Operator.NOT_EQUAL, Integer.valueOf(value)));
+		return this;
+	}
+
+	/**
+	 * <p>指定のプロパティが指定の値と等しくないノードを選択の条件に追加します。</p>
+	 * 指定のプロパティを持たないノードは選択されません。
+	 * @param key   プロパティキー
+	 * @param value プロパティ値
+	 * @return 本オブジェクトインスタンス
+	 */
+	public CypherNodeSelector notEqual(String key, boolean value) {
+		this.conditions.add(new Condition(key, Operator.NOT_EQUAL, Boolean.valueOf(value)));
+		return this;
+	}
+
+	/**
+	 * <p>指定のプロパティが指定の値より大きいノードを選択の条件に追加します。</p>
+	 * @param key   プロパティキー
+	 * @param value プロパティ値
+	 * @return 本オブジェクトインスタンス
+	 */
+	public CypherNodeSelector greaterThan(String key, int value) {
+		this.conditions.add(new Condition(key, Operator.GREATER_THAN, Integer.valueOf(value)));
+		return this;
+	}
+
+	/**
+	 * <p>指定のプロパティが指定の値以上のノードを選択の条件に追加します。</p>
+	 * @param key   プロパティキー
+	 * @param value プロパティ値
+	 * @return 本オブジェクトインスタンス
+	 */
+	public CypherNodeSelector greaterThanOrEqual(String key, int value) {
+		this.conditions.add(new Condition(key, Operator.GREATER_THAN_OR_EQUAL, Integer.valueOf(value)));
+		return this;
+	}
+
+	/**
+	 * <p>指定のプロパティが指定の値より小さいノードを選択の条件に追加します。</p>
+	 * @param key   プロパティキー
+	 * @param value プロパティ値
+	 * @return 本オブジェクトインスタンス
+	 */
+	public CypherNodeSelector lessThan(String key, int value) {
+		this.conditions.add(new Condition(key, Operator.LESS_THAN, Integer.valueOf(value)));
+		return this;
+	}
+
+	/**
+	 * <p>指定のプロパティが指定の値以下のノードを選択の条件に追加します。</p>
+	 * @param key   プロパティキー
+	 * @param value プロパティ値
+	 * @return 本オブジェクトインスタンス
+	 */
+	public CypherNodeSelector lessThanOrEqual(String key, int value) {
+		this.conditions.add(new Condition(key, Operator.LESS_THAN_OR_EQUAL, Integer.valueOf(value)));
+		return this;
+	}
+
+	/**
+	 * <p>指定のリレーションの種類一覧を取得します。</p>
+	 * @return リレーションの種類一覧
+	 */
+	RelationshipType[] getRelationshipTypes() {
+		RelationshipType[] types = new RelationshipType[this.relationshipTypes.size()];
+		for (int i=0; i<types.length; i++) types[i] = DynamicRelationshipType.withName(this.relationshipTypes.get(i));
+		return types;
+	}
+
+	/**
+	 * <p>起点のノードから外向きに関連するノードのうち、この条件に合致するノードを取得するCypher本文を生成します。</p>
+	 * 起点ノードＩＤは"{id}"、条件の値は"{p0}","{p1}"...のパラメータとして参照します。
+	 *
+	 * @param limit 取得件数の上限（上限を設けない場合0）
+	 * @return Cypher本文
+	 */
+	String toQuery(int limit) {
+		StringBuilder query = new StringBuilder(128).append("START a=node({").append(START_ID).append("}) MATCH (a)-[");
+		for (int i=0; i<this.relationshipTypes.size(); i++) query.append((i == 0) ? ":" : "|").append(Cypher.escapeIdentifier(this.relationshipTypes.get(i)));
+		query.append("]->(b)");
+		String delimiter = " WHERE ";
+		for (String label : this.labels) {
+			query.append(delimiter).append("b:").append(Cypher.escapeIdentifier(label));
+			delimiter = " AND ";
+		}
+		for (int i=0; i<this.conditions.size(); i++) {
+			query.append(delimiter);
+			this.conditions.get(i).appendTo(query, "b", "p" + i);
+			delimiter = " AND ";
+		}
+		query.append(" RETURN b");
+		if (limit > 0) query.append(" LIMIT ").append(limit);
+		return query.toString();
+	}
+
+	/**
+	 * <p>{@link #toQuery(int)}にて生成したCypher本文に対するパラメータを生成します。</p>
+	 * @param startId 起点ノードＩＤ
+	 * @return パラメータ
+	 */
+	Map<String, Object> toParameters(long startId) {
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put(START_ID, Long.valueOf(startId));
+		for (int i=0; i<this.conditions.size(); i++) {
+			Condition condition = this.conditions.get(i);
+			if (condition.operator != Operator.EXISTS) params.put("p" + i, condition.value);
+		}
+		return params;
+	}
+
+	/**
+	 * <p>指定のノードがラベル、プロパティに対する条件に合致するかを判定します。</p>
+	 * REST経由で接続していない場合に使用されます。リレーションの種類はこのメソッドでは判定しません。
+	 * @param node Neo4Jノードオブジェクト
+	 * @return 判定結果（true=合致する、false=合致しない）
+	 */
+	@Override
+	public boolean isSelect(org.neo4j.graphdb.Node node) {
+		for (String label : this.labels) if (!node.hasLabel(DynamicLabel.label(label))) return false;
+		for (Condition condition : this.conditions) if (!condition.test(node.getProperty(condition.key, null))) return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("CYPHERNODESELECTOR QUERY=[").append(this.toQuery(0)).append(']');
+		return builder.toString();
+	}
+
+	/**
+	 * <p>プロパティに対する比較演算子です。</p>
+	 */
+	protected enum Operator {
+		EXISTS(null),
+		EQUAL("="),
+		NOT_EQUAL("<>"),
+		GREATER_THAN(">"),
+		GREATER_THAN_OR_EQUAL(">="),
+		LESS_THAN("<"),
+		LESS_THAN_OR_EQUAL("<=");
+
+		/** Cypherでの演算子 */
+		protected final String symbol;
+
+		private Operator(String symbol) {
+			this.symbol = symbol;
+		}
+	}
+
+	/**
+	 * <p>単一のプロパティに対する条件です。</p>
+	 */
+	protected static class Condition {
+
+		/** プロパティキー */
+		protected final String key;
+
+		/** 比較演算子 */
+		protected final Operator operator;
+
+		/** 比較する値 */
+		protected final Object value;
+
+		Condition(String key, Operator operator, Object value) {
+			this.key      = key;
+			this.operator = operator;
+			this.value    = value;
+		}
+
+		/**
+		 * <p>この条件をCypherの条件式として追加します。</p>
+		 * @param query     Cypher本文
+		 * @param variable  ノードの識別子
+		 * @param parameter パラメータ名
+		 */
+		void appendTo(StringBuilder query, String variable, String parameter) {
+			String property = variable + "." + Cypher.escapeIdentifier(this.key);
+			if (this.operator == Operator.EXISTS) {
+				query.append("has(").append(property).append(')');
+			} else {
+				query.append(property).append(' ').append(this.operator.symbol).append(" {").append(parameter).append('}');
+			}
+		}
+
+		/**
+		 * <p>指定のプロパティ値がこの条件に合致するかを判定します。</p>
+		 * Cypherと同様に、プロパティが存在しない場合、型が異なる場合は合致しないものとします。
+		 * @param property プロパティ値
+		 * @return 判定結果（true=合致する、false=合致しない）
+		 */
+		boolean test(Object property) {
+			if (property == null) return false;
+			if (this.operator == Operator.EXISTS) return true;
+			if (this.value == null) return false;
+			if (property instanceof Number && this.value instanceof Number) {
+				int compare = Long.compare(((Number)property).longValue(), ((Number)this.value).longValue());
+				switch (this.operator) {
+					case EQUAL                : return compare == 0;
+					case NOT_EQUAL            : return compare != 0;
+					case GREATER_THAN         : return compare >  0;
+					case GREATER_THAN_OR_EQUAL: return compare >= 0;
+					case LESS_THAN            : return compare <  0;
+					case LESS_THAN_OR_EQUAL   : return compare <= 0;
+					default                   : return false;
+				}
+			}
+			if (!property.getClass().equals(this.value.getClass())) return false;
+			switch (this.operator) {
+				case EQUAL    : return property.equals(this.value);
+				case NOT_EQUAL: return !property.equals(this.value);
+				default       : return false;
+			}
+		}
+	}
+}
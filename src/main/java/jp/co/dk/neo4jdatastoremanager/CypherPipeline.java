@@ -0,0 +1,217 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import jp.co.dk.logger.Logger;
+import jp.co.dk.logger.LoggerFactory;
+import jp.co.dk.neo4jdatastoremanager.cypher.Cypher;
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerCypherException;
+
+import static jp.co.dk.neo4jdatastoremanager.message.Neo4JDataStoreManagerMessage.*;
+
+/**
+ * <p>CypherPipelineは、複数のCypherをまとめてNeo4Jのトランザクションエンドポイントへ送信するクラスです。</p>
+ * {@link #add(Cypher)}にて追加されたCypherは送信されずに保持され、{@link #execute()}または{@link #commit()}の実行時に一回の要求で送信されます。<br/>
+ * 最初の送信時にサーバ側でトランザクションが開始され、以降の送信は同一のトランザクション内で実行されます。
+ * {@link #commit()}は保持しているCypherの送信とコミットを一回の要求で行います。<br/>
+ * コミット、ロールバックされずにクローズされた場合、トランザクションはロールバックされます。
+ *
+ * <pre>
+ * try (CypherPipeline pipeline = dataStore.pipeline()) {
+ *     pipeline.add(cypher1).add(cypher2);
+ *     List&lt;StatementResult&gt; results = pipeline.execute();
+ *     pipeline.add(cypher3);
+ *     pipeline.commit();
+ * }
+ * </pre>
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+public class CypherPipeline implements Closeable {
+
+	/** トランザクションエンドポイントのパス */
+	protected static final String TRANSACTION_PATH = "/transaction";
+
+	/** Cypher送信用HTTPクライアント */
+	protected CypherRestClient client;
+
+	/** 送信待ちのCypher一覧 */
+	protected List<Cypher> statements = new ArrayList<Cypher>();
+
+	/** サーバ側トランザクションのURL（未開始の場合null） */
+	protected String transactionUri;
+
+	/** 更新を伴うCypherの送信時に通知する処理（通知しない場合null） */
+	protected Runnable writeListener;
+	
+	/** 終了有無 */
+	protected boolean isFinished = false;
+
+	/** ロガーインスタンス */
+	protected Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	/**
+	 * <p>指定のHTTPクライアントを使用するパイプラインを生成します。</p>
+	 * @param client        Cypher送信用HTTPクライアント
+	 * @param writeListener 更新を伴うCypherの送信時に通知する処理（通知しない場合null）
+	 */
+	CypherPipeline(CypherRestClient client, Runnable writeListener) {
+		this.client        = client;
+		this.writeListener = writeListener;
+	}
+
+	/**
+	 * <p>指定のCypherを送信待ちとして追加します。</p>
+	 * @param cypher 実行対象のCypher
+	 * @return 本オブジェクトインスタンス
+	 * @throws Neo4JDataStoreManagerCypherException Cypherが設定されていない場合、パイプラインが既に終了している場合
+	 */
+	public CypherPipeline add(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
+		if (cypher == null) throw new Neo4JDataStoreManagerCypherException(CYPHER_IS_NOT_SET);
+		if (this.isFinished) throw new Neo4JDataStoreManagerCypherException(PIPELINE_IS_FINISHED);
+		this.statements.add(cypher);
+		return this;
+	}
+
+	/**
+	 * <p>送信待ちのCypherの件数を取得します。</p>
+	 * @return 送信待ちのCypherの件数
+	 */
+	public int size() {
+		return this.statements.size();
+	}
+
+	/**
+	 * <p>送信待ちのCypherを一回の要求で送信し、Cypherごとの検索結果を返却します。</p>
+	 * 検索結果の順序は、Cypherを追加した順序と一致します。トランザクションはコミットされません。
+	 * @return Cypherごとの検索結果
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合、パイプラインが既に終了している場合
+	 */
+	public List<StatementResult> execute() throws Neo4JDataStoreManagerCypherException {
+		if (this.isFinished) throw new Neo4JDataStoreManagerCypherException(PIPELINE_IS_FINISHED);
+		if (this.statements.isEmpty()) return new ArrayList<StatementResult>(0);
+		return this.send((this.transactionUri == null) ? TRANSACTION_PATH : this.transactionUri, false);
+	}
+
+	/**
+	 * <p>送信待ちのCypherの送信と、トランザクションのコミットを一回の要求で行い、Cypherごとの検索結果を返却します。</p>
+	 * 送信待ちのCypherが存在せず、トランザクションも開始されていない場合、要求は行われません。
+	 * @return Cypherごとの検索結果
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行、またはコミットに失敗した場合、パイプラインが既に終了している場合
+	 */
+	public List<StatementResult> commit() throws Neo4JDataStoreManagerCypherException {
+		if (this.isFinished) throw new Neo4JDataStoreManagerCypherException(PIPELINE_IS_FINISHED);
+		if (this.statements.isEmpty() && this.transactionUri == null) {
+			this.isFinished = true;
+			return new ArrayList<StatementResult>(0);
+		}
+		String path = (this.transactionUri == null) ? TRANSACTION_PATH + "/commit" : this.transactionUri + "/commit";
+		return this.send(path, true);
+	}
+
+	/**
+	 * <p>トランザクションをロールバックし、送信待ちのCypherを破棄します。</p>
+	 * パイプラインが既に終了している場合は何もしません。<br/>
+	 * 送信済みのCypherが存在した場合、ロールバック後に更新時の通知を行います。
+	 * @throws Neo4JDataStoreManagerCypherException ロールバックに失敗した場合
+	 */
+	public void rollback() throws Neo4JDataStoreManagerCypherException {
+		if (this.isFinished) return;
+		this.isFinished = true;
+		this.statements.clear();
+		if (this.transactionUri == null) return;
+		try {
+			this.client.delete(this.transactionUri);
+		} finally {
+			if (this.writeListener != null) this.writeListener.run();
+		}
+	}
+
+	/**
+	 * <p>このパイプラインが終了しているかを判定します。</p>
+	 * @return 判定結果（true=終了している、false=終了していない）
+	 */
+	public boolean isFinished() {
+		return this.isFinished;
+	}
+
+	/**
+	 * <p>このパイプラインをクローズします。</p>
+	 * コミット、ロールバックされていない場合、トランザクションをロールバックします。
+	 */
+	@Override
+	public void close() {
+		try {
+			this.rollback();
+		} catch (Neo4JDataStoreManagerCypherException e) {
+			this.logger.warn(e);
+		}
+	}
+
+	/**
+	 * <p>送信待ちのCypherを指定のパスへ送信し、応答を検索結果に変換します。</p>
+	 * サーバがエラーを返却した場合、サーバ側のトランザクションはロールバックされているため、このパイプラインは終了します。
+	 * @param path     送信先のパス、または絶対URL
+	 * @param isCommit コミットを伴う送信であるか
+	 * @return Cypherごとの検索結果
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	@SuppressWarnings("unchecked")
+	protected List<StatementResult> send(String path, boolean isCommit) throws Neo4JDataStoreManagerCypherException {
+		List<Cypher> sending = this.statements;
+		this.statements = new ArrayList<Cypher>();
+		boolean isWrite = false;
+		if (this.writeListener != null) {
+			for (Cypher cypher : sending) isWrite |= ResultCache.isWrite(cypher);
+		}
+		if (isWrite) this.writeListener.run();
+		Map<String, Object> response;
+		try (InputStream stream = this.client.transaction(path, sending)) {
+			response = CypherRestClient.OBJECT_MAPPER.readValue(stream, Map.class);
+		} catch (IOException e) {
+			this.isFinished = true;
+			throw new Neo4JDataStoreManagerCypherException(RESULT_FAILED_TO_READ, String.valueOf(sending), e);
+		} catch (Neo4JDataStoreManagerCypherException e) {
+			this.isFinished = true;
+			throw e;
+		} finally {
+			if (isWrite) this.writeListener.run();
+		}
+		List<Object> errors = (List<Object>)response.get("errors");
+		if (errors != null && !errors.isEmpty()) {
+			this.isFinished = true;
+			throw new Neo4JDataStoreManagerCypherException(CYPHER_FAILED_TO_EXECUTE, sending + " ERRORS=" + errors);
+		}
+		if (isCommit) {
+			this.isFinished = true;
+		} else if (this.transactionUri == null) {
+			String commitUri = (String)response.get("commit");
+			if (commitUri != null && commitUri.endsWith("/commit")) this.transactionUri = commitUri.substring(0, commitUri.length() - "/commit".length());
+		}
+		List<Object> results = (List<Object>)response.get("results");
+		List<StatementResult> statementResults = new ArrayList<StatementResult>(sending.size());
+		for (int i=0; i<sending.size(); i++) {
+			Map<String, Object> result = (results != null && i < results.size()) ? (Map<String, Object>)results.get(i) : null;
+			List<String> columns = (result == null) ? new ArrayList<String>(0) : (List<String>)result.get("columns");
+			List<List<Object>> rows = new ArrayList<List<Object>>();
+			if (result != null && result.get("data") != null) {
+				for (Object data : (List<Object>)result.get("data")) rows.add((List<Object>)((Map<String, Object>)data).get("row"));
+			}
+			statementResults.add(new StatementResult(sending.get(i), columns, rows));
+		}
+		return statementResults;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("CYPHERPIPELINE TRANSACTION=[").append(this.transactionUri).append("] STATEMENTS=").append(this.statements.size()).append(" FINISHED=").append(this.isFinished);
+		return builder.toString();
+	}
+}
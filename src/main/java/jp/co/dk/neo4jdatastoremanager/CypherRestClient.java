@@ -0,0 +1,232 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import javax.ws.rs.core.MediaType;
+
+import jp.co.dk.neo4jdatastoremanager.cypher.Cypher;
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerCypherException;
+import jp.co.dk.neo4jdatastoremanager.metrics.DataStoreMetrics;
+
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.neo4j.rest.graphdb.util.Config;
+
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.HTTPBasicAuthFilter;
+
+import static jp.co.dk.neo4jdatastoremanager.message.Neo4JDataStoreManagerMessage.*;
+
+/**
+ * <p>CypherRestClientは、Neo4JのREST APIに対してCypherを直接送信するHTTPクライアントです。</p>
+ * neo4j-rest-graphdbのクエリエンジンは応答をすべて読み込んでから結果を返却するため、
+ * 応答を逐次読み込む必要がある場合はこのクラスを使用します。<br/>
+ * HTTPクライアントはスレッドセーフであり、コネクションプールのコネクション単位で保持されます。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+class CypherRestClient {
+
+	/** JSON変換オブジェクト */
+	protected static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	/** NEO4Jサーバアドレス */
+	protected String serverUri;
+
+	/** HTTPクライアント */
+	protected Client client;
+
+	/** 要求回数を記録する統計情報（記録しない場合null） */
+	protected volatile DataStoreMetrics metrics;
+
+	/**
+	 * <p>指定のNeo4Jデータストア接続パラメータを基にHTTPクライアントを生成します。</p>
+	 * @param parameter Neo4Jデータストア接続パラメータ
+	 */
+	CypherRestClient(Neo4JDataStoreParameter parameter) {
+		String server = parameter.getNeo4jServer();
+		this.serverUri = server.endsWith("/") ? server.substring(0, server.length() - 1) : server;
+		this.client    = Client.create();
+		this.client.setConnectTimeout(Integer.valueOf(Config.getConnectTimeout()));
+		this.client.setReadTimeout(Integer.valueOf(Config.getReadTimeout()));
+		if (parameter.isAuthSet()) this.client.addFilter(new HTTPBasicAuthFilter(parameter.getNeo4jUser(), parameter.getNeo4jPassword()));
+	}
+
+	/**
+	 * <p>要求回数を記録する統計情報を設定します。</p>
+	 * コネクションを借用しているトランザクションのデータストアの統計情報を設定してください。
+	 * @param metrics 統計情報（記録しない場合null）
+	 */
+	void setMetrics(DataStoreMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * <p>指定のCypherをCypherエンドポイントへ送信し、応答のストリームを返却します。</p>
+	 * 返却されたストリームは呼び出し元でクローズする必要があります。
+	 *
+	 * @param cypher 実行対象のCypher
+	 * @return 応答のストリーム
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	InputStream query(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
+		String query = cypher.getCypher();
+		ByteArrayOutputStream body = new ByteArrayOutputStream(query.length() + 32 + cypher.getParameterSize() * 16);
+		try (JsonGenerator generator = OBJECT_MAPPER.getJsonFactory().createJsonGenerator(body)) {
+			generator.writeStartObject();
+			generator.writeStringField("query", query);
+			writeParameter(generator, "params", cypher);
+			generator.writeEndObject();
+		} catch (IOException e) {
+			throw new Neo4JDataStoreManagerCypherException(CYPHER_FAILED_TO_EXECUTE, String.valueOf(cypher), e);
+		}
+		return this.post("/cypher", body.toByteArray(), cypher);
+	}
+	
+	/**
+	 * <p>指定の複数のCypherをトランザクションエンドポイントへ一回の要求で送信し、応答のストリームを返却します。</p>
+	 * 返却されたストリームは呼び出し元でクローズする必要があります。
+	 *
+	 * @param path       トランザクションエンドポイントのパス、または絶対URL
+	 * @param statements 実行対象のCypher一覧
+	 * @return 応答のストリーム
+	 * @throws Neo4JDataStoreManagerCypherException 送信に失敗した場合
+	 */
+	InputStream transaction(String path, List<Cypher> statements) throws Neo4JDataStoreManagerCypherException {
+		ByteArrayOutputStream body = new ByteArrayOutputStream(64 + statements.size() * 128);
+		try (JsonGenerator generator = OBJECT_MAPPER.getJsonFactory().createJsonGenerator(body)) {
+			generator.writeStartObject();
+			generator.writeArrayFieldStart("statements");
+			for (Cypher cypher : statements) {
+				generator.writeStartObject();
+				generator.writeStringField("statement", cypher.getCypher());
+				writeParameter(generator, "parameters", cypher);
+				generator.writeEndObject();
+			}
+			generator.writeEndArray();
+			generator.writeEndObject();
+		} catch (IOException e) {
+			throw new Neo4JDataStoreManagerCypherException(CYPHER_FAILED_TO_EXECUTE, String.valueOf(statements), e);
+		}
+		return this.post(path, body.toByteArray(), statements);
+	}
+	
+	/**
+	 * <p>指定のCypherのパラメータを、指定のフィールド名のJSONオブジェクトとして書き込みます。</p>
+	 * パラメータのマップは生成せず、Cypherが保持するパラメータを順に書き込みます。
+	 *
+	 * @param generator JSON出力先
+	 * @param fieldName フィールド名
+	 * @param cypher    Cypher
+	 * @throws IOException 書込に失敗した場合
+	 */
+	protected static void writeParameter(JsonGenerator generator, String fieldName, Cypher cypher) throws IOException {
+		generator.writeObjectFieldStart(fieldName);
+		int size = cypher.getParameterSize();
+		for (int i=0; i<size; i++) {
+			generator.writeFieldName(cypher.getParameterKey(i));
+			generator.writeObject(cypher.getParameterValue(i));
+		}
+		generator.writeEndObject();
+	}
+	
+	/**
+	 * <p>指定のパスへ削除要求を送信します。</p>
+	 * トランザクションエンドポイントのトランザクションをロールバックする際に使用します。
+	 *
+	 * @param path サーバアドレスからの相対パス、または絶対URL
+	 * @throws Neo4JDataStoreManagerCypherException 送信に失敗した場合
+	 */
+	void delete(String path) throws Neo4JDataStoreManagerCypherException {
+		String uri = path.startsWith("http") ? path : this.serverUri + path;
+		this.recordRoundTrip();
+		ClientResponse response;
+		try {
+			response = this.client.resource(uri).accept(MediaType.APPLICATION_JSON_TYPE).delete(ClientResponse.class);
+		} catch (ClientHandlerException e) {
+			throw new Neo4JDataStoreManagerCypherException(CYPHER_FAILED_TO_EXECUTE, "DELETE " + uri, e);
+		}
+		int status = response.getStatus();
+		response.close();
+		if (status >= 400) throw new Neo4JDataStoreManagerCypherException(CYPHER_FAILED_TO_EXECUTE, "DELETE " + uri + " STATUS=" + status);
+	}
+	
+	/**
+	 * <p>指定のパスへJSONを送信し、応答のストリームを返却します。</p>
+	 * 応答のステータスが異常であった場合、応答を読み捨てた上で例外を送出します。
+	 *
+	 * @param path    サーバアドレスからの相対パス、または絶対URL
+	 * @param payload 送信内容
+	 * @param cypher  例外発生時に出力するCypher
+	 * @return 応答のストリーム
+	 * @throws Neo4JDataStoreManagerCypherException 送信に失敗した場合
+	 */
+	InputStream post(String path, Object payload, Object cypher) throws Neo4JDataStoreManagerCypherException {
+		byte[] body;
+		try {
+			body = OBJECT_MAPPER.writeValueAsBytes(payload);
+		} catch (IOException e) {
+			throw new Neo4JDataStoreManagerCypherException(CYPHER_FAILED_TO_EXECUTE, String.valueOf(cypher), e);
+		}
+		return this.post(path, body, cypher);
+	}
+	
+	/**
+	 * <p>指定のパスへJSONに変換済みの送信内容を送信し、応答のストリームを返却します。</p>
+	 * 応答のステータスが異常であった場合、応答を読み捨てた上で例外を送出します。
+	 *
+	 * @param path   サーバアドレスからの相対パス、または絶対URL
+	 * @param body   JSONに変換済みの送信内容
+	 * @param cypher 例外発生時に出力するCypher
+	 * @return 応答のストリーム
+	 * @throws Neo4JDataStoreManagerCypherException 送信に失敗した場合
+	 */
+	protected InputStream post(String path, byte[] body, Object cypher) throws Neo4JDataStoreManagerCypherException {
+		String uri = path.startsWith("http") ? path : this.serverUri + path;
+		this.recordRoundTrip();
+		ClientResponse response;
+		try {
+			response = this.client.resource(uri)
+					.accept(MediaType.APPLICATION_JSON_TYPE)
+					.type(MediaType.APPLICATION_JSON_TYPE)
+					.header("X-Stream", "true")
+					.post(ClientResponse.class, body);
+		} catch (ClientHandlerException e) {
+			throw new Neo4JDataStoreManagerCypherException(CYPHER_FAILED_TO_EXECUTE, String.valueOf(cypher), e);
+		}
+		if (response.getStatus() >= 400) {
+			String responseBody = response.getEntity(String.class);
+			response.close();
+			throw new Neo4JDataStoreManagerCypherException(CYPHER_FAILED_TO_EXECUTE, cypher + " STATUS=" + response.getStatus() + " RESPONSE=" + responseBody);
+		}
+		return response.getEntityInputStream();
+	}
+	
+	/**
+	 * <p>統計情報が設定されている場合、要求回数を記録します。</p>
+	 */
+	protected void recordRoundTrip() {
+		DataStoreMetrics metrics = this.metrics;
+		if (metrics != null) metrics.recordRoundTrip();
+	}
+
+	/**
+	 * <p>このクライアントを破棄します。</p>
+	 */
+	void destroy() {
+		this.client.destroy();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("CYPHERRESTCLIENT SERVER=[").append(this.serverUri).append(']');
+		return builder.toString();
+	}
+}
@@ -0,0 +1,188 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerCypherException;
+import jp.co.dk.neo4jdatastoremanager.metrics.DataStoreMetrics;
+
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.map.ObjectMapper;
+
+import static jp.co.dk.neo4jdatastoremanager.message.Neo4JDataStoreManagerMessage.*;
+
+/**
+ * <p>CypherResultReaderは、Cypherエンドポイントの応答を一行ずつ読み込むクラスです。</p>
+ * 応答全体をメモリ上に展開せず、HTTPの応答ストリームから逐次行を復元するため、
+ * 検索結果の件数に関わらず使用するメモリは一定となります。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+class CypherResultReader implements Closeable {
+
+	/** JSONパーサ生成オブジェクト */
+	protected static final JsonFactory JSON_FACTORY = new JsonFactory(new ObjectMapper());
+
+	/** 応答ストリーム */
+	protected InputStream stream;
+
+	/** JSONパーサ */
+	protected JsonParser parser;
+
+	/** 列名一覧 */
+	protected List<String> columns;
+
+	/** 読込完了有無 */
+	protected boolean isFinished = false;
+
+	/** 実行したCypher（例外出力用） */
+	protected Object cypher;
+
+	/** 読み込んだ行数を記録する統計情報（記録しない場合null） */
+	protected DataStoreMetrics metrics;
+
+	/** 読み込んだ行数（統計情報に未記録のもの） */
+	protected long rowCount = 0;
+
+	/**
+	 * <p>指定の応答ストリームを基に読込オブジェクトを生成します。</p>
+	 * 応答から列名を読み込み、行データの直前まで読み進めます。
+	 *
+	 * @param stream 応答ストリーム
+	 * @param cypher 実行したCypher（例外出力用）
+	 * @throws Neo4JDataStoreManagerCypherException 応答の読込に失敗した場合
+	 */
+	CypherResultReader(InputStream stream, Object cypher) throws Neo4JDataStoreManagerCypherException {
+		this.stream = stream;
+		this.cypher = cypher;
+		try {
+			this.parser = JSON_FACTORY.createJsonParser(stream);
+			if (this.parser.nextToken() != JsonToken.START_OBJECT) throw new IOException("unexpected response");
+			while (this.parser.nextToken() == JsonToken.FIELD_NAME) {
+				String fieldName = this.parser.getCurrentName();
+				JsonToken token  = this.parser.nextToken();
+				if ("columns".equals(fieldName) && token == JsonToken.START_ARRAY) {
+					this.columns = new ArrayList<String>();
+					while (this.parser.nextToken() != JsonToken.END_ARRAY) this.columns.add(this.parser.getText());
+				} else if ("data".equals(fieldName) && token == JsonToken.START_ARRAY) {
+					return;
+				} else {
+					this.parser.skipChildren();
+				}
+			}
+			this.isFinished = true;
+			this.close();
+		} catch (IOException e) {
+			this.close();
+			throw new Neo4JDataStoreManagerCypherException(RESULT_FAILED_TO_READ, String.valueOf(cypher), e);
+		}
+	}
+
+	/**
+	 * <p>応答ストリームを持たない読込オブジェクトを生成します。</p>
+	 * 応答ストリーム以外から行を読み込むサブクラスにて使用します。
+	 *
+	 * @param cypher 実行したCypher（例外出力用）
+	 */
+	protected CypherResultReader(Object cypher) {
+		this.cypher = cypher;
+	}
+
+	/**
+	 * <p>読み込んだ行数を記録する統計情報を設定します。</p>
+	 * 行数はこの読込オブジェクトのクローズ時に記録されます。
+	 * @param metrics 統計情報（記録しない場合null）
+	 * @return この読込オブジェクト
+	 */
+	CypherResultReader withMetrics(DataStoreMetrics metrics) {
+		this.metrics = metrics;
+		return this;
+	}
+
+	/**
+	 * <p>列名一覧を取得します。</p>
+	 * 応答にて列名が行データの後に出力された場合、nullを返却します。
+	 * @return 列名一覧
+	 */
+	List<String> getColumns() {
+		return this.columns;
+	}
+
+	/**
+	 * <p>次の行を読み込みます。</p>
+	 * すべての行を読み込み済みの場合、nullを返却します。
+	 * @return 行データ（列の順序で値を保持した一覧）
+	 * @throws IOException 応答の読込に失敗した場合
+	 */
+	@SuppressWarnings("unchecked")
+	List<Object> nextRow() throws IOException {
+		if (this.isFinished) return null;
+		JsonToken token = this.parser.nextToken();
+		if (token != JsonToken.START_ARRAY) {
+			this.isFinished = true;
+			this.close();
+			return null;
+		}
+		this.rowCount++;
+		return this.parser.readValueAs(List.class);
+	}
+
+	/**
+	 * <p>次の行の先頭列の値まで読み進め、JSONパーサを返却します。</p>
+	 * 行を一覧として復元せずに値を読み込むため、数値等を要素ごとのオブジェクトを生成せずに取得する場合に使用します。<br/>
+	 * 返却したパーサの現在位置は先頭列の値（列が存在しない場合は行の終端）となります。値の読込後は{@link #skipRow()}にて行の終端まで読み進めてください。<br/>
+	 * すべての行を読み込み済みの場合、nullを返却します。
+	 * @return JSONパーサ
+	 * @throws IOException 応答の読込に失敗した場合
+	 */
+	JsonParser nextFirstColumn() throws IOException {
+		if (this.isFinished) return null;
+		JsonToken token = this.parser.nextToken();
+		if (token != JsonToken.START_ARRAY) {
+			this.isFinished = true;
+			this.close();
+			return null;
+		}
+		this.rowCount++;
+		this.parser.nextToken();
+		return this.parser;
+	}
+
+	/**
+	 * <p>{@link #nextFirstColumn()}にて読み進めた行の、残りの列を読み飛ばします。</p>
+	 * @throws IOException 応答の読込に失敗した場合
+	 */
+	void skipRow() throws IOException {
+		if (this.parser.getCurrentToken() == JsonToken.END_ARRAY) return;
+		this.parser.skipChildren();
+		while (this.parser.nextToken() != JsonToken.END_ARRAY) this.parser.skipChildren();
+	}
+
+	/**
+	 * <p>実行したCypherを取得します。</p>
+	 * @return 実行したCypher
+	 */
+	Object getCypher() {
+		return this.cypher;
+	}
+
+	@Override
+	public void close() {
+		if (this.metrics != null && this.rowCount > 0) {
+			this.metrics.recordRows(this.rowCount);
+			this.rowCount = 0;
+		}
+		try {
+			if (this.parser != null) this.parser.close();
+			if (this.stream != null) this.stream.close();
+		} catch (IOException e) {
+			// クローズ時の例外は無視する
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>DaemonExecutorsは、本ライブラリ内部で使用するスレッドプールを生成するクラスです。</p>
+ * 生成されるスレッドプールのスレッドは、一定時間使用されなかった場合に終了するデーモンスレッドであるため、明示的な破棄は不要です。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+class DaemonExecutors {
+
+	/** アイドル状態のスレッドを終了するまでの時間（秒） */
+	protected static final long KEEP_ALIVE_SECONDS = 60L;
+
+	private DaemonExecutors() {
+	}
+
+	/**
+	 * <p>指定のスレッド数を上限とするスレッドプールを生成します。</p>
+	 * スレッド数が上限に達している場合、実行要求はキューに格納され、スレッドが空き次第実行されます。
+	 * @param name    スレッド名の接頭辞
+	 * @param threads 最大スレッド数
+	 * @return スレッドプール
+	 */
+	static ExecutorService newBoundedExecutor(String name, int threads) {
+		AtomicInteger threadNumber = new AtomicInteger();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), runnable -> {
+			Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+}
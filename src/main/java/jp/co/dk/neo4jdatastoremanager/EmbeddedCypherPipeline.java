@@ -0,0 +1,120 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jp.co.dk.neo4jdatastoremanager.cypher.Cypher;
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerCypherException;
+
+import org.neo4j.graphdb.PropertyContainer;
+
+/**
+ * <p>EmbeddedCypherPipelineは、組込みデータベースに対してCypherをまとめて実行するパイプラインです。</p>
+ * 組込みデータベースでは要求の往復が発生しないため、送信待ちのCypherは実行時に生成元のトランザクション内で順次実行されます。<br/>
+ * 生成元のトランザクションと独立してコミットすることはできず、ロールバックした場合は生成元のトランザクションもロールバックされます。
+ * 検索結果のノード、リレーションは、REST経由の場合と同様にプロパティのマップとして返却されます。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+class EmbeddedCypherPipeline extends CypherPipeline {
+
+	/** 組込みデータベース */
+	protected EmbeddedDatabase embeddedDatabase;
+
+	/** 生成元のトランザクション */
+	protected org.neo4j.graphdb.Transaction transaction;
+
+	/** Cypherを実行済みであるか */
+	protected boolean isExecuted = false;
+
+	/**
+	 * <p>指定の組込みデータベース、トランザクションにてCypherを実行するパイプラインを生成します。</p>
+	 * @param embeddedDatabase 組込みデータベース
+	 * @param transaction      生成元のトランザクション
+	 * @param writeListener    更新を伴うCypherの実行時に通知する処理（通知しない場合null）
+	 */
+	EmbeddedCypherPipeline(EmbeddedDatabase embeddedDatabase, org.neo4j.graphdb.Transaction transaction, Runnable writeListener) {
+		super(null, writeListener);
+		this.embeddedDatabase = embeddedDatabase;
+		this.transaction      = transaction;
+	}
+
+	/**
+	 * <p>送信待ちのCypherを破棄し、Cypherを実行済みの場合は生成元のトランザクションをロールバック対象とします。</p>
+	 * パイプラインが既に終了している場合は何もしません。
+	 */
+	@Override
+	public void rollback() throws Neo4JDataStoreManagerCypherException {
+		if (this.isFinished) return;
+		super.rollback();
+		if (!this.isExecuted) return;
+		this.transaction.failure();
+		if (this.writeListener != null) this.writeListener.run();
+	}
+
+	/**
+	 * <p>送信待ちのCypherを生成元のトランザクション内で順次実行し、実行結果を検索結果に変換します。</p>
+	 * Cypherの実行に失敗した場合、生成元のトランザクションをロールバック対象とし、このパイプラインは終了します。
+	 * @param path     使用しません
+	 * @param isCommit コミットを伴う実行であるか
+	 * @return Cypherごとの検索結果
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	@Override
+	protected List<StatementResult> send(String path, boolean isCommit) throws Neo4JDataStoreManagerCypherException {
+		List<Cypher> sending = this.statements;
+		this.statements = new ArrayList<Cypher>();
+		boolean isWrite = false;
+		if (this.writeListener != null) {
+			for (Cypher cypher : sending) isWrite |= ResultCache.isWrite(cypher);
+		}
+		if (isWrite) this.writeListener.run();
+		List<StatementResult> statementResults = new ArrayList<StatementResult>(sending.size());
+		try {
+			for (Cypher cypher : sending) {
+				this.isExecuted = true;
+				try (EmbeddedResultReader reader = this.embeddedDatabase.execute(cypher.getCypher(), cypher.getParameter(), cypher)) {
+					List<List<Object>> rows = new ArrayList<List<Object>>();
+					List<Object> row;
+					while ((row = reader.nextRow()) != null) {
+						for (int i=0; i<row.size(); i++) row.set(i, toRowValue(row.get(i)));
+						rows.add(row);
+					}
+					statementResults.add(new StatementResult(cypher, reader.getColumns(), rows));
+				}
+			}
+		} catch (Neo4JDataStoreManagerCypherException | RuntimeException e) {
+			this.isFinished = true;
+			this.transaction.failure();
+			throw e;
+		} finally {
+			if (isWrite) this.writeListener.run();
+		}
+		if (isCommit) this.isFinished = true;
+		return statementResults;
+	}
+
+	/**
+	 * <p>実行結果の値を、REST経由の検索結果と同様の形式に変換します。</p>
+	 * ノード、リレーションはプロパティのマップに変換します。
+	 * @param value 実行結果の値
+	 * @return 検索結果の値
+	 */
+	protected static Object toRowValue(Object value) {
+		if (value instanceof PropertyContainer) {
+			PropertyContainer container = (PropertyContainer)value;
+			Map<String, Object> properties = new HashMap<String, Object>();
+			for (String key : container.getPropertyKeys()) properties.put(key, container.getProperty(key));
+			return properties;
+		}
+		if (value instanceof Iterable) {
+			List<Object> list = new ArrayList<Object>();
+			for (Object element : (Iterable<?>)value) list.add(toRowValue(element));
+			return list;
+		}
+		return value;
+	}
+}
@@ -0,0 +1,176 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jp.co.dk.logger.Logger;
+import jp.co.dk.logger.LoggerFactory;
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerCypherException;
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerException;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+
+import static jp.co.dk.neo4jdatastoremanager.message.Neo4JDataStoreManagerMessage.*;
+
+/**
+ * <p>EmbeddedDatabaseは、同一プロセス内で起動したNeo4Jデータベースと、そのデータベースに対するCypher実行エンジンを保持するクラスです。</p>
+ * データベースはストアのパスごとにJVM内で一度だけ起動され、{@link #closeAll()}にて停止されます。<br/>
+ * Cypher実行エンジン（neo4j-cypher）はクラスパスに存在する場合のみ使用できるため、最初のCypherの実行時にリフレクションにて生成します。
+ * Cypher実行エンジンが存在しない場合でも、ノードの作成、取得、リレーションの操作は実行できます。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+class EmbeddedDatabase {
+
+	/** Cypher実行エンジンのクラス名 */
+	protected static final String EXECUTION_ENGINE_CLASS = "org.neo4j.cypher.javacompat.ExecutionEngine";
+
+	/** ストアのパスごとの組込みデータベース */
+	protected static final Map<String, EmbeddedDatabase> embeddedDatabases = new ConcurrentHashMap<>();
+
+	/** ストアのパス */
+	protected String path;
+
+	/** グラフデータベースサービス */
+	protected GraphDatabaseService graphDatabaseService;
+
+	/** Cypher実行エンジン（未生成の場合null） */
+	protected volatile Object executionEngine;
+
+	/** Cypher実行エンジンの実行メソッド */
+	protected Method executeMethod;
+
+	/** 実行結果の列名取得メソッド */
+	protected Method columnsMethod;
+
+	/** ロガーインスタンス */
+	protected Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	/**
+	 * <p>指定のストアのパスに紐づく組込みデータベースを取得します。</p>
+	 * 組込みデータベースが起動していない場合、新たに起動します。
+	 * @param path ストアのパス
+	 * @return 組込みデータベース
+	 * @throws Neo4JDataStoreManagerException データベースの起動に失敗した場合
+	 */
+	static EmbeddedDatabase getEmbeddedDatabase(String path) throws Neo4JDataStoreManagerException {
+		EmbeddedDatabase database = embeddedDatabases.get(path);
+		if (database != null) return database;
+		synchronized (embeddedDatabases) {
+			database = embeddedDatabases.get(path);
+			if (database == null) {
+				database = new EmbeddedDatabase(path);
+				embeddedDatabases.put(path, database);
+			}
+			return database;
+		}
+	}
+
+	/**
+	 * <p>すべての組込みデータベースを停止します。</p>
+	 */
+	static void closeAll() {
+		synchronized (embeddedDatabases) {
+			Iterator<EmbeddedDatabase> databases = embeddedDatabases.values().iterator();
+			while (databases.hasNext()) {
+				databases.next().close();
+				databases.remove();
+			}
+		}
+	}
+
+	/**
+	 * <p>指定のストアのパスでデータベースを起動します。</p>
+	 * @param path ストアのパス
+	 * @throws Neo4JDataStoreManagerException データベースの起動に失敗した場合
+	 */
+	protected EmbeddedDatabase(String path) throws Neo4JDataStoreManagerException {
+		this.logger.constractor(this.getClass(), path);
+		this.path = path;
+		try {
+			this.graphDatabaseService = new GraphDatabaseFactory().newEmbeddedDatabase(path);
+		} catch (RuntimeException e) {
+			throw new Neo4JDataStoreManagerException(EMBEDDED_DATABASE_FAILED_TO_START, path, e);
+		}
+	}
+
+	/**
+	 * <p>グラフデータベースサービスを取得します。</p>
+	 * @return グラフデータベースサービス
+	 */
+	GraphDatabaseService getGraphDatabaseService() {
+		return this.graphDatabaseService;
+	}
+
+	/**
+	 * <p>指定のCypher本文とパラメータを実行し、実行結果を一行ずつ読み込むリーダを返却します。</p>
+	 * 実行を開始したスレッドでトランザクションが開始されている場合、そのトランザクション内で実行されます。
+	 *
+	 * @param query  Cypher本文
+	 * @param params パラメータ（パラメータなしの場合null）
+	 * @param cypher 実行したCypher（例外出力用）
+	 * @return 実行結果のリーダ
+	 * @throws Neo4JDataStoreManagerCypherException Cypher実行エンジンが存在しない場合、Cypherの実行に失敗した場合
+	 */
+	@SuppressWarnings("unchecked")
+	EmbeddedResultReader execute(String query, Map<String, Object> params, Object cypher) throws Neo4JDataStoreManagerCypherException {
+		Object engine = this.getExecutionEngine();
+		try {
+			Object result = this.executeMethod.invoke(engine, query, (params == null) ? Collections.<String, Object>emptyMap() : params);
+			List<String> columns = (List<String>)this.columnsMethod.invoke(result);
+			return new EmbeddedResultReader(columns, ((Iterable<Map<String, Object>>)result).iterator(), cypher);
+		} catch (InvocationTargetException e) {
+			throw new Neo4JDataStoreManagerCypherException(CYPHER_FAILED_TO_EXECUTE, String.valueOf(cypher), e.getCause());
+		} catch (IllegalAccessException | ClassCastException e) {
+			throw new Neo4JDataStoreManagerCypherException(CYPHER_FAILED_TO_EXECUTE, String.valueOf(cypher), e);
+		}
+	}
+
+	/**
+	 * <p>Cypher実行エンジンを取得します。</p>
+	 * 未生成の場合、リフレクションにて生成します。
+	 * @return Cypher実行エンジン
+	 * @throws Neo4JDataStoreManagerCypherException Cypher実行エンジンがクラスパスに存在しない場合
+	 */
+	protected Object getExecutionEngine() throws Neo4JDataStoreManagerCypherException {
+		Object engine = this.executionEngine;
+		if (engine != null) return engine;
+		synchronized (this) {
+			if (this.executionEngine != null) return this.executionEngine;
+			try {
+				Class<?> engineClass = Class.forName(EXECUTION_ENGINE_CLASS);
+				Constructor<?> constructor = engineClass.getConstructor(GraphDatabaseService.class);
+				Method executeMethod = engineClass.getMethod("execute", String.class, Map.class);
+				this.columnsMethod   = executeMethod.getReturnType().getMethod("columns");
+				this.executeMethod   = executeMethod;
+				this.executionEngine = constructor.newInstance(this.graphDatabaseService);
+				return this.executionEngine;
+			} catch (ReflectiveOperationException | LinkageError e) {
+				throw new Neo4JDataStoreManagerCypherException(CYPHER_ENGINE_IS_NOT_FOUND, EXECUTION_ENGINE_CLASS, e);
+			}
+		}
+	}
+
+	/**
+	 * <p>このデータベースを停止します。</p>
+	 */
+	protected void close() {
+		this.logger.info("embedded database shutdown path=[" + this.path + "]");
+		this.graphDatabaseService.shutdown();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("EMBEDDEDDATABASE PATH=[").append(this.path).append("] CYPHER=[").append(this.executionEngine != null).append(']');
+		return builder.toString();
+	}
+}
@@ -0,0 +1,130 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.node.ArrayNode;
+import org.codehaus.jackson.node.JsonNodeFactory;
+import org.codehaus.jackson.node.ObjectNode;
+import org.codehaus.jackson.node.TreeTraversingParser;
+import org.neo4j.graphdb.PropertyContainer;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.ResourceIterator;
+
+/**
+ * <p>EmbeddedResultReaderは、組込みデータベースにて実行したCypherの実行結果を一行ずつ読み込むクラスです。</p>
+ * 行データはJSONを経由せずに実行結果から直接取得し、ノードの値はNeo4Jノードオブジェクトのまま返却します。<br/>
+ * {@link #nextFirstColumn()}では、REST経由の場合と同一の処理で値を読み込めるよう、行をメモリ上のJSONツリーに変換したパーサを返却します。
+ * ノード、リレーションはREST経由の応答と同様に"self"（"node/ノードＩＤ"）と"data"（プロパティ）を持つオブジェクトとして表現されます。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+class EmbeddedResultReader extends CypherResultReader {
+
+	/** JSONツリー生成オブジェクト */
+	protected static final JsonNodeFactory NODE_FACTORY = JsonNodeFactory.instance;
+
+	/** 実行結果の行のイテレータ */
+	protected Iterator<Map<String, Object>> rows;
+
+	/**
+	 * <p>指定の列名一覧と実行結果の行のイテレータを基に読込オブジェクトを生成します。</p>
+	 *
+	 * @param columns 列名一覧
+	 * @param rows    実行結果の行のイテレータ
+	 * @param cypher  実行したCypher（例外出力用）
+	 */
+	EmbeddedResultReader(List<String> columns, Iterator<Map<String, Object>> rows, Object cypher) {
+		super(cypher);
+		this.columns = columns;
+		this.rows    = rows;
+	}
+
+	@Override
+	List<Object> nextRow() {
+		if (this.isFinished) return null;
+		if (!this.rows.hasNext()) {
+			this.isFinished = true;
+			this.close();
+			return null;
+		}
+		Map<String, Object> row = this.rows.next();
+		this.rowCount++;
+		List<Object> values = new ArrayList<Object>(this.columns.size());
+		for (String column : this.columns) values.add(row.get(column));
+		return values;
+	}
+
+	@Override
+	JsonParser nextFirstColumn() throws IOException {
+		List<Object> row = this.nextRow();
+		if (row == null) return null;
+		ArrayNode tree = NODE_FACTORY.arrayNode();
+		for (Object value : row) tree.add(toJsonNode(value));
+		this.parser = new TreeTraversingParser(tree, JSON_FACTORY.getCodec());
+		this.parser.nextToken();
+		this.parser.nextToken();
+		return this.parser;
+	}
+
+	/**
+	 * <p>実行結果の値をJSONツリーに変換します。</p>
+	 * ノード、リレーションは"self"と"data"を持つオブジェクトに、コレクション、配列は配列に変換します。
+	 * @param value 実行結果の値
+	 * @return JSONツリー
+	 */
+	protected static JsonNode toJsonNode(Object value) {
+		if (value == null)              return NODE_FACTORY.nullNode();
+		if (value instanceof String)    return NODE_FACTORY.textNode((String)value);
+		if (value instanceof Boolean)   return NODE_FACTORY.booleanNode(((Boolean)value).booleanValue());
+		if (value instanceof Integer || value instanceof Short || value instanceof Byte) return NODE_FACTORY.numberNode(((Number)value).intValue());
+		if (value instanceof Long)      return NODE_FACTORY.numberNode(((Long)value).longValue());
+		if (value instanceof Number)    return NODE_FACTORY.numberNode(((Number)value).doubleValue());
+		if (value instanceof org.neo4j.graphdb.Node) return toJsonNode("node/", ((org.neo4j.graphdb.Node)value).getId(), (PropertyContainer)value);
+		if (value instanceof Relationship) return toJsonNode("relationship/", ((Relationship)value).getId(), (PropertyContainer)value);
+		if (value instanceof Map) {
+			ObjectNode object = NODE_FACTORY.objectNode();
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>)value).entrySet()) object.put(String.valueOf(entry.getKey()), toJsonNode(entry.getValue()));
+			return object;
+		}
+		if (value instanceof Iterable) {
+			ArrayNode array = NODE_FACTORY.arrayNode();
+			for (Object element : (Iterable<?>)value) array.add(toJsonNode(element));
+			return array;
+		}
+		if (value.getClass().isArray()) {
+			ArrayNode array = NODE_FACTORY.arrayNode();
+			for (int i=0; i<Array.getLength(value); i++) array.add(toJsonNode(Array.get(value, i)));
+			return array;
+		}
+		return NODE_FACTORY.textNode(value.toString());
+	}
+
+	/**
+	 * <p>ノード、リレーションを"self"と"data"を持つオブジェクトに変換します。</p>
+	 * @param prefix    "self"に設定するＩＤの接頭辞
+	 * @param id        ノードＩＤ、またはリレーションＩＤ
+	 * @param container ノード、またはリレーション
+	 * @return JSONツリー
+	 */
+	protected static JsonNode toJsonNode(String prefix, long id, PropertyContainer container) {
+		ObjectNode object = NODE_FACTORY.objectNode();
+		object.put("self", prefix + id);
+		ObjectNode data = object.putObject("data");
+		for (String key : container.getPropertyKeys()) data.put(key, toJsonNode(container.getProperty(key)));
+		return object;
+	}
+
+	@Override
+	public void close() {
+		super.close();
+		if (this.rows instanceof ResourceIterator) ((ResourceIterator<?>)this.rows).close();
+	}
+}
@@ -1,13 +1,24 @@
 package jp.co.dk.neo4jdatastoremanager;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import jp.co.dk.logger.Logger;
 import jp.co.dk.logger.LoggerFactory;
+import jp.co.dk.neo4jdatastoremanager.columnar.ColumnarResult;
 import jp.co.dk.neo4jdatastoremanager.cypher.Cypher;
 import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerCypherException;
 import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerException;
+import jp.co.dk.neo4jdatastoremanager.metrics.CypherHistory;
+import jp.co.dk.neo4jdatastoremanager.metrics.DataStoreMetrics;
+import jp.co.dk.neo4jdatastoremanager.metrics.QueryType;
+
+import org.neo4j.graphdb.Label;
+import org.neo4j.rest.graphdb.util.Config;
+
 import static jp.co.dk.neo4jdatastoremanager.message.Neo4JDataStoreManagerMessage.*;
 
 /**
@@ -25,12 +36,30 @@ public class Neo4JDataStore {
 	/** トランザクション */
 	protected Transaction transaction;
 	
-	/** Cypherリスト */
-	protected List<Cypher> cypherList = new ArrayList<Cypher>();
+	/** Cypher履歴（保持しない場合null） */
+	protected CypherHistory cypherHistory;
+	
+	/** スロークエリ履歴（保持しない場合null） */
+	protected CypherHistory slowQueryHistory;
 	
 	/** 発生例外一覧 */
 	protected List<Neo4JDataStoreManagerException> exceptionList = new ArrayList<>();
 	
+	/** 検索結果キャッシュ（キャッシュしない場合null） */
+	protected ResultCache resultCache;
+	
+	/** 現在のトランザクションにて更新を行ったか（更新後は検索結果キャッシュを使用しない） */
+	protected boolean isDirty = false;
+	
+	/** 現在のトランザクションをコミットしたか */
+	protected boolean isCommitted = false;
+	
+	/** 現在のトランザクションをロールバックしたか */
+	protected boolean isRolledBack = false;
+	
+	/** 統計情報 */
+	protected DataStoreMetrics metrics = new DataStoreMetrics();
+	
 	/** ロガーインスタンス */
 	protected Logger logger = LoggerFactory.getLogger(this.getClass());
 	
@@ -42,6 +71,11 @@ public class Neo4JDataStore {
 	public Neo4JDataStore(Neo4JDataStoreParameter dataBaseAccessParameter) {
 		this.logger.constractor(this.getClass(), dataBaseAccessParameter);
 		this.dataBaseAccessParameter = dataBaseAccessParameter;
+		if (dataBaseAccessParameter.getResultCacheSize() > 0) this.resultCache = new ResultCache(dataBaseAccessParameter.getResultCacheSize(), dataBaseAccessParameter.getResultCacheTtl());
+		if (dataBaseAccessParameter.getHistorySize() > 0) {
+			this.cypherHistory = new CypherHistory(dataBaseAccessParameter.getHistorySize());
+			if (dataBaseAccessParameter.getSlowQueryThreshold() > 0) this.slowQueryHistory = new CypherHistory(dataBaseAccessParameter.getHistorySize());
+		}
 	}
 	
 	/**
@@ -50,7 +84,22 @@ public class Neo4JDataStore {
 	 * @throws Neo4JDataStoreManagerException トランザクション開始に失敗した場合
 	 */
 	public void startTransaction() throws Neo4JDataStoreManagerException {
-		this.transaction = new Transaction(this.dataBaseAccessParameter);
+		this.transaction = this.createTransaction();
+		this.isDirty      = false;
+		this.isCommitted  = false;
+		this.isRolledBack = false;
+		this.transaction.setMetrics(this.metrics);
+		this.metrics.recordTransactionStart();
+		if (this.resultCache != null) this.transaction.setWriteListener(this::onWrite);
+	}
+	
+	/**
+	 * <p>本オブジェクトに設定されたパラメータを基にトランザクションを生成します。</p>
+	 * @return トランザクション
+	 * @throws Neo4JDataStoreManagerException トランザクション開始に失敗した場合
+	 */
+	protected Transaction createTransaction() throws Neo4JDataStoreManagerException {
+		return new Transaction(this.dataBaseAccessParameter);
 	}
 	
 	/**
@@ -59,55 +108,595 @@ public class Neo4JDataStore {
 	 * @return 作成したノード
 	 */
 	public Node createNode() {
+		this.onWrite();
 		return this.transaction.createNode();
 	}
 	
+	/**
+	 * <p>ノードを一括で作成する。</p>
+	 * このデータストアに対して指定のラベルとプロパティを持つノードをプロパティ一覧の要素数分作成し、作成したノードのIDを返却します。
+	 * ノードごとに要求を行わず、接続パラメータに設定された件数ごとにまとめて作成します。<br/>
+	 * REST経由で接続している場合、各要求はトランザクションに含まれず、要求ごとに即時コミットされます。
+	 * ロールバックを実施しても作成したノードは削除されず、途中の要求で失敗した場合もそれまでに作成したノードは残ります。
+	 * 
+	 * @param label          ラベル
+	 * @param propertiesList ノードごとのプロパティ一覧（値にはString,Boolean,Integerのみ設定可能）
+	 * @return 作成したノードのID一覧（プロパティ一覧と同じ順序）
+	 * @throws Neo4JDataStoreManagerException プロパティに登録できない値が含まれていた場合、応答の読込に失敗した場合
+	 * @throws Neo4JDataStoreManagerCypherException ノードの作成に失敗した場合
+	 */
+	public List<Long> createNodes(Label label, List<Map<String, Object>> propertiesList) throws Neo4JDataStoreManagerException, Neo4JDataStoreManagerCypherException {
+		long startTime = System.currentTimeMillis();
+		long start     = System.nanoTime();
+		boolean succeeded = false;
+		List<Long> idList = null;
+		try {
+			idList = this.transaction.createNodes(label, propertiesList);
+			succeeded = true;
+			return idList;
+		} finally {
+			this.record(QueryType.CREATE, null, startTime, System.nanoTime() - start, (idList == null) ? 0L : idList.size(), succeeded);
+			this.onWrite();
+		}
+	}
+	
+	/**
+	 * <p>検索結果を取得する。（単一の文字列）</p>
+	 * 検索結果キャッシュが有効な場合、キャッシュに保持している検索結果を返却します。（現在のトランザクションにて更新を行った後は、キャッシュを使用しません）
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 取得した文字列
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
 	public String selectString(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
-		return this.transaction.selectString(cypher);
+		Transaction transaction = this.transaction;
+		if (!this.isCacheable(cypher)) return this.execute(QueryType.VALUE, cypher, () -> transaction.selectString(cypher));
+		return this.resultCache.get("string", cypher, () -> this.execute(QueryType.VALUE, cypher, () -> transaction.selectString(cypher)));
 	}
 	
 	public List<String> selectStringList(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
-		return this.transaction.selectStringList(cypher);
+		this.invalidateResultCache(cypher);
+		return this.execute(QueryType.VALUE_LIST, cypher, () -> this.transaction.selectStringList(cypher));
 	}
 	
+	/**
+	 * <p>検索結果を取得する。（単一の数値）</p>
+	 * 検索結果キャッシュが有効な場合、キャッシュに保持している検索結果を返却します。（現在のトランザクションにて更新を行った後は、キャッシュを使用しません）
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 取得した数値
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
 	public Integer selectInt(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
-		return this.transaction.selectInt(cypher);
+		Transaction transaction = this.transaction;
+		if (!this.isCacheable(cypher)) return this.execute(QueryType.VALUE, cypher, () -> transaction.selectInt(cypher));
+		return this.resultCache.get("int", cypher, () -> this.execute(QueryType.VALUE, cypher, () -> transaction.selectInt(cypher)));
 	}
 	
 	public List<Integer> selectIntList(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
-		return this.transaction.selectIntList(cypher);
+		this.invalidateResultCache(cypher);
+		return this.execute(QueryType.VALUE_LIST, cypher, () -> this.transaction.selectIntList(cypher));
 	}
 	
 	public Boolean selectBoolean(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
-		return this.transaction.selectBoolean(cypher);
+		this.invalidateResultCache(cypher);
+		return this.execute(QueryType.VALUE, cypher, () -> this.transaction.selectBoolean(cypher));
 	}
 	
 	public List<Boolean> selectBooleanList(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
-		return this.transaction.selectBooleanList(cypher);
+		this.invalidateResultCache(cypher);
+		return this.execute(QueryType.VALUE_LIST, cypher, () -> this.transaction.selectBooleanList(cypher));
 	}
 	
 	/**
 	 * <p>検索結果を取得する。（単一）</p>
 	 * 指定のCypherを実行し、単一のノードを取得します。
+	 * 検索結果キャッシュが有効な場合、キャッシュに保持しているノードの複製を基に、現在のトランザクションのノードを生成して返却します。（現在のトランザクションにて更新を行った後は、キャッシュを使用しません）
 	 * 
 	 * @param cypher 実行対象のCypher
 	 * @return 取得したノード
 	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
 	 */
 	public Node selectNode(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
-		return this.transaction.selectNode(cypher);
+		Transaction transaction = this.transaction;
+		if (!this.isCacheable(cypher)) return this.execute(QueryType.NODE, cypher, () -> transaction.selectNode(cypher));
+		return transaction.toNode(this.resultCache.get("node", cypher, () -> {
+			Node node = this.execute(QueryType.NODE, cypher, () -> transaction.selectNode(cypher));
+			return (node == null) ? null : new CachedNode(node);
+		}));
 	}
 	
 	/**
 	 * <p>検索結果を取得する。（複数）</p>
 	 * 指定のCypherを実行し、複数のノードを取得します。
+	 * 検索結果キャッシュが有効な場合、キャッシュに保持しているノードの複製を基に、現在のトランザクションのノードを生成して返却します。（現在のトランザクションにて更新を行った後は、キャッシュを使用しません）
 	 * 
 	 * @param cypher 実行対象のCypher
 	 * @return 取得したノード
 	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
 	 */
 	public List<Node> selectNodeList(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
-		return this.transaction.selectNodeList(cypher);
+		Transaction transaction = this.transaction;
+		if (!this.isCacheable(cypher)) return this.execute(QueryType.NODE_LIST, cypher, () -> transaction.selectNodeList(cypher));
+		List<CachedNode> cachedNodes = this.resultCache.get("nodeList", cypher, () -> CachedNode.of(this.execute(QueryType.NODE_LIST, cypher, () -> transaction.selectNodeList(cypher))));
+		List<Node> nodeList = new ArrayList<Node>(cachedNodes.size());
+		for (CachedNode cachedNode : cachedNodes) nodeList.add(transaction.toNode(cachedNode));
+		return nodeList;
+	}
+	
+	/**
+	 * <p>検索結果を逐次取得する。（文字列）</p>
+	 * 指定のCypherを実行し、検索結果をサーバの応答から一件ずつ読み込むイテレータを返却します。
+	 * 検索結果をすべてメモリ上に保持しないため、件数の多い検索に使用します。使用後は必ずクローズしてください。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 検索結果のイテレータ
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	public ResultIterator<String> selectStringStream(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
+		this.invalidateResultCache(cypher);
+		return this.execute(QueryType.STREAM, cypher, () -> this.transaction.selectStringStream(cypher));
+	}
+	
+	/**
+	 * <p>検索結果を逐次取得する。（数値）</p>
+	 * 指定のCypherを実行し、検索結果をサーバの応答から一件ずつ読み込むイテレータを返却します。
+	 * 検索結果をすべてメモリ上に保持しないため、件数の多い検索に使用します。使用後は必ずクローズしてください。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 検索結果のイテレータ
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	public ResultIterator<Integer> selectIntStream(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
+		this.invalidateResultCache(cypher);
+		return this.execute(QueryType.STREAM, cypher, () -> this.transaction.selectIntStream(cypher));
+	}
+	
+	/**
+	 * <p>検索結果を逐次取得する。（真偽値）</p>
+	 * 指定のCypherを実行し、検索結果をサーバの応答から一件ずつ読み込むイテレータを返却します。
+	 * 検索結果をすべてメモリ上に保持しないため、件数の多い検索に使用します。使用後は必ずクローズしてください。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 検索結果のイテレータ
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	public ResultIterator<Boolean> selectBooleanStream(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
+		this.invalidateResultCache(cypher);
+		return this.execute(QueryType.STREAM, cypher, () -> this.transaction.selectBooleanStream(cypher));
+	}
+	
+	/**
+	 * <p>検索結果を逐次取得する。（ノード）</p>
+	 * 指定のCypherを実行し、検索結果をサーバの応答から一件ずつ読み込むイテレータを返却します。
+	 * 検索結果をすべてメモリ上に保持しないため、件数の多い検索に使用します。使用後は必ずクローズしてください。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 検索結果のイテレータ
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	public ResultIterator<Node> selectNodeStream(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
+		this.invalidateResultCache(cypher);
+		return this.execute(QueryType.STREAM, cypher, () -> this.transaction.selectNodeStream(cypher));
+	}
+	
+	/**
+	 * <p>検索結果を取得する。（ノードＩＤ）</p>
+	 * 指定のCypherを実行し、先頭列のノードＩＤをlongの配列として取得します。
+	 * 先頭列はノードＩＤ（id(n)）、またはノードのいずれも指定可能ですが、ノードＩＤを返却するCypherの方が応答が小さくなります。<br/>
+	 * ノードオブジェクト、要素ごとの数値オブジェクトを生成しないため、大量のノードＩＤを取得する場合に使用します。先頭列がnullの行は含まれません。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return ノードＩＤの配列
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	public long[] selectNodeIds(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
+		this.invalidateResultCache(cypher);
+		return this.execute(QueryType.ARRAY, cypher, () -> this.transaction.selectNodeIds(cypher));
+	}
+	
+	/**
+	 * <p>検索結果を取得する。（数値の配列）</p>
+	 * 指定のCypherを実行し、先頭列の値をlongの配列として取得します。
+	 * 要素ごとの数値オブジェクトを生成しないため、大量の数値を取得する場合に使用します。先頭列がnullの行は含まれません。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 数値の配列
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	public long[] selectLongArray(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
+		this.invalidateResultCache(cypher);
+		return this.execute(QueryType.ARRAY, cypher, () -> this.transaction.selectLongArray(cypher));
+	}
+	
+	/**
+	 * <p>検索結果を取得する。（数値の配列）</p>
+	 * 指定のCypherを実行し、先頭列の値をintの配列として取得します。
+	 * 要素ごとの数値オブジェクトを生成しないため、大量の数値を取得する場合に使用します。先頭列がnullの行は含まれません。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 数値の配列
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	public int[] selectIntArray(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
+		this.invalidateResultCache(cypher);
+		return this.execute(QueryType.ARRAY, cypher, () -> this.transaction.selectIntArray(cypher));
+	}
+	
+	/**
+	 * <p>検索結果を取得する。（数値の配列）</p>
+	 * 指定のCypherを実行し、先頭列の値をdoubleの配列として取得します。
+	 * 要素ごとの数値オブジェクトを生成しないため、大量の数値を取得する場合に使用します。先頭列がnullの行は含まれません。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 数値の配列
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	public double[] selectDoubleArray(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
+		this.invalidateResultCache(cypher);
+		return this.execute(QueryType.ARRAY, cypher, () -> this.transaction.selectDoubleArray(cypher));
+	}
+	
+	/**
+	 * <p>検索結果を取得する。（列形式）</p>
+	 * 指定のCypherを実行し、すべての列を列形式の検索結果として取得します。
+	 * 各列は型ごとの配列（整数、小数、真偽値、文字列の辞書の番号）に格納され、行ごとのオブジェクトを生成しないため、
+	 * 多数の行を集計、分析するCypherに使用します。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 検索結果
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 * @see ColumnarResult
+	 */
+	public ColumnarResult selectColumns(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
+		this.invalidateResultCache(cypher);
+		return this.execute(QueryType.COLUMNS, cypher, () -> this.transaction.selectColumns(cypher));
+	}
+	
+	/**
+	 * <p>検索結果を逐次取得する。（列形式）</p>
+	 * 指定のCypherを実行し、指定の行数ごとに列形式の検索結果として読み込むイテレータを返却します。
+	 * 使用するメモリはバッチあたりの行数に比例するため、件数の多い分析に使用します。使用後は必ずクローズしてください。
+	 * 
+	 * @param cypher    実行対象のCypher
+	 * @param batchSize バッチあたりの行数
+	 * @return 検索結果のイテレータ
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合、バッチあたりの行数が不正な場合
+	 */
+	public ResultIterator<ColumnarResult> selectColumnBatches(Cypher cypher, int batchSize) throws Neo4JDataStoreManagerCypherException {
+		this.invalidateResultCache(cypher);
+		return this.execute(QueryType.COLUMNS, cypher, () -> this.transaction.selectColumnBatches(cypher, batchSize));
+	}
+	
+	/**
+	 * <p>検索結果を取得する。（複数列）</p>
+	 * 指定のCypherを実行し、各行を指定の変換処理で変換した一覧を返却します。
+	 * 一回の検索で複数の列を取得できるため、ノードとそれに関連する値をまとめて取得し、DTO等に変換する場合に使用します。
+	 * 
+	 * @param cypher    実行対象のCypher
+	 * @param rowMapper 行の変換処理
+	 * @return 変換後のオブジェクト一覧
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 * @see RowMapper
+	 */
+	public <T> List<T> selectRows(Cypher cypher, RowMapper<T> rowMapper) throws Neo4JDataStoreManagerCypherException {
+		this.invalidateResultCache(cypher);
+		return this.execute(QueryType.ROWS, cypher, () -> this.transaction.selectRows(cypher, rowMapper));
+	}
+	
+	/**
+	 * <p>検索結果を逐次取得する。（複数列）</p>
+	 * 指定のCypherを実行し、各行を指定の変換処理で変換して一件ずつ読み込むイテレータを返却します。
+	 * 検索結果をすべてメモリ上に保持しないため、件数の多い検索に使用します。使用後は必ずクローズしてください。
+	 * 
+	 * @param cypher    実行対象のCypher
+	 * @param rowMapper 行の変換処理
+	 * @return 検索結果のイテレータ
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	public <T> ResultIterator<T> selectRowStream(Cypher cypher, RowMapper<T> rowMapper) throws Neo4JDataStoreManagerCypherException {
+		this.invalidateResultCache(cypher);
+		return this.execute(QueryType.ROWS, cypher, () -> this.transaction.selectRowStream(cypher, rowMapper));
+	}
+	
+	/**
+	 * <p>Cypherのパイプラインを生成する。</p>
+	 * パイプラインに追加した複数のCypherは、トランザクションエンドポイントへ一回の要求でまとめて送信されます。
+	 * パイプラインのコミットは最後の送信と同一の要求で行われます。
+	 * コミットされていないパイプラインは、このデータストアのコミット、ロールバック、トランザクションのクローズ時にあわせてコミット、ロールバックされます。
+	 * 
+	 * @return パイプライン
+	 * @throws Neo4JDataStoreManagerException トランザクションが開始されていない状態で実行された場合
+	 * @see CypherPipeline
+	 */
+	public CypherPipeline pipeline() throws Neo4JDataStoreManagerException {
+		if (this.transaction == null) throw new Neo4JDataStoreManagerException(TRANSACTION_IS_NOT_START);
+		return this.transaction.pipeline();
+	}
+	
+	/**
+	 * <p>検索結果をページ単位で取得する。（ノード）</p>
+	 * 指定のCypherの結果をノードＩＤ順にページ単位で取得するイテレータを返却します。
+	 * Cypherには、RETURN句を含まず、取得対象のノードを"n"として参照するものを指定してください。
+	 * 各ページは前のページの最後のノードＩＤを基に絞り込んで取得するため、ページの位置に関わらず一定の時間で取得されます。
+	 * 
+	 * <pre>
+	 * NodePageIterator pages = dataStore.selectNodePages(new Cypher("MATCH (n:User) WHERE n.active = ?").setParameter(true), 1000);
+	 * </pre>
+	 * 
+	 * @param cypher   実行対象のCypher
+	 * @param pageSize ページあたりの件数
+	 * @return ページのイテレータ
+	 * @throws Neo4JDataStoreManagerCypherException Cypherが設定されていない場合、ページあたりの件数が不正な場合
+	 */
+	public NodePageIterator selectNodePages(Cypher cypher, int pageSize) throws Neo4JDataStoreManagerCypherException {
+		return this.selectNodePages(cypher, pageSize, null, null);
+	}
+	
+	/**
+	 * <p>検索結果をページ単位で取得する。（ノード）</p>
+	 * 指定のカーソルが表す位置から、指定のCypherの結果をノードＩＤ順にページ単位で取得するイテレータを返却します。
+	 * カーソルは{@link NodePageIterator#getCursor()}にて取得したものを指定してください。
+	 * 
+	 * @param cypher   実行対象のCypher
+	 * @param pageSize ページあたりの件数
+	 * @param cursor   再開位置を表すカーソル（先頭から取得する場合null）
+	 * @return ページのイテレータ
+	 * @throws Neo4JDataStoreManagerCypherException Cypherが設定されていない場合、ページあたりの件数、カーソルが不正な場合
+	 */
+	public NodePageIterator selectNodePages(Cypher cypher, int pageSize, String cursor) throws Neo4JDataStoreManagerCypherException {
+		return this.selectNodePages(cypher, pageSize, null, cursor);
+	}
+	
+	/**
+	 * <p>検索結果をページ単位で取得する。（ノード）</p>
+	 * 指定のカーソルが表す位置から、指定のCypherの結果を指定のプロパティ（同値の場合はノードＩＤ）順にページ単位で取得するイテレータを返却します。
+	 * 指定のプロパティを持たないノードは取得されません。
+	 * 
+	 * @param cypher      実行対象のCypher
+	 * @param pageSize    ページあたりの件数
+	 * @param propertyKey 並び替えに使用するプロパティキー（ノードＩＤで並び替える場合null）
+	 * @param cursor      再開位置を表すカーソル（先頭から取得する場合null）
+	 * @return ページのイテレータ
+	 * @throws Neo4JDataStoreManagerCypherException Cypherが設定されていない場合、ページあたりの件数、カーソルが不正な場合
+	 */
+	public NodePageIterator selectNodePages(Cypher cypher, int pageSize, String propertyKey, String cursor) throws Neo4JDataStoreManagerCypherException {
+		this.invalidateResultCache(cypher);
+		return this.execute(QueryType.PAGES, cypher, () -> this.transaction.selectNodePages(cypher, pageSize, propertyKey, cursor));
+	}
+	
+	/**
+	 * <p>複数階層の探索を生成する。</p>
+	 * 探索は階層ごとに、その階層のすべてのノードから関連するノードを一回の要求でまとめて取得します。
+	 * 要求の回数は探索したノード数ではなく、探索の深さに比例します。
+	 * 
+	 * @return 探索
+	 * @throws Neo4JDataStoreManagerException トランザクションが開始されていない状態で実行された場合
+	 * @see Traversal
+	 */
+	public Traversal traversal() throws Neo4JDataStoreManagerException {
+		if (this.transaction == null) throw new Neo4JDataStoreManagerException(TRANSACTION_IS_NOT_START);
+		return this.transaction.traversal();
+	}
+	
+	/**
+	 * <p>検索結果を非同期に取得する。（単一の文字列）</p>
+	 * 指定のCypherを非同期検索用のスレッドプールで実行し、単一の文字列を返却するCompletableFutureを返却します。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 検索結果を返却するCompletableFuture
+	 * @see #selectString(Cypher)
+	 */
+	public CompletableFuture<String> selectStringAsync(Cypher cypher) {
+		return this.supplyAsync(cypher, QueryType.VALUE, Transaction::selectString);
+	}
+	
+	/**
+	 * <p>検索結果を非同期に取得する。（文字列の一覧）</p>
+	 * 指定のCypherを非同期検索用のスレッドプールで実行し、文字列の一覧を返却するCompletableFutureを返却します。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 検索結果を返却するCompletableFuture
+	 * @see #selectStringList(Cypher)
+	 */
+	public CompletableFuture<List<String>> selectStringListAsync(Cypher cypher) {
+		return this.supplyAsync(cypher, QueryType.VALUE_LIST, Transaction::selectStringList);
+	}
+	
+	/**
+	 * <p>検索結果を非同期に取得する。（単一の数値）</p>
+	 * 指定のCypherを非同期検索用のスレッドプールで実行し、単一の数値を返却するCompletableFutureを返却します。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 検索結果を返却するCompletableFuture
+	 * @see #selectInt(Cypher)
+	 */
+	public CompletableFuture<Integer> selectIntAsync(Cypher cypher) {
+		return this.supplyAsync(cypher, QueryType.VALUE, Transaction::selectInt);
+	}
+	
+	/**
+	 * <p>検索結果を非同期に取得する。（数値の一覧）</p>
+	 * 指定のCypherを非同期検索用のスレッドプールで実行し、数値の一覧を返却するCompletableFutureを返却します。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 検索結果を返却するCompletableFuture
+	 * @see #selectIntList(Cypher)
+	 */
+	public CompletableFuture<List<Integer>> selectIntListAsync(Cypher cypher) {
+		return this.supplyAsync(cypher, QueryType.VALUE_LIST, Transaction::selectIntList);
+	}
+	
+	/**
+	 * <p>検索結果を非同期に取得する。（単一の真偽値）</p>
+	 * 指定のCypherを非同期検索用のスレッドプールで実行し、単一の真偽値を返却するCompletableFutureを返却します。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 検索結果を返却するCompletableFuture
+	 * @see #selectBoolean(Cypher)
+	 */
+	public CompletableFuture<Boolean> selectBooleanAsync(Cypher cypher) {
+		return this.supplyAsync(cypher, QueryType.VALUE, Transaction::selectBoolean);
+	}
+	
+	/**
+	 * <p>検索結果を非同期に取得する。（真偽値の一覧）</p>
+	 * 指定のCypherを非同期検索用のスレッドプールで実行し、真偽値の一覧を返却するCompletableFutureを返却します。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 検索結果を返却するCompletableFuture
+	 * @see #selectBooleanList(Cypher)
+	 */
+	public CompletableFuture<List<Boolean>> selectBooleanListAsync(Cypher cypher) {
+		return this.supplyAsync(cypher, QueryType.VALUE_LIST, Transaction::selectBooleanList);
+	}
+	
+	/**
+	 * <p>検索結果を非同期に取得する。（単一のノード）</p>
+	 * 指定のCypherを非同期検索用のスレッドプールで実行し、単一のノードを返却するCompletableFutureを返却します。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 検索結果を返却するCompletableFuture
+	 * @see #selectNode(Cypher)
+	 */
+	public CompletableFuture<Node> selectNodeAsync(Cypher cypher) {
+		return this.supplyAsync(cypher, QueryType.NODE, Transaction::selectNode);
+	}
+	
+	/**
+	 * <p>検索結果を非同期に取得する。（複数のノード）</p>
+	 * 指定のCypherを非同期検索用のスレッドプールで実行し、複数のノードを返却するCompletableFutureを返却します。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 検索結果を返却するCompletableFuture
+	 * @see #selectNodeList(Cypher)
+	 */
+	public CompletableFuture<List<Node>> selectNodeListAsync(Cypher cypher) {
+		return this.supplyAsync(cypher, QueryType.NODE_LIST, Transaction::selectNodeList);
+	}
+	
+	/**
+	 * <p>検索結果を非同期に取得する。（複数列）</p>
+	 * 指定のCypherを非同期検索用のスレッドプールで実行し、各行を指定の変換処理で変換した一覧を返却するCompletableFutureを返却します。
+	 * 
+	 * @param cypher    実行対象のCypher
+	 * @param rowMapper 行の変換処理
+	 * @return 検索結果を返却するCompletableFuture
+	 * @see #selectRows(Cypher, RowMapper)
+	 */
+	public <T> CompletableFuture<List<T>> selectRowsAsync(Cypher cypher, RowMapper<T> rowMapper) {
+		return this.supplyAsync(cypher, QueryType.ROWS, (transaction, query) -> transaction.selectRows(query, rowMapper));
+	}
+	
+	/**
+	 * <p>指定の検索処理を非同期検索用のスレッドプールで実行します。</p>
+	 * 検索処理は呼び出し時点で開始されているトランザクションに対して実行されます。<br/>
+	 * トランザクションが開始されていない場合、または検索処理にて例外が発生した場合、返却されるCompletableFutureはその例外で異常終了します。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @param type   検索の種類（統計情報の記録に使用）
+	 * @param query  検索処理
+	 * @return 検索結果を返却するCompletableFuture
+	 */
+	protected <T> CompletableFuture<T> supplyAsync(Cypher cypher, QueryType type, AsyncQuery<T> query) {
+		CompletableFuture<T> future = new CompletableFuture<T>();
+		Transaction transaction = this.transaction;
+		if (transaction == null) {
+			future.completeExceptionally(new Neo4JDataStoreManagerException(TRANSACTION_IS_NOT_START));
+			return future;
+		}
+		this.invalidateResultCache(cypher);
+		try {
+			this.dataBaseAccessParameter.getAsyncExecutor().execute(() -> {
+				try {
+					future.complete(this.execute(type, cypher, () -> query.execute(transaction, cypher)));
+				} catch (Throwable e) {
+					future.completeExceptionally(e);
+				}
+			});
+		} catch (RuntimeException e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+	
+	/**
+	 * <p>指定の検索処理を実行し、その処理時間、行数、成否を統計情報、Cypher履歴に記録します。</p>
+	 * 
+	 * @param type   検索の種類
+	 * @param cypher 実行対象のCypher
+	 * @param query  検索処理
+	 * @return 検索結果
+	 * @throws E 検索に失敗した場合
+	 */
+	protected <T, E extends Exception> T execute(QueryType type, Cypher cypher, DataStoreMetrics.Query<T, E> query) throws E {
+		long startTime = System.currentTimeMillis();
+		long start     = System.nanoTime();
+		boolean succeeded = false;
+		T result = null;
+		try {
+			result = query.execute();
+			succeeded = true;
+			return result;
+		} finally {
+			this.record(type, cypher, startTime, System.nanoTime() - start, succeeded ? rowsOf(result) : 0L, succeeded);
+		}
+	}
+	
+	/**
+	 * <p>検索の実行結果を統計情報、Cypher履歴に記録します。</p>
+	 * 履歴にはパラメータの値を切り詰めた上で記録します。
+	 * 処理時間がスロークエリ閾値以上の場合、スロークエリ履歴に記録し、警告を出力します。
+	 * 
+	 * @param type      検索の種類
+	 * @param cypher    実行対象のCypher（Cypherを伴わない場合null）
+	 * @param startTime 実行開始日時（ミリ秒）
+	 * @param elapsed   処理時間（ナノ秒）
+	 * @param rows      取得した行数（不明な場合-1）
+	 * @param succeeded 成否（true=成功、false=失敗）
+	 */
+	protected void record(QueryType type, Cypher cypher, long startTime, long elapsed, long rows, boolean succeeded) {
+		this.metrics.recordQuery(type, elapsed, succeeded);
+		if (this.cypherHistory == null || cypher == null) return;
+		CypherHistory.Entry entry = new CypherHistory.Entry(cypher, type, startTime, elapsed, rows, succeeded, this.dataBaseAccessParameter.getSlowQueryParameterLength());
+		this.cypherHistory.add(entry);
+		if (this.slowQueryHistory != null && elapsed >= this.dataBaseAccessParameter.getSlowQueryThreshold() * 1000000L) {
+			this.slowQueryHistory.add(entry);
+			this.logger.warn("SLOW QUERY " + entry.toString());
+		}
+	}
+	
+	/**
+	 * <p>検索結果の行数を取得します。</p>
+	 * 逐次取得の場合、-1を返却します。
+	 * @param result 検索結果
+	 * @return 行数
+	 */
+	static long rowsOf(Object result) {
+		if (result == null)                   return 0L;
+		if (result instanceof List)           return ((List<?>)result).size();
+		if (result instanceof long[])         return ((long[])result).length;
+		if (result instanceof int[])          return ((int[])result).length;
+		if (result instanceof double[])       return ((double[])result).length;
+		if (result instanceof ColumnarResult) return ((ColumnarResult)result).size();
+		if (result instanceof ResultIterator || result instanceof NodePageIterator) return -1L;
+		return 1L;
+	}
+	
+	/**
+	 * <p>AsyncQueryは、非同期に実行する検索処理を表すインターフェースです。</p>
+	 */
+	@FunctionalInterface
+	protected interface AsyncQuery<T> {
+		
+		/**
+		 * <p>指定のトランザクションに対して検索を実行します。</p>
+		 * @param transaction トランザクション
+		 * @param cypher      実行対象のCypher
+		 * @return 検索結果
+		 * @throws Exception 検索に失敗した場合
+		 */
+		T execute(Transaction transaction, Cypher cypher) throws Exception;
 	}
 	
 	/**
@@ -119,29 +708,56 @@ public class Neo4JDataStore {
 	public void commit() throws Neo4JDataStoreManagerException {
 		if (this.transaction == null) throw new Neo4JDataStoreManagerException(TRANSACTION_IS_NOT_START);
 		this.transaction.commit();
+		this.isCommitted = true;
+		this.metrics.recordCommit();
 	}
 	
 	/**
 	 * <p>ロールバックを実施する。</p>
 	 * 現在開始済みのトランザクションに対して、ロールバック処理を実施します。
-	 * トランザクションが開始されていない状態で実行された場合、例外を送出します。
+	 * トランザクションが開始されていない状態で実行された場合、例外を送出します。<br/>
+	 * 検索結果キャッシュに破棄した更新が含まれないよう、検索結果キャッシュを破棄します。
 	 * @throws Neo4JDataStoreManagerException トランザクションが開始されていない状態で実行された場合
 	 */
 	public void rollback() throws Neo4JDataStoreManagerException {
 		if (this.transaction == null) throw new Neo4JDataStoreManagerException(TRANSACTION_IS_NOT_START);
-		this.transaction.rollback();
+		try {
+			this.transaction.rollback();
+		} finally {
+			this.isCommitted  = false;
+			this.isRolledBack = true;
+			this.invalidateResultCache();
+		}
+		this.metrics.recordRollback();
 	}
 	
 	/**
 	 * <p>トランザクションのクローズ処理を実施する。</p>
 	 * 現在開始済みのトランザクションに対して、クローズ処理を実施します。
-	 * トランザクションが開始されていない状態で実行された場合、例外を送出します。
+	 * トランザクションが開始されていない状態で実行された場合、例外を送出します。<br/>
+	 * コミットせずに終了した場合、または更新を行った場合は、検索結果キャッシュを破棄します。
 	 * @throws Neo4JDataStoreManagerException トランザクションが開始されていない状態で実行された場合
 	 */
 	public void finishTransaction() throws Neo4JDataStoreManagerException {
 		if (this.transaction == null) throw new Neo4JDataStoreManagerException(TRANSACTION_IS_NOT_START);
-		this.transaction.close();
-		this.transaction = null;
+		try {
+			this.transaction.close();
+		} finally {
+			if (!this.isCommitted || this.isDirty) this.invalidateResultCache();
+			this.transaction = null;
+			this.isDirty      = false;
+			this.isCommitted  = false;
+			this.isRolledBack = false;
+			this.metrics.recordTransactionFinish();
+		}
+	}
+	
+	/**
+	 * <p>現在のトランザクションがロールバック済みであるかを判定します。</p>
+	 * @return ロールバック済みである場合true、それ以外の場合false
+	 */
+	boolean isRolledBack() {
+		return this.isRolledBack;
 	}
 	
 	/**
@@ -154,6 +770,110 @@ public class Neo4JDataStore {
 		return false;
 	}
 	
+	/**
+	 * <p>このデータストアの統計情報を取得します。</p>
+	 * {@link Neo4JDataStoreManager}が管理するデータストアの場合、統計情報はデータストア名ごとに共有され、JMXに公開されます。
+	 * @return 統計情報
+	 */
+	public DataStoreMetrics getMetrics() {
+		return this.metrics;
+	}
+	
+	/**
+	 * <p>このデータストアで実行したCypherの履歴を古い順に取得します。</p>
+	 * 履歴は最大件数まで保持され、最大件数を超えた場合は古い履歴から破棄されます。Cypher履歴が無効な場合、空の一覧を返却します。
+	 * @return Cypher履歴
+	 */
+	public List<CypherHistory.Entry> getCypherHistory() {
+		if (this.cypherHistory == null) return Collections.emptyList();
+		return this.cypherHistory.getEntries();
+	}
+	
+	/**
+	 * <p>このデータストアで実行したCypherのうち、処理時間がスロークエリ閾値以上であった履歴を古い順に取得します。</p>
+	 * スロークエリ閾値が設定されていない場合、空の一覧を返却します。
+	 * @return スロークエリ履歴
+	 */
+	public List<CypherHistory.Entry> getSlowQueryHistory() {
+		if (this.slowQueryHistory == null) return Collections.emptyList();
+		return this.slowQueryHistory.getEntries();
+	}
+	
+	/**
+	 * <p>このデータストアの統計情報を設定します。</p>
+	 * 設定した統計情報は、次に開始するトランザクションから使用されます。
+	 * @param metrics 統計情報
+	 */
+	void setMetrics(DataStoreMetrics metrics) {
+		this.metrics = metrics;
+	}
+	
+	/**
+	 * <p>検索結果キャッシュのヒット件数を取得します。</p>
+	 * 検索結果キャッシュが無効な場合、0を返却します。
+	 * @return ヒット件数
+	 */
+	public long getResultCacheHitCount() {
+		if (this.resultCache == null) return 0L;
+		return this.resultCache.getHitCount();
+	}
+	
+	/**
+	 * <p>検索結果キャッシュのミス件数を取得します。</p>
+	 * 検索結果キャッシュが無効な場合、0を返却します。
+	 * @return ミス件数
+	 */
+	public long getResultCacheMissCount() {
+		if (this.resultCache == null) return 0L;
+		return this.resultCache.getMissCount();
+	}
+	
+	/**
+	 * <p>検索結果キャッシュに保持しているすべての検索結果を破棄します。</p>
+	 */
+	public void invalidateResultCache() {
+		if (this.resultCache != null) this.resultCache.invalidate();
+	}
+	
+	/**
+	 * <p>指定のCypherが更新を伴う場合、検索結果キャッシュに保持しているすべての検索結果を破棄します。</p>
+	 * @param cypher 実行対象のCypher
+	 */
+	protected void invalidateResultCache(Cypher cypher) {
+		if (cypher != null && ResultCache.isWrite(cypher)) this.onWrite();
+	}
+	
+	/**
+	 * <p>現在のトランザクションにて更新が行われたことを記録し、検索結果キャッシュに保持しているすべての検索結果を破棄します。</p>
+	 * 以降、トランザクションの終了まで検索結果キャッシュを使用しません。（コミット前の検索結果をキャッシュに保持しないため）
+	 */
+	protected void onWrite() {
+		this.isDirty = true;
+		this.invalidateResultCache();
+	}
+	
+	/**
+	 * <p>指定のCypherの検索結果を検索結果キャッシュから取得、保持できるかを判定します。</p>
+	 * 更新を伴うCypherの場合、更新を記録した上で判定します。
+	 * @param cypher 実行対象のCypher
+	 * @return 判定結果（true=キャッシュを使用する、false=キャッシュを使用しない）
+	 */
+	protected boolean isCacheable(Cypher cypher) {
+		if (this.resultCache == null) return false;
+		this.invalidateResultCache(cypher);
+		return !this.isDirty;
+	}
+	
+	/**
+	 * <p>このデータストアのトランザクションが、開始したスレッドに紐づくかを判定します。</p>
+	 * 組込みデータベースの場合、またはREST経由でバッチトランザクション（システムプロパティ"org.neo4j.rest.batch_transaction"）が有効な場合、
+	 * トランザクションはスレッドごとに保持されるため、開始、コミット、ロールバック、終了、およびその間の操作を同一のスレッドで実行する必要があります。
+	 * @return 判定結果（true=スレッドに紐づく、false=スレッドに紐づかない）
+	 */
+	boolean isThreadBound() {
+		return this.dataBaseAccessParameter.isEmbedded() || Config.useBatchTransactions();
+	}
+	
 	/**
 	 * <p>データベース操作時に、異常が発生しているか否かを判定。</p>
 	 * データベース操作時に例外が発生していた場合はtrue、発生していなかった場合は、falseを返却します。
@@ -2,23 +2,36 @@ package jp.co.dk.neo4jdatastoremanager;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import jp.co.dk.logger.Logger;
 import jp.co.dk.logger.LoggerFactory;
 import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerException;
+import jp.co.dk.neo4jdatastoremanager.metrics.DataStoreMetrics;
 import jp.co.dk.neo4jdatastoremanager.property.Neo4JDataStoreManagerProperty;
 import static jp.co.dk.neo4jdatastoremanager.message.Neo4JDataStoreManagerMessage.*;
 
 /**
  * <p>Neo4JDataStoreManagerは、単一、もしくは複数のNeo4Jデータベースへの接続、トランザクションの管理を行うクラスです。</p>
+ * トランザクションの開始、コミット、ロールバック、終了は、管理しているすべてのデータストアに対して並列に実行されます。<br/>
+ * 並列に実行するスレッド数はプロパティ"neo4j.manager.threads"にて設定します。
+ * ただし、トランザクションがスレッドに紐づくデータストア（組込みデータベース、バッチトランザクションが有効な場合）に対する処理は、並列に実行せず呼び出し元のスレッドで実行します。<br/>
+ * 各データストアの統計情報はデータストア名（デフォルトのデータストアは"default"）ごとにJVM内で共有され、JMXに公開されます。
  * 
  * @version 0.1
  * @author D.Kanno
  */
 public class Neo4JDataStoreManager implements Closeable {
 	
+	/** デフォルトのデータストアの統計情報の名称 */
+	public static final String DEFAULT_DATASTORE_NAME = "default";
+	
 	/** デフォルトのデータストア */
 	protected Neo4JDataStore defaultDataStore;
 	
@@ -28,6 +41,9 @@ public class Neo4JDataStoreManager implements Closeable {
 	/** データストアプロパティ */
 	protected Neo4JDataStoreManagerProperty dataStoreManagerProperty;
 	
+	/** データストア並列処理用スレッドプール */
+	protected ExecutorService executorService;
+	
 	/** ロガーインスタンス */
 	protected Logger logger = LoggerFactory.getLogger(this.getClass());
 	
@@ -43,8 +59,15 @@ public class Neo4JDataStoreManager implements Closeable {
 		if (dataStoreManagerProperty == null) throw new Neo4JDataStoreManagerException(NEO4JPROPERTY_IS_NOT_SET);
 		this.dataStoreManagerProperty                = dataStoreManagerProperty;
 		this.defaultDataStore                        = dataStoreManagerProperty.getDefaultDataStoreParameter().createDataStore();
+		this.defaultDataStore.setMetrics(DataStoreMetrics.getDataStoreMetrics(DEFAULT_DATASTORE_NAME));
 		Map<String, Neo4JDataStoreParameter> parameterMap = dataStoreManagerProperty.getDataStoreParameters();
-		for (Map.Entry<String, Neo4JDataStoreParameter> parameter : parameterMap.entrySet()) this.dataStores.put(parameter.getKey(), parameter.getValue().createDataStore());
+		for (Map.Entry<String, Neo4JDataStoreParameter> parameter : parameterMap.entrySet()) {
+			Neo4JDataStore dataStore = parameter.getValue().createDataStore();
+			dataStore.setMetrics(DataStoreMetrics.getDataStoreMetrics(parameter.getKey()));
+			this.dataStores.put(parameter.getKey(), dataStore);
+		}
+		int threads = Math.min(dataStoreManagerProperty.getManagerThreads(), this.dataStores.size());
+		if (threads > 0) this.executorService = DaemonExecutors.newBoundedExecutor("neo4jdatastoremanager", threads);
 	}
 	
 	/**
@@ -54,10 +77,7 @@ public class Neo4JDataStoreManager implements Closeable {
 	 * @throws Neo4JDataStoreManagerException トランザクション開始に失敗した場合
 	 */
 	public void startTrunsaction() throws Neo4JDataStoreManagerException {
-		this.defaultDataStore.startTransaction();
-		for (Neo4JDataStore dataStore : this.dataStores.values()) {
-			dataStore.startTransaction();
-		}
+		this.executeAll("startTransaction", dataStore -> dataStore.startTransaction());
 	}
 	
 	/**
@@ -80,8 +100,7 @@ public class Neo4JDataStoreManager implements Closeable {
 	 * @throws Neo4JDataStoreManagerException コミットに失敗した場合
 	 */
 	public void commit() throws Neo4JDataStoreManagerException {
-		this.defaultDataStore.commit();
-		for (Map.Entry<String, Neo4JDataStore> dataStore : dataStores.entrySet()) dataStore.getValue().commit();
+		this.executeAll("commit", dataStore -> dataStore.commit());
 	}
 	
 	/**
@@ -90,8 +109,7 @@ public class Neo4JDataStoreManager implements Closeable {
 	 * @throws Neo4JDataStoreManagerException ロールバックに失敗した場合
 	 */
 	public void rollback() throws Neo4JDataStoreManagerException {
-		this.defaultDataStore.rollback();
-		for (Map.Entry<String, Neo4JDataStore> dataStore : dataStores.entrySet()) dataStore.getValue().rollback();
+		this.executeAll("rollback", dataStore -> dataStore.rollback());
 	}
 	
 	/**
@@ -109,20 +127,123 @@ public class Neo4JDataStoreManager implements Closeable {
 	
 	/**
 	 * <p>このデータストア管理クラスが管理しているすべてのデータストアに対してトランザクションを終了します。
+	 * いずれかのデータストアでエラーが発生していた場合はすべてのデータストアをロールバック、それ以外の場合はコミットした上で終了します。
+	 * ただし、既にロールバック済みのデータストアはコミットせずに終了します。
+	 * コミット、ロールバックに失敗した場合もトランザクションは終了されます。
 	 * トランザクション終了処理に失敗した場合、例外を送出します。
 	 * 
 	 * @throws Neo4JDataStoreManagerException トランザクション終了に失敗した場合
 	 */
 	public void finishTrunsaction() throws Neo4JDataStoreManagerException {
 		if (this.hasError()) {
-			this.defaultDataStore.rollback();
-			for (Map.Entry<String, Neo4JDataStore> dataStore : dataStores.entrySet()) dataStore.getValue().rollback();
+			this.executeAll("rollback", dataStore -> {
+				try {
+					dataStore.rollback();
+				} finally {
+					dataStore.finishTransaction();
+				}
+			});
 		} else {
-			this.defaultDataStore.commit();
-			for (Map.Entry<String, Neo4JDataStore> dataStore : dataStores.entrySet()) dataStore.getValue().commit();
+			this.executeAll("commit", dataStore -> {
+				try {
+					if (!dataStore.isRolledBack()) dataStore.commit();
+				} finally {
+					dataStore.finishTransaction();
+				}
+			});
+		}
+	}
+	
+	/**
+	 * <p>管理しているすべてのデータストアに対して指定の処理を並列に実行します。</p>
+	 * デフォルトのデータストア、およびトランザクションがスレッドに紐づくデータストアに対する処理は呼び出し元のスレッドで実行し、その他のデータストアに対する処理はスレッドプールで実行します。<br/>
+	 * すべての処理の完了を待機した上で、失敗した処理が一件の場合はその例外を、複数の場合はそれぞれの例外を抑制された例外として保持した例外を送出します。
+	 * 
+	 * @param operationName 処理名
+	 * @param operation     処理
+	 * @throws Neo4JDataStoreManagerException いずれかのデータストアで処理に失敗した場合
+	 */
+	protected void executeAll(String operationName, DataStoreOperation operation) throws Neo4JDataStoreManagerException {
+		List<Throwable> errors = new ArrayList<Throwable>();
+		List<Future<Void>> futures = new ArrayList<Future<Void>>(this.dataStores.size());
+		for (Neo4JDataStore dataStore : this.dataStores.values()) {
+			if (this.executorService == null || dataStore.isThreadBound()) {
+				execute(operation, dataStore, errors);
+			} else {
+				futures.add(this.executorService.submit(() -> {
+					operation.execute(dataStore);
+					return null;
+				}));
+			}
+		}
+		execute(operation, this.defaultDataStore, errors);
+		boolean interrupted = false;
+		for (Future<Void> future : futures) {
+			while (true) {
+				try {
+					future.get();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					errors.add(e.getCause());
+					break;
+				}
+			}
+		}
+		if (interrupted) Thread.currentThread().interrupt();
+		if (errors.isEmpty()) return;
+		if (errors.size() == 1) {
+			Throwable error = errors.get(0);
+			if (error instanceof Neo4JDataStoreManagerException) throw (Neo4JDataStoreManagerException)error;
+			if (error instanceof RuntimeException) throw (RuntimeException)error;
+			if (error instanceof Error) throw (Error)error;
+		}
+		Neo4JDataStoreManagerException exception = new Neo4JDataStoreManagerException(DATASTORES_FAILED, operationName, Integer.toString(errors.size()));
+		for (Throwable error : errors) exception.addSuppressed(error);
+		throw exception;
+	}
+	
+	private static void execute(DataStoreOperation operation, Neo4JDataStore dataStore, List<Throwable> errors) {
+		try {
+			operation.execute(dataStore);
+		} catch (Neo4JDataStoreManagerException | RuntimeException e) {
+			errors.add(e);
 		}
-		this.defaultDataStore.finishTransaction();
-		for (Map.Entry<String, Neo4JDataStore> dataStore : dataStores.entrySet()) dataStore.getValue().finishTransaction();
+	}
+	
+	/**
+	 * <p>DataStoreOperationは、単一のデータストアに対する処理を表すインターフェースです。</p>
+	 */
+	@FunctionalInterface
+	protected interface DataStoreOperation {
+		
+		/**
+		 * <p>指定のデータストアに対して処理を実行します。</p>
+		 * @param dataStore データストア
+		 * @throws Neo4JDataStoreManagerException 処理に失敗した場合
+		 */
+		void execute(Neo4JDataStore dataStore) throws Neo4JDataStoreManagerException;
+	}
+
+	/**
+	 * <p>指定の名称のデータストアの統計情報を取得する。</p>
+	 * 統計情報はこのJVM内でデータストア名ごとに共有されるため、複数のデータストア管理クラスを生成した場合も合算されます。
+	 * 
+	 * @param name データストア名（デフォルトのデータストアの場合{@link #DEFAULT_DATASTORE_NAME}）
+	 * @return 統計情報
+	 */
+	public static DataStoreMetrics getMetrics(String name) {
+		return DataStoreMetrics.getDataStoreMetrics(name);
+	}
+
+	/**
+	 * <p>このJVM内で保持しているすべてのNeo4J接続のコネクションプールを破棄し、起動した組込みデータベースを停止します。</p>
+	 * アプリケーションの終了時に実行してください。
+	 */
+	public static void shutdownConnectionPool() {
+		ConnectionPool.closeAll();
+		EmbeddedDatabase.closeAll();
 	}
 
 	@Override
@@ -170,12 +291,20 @@ public class Neo4JDataStoreManager implements Closeable {
 		return builder.toString();
 	}
 
+	/**
+	 * <p>トランザクションを終了し、データストアに対する処理を並列に実行するスレッドプールを停止します。</p>
+	 * トランザクションの終了に失敗した場合もスレッドプールは停止されます。
+	 * 
+	 * @throws IOException トランザクション終了に失敗した場合
+	 */
 	@Override
 	public void close() throws IOException {
 		try {
 			this.finishTrunsaction();
 		} catch (Neo4JDataStoreManagerException e) {
 			throw new IOException(e);
+		} finally {
+			if (this.executorService != null) this.executorService.shutdown();
 		}
 	}
 	
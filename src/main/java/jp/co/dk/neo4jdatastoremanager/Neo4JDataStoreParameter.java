@@ -1,5 +1,9 @@
 package jp.co.dk.neo4jdatastoremanager;
 
+import java.util.concurrent.Executor;
+
+import jp.co.dk.neo4jdatastoremanager.codec.BinaryPropertyCodec;
+import jp.co.dk.neo4jdatastoremanager.codec.PropertyCodec;
 import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerException;
 import static jp.co.dk.neo4jdatastoremanager.message.Neo4JDataStoreManagerMessage.*;
 
@@ -24,6 +28,56 @@ public class Neo4JDataStoreParameter {
 	/** 認証情報が設定有無 */
 	protected boolean isAuthSet = false;
 	
+	/** コネクションプール最大接続数 */
+	protected int maxConnections = 10;
+	
+	/** コネクションプールアイドルタイムアウト（ミリ秒） */
+	protected long idleTimeout = 60000L;
+	
+	/** コネクション取得タイムアウト（ミリ秒） */
+	protected long acquireTimeout = 5000L;
+	
+	/** HTTPキープアライブ有無 */
+	protected boolean keepAlive = true;
+	
+	/** 一括登録時の一回の要求で登録する件数 */
+	protected int batchChunkSize = 1000;
+	
+	/** オブジェクトプロパティ変換方式 */
+	protected PropertyCodec propertyCodec = new BinaryPropertyCodec();
+	
+	/** 検索結果キャッシュ最大件数（0の場合、キャッシュしない） */
+	protected int resultCacheSize = 0;
+	
+	/** 検索結果キャッシュ保持期間（ミリ秒） */
+	protected long resultCacheTtl = 60000L;
+	
+	/** Cypher履歴最大件数（0の場合、保持しない） */
+	protected int historySize = 100;
+	
+	/** スロークエリ閾値（ミリ秒、0の場合、出力しない） */
+	protected long slowQueryThreshold = 0L;
+	
+	/** Cypher履歴保持時、スロークエリ出力時のパラメータ最大文字数 */
+	protected int slowQueryParameterLength = 100;
+	
+	/** 非同期検索の最大スレッド数 */
+	protected int asyncThreads = 16;
+	
+	/** 非同期検索を実行するスレッドプール（未生成の場合null） */
+	protected Executor asyncExecutor;
+	
+	/** 組込みデータベースのパス（REST経由で接続する場合null） */
+	protected String embeddedPath;
+	
+	/**
+	 * <p>接続先を設定せずにNeo4J接続情報を生成します。</p>
+	 * 組込みデータベースの接続情報は{@link #newEmbeddedParameter(String)}にて生成します。
+	 */
+	protected Neo4JDataStoreParameter() {
+		this.isAuthSet = false;
+	}
+	
 	/**
 	 * <p>Neo4J接続先サーバURLを基に、Neo4J接続情報を生成します。</p>
 	 * @param neo4jServer Neo4JサーバURL
@@ -51,6 +105,22 @@ public class Neo4JDataStoreParameter {
 		this.neo4jPassword   = neo4jPass;
 		this.isAuthSet = true;
 	}
+	
+	/**
+	 * <p>組込みデータベースのパスを基に、同一プロセス内で起動したNeo4Jデータベースに接続するNeo4J接続情報を生成します。</p>
+	 * この接続情報を使用したデータストアは、REST経由の場合と同一のAPIでHTTPによる通信、JSONの変換を行わずにデータベースを操作します。<br/>
+	 * データベースは同一のパスにつきJVM内で一度だけ起動され、{@link Neo4JDataStoreManager#shutdownConnectionPool()}にて停止されます。
+	 * 
+	 * @param embeddedPath 組込みデータベースのパス
+	 * @return Neo4J接続情報
+	 * @throws Neo4JDataStoreManagerException 必須情報が設定されていなかった場合
+	 */
+	public static Neo4JDataStoreParameter newEmbeddedParameter(String embeddedPath) throws Neo4JDataStoreManagerException {
+		if (embeddedPath == null || embeddedPath.equals("")) throw new Neo4JDataStoreManagerException(EMBEDDED_PATH_IS_NOT_SET);
+		Neo4JDataStoreParameter parameter = new Neo4JDataStoreParameter();
+		parameter.embeddedPath = embeddedPath;
+		return parameter;
+	}
 
 	String getNeo4jServer() {
 		return neo4jServer;
@@ -68,6 +138,163 @@ public class Neo4JDataStoreParameter {
 		return isAuthSet;
 	}
 	
+	String getEmbeddedPath() {
+		return embeddedPath;
+	}
+	
+	boolean isEmbedded() {
+		return embeddedPath != null;
+	}
+	
+	/**
+	 * <p>コネクションプールの設定を行います。</p>
+	 * 同一の接続先に対するコネクションプールは最初に生成された際の設定で作成されるため、プール生成前に設定する必要があります。
+	 * 
+	 * @param maxConnections 最大接続数
+	 * @param idleTimeout    アイドルタイムアウト（ミリ秒）
+	 * @param acquireTimeout コネクション取得タイムアウト（ミリ秒）
+	 * @param keepAlive      HTTPキープアライブ有無
+	 * @throws Neo4JDataStoreManagerException 設定値が不正な場合
+	 */
+	public void setConnectionPoolSetting(int maxConnections, long idleTimeout, long acquireTimeout, boolean keepAlive) throws Neo4JDataStoreManagerException {
+		if (maxConnections < 1) throw new Neo4JDataStoreManagerException(PARAMETER_IS_FRAUD, "maxConnections", Integer.toString(maxConnections));
+		if (idleTimeout    < 0) throw new Neo4JDataStoreManagerException(PARAMETER_IS_FRAUD, "idleTimeout"   , Long.toString(idleTimeout));
+		if (acquireTimeout < 0) throw new Neo4JDataStoreManagerException(PARAMETER_IS_FRAUD, "acquireTimeout", Long.toString(acquireTimeout));
+		this.maxConnections = maxConnections;
+		this.idleTimeout    = idleTimeout;
+		this.acquireTimeout = acquireTimeout;
+		this.keepAlive      = keepAlive;
+	}
+	
+	/**
+	 * <p>一括登録時に一回の要求で登録する件数を設定します。</p>
+	 * 
+	 * @param batchChunkSize 一回の要求で登録する件数
+	 * @throws Neo4JDataStoreManagerException 設定値が不正な場合
+	 */
+	public void setBatchChunkSize(int batchChunkSize) throws Neo4JDataStoreManagerException {
+		if (batchChunkSize < 1) throw new Neo4JDataStoreManagerException(PARAMETER_IS_FRAUD, "batchChunkSize", Integer.toString(batchChunkSize));
+		this.batchChunkSize = batchChunkSize;
+	}
+	
+	/**
+	 * <p>ノードにオブジェクトをプロパティとして格納する際の変換方式を設定します。</p>
+	 * 
+	 * @param propertyCodec オブジェクトプロパティ変換方式
+	 * @throws Neo4JDataStoreManagerException 変換方式が設定されていない場合
+	 */
+	public void setPropertyCodec(PropertyCodec propertyCodec) throws Neo4JDataStoreManagerException {
+		if (propertyCodec == null) throw new Neo4JDataStoreManagerException(PARAMETER_IS_FRAUD, "propertyCodec", "null");
+		this.propertyCodec = propertyCodec;
+	}
+	
+	/**
+	 * <p>検索結果キャッシュの設定を行います。</p>
+	 * 最大件数に0を設定した場合、検索結果はキャッシュされません。
+	 * 
+	 * @param resultCacheSize 最大件数
+	 * @param resultCacheTtl  保持期間（ミリ秒）
+	 * @throws Neo4JDataStoreManagerException 設定値が不正な場合
+	 */
+	public void setResultCacheSetting(int resultCacheSize, long resultCacheTtl) throws Neo4JDataStoreManagerException {
+		if (resultCacheSize < 0) throw new Neo4JDataStoreManagerException(PARAMETER_IS_FRAUD, "resultCacheSize", Integer.toString(resultCacheSize));
+		if (resultCacheTtl  < 0) throw new Neo4JDataStoreManagerException(PARAMETER_IS_FRAUD, "resultCacheTtl" , Long.toString(resultCacheTtl));
+		this.resultCacheSize = resultCacheSize;
+		this.resultCacheTtl  = resultCacheTtl;
+	}
+	
+	/**
+	 * <p>Cypher履歴、スロークエリの設定を行います。</p>
+	 * 最大件数に0を設定した場合、Cypher履歴、スロークエリ履歴は保持されません。
+	 * 閾値に0を設定した場合、スロークエリは出力されません。
+	 * 
+	 * @param historySize              Cypher履歴最大件数
+	 * @param slowQueryThreshold       スロークエリ閾値（ミリ秒）
+	 * @param slowQueryParameterLength Cypher履歴保持時、スロークエリ出力時のパラメータ最大文字数
+	 * @throws Neo4JDataStoreManagerException 設定値が不正な場合
+	 */
+	public void setCypherHistorySetting(int historySize, long slowQueryThreshold, int slowQueryParameterLength) throws Neo4JDataStoreManagerException {
+		if (historySize              < 0) throw new Neo4JDataStoreManagerException(PARAMETER_IS_FRAUD, "historySize"             , Integer.toString(historySize));
+		if (slowQueryThreshold       < 0) throw new Neo4JDataStoreManagerException(PARAMETER_IS_FRAUD, "slowQueryThreshold"      , Long.toString(slowQueryThreshold));
+		if (slowQueryParameterLength < 0) throw new Neo4JDataStoreManagerException(PARAMETER_IS_FRAUD, "slowQueryParameterLength", Integer.toString(slowQueryParameterLength));
+		this.historySize              = historySize;
+		this.slowQueryThreshold       = slowQueryThreshold;
+		this.slowQueryParameterLength = slowQueryParameterLength;
+	}
+	
+	/**
+	 * <p>非同期検索を実行するスレッドプールの最大スレッド数を設定します。</p>
+	 * 本設定は{@link #setAsyncExecutor(Executor)}にてスレッドプールが指定されていない場合にのみ使用されます。
+	 * 
+	 * @param asyncThreads 最大スレッド数
+	 * @throws Neo4JDataStoreManagerException 設定値が不正な場合
+	 */
+	public void setAsyncThreads(int asyncThreads) throws Neo4JDataStoreManagerException {
+		if (asyncThreads < 1) throw new Neo4JDataStoreManagerException(PARAMETER_IS_FRAUD, "asyncThreads", Integer.toString(asyncThreads));
+		this.asyncThreads = asyncThreads;
+	}
+	
+	/**
+	 * <p>非同期検索を実行するスレッドプールを設定します。</p>
+	 * 設定しなかった場合、最大スレッド数までのデーモンスレッドで構成されるスレッドプールが使用されます。
+	 * 
+	 * @param asyncExecutor スレッドプール
+	 * @throws Neo4JDataStoreManagerException スレッドプールが設定されていない場合
+	 */
+	public synchronized void setAsyncExecutor(Executor asyncExecutor) throws Neo4JDataStoreManagerException {
+		if (asyncExecutor == null) throw new Neo4JDataStoreManagerException(PARAMETER_IS_FRAUD, "asyncExecutor", "null");
+		this.asyncExecutor = asyncExecutor;
+	}
+	
+	int getMaxConnections() {
+		return maxConnections;
+	}
+	
+	long getIdleTimeout() {
+		return idleTimeout;
+	}
+	
+	long getAcquireTimeout() {
+		return acquireTimeout;
+	}
+	
+	boolean isKeepAlive() {
+		return keepAlive;
+	}
+	
+	int getBatchChunkSize() {
+		return batchChunkSize;
+	}
+	
+	int getResultCacheSize() {
+		return resultCacheSize;
+	}
+	
+	long getResultCacheTtl() {
+		return resultCacheTtl;
+	}
+	
+	int getHistorySize() {
+		return historySize;
+	}
+	
+	long getSlowQueryThreshold() {
+		return slowQueryThreshold;
+	}
+	
+	int getSlowQueryParameterLength() {
+		return slowQueryParameterLength;
+	}
+	
+	PropertyCodec getPropertyCodec() {
+		return propertyCodec;
+	}
+	
+	synchronized Executor getAsyncExecutor() {
+		if (this.asyncExecutor == null) this.asyncExecutor = DaemonExecutors.newBoundedExecutor("neo4jdatastore-async", this.asyncThreads);
+		return this.asyncExecutor;
+	}
+	
 	Neo4JDataStore createDataStore() {
 		return new Neo4JDataStore(this);
 	}
@@ -76,6 +303,8 @@ public class Neo4JDataStoreParameter {
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
+		result = prime * result
+				+ ((embeddedPath == null) ? 0 : embeddedPath.hashCode());
 		result = prime * result + (isAuthSet ? 1231 : 1237);
 		result = prime * result
 				+ ((neo4jPassword == null) ? 0 : neo4jPassword.hashCode());
@@ -95,6 +324,11 @@ public class Neo4JDataStoreParameter {
 		if (getClass() != obj.getClass())
 			return false;
 		Neo4JDataStoreParameter other = (Neo4JDataStoreParameter) obj;
+		if (embeddedPath == null) {
+			if (other.embeddedPath != null)
+				return false;
+		} else if (!embeddedPath.equals(other.embeddedPath))
+			return false;
 		if (isAuthSet != other.isAuthSet)
 			return false;
 		if (neo4jPassword == null) {
@@ -126,6 +360,10 @@ public class Neo4JDataStoreParameter {
 		builder.append(neo4jPassword);
 		builder.append(", ISAUTHSET=");
 		builder.append(isAuthSet);
+		builder.append(", MAXCONNECTIONS=");
+		builder.append(maxConnections);
+		builder.append(", EMBEDDEDPATH=");
+		builder.append(embeddedPath);
 		return builder.toString();
 	}
 	
@@ -1,48 +1,156 @@
 package jp.co.dk.neo4jdatastoremanager;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.StringJoiner;
 
+import jp.co.dk.neo4jdatastoremanager.codec.BinaryPropertyCodec;
+import jp.co.dk.neo4jdatastoremanager.codec.PropertyCodec;
+import jp.co.dk.neo4jdatastoremanager.cypher.Cypher;
 import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerException;
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerFatalException;
 
 import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.DynamicLabel;
 import org.neo4j.graphdb.Label;
-import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.NotFoundException;
 import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.rest.graphdb.entity.RestNode;
 
 import static jp.co.dk.neo4jdatastoremanager.message.Neo4JDataStoreManagerMessage.*;
 
 /**
  * <p>Neo4Jでのノードを表すクラスです。</p>
+ * ラベル、プロパティは一回の要求でまとめて取得してこのオブジェクト内に保持し、各種取得メソッドはその値を返却します。
+ * プロパティの設定はサーバへ反映すると同時に、このオブジェクトが保持する値にも反映されます。
  * 
  * @version 0.1
  * @author D.Kanno
  */
 public class Node {
 	
+	/** デフォルトのオブジェクトプロパティ変換方式 */
+	protected static final PropertyCodec DEFAULT_CODEC = new BinaryPropertyCodec();
+	
+	/** REST経由で格納するオブジェクトプロパティの接頭辞 */
+	protected static final String BASE64_PREFIX = "base64:";
+	
 	/** ノードＩＤ */
 	protected long id;
 	
 	/** Neo4Jノードオブジェクト */
 	protected org.neo4j.graphdb.Node node;
 	
+	/** ラベル一覧（未取得の場合null） */
+	protected List<Label> labels;
+	
+	/** プロパティ（未取得の場合null） */
+	protected Map<String, Object> properties;
+	
+	/** オブジェクトプロパティ変換方式 */
+	protected PropertyCodec codec;
+	
+	/** 更新時に通知する処理（通知しない場合null） */
+	protected Runnable writeListener;
+	
+	/** ノードＩＤをキーとした取得済みノード（同一性を管理しない場合null） */
+	protected Map<Long, Node> identityMap;
+	
 	/**
 	 * <p>Neo4Jノードオブジェクトを基にノードを作成します。</p>
+	 * ラベル、プロパティは最初に参照された際に一回の要求でまとめて取得します。
 	 * @param node Neo4Jノードオブジェクト
 	 */
 	Node(org.neo4j.graphdb.Node node) {
-		this.node = node;
-		this.id   = this.node.getId();
+		this(node, DEFAULT_CODEC);
+	}
+	
+	/**
+	 * <p>Neo4Jノードオブジェクトとオブジェクトプロパティ変換方式を基にノードを作成します。</p>
+	 * @param node  Neo4Jノードオブジェクト
+	 * @param codec オブジェクトプロパティ変換方式
+	 */
+	Node(org.neo4j.graphdb.Node node, PropertyCodec codec) {
+		this.node  = node;
+		this.id    = this.node.getId();
+		this.codec = (codec == null) ? DEFAULT_CODEC : codec;
+	}
+	
+	/**
+	 * <p>Neo4Jノードオブジェクトと、取得済みのラベル、プロパティを基にノードを作成します。</p>
+	 * ラベル、またはプロパティにnullを指定した場合、最初に参照された際に取得します。
+	 * @param node       Neo4Jノードオブジェクト
+	 * @param labels     ラベル名一覧
+	 * @param properties プロパティ
+	 * @param codec      オブジェクトプロパティ変換方式
+	 */
+	Node(org.neo4j.graphdb.Node node, List<String> labels, Map<String, Object> properties, PropertyCodec codec) {
+		this(node, codec);
+		if (labels     != null) this.setLabels(labels);
+		if (properties != null) this.properties = new HashMap<String, Object>(properties);
+	}
+	
+	/**
+	 * <p>このノードの更新時に通知する処理を設定します。</p>
+	 * このノードから取得した関連するノードにも引き継がれます。
+	 * @param writeListener 更新時に通知する処理
+	 * @return 本オブジェクトインスタンス
+	 */
+	Node withWriteListener(Runnable writeListener) {
+		this.writeListener = writeListener;
+		return this;
+	}
+	
+	/**
+	 * <p>このノードから取得した関連するノードの同一性を管理するマップを設定します。</p>
+	 * 関連するノードが既にマップに存在する場合、新たに生成せずにマップのノードを返却します。<br/>
+	 * このノードから取得した関連するノードにも引き継がれます。
+	 * @param identityMap ノードＩＤをキーとした取得済みノード
+	 * @return 本オブジェクトインスタンス
+	 */
+	Node withIdentityMap(Map<Long, Node> identityMap) {
+		this.identityMap = identityMap;
+		return this;
+	}
+	
+	/**
+	 * <p>このノードに対する更新を通知します。</p>
+	 */
+	protected void written() {
+		if (this.writeListener != null) this.writeListener.run();
+	}
+	
+	/**
+	 * <p>指定のNeo4Jノードオブジェクトを、このノードの設定を引き継いだノードとして生成します。</p>
+	 * 同一性を管理している場合、同一のノードＩＤのノードが既に取得済みであればそのノードを返却します。
+	 * @param node Neo4Jノードオブジェクト
+	 * @return ノード
+	 */
+	protected Node child(org.neo4j.graphdb.Node node) {
+		return this.child(node, null);
+	}
+	
+	/**
+	 * <p>指定のNeo4Jノードオブジェクトと取得済みのプロパティを、このノードの設定を引き継いだノードとして生成します。</p>
+	 * 同一性を管理している場合、同一のノードＩＤのノードが既に取得済みであればそのノードを返却します。
+	 * 取得済みのノードがプロパティを保持していない場合は、指定のプロパティを設定します。
+	 * @param node       Neo4Jノードオブジェクト
+	 * @param properties プロパティ（未取得の場合null）
+	 * @return ノード
+	 */
+	protected Node child(org.neo4j.graphdb.Node node, Map<String, Object> properties) {
+		if (this.identityMap == null) return new Node(node, null, properties, this.codec).withWriteListener(this.writeListener);
+		Node child = this.identityMap.computeIfAbsent(Long.valueOf(node.getId()), id -> new Node(node, null, properties, this.codec).withWriteListener(this.writeListener).withIdentityMap(this.identityMap));
+		if (child.properties == null && properties != null) child.properties = new HashMap<String, Object>(properties);
+		return child;
 	}
 	
 	/**
@@ -52,12 +160,13 @@ public class Node {
 	 * @return この条件に合致したノード
 	 */
 	public Node getOutGoingNode(NodeSelector selector) {
-		Iterator<Relationship> relationshipList = this.node.getRelationships(Direction.OUTGOING).iterator();
+		if (selector instanceof CypherNodeSelector) return this.getOutGoingNode((CypherNodeSelector)selector);
+		Iterator<org.neo4j.graphdb.Relationship> relationshipList = this.node.getRelationships(Direction.OUTGOING).iterator();
 		while (relationshipList.hasNext()) {
-			Relationship relationship = relationshipList.next();
+			org.neo4j.graphdb.Relationship relationship = relationshipList.next();
 			org.neo4j.graphdb.Node node = relationship.getEndNode();
 			if (selector.isSelect(node)) {
-				return new Node(node);
+				return this.child(node);
 			}
 		}
 		return null;
@@ -70,28 +179,165 @@ public class Node {
 	 * @return この条件に合致したノード一覧
 	 */
 	public List<Node> getOutGoingNodes(NodeSelector selector) {
+		if (selector instanceof CypherNodeSelector) return this.getOutGoingNodes((CypherNodeSelector)selector);
 		List<Node> nodeList = new ArrayList<Node>();
-		Iterator<Relationship> relationshipList = this.node.getRelationships(Direction.OUTGOING).iterator();
+		Iterator<org.neo4j.graphdb.Relationship> relationshipList = this.node.getRelationships(Direction.OUTGOING).iterator();
 		while (relationshipList.hasNext()) {
-			Relationship relationship = relationshipList.next();
+			org.neo4j.graphdb.Relationship relationship = relationshipList.next();
 			org.neo4j.graphdb.Node node = relationship.getEndNode();
 			if (selector.isSelect(node)) {
-				nodeList.add(new Node(node));
+				nodeList.add(this.child(node));
+			}
+		}
+		return nodeList;
+	}
+	
+	/**
+	 * <p>このノードから外向きに関連するノードで指定の条件に合致するノードを取得する。</p>
+	 * REST経由で接続している場合、条件の判定はサーバ側で行い、合致したノードのみを一回の要求で取得します。<br/>
+	 * 合致するノードが存在しなかった場合、nullを返却する。
+	 * @param selector 指定の条件を定義したオブジェクト
+	 * @return この条件に合致したノード
+	 */
+	public Node getOutGoingNode(CypherNodeSelector selector) {
+		List<Node> nodeList = this.selectOutGoingNodes(selector, 1);
+		return nodeList.isEmpty() ? null : nodeList.get(0);
+	}
+	
+	/**
+	 * <p>このノードから外向きに関連するノードで指定の条件に合致するノードを取得する。</p>
+	 * REST経由で接続している場合、条件の判定はサーバ側で行い、合致したノードのみを一回の要求で取得します。
+	 * 取得したノードは応答に含まれるプロパティを保持します。<br/>
+	 * 合致するノードが存在しなかった場合、空の一覧を返却する。
+	 * @param selector 指定の条件を定義したオブジェクト
+	 * @return この条件に合致したノード一覧
+	 */
+	public List<Node> getOutGoingNodes(CypherNodeSelector selector) {
+		return this.selectOutGoingNodes(selector, 0);
+	}
+	
+	/**
+	 * <p>このノードから外向きに関連するノードで指定の条件に合致するノードを、指定の件数を上限に取得します。</p>
+	 * REST経由で接続していない場合、指定の種類のリレーションを辿り、ラベル、プロパティの条件をクライアント側で判定します。
+	 * @param selector 指定の条件を定義したオブジェクト
+	 * @param limit    取得件数の上限（上限を設けない場合0）
+	 * @return この条件に合致したノード一覧
+	 */
+	@SuppressWarnings("unchecked")
+	protected List<Node> selectOutGoingNodes(CypherNodeSelector selector, int limit) {
+		List<Node> nodeList = new ArrayList<Node>();
+		if (this.node instanceof RestNode) {
+			RestNode restNode = (RestNode)this.node;
+			Iterable<List<Object>> rows = restNode.getRestApi().query(selector.toQuery(limit), selector.toParameters(this.id)).getData();
+			for (List<Object> row : rows) {
+				Map<?, ?> nodeData = (Map<?, ?>)row.get(0);
+				nodeList.add(this.child(new RestNode(nodeData, restNode.getRestApi()), (Map<String, Object>)nodeData.get("data")));
 			}
+			return nodeList;
+		}
+		RelationshipType[] types = selector.getRelationshipTypes();
+		Iterable<org.neo4j.graphdb.Relationship> relationships = (types.length == 0) ? this.node.getRelationships(Direction.OUTGOING) : this.node.getRelationships(Direction.OUTGOING, types);
+		for (org.neo4j.graphdb.Relationship relationship : relationships) {
+			org.neo4j.graphdb.Node node = relationship.getEndNode();
+			if (!selector.isSelect(node)) continue;
+			nodeList.add(this.child(node));
+			if (limit > 0 && nodeList.size() >= limit) break;
 		}
 		return nodeList;
 	}
 	
+	/**
+	 * <p>このノードの指定の方向、種類のリレーションを取得する。</p>
+	 * REST経由で接続している場合、リレーションの種類による絞り込みはサーバ側で行い、
+	 * リレーションのプロパティ、関連するノードとあわせて一回の要求で取得します。<br/>
+	 * リレーションの種類を指定しなかった場合、すべての種類のリレーションを取得します。
+	 * 
+	 * @param direction リレーションの方向
+	 * @param types     リレーションの種類
+	 * @return リレーション一覧
+	 */
+	@SuppressWarnings("unchecked")
+	public List<Relationship> getRelationships(Direction direction, RelationshipType... types) {
+		List<Relationship> relationshipList = new ArrayList<Relationship>();
+		if (this.node instanceof RestNode) {
+			RestNode restNode = (RestNode)this.node;
+			String query = relationshipQuery(direction, types).append(" RETURN id(r), type(r), id(startNode(r)), r, b").toString();
+			for (List<Object> row : restNode.getRestApi().query(query, this.idParameter()).getData()) {
+				Map<?, ?> nodeData = (Map<?, ?>)row.get(4);
+				Node other = this.child(new RestNode(nodeData, restNode.getRestApi()), (Map<String, Object>)nodeData.get("data"));
+				boolean isStart = ((Number)row.get(2)).longValue() == this.id;
+				Map<String, Object> properties = (Map<String, Object>)((Map<?, ?>)row.get(3)).get("data");
+				relationshipList.add(new Relationship(((Number)row.get(0)).longValue(), (String)row.get(1), isStart ? this : other, isStart ? other : this, properties));
+			}
+			return relationshipList;
+		}
+		Iterable<org.neo4j.graphdb.Relationship> relationships = (types.length == 0) ? this.node.getRelationships(direction) : this.node.getRelationships(direction, types);
+		for (org.neo4j.graphdb.Relationship relationship : relationships) {
+			Map<String, Object> properties = new HashMap<String, Object>();
+			for (String key : relationship.getPropertyKeys()) properties.put(key, relationship.getProperty(key));
+			Node startNode = (relationship.getStartNode().getId() == this.id) ? this : this.child(relationship.getStartNode());
+			Node endNode   = (relationship.getEndNode().getId()   == this.id) ? this : this.child(relationship.getEndNode());
+			relationshipList.add(new Relationship(relationship.getId(), relationship.getType().name(), startNode, endNode, properties));
+		}
+		return relationshipList;
+	}
+	
+	/**
+	 * <p>このノードの指定の方向、種類のリレーションの数を取得する。</p>
+	 * REST経由で接続している場合、リレーションを取得せずにサーバ側で数えます。<br/>
+	 * リレーションの種類を指定しなかった場合、すべての種類のリレーションを数えます。
+	 * 
+	 * @param direction リレーションの方向
+	 * @param types     リレーションの種類
+	 * @return リレーションの数
+	 */
+	public int getDegree(Direction direction, RelationshipType... types) {
+		if (this.node instanceof RestNode) {
+			String query = relationshipQuery(direction, types).append(" RETURN count(r)").toString();
+			Iterator<List<Object>> rows = ((RestNode)this.node).getRestApi().query(query, this.idParameter()).getData().iterator();
+			return rows.hasNext() ? ((Number)rows.next().get(0)).intValue() : 0;
+		}
+		int degree = 0;
+		Iterable<org.neo4j.graphdb.Relationship> relationships = (types.length == 0) ? this.node.getRelationships(direction) : this.node.getRelationships(direction, types);
+		for (Iterator<org.neo4j.graphdb.Relationship> iterator = relationships.iterator(); iterator.hasNext(); iterator.next()) degree++;
+		return degree;
+	}
+	
+	/**
+	 * <p>このノードを"a"、リレーションを"r"、関連するノードを"b"として参照するCypher本文を生成します。</p>
+	 * このノードのＩＤは"{id}"のパラメータとして参照します。
+	 * @param direction リレーションの方向
+	 * @param types     リレーションの種類
+	 * @return Cypher本文
+	 */
+	protected static StringBuilder relationshipQuery(Direction direction, RelationshipType... types) {
+		StringBuilder query = new StringBuilder(96).append("START a=node({id}) MATCH (a)");
+		query.append((direction == Direction.INCOMING) ? "<-[r" : "-[r");
+		for (int i=0; i<types.length; i++) query.append((i == 0) ? ":" : "|").append(Cypher.escapeIdentifier(types[i].name()));
+		query.append((direction == Direction.OUTGOING) ? "]->(b)" : "]-(b)");
+		return query;
+	}
+	
+	/**
+	 * <p>このノードのＩＤを"id"としたパラメータを生成します。</p>
+	 * @return パラメータ
+	 */
+	protected Map<String, Object> idParameter() {
+		Map<String, Object> params = new HashMap<String, Object>(2);
+		params.put("id", Long.valueOf(this.id));
+		return params;
+	}
+	
 	/**
 	 * <p>このノードから外向きに関連するノードを取得する。</p>
 	 * @return 外向きに関連するノード一覧
 	 */
 	public List<Node> getOutGoingNodes() {
 		List<Node> nodeList = new ArrayList<Node>();
-		Iterator<Relationship> relationshipList = this.node.getRelationships(Direction.OUTGOING).iterator();
+		Iterator<org.neo4j.graphdb.Relationship> relationshipList = this.node.getRelationships(Direction.OUTGOING).iterator();
 		while (relationshipList.hasNext()) {
-			Relationship relationship = relationshipList.next();
-			nodeList.add(new Node(relationship.getEndNode()));
+			org.neo4j.graphdb.Relationship relationship = relationshipList.next();
+			nodeList.add(this.child(relationship.getEndNode()));
 		}
 		return nodeList;
 	}
@@ -101,9 +347,8 @@ public class Node {
 	 * @return ラベル一覧
 	 */
 	public List<org.neo4j.graphdb.Label> getLabel() {
-		List<org.neo4j.graphdb.Label> labelList = new ArrayList<org.neo4j.graphdb.Label>();
-		this.node.getLabels().forEach(label->labelList.add(label));
-		return labelList;
+		if (this.labels == null) this.refresh();
+		return new ArrayList<org.neo4j.graphdb.Label>(this.labels);
 	}
 	
 	/**
@@ -112,11 +357,75 @@ public class Node {
 	 */
 	public void addLabel(org.neo4j.graphdb.Label label) {
 		this.node.addLabel(label);
+		this.written();
+		if (this.labels != null && !this.labels.contains(label)) this.labels.add(label);
+	}
+	
+	/**
+	 * <p>このノードのラベル、プロパティをサーバから再取得します。</p>
+	 * ラベル、プロパティは一回の要求でまとめて取得され、以降の参照はこのノードが保持する値から行われます。
+	 * 他のトランザクションによる更新を反映する場合に実行してください。
+	 * @throws Neo4JDataStoreManagerFatalException ノードが他のトランザクションにより削除されていた場合
+	 */
+	@SuppressWarnings("unchecked")
+	public void refresh() {
+		if (this.node instanceof RestNode) {
+			Map<String, Object> params = new HashMap<String, Object>();
+			params.put("id", Long.valueOf(this.id));
+			Iterator<List<Object>> rows = ((RestNode)this.node).getRestApi().query("START n=node({id}) RETURN labels(n), n", params).getData().iterator();
+			if (!rows.hasNext()) throw new Neo4JDataStoreManagerFatalException(NODE_IS_NOT_FOUND, Long.toString(this.id));
+			List<Object> row = rows.next();
+			this.setLabels((List<String>)row.get(0));
+			Map<String, Object> data = (Map<String, Object>)((Map<String, Object>)row.get(1)).get("data");
+			this.properties = (data == null) ? new HashMap<String, Object>() : new HashMap<String, Object>(data);
+		} else {
+			List<Label> labelList = new ArrayList<Label>();
+			Map<String, Object> propertyData = new HashMap<String, Object>();
+			try {
+				this.node.getLabels().forEach(label->labelList.add(label));
+				for (String key : this.node.getPropertyKeys()) propertyData.put(key, this.node.getProperty(key));
+			} catch (NotFoundException e) {
+				throw new Neo4JDataStoreManagerFatalException(NODE_IS_NOT_FOUND, Long.toString(this.id), e);
+			}
+			this.labels     = labelList;
+			this.properties = propertyData;
+		}
+	}
+	
+	/**
+	 * <p>指定のラベル名一覧をこのノードのラベルとして保持します。</p>
+	 * @param labelNames ラベル名一覧
+	 */
+	void setLabels(List<String> labelNames) {
+		List<Label> labelList = new ArrayList<Label>(labelNames.size());
+		for (String labelName : labelNames) labelList.add(DynamicLabel.label(labelName));
+		this.labels = labelList;
+	}
+	
+	/**
+	 * <p>このノードが保持しているプロパティを取得します。</p>
+	 * 未取得の場合、サーバから取得します。
+	 * @return プロパティ
+	 */
+	protected Map<String, Object> getPropertyData() {
+		if (this.properties == null) this.refresh();
+		return this.properties;
+	}
+	
+	/**
+	 * <p>このノードが保持しているプロパティに指定の値を反映します。</p>
+	 * プロパティが未取得の場合は何もしません。
+	 * @param key   プロパティキー
+	 * @param value プロパティ値
+	 */
+	protected void putPropertyData(String key, Object value) {
+		if (this.properties != null) this.properties.put(key, value);
 	}
 	
 	/**
 	 * <p>このノードに対して指定のマップの要素すべてをプロパティとして登録します。</p>
 	 * マップのキーはプロパティのキー、マップの値はプロパティとして設定されます。
+	 * 登録は一回の要求で行われ、マップに含まれないプロパティはそのまま保持されます。
 	 * 値には、String,Boolean,Integerの３種類のみ設定可能です。
 	 * 値に、それ以外の型、もしくはNULL値が設定されていた場合、例外が送出されます。
 	 * 
@@ -124,20 +433,27 @@ public class Node {
 	 * @throws Neo4JDataStoreManagerException NULL値が設定されていた場合
 	 */
 	public void setProperty(Map<String, Object> properties) throws Neo4JDataStoreManagerException {
-		for (Map.Entry<String, Object> property : properties.entrySet()) {
-			String key = property.getKey();
-			Object val = property.getValue();
-			if (val == null) throw new Neo4JDataStoreManagerException(PARAMETER_IS_FRAUD, key, "null");
-			if (val instanceof String) {
-				this.setProperty(key, (String)val);
-			} else if (val instanceof Integer){
-				this.setProperty(key, ((Integer)val).intValue());
-			} else if (val instanceof Boolean) {
-				this.setProperty(key, ((Boolean)val).booleanValue());
-			} else {
-				throw new Neo4JDataStoreManagerException(PARAMETER_IS_FRAUD, key, val.toString());
+		checkProperties(properties);
+		if (properties.isEmpty()) return;
+		if (this.node instanceof RestNode) {
+			RestNode restNode = (RestNode)this.node;
+			Map<String, Object> params = new HashMap<String, Object>();
+			params.put("id", Long.valueOf(this.id));
+			StringBuilder query = new StringBuilder("START n=node({id}) SET ");
+			int index = 0;
+			for (Map.Entry<String, Object> property : properties.entrySet()) {
+				if (index != 0) query.append(", ");
+				query.append("n.").append(Cypher.escapeIdentifier(property.getKey())).append(" = {p").append(index).append('}');
+				params.put("p" + index, property.getValue());
+				index++;
 			}
+			restNode.getRestApi().query(query.toString(), params);
+			restNode.invalidatePropertyData();
+		} else {
+			for (Map.Entry<String, Object> property : properties.entrySet()) this.node.setProperty(property.getKey(), property.getValue());
 		}
+		this.written();
+		if (this.properties != null) this.properties.putAll(properties);
 	}
 	
 	/**
@@ -148,6 +464,8 @@ public class Node {
 	 */
 	public void setProperty(String key, String value) {
 		this.node.setProperty(key, value);
+		this.written();
+		this.putPropertyData(key, value);
 	}
 	
 	/**
@@ -157,6 +475,8 @@ public class Node {
 	 */
 	public void setProperty(String key, int value) {
 		this.node.setProperty(key, Integer.valueOf(value));
+		this.written();
+		this.putPropertyData(key, Integer.valueOf(value));
 	}
 	
 	/**
@@ -166,25 +486,31 @@ public class Node {
 	 */
 	public void setProperty(String key, boolean value) {
 		this.node.setProperty(key, Boolean.valueOf(value));
+		this.written();
+		this.putPropertyData(key, Boolean.valueOf(value));
 	}
 	
 	/**
-	 * <p>このノードに対して指定のプロパティを登録します。</p>
+	 * <p>このノードに対して指定のオブジェクトをプロパティとして登録します。</p>
+	 * オブジェクトはこのノードのオブジェクトプロパティ変換方式にてバイト配列に変換されます。<br/>
+	 * REST経由で接続している場合はバイト配列を格納できないため、"base64:"を接頭辞としたBase64文字列として格納します。
+	 * 
 	 * @param key プロパティキー
 	 * @param value プロパティ値
-	 * @throws Neo4JDataStoreManagerException 
+	 * @throws Neo4JDataStoreManagerException オブジェクトの変換に失敗した場合
 	 */
 	public void setProperty(String key, Serializable value) throws Neo4JDataStoreManagerException {
-		try {
-			ByteArrayOutputStream baos = new ByteArrayOutputStream();
-			ObjectOutputStream    oos  = new ObjectOutputStream(baos);
-			oos.writeObject(value);
-			oos.close();
-			baos.close();
-			this.node.setProperty(key, new String(baos.toByteArray()));
-		} catch (IOException e) {
-			throw new Neo4JDataStoreManagerException(PARAMETER_IS_FRAUD, key, value.toString());
+		if (value == null) throw new Neo4JDataStoreManagerException(PARAMETER_IS_FRAUD, key, "null");
+		byte[] encoded = this.codec.encode(value);
+		Object data;
+		if (this.node instanceof RestNode) {
+			data = BASE64_PREFIX + Base64.getEncoder().encodeToString(encoded);
+		} else {
+			data = encoded;
 		}
+		this.node.setProperty(key, data);
+		this.written();
+		this.putPropertyData(key, data);
 	}
 	
 	/**
@@ -193,7 +519,7 @@ public class Node {
 	 * @return 値
 	 */
 	public String getPropertyString(String key) {
-		return (String)this.node.getProperty(key);
+		return (String)this.getPropertyData().get(key);
 	}
 	
 	/**
@@ -202,7 +528,9 @@ public class Node {
 	 * @return 値
 	 */
 	public Integer getPropertyInteger(String key) {
-		return (Integer)this.node.getProperty(key);
+		Object value = this.getPropertyData().get(key);
+		if (value == null || value instanceof Integer) return (Integer)value;
+		return Integer.valueOf(((Number)value).intValue());
 	}
 	
 	/**
@@ -211,20 +539,33 @@ public class Node {
 	 * @return 値
 	 */
 	public Boolean getPropertyBoolean(String key) {
-		return (Boolean)this.node.getProperty(key);
+		return (Boolean)this.getPropertyData().get(key);
 	}
 	
 	/**
 	 * <p>このノードから指定のプロパティキーに紐づくObjectの値を取得します。</p>
+	 * {@link #setProperty(String, Serializable)}にて登録された値をオブジェクトプロパティ変換方式にて復元します。<br/>
+	 * 変換方式導入前に文字列として格納された値は、従来どおりJavaの標準シリアライズで復元します。
+	 * 
 	 * @param key プロパティキー
-	 * @return 値
+	 * @return 値（プロパティが存在しない場合null）
+	 * @throws Neo4JDataStoreManagerException 値の復元に失敗した場合
 	 */
 	public Object getPropertyObject(String key) throws Neo4JDataStoreManagerException {
-		try {
-			String value = (String) this.node.getProperty(key);
-			byte[] data = value.getBytes();
-			ByteArrayInputStream bis = new ByteArrayInputStream(data);
-			ObjectInputStream ois = new ObjectInputStream(bis);
+		Object value = this.getPropertyData().get(key);
+		if (value == null) return null;
+		if (value instanceof byte[]) return this.codec.decode((byte[])value);
+		String stringValue = value.toString();
+		if (stringValue.startsWith(BASE64_PREFIX)) {
+			byte[] data;
+			try {
+				data = Base64.getDecoder().decode(stringValue.substring(BASE64_PREFIX.length()));
+			} catch (IllegalArgumentException e) {
+				throw new Neo4JDataStoreManagerException(PARAMETER_FAILED_TO_READ, key, e);
+			}
+			return this.codec.decode(data);
+		}
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(stringValue.getBytes()))) {
 			return ois.readObject();
 		} catch (IOException | ClassNotFoundException e) {
 			throw new Neo4JDataStoreManagerException(PARAMETER_FAILED_TO_READ, key, e);
@@ -237,9 +578,9 @@ public class Node {
 	 */
 	public Map<String, Object> getProperty() {
 		Map<String, Object> propertyData = new HashMap<String, Object>();
-		List<String> propertyKeys = this.getPropertyKeys();
-		for (String propertyKey : propertyKeys) {
-			Object value = this.node.getProperty(propertyKey);
+		for (Map.Entry<String, Object> property : this.getPropertyData().entrySet()) {
+			String propertyKey = property.getKey();
+			Object value       = property.getValue();
 			if (value instanceof String) {
 				propertyData.put(propertyKey, (String)value);
 			} else if (value instanceof Integer) {
@@ -256,9 +597,7 @@ public class Node {
 	 * @return プロパティキー一覧
 	 */
 	public List<String> getPropertyKeys() {
-		List<String> keyList = new ArrayList<String>();
-		for (String key : this.node.getPropertyKeys()) keyList.add(key);
-		return keyList;
+		return new ArrayList<String>(this.getPropertyData().keySet());
 	}
 	
 	/**
@@ -269,6 +608,7 @@ public class Node {
 	 */
 	public void addOutGoingRelation(RelationshipType label, Node node) {
 		this.node.createRelationshipTo(node.node, label);
+		this.written();
 	}
 	
 	/**
@@ -282,14 +622,15 @@ public class Node {
 	 * @param value プロパティ値
 	 */
 	public void addOutGoingRelation(RelationshipType label, Node node, String key, String value) {
-		Relationship relationship = this.node.createRelationshipTo(node.node, label);
+		org.neo4j.graphdb.Relationship relationship = this.node.createRelationshipTo(node.node, label);
 		relationship.setProperty(key, value);
+		this.written();
 	}
 	
 	/**
 	 * <p>このノードから外向きに関連するノードを追加します。</p>
 	 * 引数に指定されたリレーションラベルと、ノードをこのノードから外向きの関連として登録します。<br/>
-	 * 尚、リレーションには指定のリレーションプロパティが設定されます。<br/>
+	 * 尚、リレーションには指定のリレーションプロパティが設定されます。リレーションの作成とプロパティの設定は一回の要求で行われます。<br/>
 	 * プロパティに設定できるのはString,Integer,Booleanのみであり、nullまたはそれ以外のクラスのインスタンスが設定されていた場合、例外を送出します。
 	 * 
 	 * @param label リレーションラベル
@@ -297,23 +638,38 @@ public class Node {
 	 * @param key   プロパティ一覧
 	 */
 	public void addOutGoingRelation(RelationshipType label, Node node, Map<String, Object> relationshipProperties) throws Neo4JDataStoreManagerException {
-		Relationship relationship = this.node.createRelationshipTo(node.node, label);
-		for ( Map.Entry<String, Object> relationshipProperty : relationshipProperties.entrySet() ) {
-			String key = relationshipProperty.getKey();
-			Object val = relationshipProperty.getValue();
+		checkProperties(relationshipProperties);
+		if (this.node instanceof RestNode && node.node instanceof RestNode) {
+			Map<String, Object> params = new HashMap<String, Object>();
+			params.put("from" , Long.valueOf(this.id));
+			params.put("to"   , Long.valueOf(node.id));
+			params.put("props", relationshipProperties);
+			StringBuilder query = new StringBuilder("START a=node({from}), b=node({to}) CREATE (a)-[:").append(Cypher.escapeIdentifier(label.name())).append(" {props}]->(b)");
+			((RestNode)this.node).getRestApi().query(query.toString(), params);
+		} else {
+			org.neo4j.graphdb.Relationship relationship = this.node.createRelationshipTo(node.node, label);
+			for (Map.Entry<String, Object> relationshipProperty : relationshipProperties.entrySet()) relationship.setProperty(relationshipProperty.getKey(), relationshipProperty.getValue());
+		}
+		this.written();
+	}
+	
+	/**
+	 * <p>指定のプロパティ一覧にノードのプロパティとして登録できない値が含まれていないかを検証します。</p>
+	 * 値には、String,Boolean,Integerの３種類のみ設定可能です。
+	 * 値に、それ以外の型、もしくはNULL値が設定されていた場合、例外が送出されます。
+	 * 
+	 * @param properties プロパティ一覧
+	 * @throws Neo4JDataStoreManagerException 登録できない値が含まれていた場合
+	 */
+	static void checkProperties(Map<String, Object> properties) throws Neo4JDataStoreManagerException {
+		for (Map.Entry<String, Object> property : properties.entrySet()) {
+			String key = property.getKey();
+			Object val = property.getValue();
 			if (val == null) throw new Neo4JDataStoreManagerException(PARAMETER_IS_FRAUD, key, "null");
-			if (val instanceof String) {
-				relationship.setProperty(key, (String)val);
-			} else if (val instanceof Integer){
-				relationship.setProperty(key, (Integer)val);
-			} else if (val instanceof Boolean) {
-				relationship.setProperty(key, (Boolean)val);
-			} else {
+			if (!(val instanceof String) && !(val instanceof Integer) && !(val instanceof Boolean)) {
 				throw new Neo4JDataStoreManagerException(PARAMETER_IS_FRAUD, key, val.toString());
 			}
-			
 		}
-		
 	}
 	
 	/**
@@ -0,0 +1,202 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import jp.co.dk.neo4jdatastoremanager.cypher.Cypher;
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerCypherException;
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerFatalException;
+
+import org.codehaus.jackson.map.ObjectMapper;
+
+import static jp.co.dk.neo4jdatastoremanager.message.Neo4JDataStoreManagerMessage.*;
+
+/**
+ * <p>NodePageIteratorは、ノードの検索結果をページ単位で取得するイテレータです。</p>
+ * ページはSKIPによる読み飛ばしではなく、前のページの最後のノードのノードＩＤ（または指定のプロパティ値とノードＩＤ）より後のノードを
+ * 絞り込むキーセット方式で取得するため、各ページの取得にかかる時間はページの位置に依存しません。<br/>
+ * 並び替えに使用するプロパティを指定した場合、そのプロパティを持たないノードは取得されません。効率よく取得するには、そのプロパティにインデックスを作成してください。<br/>
+ * {@link #getCursor()}にて取得したカーソルを指定することで、取得済みのページの次のページから取得を再開できます。<br/>
+ * 取得したノードはトランザクションの管理対象に追加されないため、大量のノードを順次処理しても取得済みのノードを保持し続けることはありません。<br/>
+ * 取得中に通信、または応答の解析に失敗した場合、実行時例外を送出します。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+public class NodePageIterator implements Iterator<List<Node>> {
+
+	/** カーソルの変換に使用するJSON変換オブジェクト */
+	protected static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	/** ノードＩＤのパラメータ名 */
+	protected static final String CURSOR_ID = "pageCursorId";
+
+	/** プロパティ値のパラメータ名 */
+	protected static final String CURSOR_VALUE = "pageCursorValue";
+
+	/** ページあたりの件数のパラメータ名 */
+	protected static final String PAGE_SIZE = "pageSize";
+
+	/** トランザクション */
+	protected Transaction transaction;
+
+	/** 実行対象のCypher */
+	protected Cypher cypher;
+
+	/** ページあたりの件数 */
+	protected int pageSize;
+
+	/** 並び替えに使用するプロパティキー（ノードＩＤで並び替える場合null） */
+	protected String propertyKey;
+
+	/** 最後に取得したノードのノードＩＤ（未取得の場合null） */
+	protected Long lastId;
+
+	/** 最後に取得したノードのプロパティ値 */
+	protected Object lastValue;
+
+	/** 先読みしたページ */
+	protected List<Node> nextPage;
+
+	/** 取得完了有無 */
+	protected boolean isFinished = false;
+
+	/**
+	 * <p>指定のトランザクション、Cypher、ページあたりの件数、並び替えに使用するプロパティキーを基にイテレータを生成します。</p>
+	 * @param transaction トランザクション
+	 * @param cypher      実行対象のCypher
+	 * @param pageSize    ページあたりの件数
+	 * @param propertyKey 並び替えに使用するプロパティキー（ノードＩＤで並び替える場合null）
+	 */
+	NodePageIterator(Transaction transaction, Cypher cypher, int pageSize, String propertyKey) {
+		this.transaction = transaction;
+		this.cypher      = cypher;
+		this.pageSize    = pageSize;
+		this.propertyKey = propertyKey;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (this.nextPage != null) return true;
+		if (this.isFinished) return false;
+		List<Node> page = this.fetch();
+		if (page.size() < this.pageSize) this.isFinished = true;
+		if (page.isEmpty()) return false;
+		this.nextPage = page;
+		return true;
+	}
+
+	@Override
+	public List<Node> next() {
+		if (!this.hasNext()) throw new NoSuchElementException();
+		List<Node> page = this.nextPage;
+		this.nextPage = null;
+		Node last = page.get(page.size() - 1);
+		this.lastId = Long.valueOf(last.getID());
+		if (this.propertyKey != null) this.lastValue = last.getPropertyData().get(this.propertyKey);
+		return page;
+	}
+
+	/**
+	 * <p>最後に取得したページの次のページから取得を再開するためのカーソルを取得します。</p>
+	 * ページを取得していない場合、先頭から取得するカーソルを返却します。
+	 * @return カーソル
+	 */
+	public String getCursor() {
+		Map<String, Object> cursor = new HashMap<String, Object>(4);
+		cursor.put("i", this.lastId);
+		if (this.propertyKey != null) {
+			cursor.put("k", this.propertyKey);
+			cursor.put("v", this.lastValue);
+		}
+		try {
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(OBJECT_MAPPER.writeValueAsBytes(cursor));
+		} catch (IOException e) {
+			throw new Neo4JDataStoreManagerFatalException(PAGING_PARAMETER_IS_FRAUD, cursor.toString(), e);
+		}
+	}
+
+	/**
+	 * <p>指定のカーソルが表す位置から取得を再開するように設定します。</p>
+	 * @param cursor カーソル
+	 * @throws Neo4JDataStoreManagerCypherException カーソルが不正な場合、並び替えに使用するプロパティキーが一致しない場合
+	 */
+	void resume(String cursor) throws Neo4JDataStoreManagerCypherException {
+		Map<?, ?> decoded;
+		try {
+			decoded = OBJECT_MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), Map.class);
+		} catch (IOException | IllegalArgumentException e) {
+			throw new Neo4JDataStoreManagerCypherException(PAGING_PARAMETER_IS_FRAUD, cursor, e);
+		}
+		Object id    = decoded.get("i");
+		Object key   = decoded.get("k");
+		Object value = decoded.get("v");
+		if (id != null && !(id instanceof Number)) throw new Neo4JDataStoreManagerCypherException(PAGING_PARAMETER_IS_FRAUD, cursor);
+		if (this.propertyKey == null ? key != null : !this.propertyKey.equals(key)) throw new Neo4JDataStoreManagerCypherException(PAGING_PARAMETER_IS_FRAUD, cursor);
+		if (this.propertyKey != null && id != null && value == null) throw new Neo4JDataStoreManagerCypherException(PAGING_PARAMETER_IS_FRAUD, cursor);
+		this.lastId    = (id == null) ? null : Long.valueOf(((Number)id).longValue());
+		this.lastValue = value;
+	}
+
+	/**
+	 * <p>最後に取得したノードの次のページを取得します。</p>
+	 * @return ページ
+	 */
+	protected List<Node> fetch() {
+		String query = this.toQuery(this.lastId != null);
+		Map<String, Object> params = new HashMap<String, Object>(this.cypher.getParameter());
+		params.put(PAGE_SIZE, Integer.valueOf(this.pageSize));
+		if (this.lastId != null) {
+			params.put(CURSOR_ID, this.lastId);
+			if (this.propertyKey != null) params.put(CURSOR_VALUE, this.lastValue);
+		}
+		List<Node> page = new ArrayList<Node>(this.pageSize);
+		try (CypherResultReader reader = this.transaction.query(query, params)) {
+			List<Object> row;
+			while ((row = reader.nextRow()) != null) page.add(this.transaction.toDetachedNode(row.get(0)));
+			this.transaction.loadLabels(page);
+		} catch (Neo4JDataStoreManagerCypherException e) {
+			throw new Neo4JDataStoreManagerFatalException(CYPHER_FAILED_TO_EXECUTE, query, e);
+		} catch (IOException e) {
+			throw new Neo4JDataStoreManagerFatalException(RESULT_FAILED_TO_READ, query, e);
+		}
+		return page;
+	}
+
+	/**
+	 * <p>実行対象のCypherにキーセット方式の絞り込み、並び替え、件数の制限を付加したCypher本文を生成します。</p>
+	 * @param hasCursor 前のページが存在する場合true
+	 * @return Cypher本文
+	 */
+	protected String toQuery(boolean hasCursor) {
+		StringBuilder query = new StringBuilder(this.cypher.getCypher()).append(" WITH n");
+		if (this.propertyKey == null) {
+			if (hasCursor) query.append(" WHERE id(n) > {").append(CURSOR_ID).append('}');
+			query.append(" RETURN n ORDER BY id(n)");
+		} else {
+			String property = "n." + Cypher.escapeIdentifier(this.propertyKey);
+			query.append(" WHERE has(").append(property).append(')');
+			if (hasCursor) {
+				query.append(" AND (").append(property).append(" > {").append(CURSOR_VALUE).append("} OR (")
+					.append(property).append(" = {").append(CURSOR_VALUE).append("} AND id(n) > {").append(CURSOR_ID).append("}))");
+			}
+			query.append(" RETURN n ORDER BY ").append(property).append(", id(n)");
+		}
+		query.append(" LIMIT {").append(PAGE_SIZE).append('}');
+		return query.toString();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("NODEPAGEITERATOR QUERY=[").append(this.toQuery(this.lastId != null)).append("] CURSOR=").append(this.getCursor());
+		return builder.toString();
+	}
+}
@@ -0,0 +1,99 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import org.neo4j.rest.graphdb.RestAPIFacade;
+import org.neo4j.rest.graphdb.RestGraphDatabase;
+
+/**
+ * <p>PooledConnectionは、コネクションプールに格納される単一のNeo4J接続を表すクラスです。</p>
+ * RESTクライアント（RestAPIFacade、RestGraphDatabase）を保持し、トランザクション間で再利用されます。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+class PooledConnection {
+
+	/** RESTクライアント */
+	protected RestAPIFacade restApiFacade;
+
+	/** グラフデータベースサービス */
+	protected RestGraphDatabase graphDatabaseService;
+	
+	/** Cypher送信用HTTPクライアント */
+	protected CypherRestClient cypherRestClient;
+
+	/** 最終利用日時（ミリ秒） */
+	protected long lastUsedTime;
+
+	/**
+	 * <p>指定のNeo4Jデータストア接続パラメータを基にRESTクライアントを生成します。</p>
+	 * @param parameter Neo4Jデータストア接続パラメータ
+	 */
+	PooledConnection(Neo4JDataStoreParameter parameter) {
+		if (parameter.isAuthSet()) {
+			this.restApiFacade = new RestAPIFacade(parameter.getNeo4jServer(), parameter.getNeo4jUser() ,parameter.getNeo4jPassword());
+		} else {
+			this.restApiFacade = new RestAPIFacade(parameter.getNeo4jServer());
+		}
+		this.graphDatabaseService = new RestGraphDatabase(this.restApiFacade);
+		this.cypherRestClient     = new CypherRestClient(parameter);
+		this.lastUsedTime         = System.currentTimeMillis();
+	}
+
+	/**
+	 * <p>RESTクライアントを取得します。</p>
+	 * @return RESTクライアント
+	 */
+	RestAPIFacade getRestApiFacade() {
+		return this.restApiFacade;
+	}
+
+	/**
+	 * <p>グラフデータベースサービスを取得します。</p>
+	 * @return グラフデータベースサービス
+	 */
+	RestGraphDatabase getGraphDatabaseService() {
+		return this.graphDatabaseService;
+	}
+
+	/**
+	 * <p>Cypher送信用HTTPクライアントを取得します。</p>
+	 * @return Cypher送信用HTTPクライアント
+	 */
+	CypherRestClient getCypherRestClient() {
+		return this.cypherRestClient;
+	}
+
+	/**
+	 * <p>このコネクションが指定の時間以上利用されていないかを判定します。</p>
+	 * @param now 現在日時（ミリ秒）
+	 * @param idleTimeout アイドルタイムアウト（ミリ秒）
+	 * @return 指定の時間以上利用されていない場合true、それ以外の場合false
+	 */
+	boolean isIdle(long now, long idleTimeout) {
+		return (now - this.lastUsedTime) > idleTimeout;
+	}
+
+	/**
+	 * <p>このコネクションの最終利用日時を更新します。</p>
+	 */
+	void touch() {
+		this.lastUsedTime = System.currentTimeMillis();
+	}
+
+	/**
+	 * <p>このコネクションが保持するRESTクライアントを破棄します。</p>
+	 * Cypher送信用HTTPクライアントを破棄し、グラフデータベースサービスをシャットダウンします。
+	 * @param shutdown グラフデータベースサービスをシャットダウンするか（true=シャットダウンする、false=シャットダウンしない）
+	 */
+	void close(boolean shutdown) {
+		this.cypherRestClient.destroy();
+		if (shutdown) this.graphDatabaseService.shutdown();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("POOLEDCONNECTION@").append(this.hashCode()).append(" LASTUSED=").append(this.lastUsedTime);
+		return builder.toString();
+	}
+}
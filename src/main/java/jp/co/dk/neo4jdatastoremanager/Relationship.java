@@ -0,0 +1,166 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.graphdb.DynamicRelationshipType;
+import org.neo4j.graphdb.RelationshipType;
+
+/**
+ * <p>Neo4Jでのリレーションを表すクラスです。</p>
+ * リレーションの種類、プロパティ、両端のノードは取得時にまとめて取得してこのオブジェクト内に保持し、各種取得メソッドはその値を返却します。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+public class Relationship {
+
+	/** リレーションＩＤ */
+	protected long id;
+
+	/** リレーションの種類 */
+	protected String type;
+
+	/** 開始ノード */
+	protected Node startNode;
+
+	/** 終了ノード */
+	protected Node endNode;
+
+	/** プロパティ */
+	protected Map<String, Object> properties;
+
+	/**
+	 * <p>取得済みのリレーションの情報を基にリレーションを作成します。</p>
+	 * @param id         リレーションＩＤ
+	 * @param type       リレーションの種類
+	 * @param startNode  開始ノード
+	 * @param endNode    終了ノード
+	 * @param properties プロパティ（プロパティが存在しない場合null）
+	 */
+	Relationship(long id, String type, Node startNode, Node endNode, Map<String, Object> properties) {
+		this.id         = id;
+		this.type       = type;
+		this.startNode  = startNode;
+		this.endNode    = endNode;
+		this.properties = (properties == null) ? new HashMap<String, Object>() : new HashMap<String, Object>(properties);
+	}
+
+	/**
+	 * このリレーションのIDを取得する。
+	 * @return このリレーションのＩＤ
+	 */
+	public long getID() {
+		return this.id;
+	}
+
+	/**
+	 * <p>このリレーションの種類を取得します。</p>
+	 * @return リレーションの種類
+	 */
+	public RelationshipType getType() {
+		return DynamicRelationshipType.withName(this.type);
+	}
+
+	/**
+	 * <p>このリレーションが指定の種類であるかを判定します。</p>
+	 * @param type リレーションの種類
+	 * @return 判定結果（true=指定の種類である、false=指定の種類でない）
+	 */
+	public boolean isType(RelationshipType type) {
+		return this.type.equals(type.name());
+	}
+
+	/**
+	 * <p>このリレーションの開始ノードを取得します。</p>
+	 * @return 開始ノード
+	 */
+	public Node getStartNode() {
+		return this.startNode;
+	}
+
+	/**
+	 * <p>このリレーションの終了ノードを取得します。</p>
+	 * @return 終了ノード
+	 */
+	public Node getEndNode() {
+		return this.endNode;
+	}
+
+	/**
+	 * <p>このリレーションの両端のノードのうち、指定のノードではない方のノードを取得します。</p>
+	 * 開始ノードと終了ノードが同一の場合、そのノードを返却します。
+	 * @param node ノード
+	 * @return 指定のノードではない方のノード
+	 */
+	public Node getOtherNode(Node node) {
+		return (this.startNode.getID() == node.getID()) ? this.endNode : this.startNode;
+	}
+
+	/**
+	 * <p>このリレーションから指定のプロパティキーに紐づくString値を取得します。</p>
+	 * @param key プロパティキー
+	 * @return 値
+	 */
+	public String getPropertyString(String key) {
+		return (String)this.properties.get(key);
+	}
+
+	/**
+	 * <p>このリレーションから指定のプロパティキーに紐づくInteger値を取得します。</p>
+	 * @param key プロパティキー
+	 * @return 値
+	 */
+	public Integer getPropertyInteger(String key) {
+		Object value = this.properties.get(key);
+		if (value == null || value instanceof Integer) return (Integer)value;
+		return Integer.valueOf(((Number)value).intValue());
+	}
+
+	/**
+	 * <p>このリレーションから指定のプロパティキーに紐づくBoolean値を取得します。</p>
+	 * @param key プロパティキー
+	 * @return 値
+	 */
+	public Boolean getPropertyBoolean(String key) {
+		return (Boolean)this.properties.get(key);
+	}
+
+	/**
+	 * <p>このリレーションに設定されているすべてのプロパティを取得します。</p>
+	 * @return プロパティキーと値のマップオブジェクト
+	 */
+	public Map<String, Object> getProperty() {
+		return new HashMap<String, Object>(this.properties);
+	}
+
+	/**
+	 * <p>このリレーションのプロパティキーの一覧を取得します。</p>
+	 * @return プロパティキー一覧
+	 */
+	public List<String> getPropertyKeys() {
+		return new ArrayList<String>(this.properties.keySet());
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (id ^ (id >>> 32));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (getClass() != obj.getClass()) return false;
+		return this.id == ((Relationship) obj).id;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("RELATIONSHIP@").append(this.id).append(" (").append(this.startNode.getID()).append(")-[:").append(this.type).append(' ').append(this.properties).append("]->(").append(this.endNode.getID()).append(')');
+		return builder.toString();
+	}
+}
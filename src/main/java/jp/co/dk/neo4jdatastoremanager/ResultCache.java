@@ -0,0 +1,214 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import jp.co.dk.neo4jdatastoremanager.cypher.Cypher;
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerCypherException;
+
+/**
+ * <p>ResultCacheは、参照系Cypherの検索結果をデータストア単位で保持するキャッシュです。</p>
+ * 検索結果は検索の種類とCypher（本文、パラメータ）をキーに保持され、最大件数を超えた場合は最も長く参照されていない検索結果から破棄されます。<br/>
+ * 保持期間を超えた検索結果は使用されません。<br/>
+ * 保持する検索結果はトランザクション、スレッド間で共有されるため、変更不可の値のみを保持します。（ノードは{@link CachedNode}として保持します）<br/>
+ * 更新を伴うCypherはキャッシュを使用せずに実行され、実行時にキャッシュ全体を破棄します。
+ * データストアを経由した更新（ノードの作成、プロパティの設定等）が行われた場合も、キャッシュ全体を破棄します。<br/>
+ * コミット前の検索結果を保持しないよう、データストアは更新を行ったトランザクションでは本キャッシュを使用せず、ロールバック時、コミットせずに終了した場合にもキャッシュ全体を破棄します。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+class ResultCache {
+
+	/** 更新を伴うCypherを判定するパターン */
+	protected static final Pattern WRITE_PATTERN = Pattern.compile("\\b(CREATE|MERGE|SET|DELETE|REMOVE|FOREACH|LOAD\\s+CSV|CALL)\\b", Pattern.CASE_INSENSITIVE);
+
+	/** 最大件数 */
+	protected final int maxSize;
+
+	/** 保持期間（ナノ秒） */
+	protected final long ttlNanos;
+
+	/** 検索結果（参照順） */
+	protected final LinkedHashMap<Key, CacheEntry> entries;
+
+	/** 世代（キャッシュ破棄のたびに加算） */
+	protected long generation = 0;
+
+	/** ヒット件数 */
+	protected final LongAdder hitCount = new LongAdder();
+
+	/** ミス件数 */
+	protected final LongAdder missCount = new LongAdder();
+
+	/**
+	 * <p>指定の最大件数、保持期間でキャッシュを生成します。</p>
+	 * @param maxSize 最大件数
+	 * @param ttl     保持期間（ミリ秒）
+	 */
+	ResultCache(int maxSize, long ttl) {
+		this.maxSize  = maxSize;
+		this.ttlNanos = ttl * 1000000L;
+		this.entries  = new LinkedHashMap<Key, CacheEntry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, CacheEntry> eldest) {
+				return this.size() > ResultCache.this.maxSize;
+			}
+		};
+	}
+
+	/**
+	 * <p>指定のCypherが更新を伴うかを判定します。</p>
+	 * 判定はキーワードの有無で行うため、更新を伴わないCypherを更新と判定する場合があります。
+	 * @param cypher Cypher
+	 * @return 判定結果（true=更新を伴う、false=更新を伴わない）
+	 */
+	static boolean isWrite(Cypher cypher) {
+		return WRITE_PATTERN.matcher(cypher.getCypher()).find();
+	}
+
+	/**
+	 * <p>指定の検索の種類、Cypherに紐づく検索結果を返却します。</p>
+	 * 保持している検索結果が存在しない場合、または保持期間を超えていた場合は、検索を実行し、その結果を保持した上で返却します。<br/>
+	 * 更新を伴うCypherの場合、実行の前後でキャッシュ全体を破棄し、その結果は保持しません。
+	 *
+	 * @param kind   検索の種類
+	 * @param cypher Cypher
+	 * @param loader 検索処理
+	 * @return 検索結果
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	@SuppressWarnings("unchecked")
+	<T> T get(String kind, Cypher cypher, Loader<T> loader) throws Neo4JDataStoreManagerCypherException {
+		if (isWrite(cypher)) {
+			this.invalidate();
+			try {
+				return loader.load();
+			} finally {
+				this.invalidate();
+			}
+		}
+		Key key = new Key(kind, cypher.freeze());
+		long startGeneration;
+		synchronized (this) {
+			CacheEntry entry = this.entries.get(key);
+			if (entry != null) {
+				if (System.nanoTime() - entry.createdAt <= this.ttlNanos) {
+					this.hitCount.increment();
+					return (T)entry.value;
+				}
+				this.entries.remove(key);
+			}
+			startGeneration = this.generation;
+		}
+		this.missCount.increment();
+		T value = loader.load();
+		synchronized (this) {
+			if (this.generation == startGeneration) this.entries.put(key, new CacheEntry(value, System.nanoTime()));
+		}
+		return value;
+	}
+
+	/**
+	 * <p>保持しているすべての検索結果を破棄します。</p>
+	 * 破棄前に開始された検索の結果も保持されません。
+	 */
+	synchronized void invalidate() {
+		this.generation++;
+		this.entries.clear();
+	}
+
+	/**
+	 * <p>保持している検索結果の件数を取得します。</p>
+	 * @return 件数
+	 */
+	synchronized int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * <p>ヒット件数を取得します。</p>
+	 * @return ヒット件数
+	 */
+	long getHitCount() {
+		return this.hitCount.sum();
+	}
+
+	/**
+	 * <p>ミス件数を取得します。</p>
+	 * @return ミス件数
+	 */
+	long getMissCount() {
+		return this.missCount.sum();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("RESULTCACHE SIZE=").append(this.size()).append('/').append(this.maxSize).append(" HIT=").append(this.getHitCount()).append(" MISS=").append(this.getMissCount());
+		return builder.toString();
+	}
+
+	/**
+	 * <p>Loaderは、キャッシュに存在しなかった場合の検索処理を表すインターフェースです。</p>
+	 */
+	@FunctionalInterface
+	interface Loader<T> {
+
+		/**
+		 * <p>検索を実行します。</p>
+		 * @return 検索結果
+		 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+		 */
+		T load() throws Neo4JDataStoreManagerCypherException;
+	}
+
+	/**
+	 * <p>検索の種類と不変のCypherからなるキャッシュのキーです。</p>
+	 */
+	protected static final class Key {
+
+		protected final String kind;
+
+		protected final Cypher cypher;
+
+		protected final int hash;
+
+		Key(String kind, Cypher cypher) {
+			this.kind   = kind;
+			this.cypher = cypher;
+			this.hash   = 31 * kind.hashCode() + cypher.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (this == object) return true;
+			if (!(object instanceof Key)) return false;
+			Key other = (Key) object;
+			return this.hash == other.hash && this.kind.equals(other.kind) && this.cypher.equals(other.cypher);
+		}
+	}
+
+	/**
+	 * <p>検索結果と保持開始日時です。</p>
+	 */
+	protected static final class CacheEntry {
+
+		protected final Object value;
+
+		protected final long createdAt;
+
+		CacheEntry(Object value, long createdAt) {
+			this.value     = value;
+			this.createdAt = createdAt;
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>ResultIteratorは、検索結果を一件ずつ読み込むイテレータです。</p>
+ * 検索結果はサーバの応答から逐次読み込まれるため、使用後は必ずクローズしてください。
+ * すべての結果を読み込んだ場合、自動的にクローズされます。
+ *
+ * @param <T> 検索結果の型
+ * @version 0.1
+ * @author D.Kanno
+ */
+public interface ResultIterator<T> extends Iterator<T>, Closeable {
+
+	/**
+	 * <p>このイテレータをクローズし、サーバとの通信を終了します。</p>
+	 */
+	@Override
+	void close();
+
+	/**
+	 * <p>このイテレータを順次ストリームとして取得します。</p>
+	 * ストリームをクローズした場合、このイテレータもクローズされます。
+	 * @return 検索結果のストリーム
+	 */
+	default Stream<T> stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false).onClose(this::close);
+	}
+}
@@ -0,0 +1,237 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerFatalException;
+
+import static jp.co.dk.neo4jdatastoremanager.message.Neo4JDataStoreManagerMessage.*;
+
+/**
+ * <p>Rowは、検索結果の一行を表すクラスです。</p>
+ * 各列の値は応答から直接復元した値（文字列、数値、真偽値、一覧、マップ）を保持し、列の番号または列名で参照します。<br/>
+ * ノードは{@link #getNode(int)}等にて参照された際に生成され、参照されないノードの列に対してノードオブジェクトは生成されません。<br/>
+ * 存在しない列を参照した場合、実行時例外を送出します。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+public class Row {
+
+	/** トランザクション */
+	protected Transaction transaction;
+
+	/** 列情報 */
+	protected Columns columns;
+
+	/** 値一覧（列の順序） */
+	protected List<Object> values;
+
+	/**
+	 * <p>指定のトランザクション、列情報、値一覧を基に行を生成します。</p>
+	 * @param transaction トランザクション
+	 * @param columns     列情報
+	 * @param values      値一覧
+	 */
+	Row(Transaction transaction, Columns columns, List<Object> values) {
+		this.transaction = transaction;
+		this.columns     = columns;
+		this.values      = values;
+	}
+
+	/**
+	 * <p>列名一覧を取得します。</p>
+	 * @return 列名一覧
+	 */
+	public List<String> getColumns() {
+		return this.columns.names;
+	}
+
+	/**
+	 * <p>列数を取得します。</p>
+	 * @return 列数
+	 */
+	public int size() {
+		return this.values.size();
+	}
+
+	/**
+	 * <p>指定の番号の列の値を取得します。</p>
+	 * @param index 列の番号（0から開始）
+	 * @return 値
+	 */
+	public Object getObject(int index) {
+		if (index < 0 || index >= this.values.size()) throw new Neo4JDataStoreManagerFatalException(COLUMN_IS_NOT_FOUND, Integer.toString(index));
+		return this.values.get(index);
+	}
+
+	/**
+	 * <p>指定の列名の列の値を取得します。</p>
+	 * @param column 列名
+	 * @return 値
+	 */
+	public Object getObject(String column) {
+		return this.getObject(this.columns.indexOf(column));
+	}
+
+	/**
+	 * <p>指定の番号の列の値を文字列として取得します。</p>
+	 * @param index 列の番号（0から開始）
+	 * @return 値
+	 */
+	public String getString(int index) {
+		Object value = this.getObject(index);
+		return (value == null) ? null : value.toString();
+	}
+
+	/**
+	 * <p>指定の列名の列の値を文字列として取得します。</p>
+	 * @param column 列名
+	 * @return 値
+	 */
+	public String getString(String column) {
+		return this.getString(this.columns.indexOf(column));
+	}
+
+	/**
+	 * <p>指定の番号の列の値を数値（Integer）として取得します。</p>
+	 * @param index 列の番号（0から開始）
+	 * @return 値
+	 */
+	public Integer getInteger(int index) {
+		Object value = this.getObject(index);
+		if (value == null || value instanceof Integer) return (Integer)value;
+		return Integer.valueOf(((Number)value).intValue());
+	}
+
+	/**
+	 * <p>指定の列名の列の値を数値（Integer）として取得します。</p>
+	 * @param column 列名
+	 * @return 値
+	 */
+	public Integer getInteger(String column) {
+		return this.getInteger(this.columns.indexOf(column));
+	}
+
+	/**
+	 * <p>指定の番号の列の値を数値（Long）として取得します。</p>
+	 * @param index 列の番号（0から開始）
+	 * @return 値
+	 */
+	public Long getLong(int index) {
+		Object value = this.getObject(index);
+		if (value == null || value instanceof Long) return (Long)value;
+		return Long.valueOf(((Number)value).longValue());
+	}
+
+	/**
+	 * <p>指定の列名の列の値を数値（Long）として取得します。</p>
+	 * @param column 列名
+	 * @return 値
+	 */
+	public Long getLong(String column) {
+		return this.getLong(this.columns.indexOf(column));
+	}
+
+	/**
+	 * <p>指定の番号の列の値を真偽値として取得します。</p>
+	 * @param index 列の番号（0から開始）
+	 * @return 値
+	 */
+	public Boolean getBoolean(int index) {
+		return (Boolean)this.getObject(index);
+	}
+
+	/**
+	 * <p>指定の列名の列の値を真偽値として取得します。</p>
+	 * @param column 列名
+	 * @return 値
+	 */
+	public Boolean getBoolean(String column) {
+		return this.getBoolean(this.columns.indexOf(column));
+	}
+
+	/**
+	 * <p>指定の番号の列の値を一覧として取得します。</p>
+	 * @param index 列の番号（0から開始）
+	 * @return 値
+	 */
+	@SuppressWarnings("unchecked")
+	public List<Object> getList(int index) {
+		return (List<Object>)this.getObject(index);
+	}
+
+	/**
+	 * <p>指定の列名の列の値を一覧として取得します。</p>
+	 * @param column 列名
+	 * @return 値
+	 */
+	public List<Object> getList(String column) {
+		return this.getList(this.columns.indexOf(column));
+	}
+
+	/**
+	 * <p>指定の番号の列の値をノードとして取得します。</p>
+	 * ノードは応答に含まれるプロパティを保持し、トランザクション内で同一のノードは同一のインスタンスとなります。
+	 * @param index 列の番号（0から開始）
+	 * @return ノード
+	 */
+	public Node getNode(int index) {
+		Object value = this.getObject(index);
+		return (value == null) ? null : this.transaction.toNode(value);
+	}
+
+	/**
+	 * <p>指定の列名の列の値をノードとして取得します。</p>
+	 * ノードは応答に含まれるプロパティを保持し、トランザクション内で同一のノードは同一のインスタンスとなります。
+	 * @param column 列名
+	 * @return ノード
+	 */
+	public Node getNode(String column) {
+		return this.getNode(this.columns.indexOf(column));
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("ROW COLUMNS=").append(this.columns.names).append(" VALUES=").append(this.values);
+		return builder.toString();
+	}
+
+	/**
+	 * <p>検索結果の列名と列の番号の対応です。</p>
+	 * 一回の検索結果のすべての行で共有されます。
+	 */
+	protected static class Columns {
+
+		/** 列名一覧 */
+		protected final List<String> names;
+
+		/** 列名と列の番号のマップ */
+		protected final Map<String, Integer> indexes;
+
+		/**
+		 * <p>指定の列名一覧を基に列情報を生成します。</p>
+		 * @param names 列名一覧（応答に列名が含まれない場合null）
+		 */
+		Columns(List<String> names) {
+			this.names   = (names == null) ? Collections.<String>emptyList() : Collections.unmodifiableList(new ArrayList<String>(names));
+			this.indexes = new HashMap<String, Integer>((int)(this.names.size() / 0.75f) + 1);
+			for (int i=0; i<this.names.size(); i++) this.indexes.put(this.names.get(i), Integer.valueOf(i));
+		}
+
+		/**
+		 * <p>指定の列名の列の番号を取得します。</p>
+		 * @param column 列名
+		 * @return 列の番号
+		 */
+		int indexOf(String column) {
+			Integer index = this.indexes.get(column);
+			if (index == null) throw new Neo4JDataStoreManagerFatalException(COLUMN_IS_NOT_FOUND, column);
+			return index.intValue();
+		}
+	}
+}
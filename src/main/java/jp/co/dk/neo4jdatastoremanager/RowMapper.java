@@ -0,0 +1,25 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+/**
+ * <p>RowMapperは、検索結果の一行を任意のオブジェクトに変換するインターフェースです。</p>
+ * 一回の検索で複数の列を取得し、一行につき一つのオブジェクト（DTO等）を生成する場合に使用します。
+ *
+ * <pre>
+ * List&lt;User&gt; users = dataStore.selectRows(new Cypher("MATCH (n:User)-[:BELONG]-&gt;(g) RETURN n.name AS name, g.name AS group, count(*) AS count"),
+ *     row -&gt; new User(row.getString("name"), row.getString("group"), row.getInteger("count")));
+ * </pre>
+ *
+ * @param <T> 変換後の型
+ * @version 0.1
+ * @author D.Kanno
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+	/**
+	 * <p>指定の行を変換します。</p>
+	 * @param row 行
+	 * @return 変換後のオブジェクト
+	 */
+	T map(Row row);
+}
@@ -0,0 +1,99 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import java.util.Collections;
+import java.util.List;
+
+import jp.co.dk.neo4jdatastoremanager.cypher.Cypher;
+
+/**
+ * <p>StatementResultは、パイプラインにて実行した単一のCypherの検索結果を保持するクラスです。</p>
+ * 検索結果は列名の一覧と、行ごとの値の一覧として保持されます。ノードはプロパティのマップとして返却されます。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+public class StatementResult {
+
+	/** 実行したCypher */
+	protected Cypher cypher;
+
+	/** 列名一覧 */
+	protected List<String> columns;
+
+	/** 行一覧 */
+	protected List<List<Object>> rows;
+
+	/**
+	 * <p>実行したCypherと検索結果を基に、検索結果を生成します。</p>
+	 * @param cypher  実行したCypher
+	 * @param columns 列名一覧
+	 * @param rows    行一覧
+	 */
+	StatementResult(Cypher cypher, List<String> columns, List<List<Object>> rows) {
+		this.cypher  = cypher;
+		this.columns = Collections.unmodifiableList(columns);
+		this.rows    = Collections.unmodifiableList(rows);
+	}
+
+	/**
+	 * <p>実行したCypherを取得します。</p>
+	 * @return 実行したCypher
+	 */
+	public Cypher getCypher() {
+		return this.cypher;
+	}
+
+	/**
+	 * <p>列名の一覧を取得します。</p>
+	 * @return 列名一覧
+	 */
+	public List<String> getColumns() {
+		return this.columns;
+	}
+
+	/**
+	 * <p>行の一覧を取得します。</p>
+	 * @return 行一覧
+	 */
+	public List<List<Object>> getRows() {
+		return this.rows;
+	}
+
+	/**
+	 * <p>行数を取得します。</p>
+	 * @return 行数
+	 */
+	public int size() {
+		return this.rows.size();
+	}
+
+	/**
+	 * <p>指定の行、列の値を取得します。</p>
+	 * @param row    行番号（0から開始）
+	 * @param column 列番号（0から開始）
+	 * @return 値
+	 */
+	public Object getValue(int row, int column) {
+		return this.rows.get(row).get(column);
+	}
+
+	/**
+	 * <p>指定の行、列名の値を取得します。</p>
+	 * 指定の列名が存在しない場合、nullを返却します。
+	 * @param row    行番号（0から開始）
+	 * @param column 列名
+	 * @return 値
+	 */
+	public Object getValue(int row, String column) {
+		int index = this.columns.indexOf(column);
+		if (index < 0) return null;
+		return this.rows.get(row).get(index);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("STATEMENTRESULT ").append(this.cypher).append(" COLUMNS=").append(this.columns).append(" ROWS=").append(this.rows.size());
+		return builder.toString();
+	}
+}
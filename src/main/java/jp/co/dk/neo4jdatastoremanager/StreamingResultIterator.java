@@ -0,0 +1,65 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerFatalException;
+
+import static jp.co.dk.neo4jdatastoremanager.message.Neo4JDataStoreManagerMessage.*;
+
+/**
+ * <p>StreamingResultIteratorは、Cypherの応答を一行ずつ読み込み、指定の変換処理で変換して返却するイテレータです。</p>
+ * 読込中に通信、または応答の解析に失敗した場合、実行時例外を送出します。
+ *
+ * @param <T> 検索結果の型
+ * @version 0.1
+ * @author D.Kanno
+ */
+class StreamingResultIterator<T> implements ResultIterator<T> {
+
+	/** 応答読込オブジェクト */
+	protected CypherResultReader reader;
+
+	/** 行の変換処理 */
+	protected Function<List<Object>, T> converter;
+
+	/** 先読みした行 */
+	protected List<Object> nextRow;
+
+	/**
+	 * <p>指定の応答読込オブジェクトと行の変換処理を基にイテレータを生成します。</p>
+	 * @param reader    応答読込オブジェクト
+	 * @param converter 行の変換処理
+	 */
+	StreamingResultIterator(CypherResultReader reader, Function<List<Object>, T> converter) {
+		this.reader    = reader;
+		this.converter = converter;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (this.nextRow != null) return true;
+		try {
+			this.nextRow = this.reader.nextRow();
+		} catch (IOException e) {
+			this.close();
+			throw new Neo4JDataStoreManagerFatalException(RESULT_FAILED_TO_READ, String.valueOf(this.reader.getCypher()), e);
+		}
+		return this.nextRow != null;
+	}
+
+	@Override
+	public T next() {
+		if (!this.hasNext()) throw new NoSuchElementException();
+		List<Object> row = this.nextRow;
+		this.nextRow = null;
+		return this.converter.apply(row);
+	}
+
+	@Override
+	public void close() {
+		this.reader.close();
+	}
+}
@@ -1,25 +1,44 @@
 package jp.co.dk.neo4jdatastoremanager;
 
 import java.io.Closeable;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 import jp.co.dk.logger.Logger;
 import jp.co.dk.logger.LoggerFactory;
+import jp.co.dk.neo4jdatastoremanager.columnar.ColumnarResult;
+import jp.co.dk.neo4jdatastoremanager.columnar.ColumnarResultBuilder;
 import jp.co.dk.neo4jdatastoremanager.cypher.Cypher;
 import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerCypherException;
 import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerException;
+import jp.co.dk.neo4jdatastoremanager.metrics.DataStoreMetrics;
 
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
 import org.neo4j.rest.graphdb.RestAPIFacade;
-import org.neo4j.rest.graphdb.RestGraphDatabase;
+import org.neo4j.rest.graphdb.entity.RestNode;
 import org.neo4j.rest.graphdb.query.RestCypherQueryEngine;
 
 import static jp.co.dk.neo4jdatastoremanager.message.Neo4JDataStoreManagerMessage.*;
 
 /**
  * <p>Transactionは、単一のデータベースへの単一のトランザクションを管理するクラスです。</p>
+ * トランザクション内で取得したノードはノードＩＤごとに一つのインスタンスとして管理され、同一のノードを複数回取得した場合は同一のインスタンスが返却されます。<br/>
+ * 管理しているノードは、トランザクションの終了時に破棄されます。<br/>
+ * 組込みデータベースの接続パラメータの場合、同一プロセス内のデータベースに対してHTTPによる通信、JSONの変換を行わずに同一の操作を行います。
+ * 組込みデータベースのトランザクションはこのトランザクションを開始したスレッドに紐づくため、他のスレッドで実行される非同期検索はコミット済みのデータのみを参照します。
  * 
  * @version 0.1
  * @author D.Kanno
@@ -29,50 +48,134 @@ class Transaction implements Closeable {
 	/** データストアパラメータ */
 	protected Neo4JDataStoreParameter parameter;
 	
-	/** グラフデータベースサービス */
+	/** コネクションプール */
+	protected ConnectionPool connectionPool;
+	
+	/** コネクションプールから借用したコネクション */
+	protected PooledConnection connection;
+	
+	/** グラフデータベースサービス（組込みデータベースの場合null） */
 	protected RestAPIFacade restApiFacade;
 	
+	/** 組込みデータベース（REST経由で接続する場合null） */
+	protected EmbeddedDatabase embeddedDatabase;
+	
 	/** グラフデータベースサービス */
-	protected RestGraphDatabase graphDatabaseService;
+	protected GraphDatabaseService graphDatabaseService;
 	
 	/** トランザクション */
 	protected org.neo4j.graphdb.Transaction transaction;
 	
+	/** このトランザクションにて生成したパイプライン一覧 */
+	protected List<CypherPipeline> pipelines = new ArrayList<CypherPipeline>();
+	
+	/** 更新時に通知する処理（通知しない場合null） */
+	protected Runnable writeListener;
+	
+	/** このトランザクションにて取得したノード（ノードＩＤをキーとする） */
+	protected Map<Long, Node> identityMap = new ConcurrentHashMap<Long, Node>();
+	
+	/** 統計情報（記録しない場合null） */
+	protected DataStoreMetrics metrics;
+	
+	/** クローズ済み有無 */
+	protected boolean isClosed = false;
+	
 	/** ロガーインスタンス */
 	protected Logger logger = LoggerFactory.getLogger(this.getClass());
 	
 	/**
 	 * <p>指定のNeo4Jデータストア接続パラメータを基にNeo4Jに接続し、トランザクションを開始します。</p>
+	 * Neo4Jへの接続は、接続パラメータごとのコネクションプールから借用します。
+	 * 組込みデータベースの接続パラメータの場合、コネクションプールを使用せず、ストアのパスごとに起動した組込みデータベースを使用します。<br/>
+	 * トランザクションの開始に失敗した場合、借用したコネクションはプールへ返却します。
 	 * @param parameter Neo4Jデータストア接続パラメータ
-	 * @throws Neo4JDataStoreManagerException Neo4Jデータストア接続パラメータが設定されていなかった場合
+	 * @throws Neo4JDataStoreManagerException Neo4Jデータストア接続パラメータが設定されていなかった場合、コネクションの取得、組込みデータベースの起動に失敗した場合
 	 */
 	Transaction(Neo4JDataStoreParameter parameter) throws Neo4JDataStoreManagerException {
 		if (parameter == null) throw new Neo4JDataStoreManagerException(NEO4JPARAMETER_IS_NOT_SET);
 		this.parameter = parameter;
-		if (parameter.isAuthSet()) {
-			this.restApiFacade = new RestAPIFacade(parameter.getNeo4jServer(), parameter.getNeo4jUser() ,parameter.getNeo4jPassword());
+		if (parameter.isEmbedded()) {
+			this.embeddedDatabase     = EmbeddedDatabase.getEmbeddedDatabase(parameter.getEmbeddedPath());
+			this.graphDatabaseService = this.embeddedDatabase.getGraphDatabaseService();
 		} else {
-			this.restApiFacade = new RestAPIFacade(parameter.getNeo4jServer());
+			this.connectionPool       = ConnectionPool.getConnectionPool(parameter);
+			this.connection           = this.connectionPool.acquire();
+			this.restApiFacade        = this.connection.getRestApiFacade();
+			this.graphDatabaseService = this.connection.getGraphDatabaseService();
+		}
+		try {
+			this.transaction = this.graphDatabaseService.beginTx();
+		} catch (RuntimeException e) {
+			if (this.connection != null) this.connectionPool.release(this.connection);
+			throw e;
 		}
-		this.graphDatabaseService = new RestGraphDatabase(this.restApiFacade);
-		this.transaction          = this.graphDatabaseService.beginTx();
 		this.logger.info("transaction start param=[" + this.parameter + "]");
 	}
 	
 	/**
 	 * <p>コミットを実施する。</p>
 	 * このトランザクションに対して、コミット処理を実施します。
+	 * このトランザクションにて生成したパイプラインのうち終了していないものは、送信待ちのCypherの送信とあわせてコミットされます。
+	 * @throws Neo4JDataStoreManagerException パイプラインのコミットに失敗した場合
 	 */
-	public void commit() {
+	public void commit() throws Neo4JDataStoreManagerException {
 		this.transaction.success();
+		for (CypherPipeline pipeline : this.pipelines) {
+			if (pipeline.isFinished()) continue;
+			try {
+				pipeline.commit();
+			} catch (Neo4JDataStoreManagerCypherException e) {
+				throw new Neo4JDataStoreManagerException(CYPHER_FAILED_TO_EXECUTE, pipeline.toString(), e);
+			}
+		}
 	}
 	
 	/**
 	 * <p>ロールバックを実施する。</p>
 	 * このトランザクションに対して、ロールバック処理を実施します。
+	 * このトランザクションにて生成したパイプラインのうち終了していないものも、あわせてロールバックされます。
+	 * @throws Neo4JDataStoreManagerException パイプラインのロールバックに失敗した場合
 	 */
-	public void rollback() {
+	public void rollback() throws Neo4JDataStoreManagerException {
 		this.transaction.failure();
+		for (CypherPipeline pipeline : this.pipelines) {
+			try {
+				pipeline.rollback();
+			} catch (Neo4JDataStoreManagerCypherException e) {
+				throw new Neo4JDataStoreManagerException(CYPHER_FAILED_TO_EXECUTE, pipeline.toString(), e);
+			}
+		}
+	}
+	
+	/**
+	 * <p>このトランザクションを経由した更新時に通知する処理を設定します。</p>
+	 * このトランザクションで取得、作成したノードに対する更新、パイプラインにて実行された更新を伴うCypherが通知の対象となります。
+	 * @param writeListener 更新時に通知する処理
+	 */
+	void setWriteListener(Runnable writeListener) {
+		this.writeListener = writeListener;
+	}
+	
+	/**
+	 * <p>このトランザクションにて実行した要求の回数、読み込んだ行数を記録する統計情報を設定します。</p>
+	 * @param metrics 統計情報（記録しない場合null）
+	 */
+	void setMetrics(DataStoreMetrics metrics) {
+		this.metrics = metrics;
+		if (this.connection != null) this.connection.getCypherRestClient().setMetrics(metrics);
+	}
+	
+	/**
+	 * <p>このトランザクションにてCypherのパイプラインを生成します。</p>
+	 * 生成したパイプラインは、このトランザクションのコミット、ロールバック、クローズ時にあわせてコミット、ロールバックされます。<br/>
+	 * 組込みデータベースの場合、パイプラインのCypherはこのトランザクション内で実行されます。
+	 * @return パイプライン
+	 */
+	public CypherPipeline pipeline() {
+		CypherPipeline pipeline = (this.embeddedDatabase != null) ? new EmbeddedCypherPipeline(this.embeddedDatabase, this.transaction, this.writeListener) : new CypherPipeline(this.connection.getCypherRestClient(), this.writeListener);
+		this.pipelines.add(pipeline);
+		return pipeline;
 	}
 	
 	/**
@@ -80,14 +183,53 @@ class Transaction implements Closeable {
 	 * @return ノードオブジェクト
 	 */
 	public Node createNode() {
-		return new Node(this.graphDatabaseService.createNode());
+		Node node = new Node(this.graphDatabaseService.createNode(), this.parameter.getPropertyCodec()).withWriteListener(this.writeListener).withIdentityMap(this.identityMap);
+		this.identityMap.put(Long.valueOf(node.getID()), node);
+		return node;
+	}
+	
+	/**
+	 * <p>このトランザクションにて指定のラベルとプロパティを持つノードを一括で作成し、作成したノードのIDを返却します。</p>
+	 * プロパティ一覧の各要素につき一つのノードを作成します。作成は接続パラメータに設定された件数ごとに一回の要求で行われます。<br/>
+	 * 返却するIDの順序は、プロパティ一覧の順序と一致します。<br/>
+	 * REST経由で接続している場合、各要求はこのトランザクションに含まれず、要求ごとに即時コミットされます。
+	 * そのため、{@link #rollback()}を実施しても作成したノードは削除されず、途中の要求で失敗した場合もそれまでに作成したノードは残ります。
+	 * ロールバックの対象とする場合は、{@link #pipeline()}にて作成してください。
+	 * 
+	 * @param label          ラベル
+	 * @param propertiesList ノードごとのプロパティ一覧
+	 * @return 作成したノードのID一覧
+	 * @throws Neo4JDataStoreManagerException プロパティに登録できない値が含まれていた場合、応答の読込に失敗した場合
+	 * @throws Neo4JDataStoreManagerCypherException ノードの作成に失敗した場合
+	 */
+	public List<Long> createNodes(Label label, List<Map<String, Object>> propertiesList) throws Neo4JDataStoreManagerException, Neo4JDataStoreManagerCypherException {
+		if (label == null) throw new Neo4JDataStoreManagerException(PARAMETER_IS_FRAUD, "label", "null");
+		for (Map<String, Object> properties : propertiesList) Node.checkProperties(properties);
+		String query = new StringBuilder("CREATE (n:").append(Cypher.escapeIdentifier(label.name())).append(" {props}) RETURN id(n)").toString();
+		int chunkSize = this.parameter.getBatchChunkSize();
+		List<Long> idList = new ArrayList<>(propertiesList.size());
+		for (int from = 0; from < propertiesList.size(); from += chunkSize) {
+			List<Map<String, Object>> chunk = propertiesList.subList(from, Math.min(propertiesList.size(), from + chunkSize));
+			Map<String, Object> params = new HashMap<>(2);
+			params.put("props", chunk);
+			try (CypherResultReader reader = this.query(query, params)) {
+				List<Object> row;
+				while ((row = reader.nextRow()) != null) idList.add(Long.valueOf(((Number)row.get(0)).longValue()));
+			} catch (IOException e) {
+				throw new Neo4JDataStoreManagerException(RESULT_FAILED_TO_READ, query, e);
+			}
+		}
+		return idList;
 	}
 	
 	public String selectString(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
 		if (cypher == null) throw new Neo4JDataStoreManagerCypherException(CYPHER_IS_NOT_SET);
-		RestCypherQueryEngine queryEngine = new RestCypherQueryEngine(this.restApiFacade);
+		if (this.embeddedDatabase != null) return this.selectEmbeddedSingle(cypher, String.class);
+		RestCypherQueryEngine queryEngine = this.queryEngine();
 		try {
-			return queryEngine.query(cypher.getCypher(), cypher.getParameter()).to(String.class).single();
+			String value = queryEngine.query(cypher.getCypher(), cypher.getParameter()).to(String.class).single();
+			this.recordRows(1);
+			return value;
 		} catch (NoSuchElementException e) {
 			return null;
 		}
@@ -95,18 +237,23 @@ class Transaction implements Closeable {
 	
 	public List<String> selectStringList(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
 		if (cypher == null) throw new Neo4JDataStoreManagerCypherException(CYPHER_IS_NOT_SET);
-		RestCypherQueryEngine queryEngine = new RestCypherQueryEngine(this.restApiFacade);
+		if (this.embeddedDatabase != null) return this.selectEmbeddedList(cypher, String.class);
+		RestCypherQueryEngine queryEngine = this.queryEngine();
 		Iterator<String> resultIterator = queryEngine.query(cypher.getCypher(), cypher.getParameter()).to(String.class).iterator();
 		List<String> strList = new ArrayList<>();
 		while(resultIterator.hasNext()) strList.add(resultIterator.next());
+		this.recordRows(strList.size());
 		return strList;
 	}
 	
 	public Integer selectInt(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
 		if (cypher == null) throw new Neo4JDataStoreManagerCypherException(CYPHER_IS_NOT_SET);
-		RestCypherQueryEngine queryEngine = new RestCypherQueryEngine(this.restApiFacade);
+		if (this.embeddedDatabase != null) return this.selectEmbeddedSingle(cypher, Integer.class);
+		RestCypherQueryEngine queryEngine = this.queryEngine();
 		try {
-			return queryEngine.query(cypher.getCypher(), cypher.getParameter()).to(Integer.class).single();
+			Integer value = queryEngine.query(cypher.getCypher(), cypher.getParameter()).to(Integer.class).single();
+			this.recordRows(1);
+			return value;
 		} catch (NoSuchElementException e) {
 			return null;
 		}
@@ -114,18 +261,23 @@ class Transaction implements Closeable {
 	
 	public List<Integer> selectIntList(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
 		if (cypher == null) throw new Neo4JDataStoreManagerCypherException(CYPHER_IS_NOT_SET);
-		RestCypherQueryEngine queryEngine = new RestCypherQueryEngine(this.restApiFacade);
+		if (this.embeddedDatabase != null) return this.selectEmbeddedList(cypher, Integer.class);
+		RestCypherQueryEngine queryEngine = this.queryEngine();
 		Iterator<Integer> resultIterator = queryEngine.query(cypher.getCypher(), cypher.getParameter()).to(Integer.class).iterator();
 		List<Integer> intList = new ArrayList<>();
 		while(resultIterator.hasNext()) intList.add(resultIterator.next());
+		this.recordRows(intList.size());
 		return intList;
 	}
 	
 	public Boolean selectBoolean(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
 		if (cypher == null) throw new Neo4JDataStoreManagerCypherException(CYPHER_IS_NOT_SET);
-		RestCypherQueryEngine queryEngine = new RestCypherQueryEngine(this.restApiFacade);
+		if (this.embeddedDatabase != null) return this.selectEmbeddedSingle(cypher, Boolean.class);
+		RestCypherQueryEngine queryEngine = this.queryEngine();
 		try {
-			return queryEngine.query(cypher.getCypher(), cypher.getParameter()).to(Boolean.class).single();
+			Boolean value = queryEngine.query(cypher.getCypher(), cypher.getParameter()).to(Boolean.class).single();
+			this.recordRows(1);
+			return value;
 		} catch (NoSuchElementException e) {
 			return null;
 		}
@@ -133,52 +285,568 @@ class Transaction implements Closeable {
 	
 	public List<Boolean> selectBooleanList(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
 		if (cypher == null) throw new Neo4JDataStoreManagerCypherException(CYPHER_IS_NOT_SET);
-		RestCypherQueryEngine queryEngine = new RestCypherQueryEngine(this.restApiFacade);
+		if (this.embeddedDatabase != null) return this.selectEmbeddedList(cypher, Boolean.class);
+		RestCypherQueryEngine queryEngine = this.queryEngine();
 		Iterator<Boolean> resultIterator = queryEngine.query(cypher.getCypher(), cypher.getParameter()).to(Boolean.class).iterator();
 		List<Boolean> boolList = new ArrayList<>();
 		while(resultIterator.hasNext()) boolList.add(resultIterator.next());
+		this.recordRows(boolList.size());
 		return boolList;
 	}
 	
 	/**
 	 * <p>検索結果を取得する。（単一）</p>
 	 * 指定のCypherを実行し、単一のノードを取得します。
+	 * 検索結果が存在しない場合、または複数存在する場合はnullを返却します。
 	 * 
 	 * @param cypher 実行対象のCypher
 	 * @return 取得したノード
 	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
 	 */
 	public Node selectNode(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
-		if (cypher == null) throw new Neo4JDataStoreManagerCypherException(CYPHER_IS_NOT_SET);
-		RestCypherQueryEngine queryEngine = new RestCypherQueryEngine(this.restApiFacade);
-		try {
-			return new Node(queryEngine.query(cypher.getCypher(), cypher.getParameter()).to(org.neo4j.graphdb.Node.class).single());
-		} catch (NoSuchElementException e) {
-			return null;
+		try (ResultIterator<Node> resultIterator = this.selectNodeStream(cypher)) {
+			if (!resultIterator.hasNext()) return null;
+			Node node = resultIterator.next();
+			if (resultIterator.hasNext()) return null;
+			return node;
 		}
 	}
 	
 	/**
 	 * <p>検索結果を取得する。（複数）</p>
 	 * 指定のCypherを実行し、複数のノードを取得します。
+	 * 取得したノードは応答に含まれるプロパティを保持し、ラベルは一回の要求でまとめて取得されます。
 	 * 
 	 * @param cypher 実行対象のCypher
 	 * @return 取得したノード
 	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
 	 */
 	public List<Node> selectNodeList(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
-		if (cypher == null) throw new Neo4JDataStoreManagerCypherException(CYPHER_IS_NOT_SET);
-		RestCypherQueryEngine queryEngine = new RestCypherQueryEngine(this.restApiFacade);
-		Iterator<org.neo4j.graphdb.Node> resultIterator = queryEngine.query(cypher.getCypher(), cypher.getParameter()).to(org.neo4j.graphdb.Node.class).iterator();
 		List<Node> nodeList = new ArrayList<>();
-		while(resultIterator.hasNext()) nodeList.add(new Node(resultIterator.next()));
+		try (ResultIterator<Node> resultIterator = this.selectNodeStream(cypher)) {
+			while(resultIterator.hasNext()) nodeList.add(resultIterator.next());
+		}
+		this.loadLabels(nodeList);
 		return nodeList;
 	}
 	
+	/**
+	 * <p>指定のノード一覧のラベルを一回の要求でまとめて取得し、各ノードに設定します。</p>
+	 * 
+	 * @param nodeList ノード一覧
+	 * @throws Neo4JDataStoreManagerCypherException ラベルの取得に失敗した場合
+	 */
+	@SuppressWarnings("unchecked")
+	protected void loadLabels(List<Node> nodeList) throws Neo4JDataStoreManagerCypherException {
+		Map<Long, Node> nodeMap = new HashMap<>();
+		for (Node node : nodeList) if (node != null && node.labels == null) nodeMap.put(Long.valueOf(node.getID()), node);
+		if (nodeMap.isEmpty()) return;
+		String query = "START n=node({ids}) RETURN id(n), labels(n)";
+		Map<String, Object> params = new HashMap<>(2);
+		params.put("ids", new ArrayList<Long>(nodeMap.keySet()));
+		try (CypherResultReader reader = this.query(query, params)) {
+			List<Object> row;
+			while ((row = reader.nextRow()) != null) {
+				Node node = nodeMap.get(Long.valueOf(((Number)row.get(0)).longValue()));
+				if (node != null) node.setLabels((List<String>)row.get(1));
+			}
+		} catch (IOException e) {
+			throw new Neo4JDataStoreManagerCypherException(RESULT_FAILED_TO_READ, query, e);
+		}
+	}
+	
+	/**
+	 * <p>指定のCypher本文とパラメータを送信し、応答を一行ずつ読み込むリーダを返却します。</p>
+	 * 
+	 * @param query  Cypher本文
+	 * @param params パラメータ
+	 * @return 応答のリーダ
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	protected CypherResultReader query(String query, Map<String, Object> params) throws Neo4JDataStoreManagerCypherException {
+		if (this.embeddedDatabase != null) return this.embeddedDatabase.execute(query, params, query).withMetrics(this.metrics);
+		Map<String, Object> payload = new HashMap<>(4);
+		payload.put("query" , query);
+		payload.put("params", params);
+		return new CypherResultReader(this.connection.getCypherRestClient().post("/cypher", payload, query), query).withMetrics(this.metrics);
+	}
+	
+	/**
+	 * <p>指定のCypherを送信し、応答を一行ずつ読み込むリーダを返却します。</p>
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 応答のリーダ
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	protected CypherResultReader query(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
+		if (this.embeddedDatabase != null) return this.embeddedDatabase.execute(cypher.getCypher(), cypher.getParameter(), cypher).withMetrics(this.metrics);
+		return new CypherResultReader(this.connection.getCypherRestClient().query(cypher), cypher).withMetrics(this.metrics);
+	}
+	
+	/**
+	 * <p>neo4j-rest-graphdbのクエリエンジンを生成します。</p>
+	 * クエリエンジンによる検索は一回の要求として記録されます。
+	 * @return クエリエンジン
+	 */
+	protected RestCypherQueryEngine queryEngine() {
+		if (this.metrics != null) this.metrics.recordRoundTrip();
+		return new RestCypherQueryEngine(this.restApiFacade);
+	}
+	
+	/**
+	 * <p>組込みデータベースにて指定のCypherを実行し、先頭列の値を指定の型に変換して取得します。（単一）</p>
+	 * REST経由のクエリエンジンと同様に、検索結果が一件でない場合はnullを返却します。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @param type   値の型
+	 * @return 取得した値
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	protected <T> T selectEmbeddedSingle(Cypher cypher, Class<T> type) throws Neo4JDataStoreManagerCypherException {
+		List<T> list = this.selectEmbeddedList(cypher, type);
+		return (list.size() == 1) ? list.get(0) : null;
+	}
+	
+	/**
+	 * <p>組込みデータベースにて指定のCypherを実行し、先頭列の値を指定の型に変換して取得します。（複数）</p>
+	 * 数値は指定の型の数値に、文字列を指定した場合は各値を文字列に変換します。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @param type   値の型
+	 * @return 取得した値の一覧
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	protected <T> List<T> selectEmbeddedList(Cypher cypher, Class<T> type) throws Neo4JDataStoreManagerCypherException {
+		List<T> list = new ArrayList<>();
+		try (CypherResultReader reader = this.query(cypher)) {
+			List<Object> row;
+			while ((row = reader.nextRow()) != null) {
+				Object value = row.get(0);
+				if (value instanceof Number && type == Integer.class) value = Integer.valueOf(((Number)value).intValue());
+				if (value != null && type == String.class) value = value.toString();
+				list.add(type.cast(value));
+			}
+		} catch (IOException e) {
+			throw new Neo4JDataStoreManagerCypherException(RESULT_FAILED_TO_READ, cypher.toString(), e);
+		}
+		return list;
+	}
+	
+	/**
+	 * <p>統計情報が設定されている場合、読み込んだ行数を記録します。</p>
+	 * @param rows 行数
+	 */
+	protected void recordRows(long rows) {
+		if (this.metrics != null) this.metrics.recordRows(rows);
+	}
+	
+	/**
+	 * <p>検索結果をページ単位で取得する。（ノード）</p>
+	 * 指定のCypherにノードＩＤ、または指定のプロパティによるキーセット方式の絞り込み、並び替えを付加し、ページ単位で取得するイテレータを返却します。
+	 * 
+	 * @param cypher      実行対象のCypher（RETURN句を含まず、取得対象のノードを"n"として参照するもの）
+	 * @param pageSize    ページあたりの件数
+	 * @param propertyKey 並び替えに使用するプロパティキー（ノードＩＤで並び替える場合null）
+	 * @param cursor      再開位置を表すカーソル（先頭から取得する場合null）
+	 * @return ページのイテレータ
+	 * @throws Neo4JDataStoreManagerCypherException Cypherが設定されていない場合、ページあたりの件数、カーソルが不正な場合
+	 * @see NodePageIterator
+	 */
+	public NodePageIterator selectNodePages(Cypher cypher, int pageSize, String propertyKey, String cursor) throws Neo4JDataStoreManagerCypherException {
+		if (cypher == null) throw new Neo4JDataStoreManagerCypherException(CYPHER_IS_NOT_SET);
+		if (pageSize <= 0) throw new Neo4JDataStoreManagerCypherException(PAGING_PARAMETER_IS_FRAUD, "pageSize=" + pageSize);
+		NodePageIterator iterator = new NodePageIterator(this, cypher.freeze(), pageSize, propertyKey);
+		if (cursor != null) iterator.resume(cursor);
+		return iterator;
+	}
+	
+	/**
+	 * <p>このトランザクションにて複数階層の探索を生成します。</p>
+	 * @return 探索
+	 * @see Traversal
+	 */
+	public Traversal traversal() {
+		return new Traversal(this);
+	}
+	
+	/**
+	 * <p>Cypherの応答に含まれるノードの表現を基にノードを生成します。</p>
+	 * 応答に含まれるプロパティはノードに保持され、プロパティの再取得は行いません。<br/>
+	 * このトランザクションにて同一のノードＩＤのノードを取得済みの場合、新たに生成せずに取得済みのノードを返却します。
+	 * 取得済みのノードがプロパティを保持していない場合は、応答に含まれるプロパティを設定します。<br/>
+	 * 組込みデータベースの実行結果の場合、値はNeo4Jノードオブジェクトであり、プロパティは参照時に取得されます。
+	 * 
+	 * @param value 応答に含まれるノードの表現、またはNeo4Jノードオブジェクト
+	 * @return ノード
+	 */
+	@SuppressWarnings("unchecked")
+	protected Node toNode(Object value) {
+		if (value instanceof org.neo4j.graphdb.Node) {
+			org.neo4j.graphdb.Node graphNode = (org.neo4j.graphdb.Node)value;
+			return this.identityMap.computeIfAbsent(Long.valueOf(graphNode.getId()), id -> this.newNode(graphNode, null));
+		}
+		Map<?, ?> nodeData = (Map<?, ?>)value;
+		RestNode restNode = new RestNode(nodeData, this.restApiFacade);
+		Map<String, Object> properties = (Map<String, Object>)nodeData.get("data");
+		Node node = this.identityMap.computeIfAbsent(Long.valueOf(restNode.getId()), id -> this.newNode(restNode, properties));
+		if (node.properties == null && properties != null) node.properties = new HashMap<String, Object>(properties);
+		return node;
+	}
+	
+	/**
+	 * <p>Cypherの応答に含まれるノードの表現を基に、このトランザクションで管理しないノードを生成します。</p>
+	 * 同一のノードＩＤのノードを取得済みの場合は取得済みのノードを返却しますが、生成したノードは管理対象に追加しません。<br/>
+	 * 大量のノードを順次処理する場合に、処理済みのノードを保持し続けないために使用します。
+	 * 
+	 * @param value 応答に含まれるノードの表現、またはNeo4Jノードオブジェクト
+	 * @return ノード
+	 */
+	@SuppressWarnings("unchecked")
+	protected Node toDetachedNode(Object value) {
+		if (value instanceof org.neo4j.graphdb.Node) {
+			org.neo4j.graphdb.Node graphNode = (org.neo4j.graphdb.Node)value;
+			Node node = this.identityMap.get(Long.valueOf(graphNode.getId()));
+			return (node != null) ? node : this.newNode(graphNode, null);
+		}
+		Map<?, ?> nodeData = (Map<?, ?>)value;
+		RestNode restNode = new RestNode(nodeData, this.restApiFacade);
+		Node node = this.identityMap.get(Long.valueOf(restNode.getId()));
+		return (node != null) ? node : this.newNode(restNode, (Map<String, Object>)nodeData.get("data"));
+	}
+	
+	/**
+	 * <p>検索結果キャッシュに保持しているノードの複製を基に、このトランザクションのノードを生成します。</p>
+	 * このトランザクションにて同一のノードＩＤのノードを取得済みの場合、新たに生成せずに取得済みのノードを返却します。
+	 * 取得済みのノードがプロパティを保持していない場合は、複製が保持するプロパティを設定します。<br/>
+	 * ノードの生成時にサーバへの要求は行いません。
+	 * 
+	 * @param cachedNode ノードの複製（nullの場合nullを返却）
+	 * @return ノード
+	 */
+	protected Node toNode(CachedNode cachedNode) {
+		if (cachedNode == null) return null;
+		Node node = this.identityMap.computeIfAbsent(Long.valueOf(cachedNode.id), id -> {
+			org.neo4j.graphdb.Node graphNode = (this.embeddedDatabase != null) ? this.graphDatabaseService.getNodeById(cachedNode.id) : new RestNode(cachedNode.uri, this.restApiFacade);
+			return new Node(graphNode, cachedNode.labels, cachedNode.copyProperties(), this.parameter.getPropertyCodec()).withWriteListener(this.writeListener).withIdentityMap(this.identityMap);
+		});
+		if (node.properties == null && cachedNode.properties != null) node.properties = cachedNode.copyProperties();
+		return node;
+	}
+	
+	/**
+	 * <p>指定のNeo4Jノードオブジェクトと取得済みのプロパティを基に、このトランザクションの設定を引き継いだノードを生成します。</p>
+	 * @param node       Neo4Jノードオブジェクト
+	 * @param properties プロパティ（未取得の場合null）
+	 * @return ノード
+	 */
+	protected Node newNode(org.neo4j.graphdb.Node node, Map<String, Object> properties) {
+		return new Node(node, null, properties, this.parameter.getPropertyCodec()).withWriteListener(this.writeListener).withIdentityMap(this.identityMap);
+	}
+	
+	/**
+	 * <p>検索結果を逐次取得する。（文字列）</p>
+	 * 指定のCypherを実行し、先頭列の値を文字列として一件ずつ読み込むイテレータを返却します。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 検索結果のイテレータ
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	public ResultIterator<String> selectStringStream(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
+		return this.selectStream(cypher, row -> {
+			Object value = row.get(0);
+			return (value == null) ? null : value.toString();
+		});
+	}
+	
+	/**
+	 * <p>検索結果を逐次取得する。（数値）</p>
+	 * 指定のCypherを実行し、先頭列の値を数値として一件ずつ読み込むイテレータを返却します。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 検索結果のイテレータ
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	public ResultIterator<Integer> selectIntStream(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
+		return this.selectStream(cypher, row -> {
+			Object value = row.get(0);
+			return (value == null) ? null : Integer.valueOf(((Number)value).intValue());
+		});
+	}
+	
+	/**
+	 * <p>検索結果を逐次取得する。（真偽値）</p>
+	 * 指定のCypherを実行し、先頭列の値を真偽値として一件ずつ読み込むイテレータを返却します。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 検索結果のイテレータ
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	public ResultIterator<Boolean> selectBooleanStream(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
+		return this.selectStream(cypher, row -> (Boolean)row.get(0));
+	}
+	
+	/**
+	 * <p>検索結果を逐次取得する。（ノード）</p>
+	 * 指定のCypherを実行し、先頭列の値をノードとして一件ずつ読み込むイテレータを返却します。
+	 * ノードは応答に含まれるプロパティを保持した状態で生成され、ラベルは最初に参照された際に取得されます。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 検索結果のイテレータ
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	public ResultIterator<Node> selectNodeStream(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
+		return this.selectStream(cypher, row -> {
+			Object value = row.get(0);
+			return (value == null) ? null : this.toNode(value);
+		});
+	}
+	
+	/**
+	 * <p>検索結果を取得する。（複数列）</p>
+	 * 指定のCypherを実行し、各行を指定の変換処理で変換した一覧を返却します。
+	 * 
+	 * @param cypher    実行対象のCypher
+	 * @param rowMapper 行の変換処理
+	 * @return 変換後のオブジェクト一覧
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	public <T> List<T> selectRows(Cypher cypher, RowMapper<T> rowMapper) throws Neo4JDataStoreManagerCypherException {
+		List<T> rowList = new ArrayList<>();
+		try (ResultIterator<T> resultIterator = this.selectRowStream(cypher, rowMapper)) {
+			while(resultIterator.hasNext()) rowList.add(resultIterator.next());
+		}
+		return rowList;
+	}
+	
+	/**
+	 * <p>検索結果を逐次取得する。（複数列）</p>
+	 * 指定のCypherを実行し、各行を指定の変換処理で変換して一件ずつ読み込むイテレータを返却します。
+	 * 列名と列の番号の対応は最初に一度だけ作成され、すべての行で共有されます。
+	 * 
+	 * @param cypher    実行対象のCypher
+	 * @param rowMapper 行の変換処理
+	 * @return 検索結果のイテレータ
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	public <T> ResultIterator<T> selectRowStream(Cypher cypher, RowMapper<T> rowMapper) throws Neo4JDataStoreManagerCypherException {
+		if (cypher == null) throw new Neo4JDataStoreManagerCypherException(CYPHER_IS_NOT_SET);
+		CypherResultReader reader = this.query(cypher);
+		Row.Columns columns = new Row.Columns(reader.getColumns());
+		return new StreamingResultIterator<T>(reader, values -> rowMapper.map(new Row(this, columns, values)));
+	}
+	
+	/**
+	 * <p>検索結果を取得する。（ノードＩＤ）</p>
+	 * 指定のCypherを実行し、先頭列のノードＩＤを配列として取得します。
+	 * 先頭列はノードＩＤ（id(n)）、またはノードのいずれも指定可能です。ノードの場合はノードの表現からノードＩＤのみを読み込みます。<br/>
+	 * 値は要素ごとのオブジェクトを生成せずに応答から直接読み込まれます。先頭列がnullの行は含まれません。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return ノードＩＤの配列
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合、先頭列がノードＩＤ、ノードのいずれでもない場合
+	 */
+	public long[] selectNodeIds(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
+		LongStream.Builder builder = LongStream.builder();
+		this.readFirstColumn(cypher, parser -> {
+			if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+				builder.add(parser.getLongValue());
+				return;
+			}
+			long id = -1;
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				boolean isSelf = "self".equals(parser.getCurrentName());
+				parser.nextToken();
+				if (isSelf) {
+					id = parseNodeId(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+				} else {
+					parser.skipChildren();
+				}
+			}
+			if (id < 0) throw new IOException("node id is not found");
+			builder.add(id);
+		});
+		return builder.build().toArray();
+	}
+	
+	/**
+	 * <p>検索結果を取得する。（数値の配列）</p>
+	 * 指定のCypherを実行し、先頭列の値をlongの配列として取得します。
+	 * 値は要素ごとのオブジェクトを生成せずに応答から直接読み込まれます。先頭列がnullの行は含まれません。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 数値の配列
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合、先頭列が数値でない場合
+	 */
+	public long[] selectLongArray(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
+		LongStream.Builder builder = LongStream.builder();
+		this.readFirstColumn(cypher, parser -> builder.add(parser.getLongValue()));
+		return builder.build().toArray();
+	}
+	
+	/**
+	 * <p>検索結果を取得する。（数値の配列）</p>
+	 * 指定のCypherを実行し、先頭列の値をintの配列として取得します。
+	 * 値は要素ごとのオブジェクトを生成せずに応答から直接読み込まれます。先頭列がnullの行は含まれません。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 数値の配列
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合、先頭列が数値でない場合、intの範囲外の場合
+	 */
+	public int[] selectIntArray(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
+		IntStream.Builder builder = IntStream.builder();
+		this.readFirstColumn(cypher, parser -> builder.add(parser.getIntValue()));
+		return builder.build().toArray();
+	}
+	
+	/**
+	 * <p>検索結果を取得する。（数値の配列）</p>
+	 * 指定のCypherを実行し、先頭列の値をdoubleの配列として取得します。
+	 * 値は要素ごとのオブジェクトを生成せずに応答から直接読み込まれます。先頭列がnullの行は含まれません。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 数値の配列
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合、先頭列が数値でない場合
+	 */
+	public double[] selectDoubleArray(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
+		DoubleStream.Builder builder = DoubleStream.builder();
+		this.readFirstColumn(cypher, parser -> builder.add(parser.getDoubleValue()));
+		return builder.build().toArray();
+	}
+	
+	/**
+	 * <p>検索結果を取得する。（列形式）</p>
+	 * 指定のCypherを実行し、すべての列を列形式の検索結果として取得します。
+	 * 値は行ごとの一覧、値ごとのオブジェクトを生成せずに応答から各列の配列へ直接読み込まれます。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @return 検索結果
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合、値の読込に失敗した場合
+	 */
+	public ColumnarResult selectColumns(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
+		if (cypher == null) throw new Neo4JDataStoreManagerCypherException(CYPHER_IS_NOT_SET);
+		try (CypherResultReader reader = this.query(cypher)) {
+			ColumnarResultBuilder builder = new ColumnarResultBuilder(columnNames(reader), 0);
+			JsonParser parser;
+			while ((parser = reader.nextFirstColumn()) != null) builder.readRow(parser);
+			return builder.build();
+		} catch (IOException e) {
+			throw new Neo4JDataStoreManagerCypherException(RESULT_FAILED_TO_READ, cypher.toString(), e);
+		}
+	}
+	
+	/**
+	 * <p>検索結果を逐次取得する。（列形式）</p>
+	 * 指定のCypherを実行し、指定の行数ごとに列形式の検索結果として読み込むイテレータを返却します。
+	 * 文字列の辞書はすべてのバッチで共有されます。
+	 * 
+	 * @param cypher    実行対象のCypher
+	 * @param batchSize バッチあたりの行数
+	 * @return 検索結果のイテレータ
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合、バッチあたりの行数が不正な場合
+	 */
+	public ResultIterator<ColumnarResult> selectColumnBatches(Cypher cypher, int batchSize) throws Neo4JDataStoreManagerCypherException {
+		if (cypher == null) throw new Neo4JDataStoreManagerCypherException(CYPHER_IS_NOT_SET);
+		if (batchSize <= 0) throw new Neo4JDataStoreManagerCypherException(PAGING_PARAMETER_IS_FRAUD, "batchSize=" + batchSize);
+		CypherResultReader reader = this.query(cypher);
+		return new ColumnarBatchIterator(reader, columnNames(reader), batchSize);
+	}
+	
+	/**
+	 * <p>応答の列名一覧を取得します。</p>
+	 * 応答にて列名が行データの後に出力された場合、空の一覧を返却します。
+	 * @param reader 応答読込オブジェクト
+	 * @return 列名一覧
+	 */
+	protected static List<String> columnNames(CypherResultReader reader) {
+		List<String> columns = reader.getColumns();
+		return (columns == null) ? new ArrayList<String>() : columns;
+	}
+	
+	/**
+	 * <p>指定のCypherを実行し、各行の先頭列の値を指定の読込処理で読み込みます。</p>
+	 * 先頭列がnullの行、列が存在しない行は読込処理に渡されません。
+	 * 
+	 * @param cypher 実行対象のCypher
+	 * @param column 先頭列の読込処理
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合、値の読込に失敗した場合
+	 */
+	protected void readFirstColumn(Cypher cypher, ColumnReader column) throws Neo4JDataStoreManagerCypherException {
+		if (cypher == null) throw new Neo4JDataStoreManagerCypherException(CYPHER_IS_NOT_SET);
+		try (CypherResultReader reader = this.query(cypher)) {
+			JsonParser parser;
+			while ((parser = reader.nextFirstColumn()) != null) {
+				JsonToken token = parser.getCurrentToken();
+				if (token != JsonToken.VALUE_NULL && token != JsonToken.END_ARRAY) column.read(parser);
+				reader.skipRow();
+			}
+		} catch (IOException e) {
+			throw new Neo4JDataStoreManagerCypherException(RESULT_FAILED_TO_READ, cypher.toString(), e);
+		}
+	}
+	
+	/**
+	 * <p>ノードのURL（".../node/{id}"）の文字列からノードＩＤを読み込みます。</p>
+	 * @param text   文字列
+	 * @param offset 開始位置
+	 * @param length 長さ
+	 * @return ノードＩＤ（読み込めなかった場合-1）
+	 */
+	static long parseNodeId(char[] text, int offset, int length) {
+		int end   = offset + length;
+		int start = end;
+		while (start > offset && text[start - 1] >= '0' && text[start - 1] <= '9') start--;
+		if (start == end) return -1;
+		long id = 0;
+		for (int i=start; i<end; i++) id = id * 10 + (text[i] - '0');
+		return id;
+	}
+	
+	/**
+	 * <p>ColumnReaderは、JSONパーサの現在位置の値を読み込む処理を表すインターフェースです。</p>
+	 */
+	@FunctionalInterface
+	protected interface ColumnReader {
+		
+		/**
+		 * <p>JSONパーサの現在位置の値を読み込みます。</p>
+		 * @param parser JSONパーサ
+		 * @throws IOException 値の読込に失敗した場合
+		 */
+		void read(JsonParser parser) throws IOException;
+	}
+	
+	/**
+	 * <p>指定のCypherを実行し、応答を一行ずつ読み込み、指定の変換処理で変換するイテレータを返却します。</p>
+	 * 
+	 * @param cypher    実行対象のCypher
+	 * @param converter 行の変換処理
+	 * @return 検索結果のイテレータ
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	protected <T> ResultIterator<T> selectStream(Cypher cypher, Function<List<Object>, T> converter) throws Neo4JDataStoreManagerCypherException {
+		if (cypher == null) throw new Neo4JDataStoreManagerCypherException(CYPHER_IS_NOT_SET);
+		return new StreamingResultIterator<T>(this.query(cypher), converter);
+	}
+	
+	/**
+	 * <p>このトランザクションを終了し、借用したコネクションをコネクションプールへ返却します。</p>
+	 * 既にクローズ済みの場合は何もしません。
+	 */
 	@Override
 	public void close() {
-		this.transaction.close();
-		this.graphDatabaseService.shutdown();
+		if (this.isClosed || this.transaction == null) return;
+		this.isClosed = true;
+		try {
+			for (CypherPipeline pipeline : this.pipelines) pipeline.close();
+			this.pipelines.clear();
+			this.identityMap.clear();
+			this.transaction.close();
+		} finally {
+			if (this.connection != null) {
+				this.connection.getCypherRestClient().setMetrics(null);
+				this.connectionPool.release(this.connection);
+			}
+		}
 	}
 	
 	@Override
@@ -0,0 +1,282 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jp.co.dk.neo4jdatastoremanager.cypher.Cypher;
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerCypherException;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.RelationshipType;
+
+import static jp.co.dk.neo4jdatastoremanager.message.Neo4JDataStoreManagerMessage.*;
+
+/**
+ * <p>Traversalは、指定のノードを起点に複数階層の関連をたどる探索を表すクラスです。</p>
+ * 探索は幅優先で行い、各階層の未探索のノード（フロンティア）から関連するノードを一回の要求でまとめて取得します。<br/>
+ * そのため要求の回数は探索したノード数ではなく、探索の深さに比例します。<br/>
+ * 直前の階層と探索中の階層のノードはサーバ側で除外し、それより前に探索したノードは応答の読込時に除外します。
+ * そのため各要求のパラメータは探索済みのノード数ではなく、階層のノード数に比例します。<br/>
+ * 探索するノード数の上限が設定されている場合は上限を超えるノードを取得しません。
+ *
+ * <pre>
+ * Set&lt;Long&gt; ids = dataStore.traversal().from(node).relationshipType(FOLLOW).maxDepth(3).maxNodes(1000).selectIds();
+ * </pre>
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+public class Traversal {
+
+	/** トランザクション */
+	protected Transaction transaction;
+
+	/** 起点ノードＩＤ一覧 */
+	protected Set<Long> startIds = new LinkedHashSet<Long>();
+
+	/** 探索する深さ */
+	protected int maxDepth = 1;
+
+	/** 探索する方向 */
+	protected Direction direction = Direction.OUTGOING;
+
+	/** 探索するリレーションの種類一覧（空の場合すべての種類） */
+	protected List<String> relationshipTypes = new ArrayList<String>();
+
+	/** 探索するノード数の上限（上限を設けない場合0） */
+	protected int maxNodes = 0;
+
+	/** 探索済みノードＩＤ（探索ごとに生成する場合null） */
+	protected Set<Long> visited;
+
+	/**
+	 * <p>指定のトランザクションにて探索を行う探索を生成します。</p>
+	 * @param transaction トランザクション
+	 */
+	Traversal(Transaction transaction) {
+		this.transaction = transaction;
+	}
+
+	/**
+	 * <p>指定のノードを探索の起点に追加します。</p>
+	 * @param nodes ノード
+	 * @return 本オブジェクトインスタンス
+	 */
+	public Traversal from(Node... nodes) {
+		for (Node node : nodes) this.startIds.add(Long.valueOf(node.getID()));
+		return this;
+	}
+
+	/**
+	 * <p>指定のノードＩＤのノードを探索の起点に追加します。</p>
+	 * @param ids ノードＩＤ
+	 * @return 本オブジェクトインスタンス
+	 */
+	public Traversal from(long... ids) {
+		for (long id : ids) this.startIds.add(Long.valueOf(id));
+		return this;
+	}
+
+	/**
+	 * <p>指定のノードＩＤのノードを探索の起点に追加します。</p>
+	 * @param ids ノードＩＤ一覧
+	 * @return 本オブジェクトインスタンス
+	 */
+	public Traversal from(Collection<Long> ids) {
+		this.startIds.addAll(ids);
+		return this;
+	}
+
+	/**
+	 * <p>探索する深さを設定します。</p>
+	 * 初期値は1（起点のノードに直接関連するノードのみ）です。
+	 * @param maxDepth 探索する深さ
+	 * @return 本オブジェクトインスタンス
+	 */
+	public Traversal maxDepth(int maxDepth) {
+		this.maxDepth = maxDepth;
+		return this;
+	}
+
+	/**
+	 * <p>探索する方向を設定します。</p>
+	 * 初期値は外向き（{@link Direction#OUTGOING}）です。
+	 * @param direction 探索する方向
+	 * @return 本オブジェクトインスタンス
+	 */
+	public Traversal direction(Direction direction) {
+		this.direction = direction;
+		return this;
+	}
+
+	/**
+	 * <p>探索するリレーションの種類を追加します。</p>
+	 * 指定しなかった場合、すべての種類のリレーションを探索します。
+	 * @param relationshipType リレーションの種類
+	 * @return 本オブジェクトインスタンス
+	 */
+	public Traversal relationshipType(RelationshipType relationshipType) {
+		this.relationshipTypes.add(relationshipType.name());
+		return this;
+	}
+
+	/**
+	 * <p>探索するノード数の上限を設定します。</p>
+	 * 上限は起点のノードを含みません。上限に達した時点で探索を終了します。<br/>
+	 * 上限に達した階層で取得されるノードは、その階層のノードのうちサーバが返却した順に選択されます。
+	 * @param maxNodes 探索するノード数の上限（上限を設けない場合0）
+	 * @return 本オブジェクトインスタンス
+	 */
+	public Traversal maxNodes(int maxNodes) {
+		this.maxNodes = maxNodes;
+		return this;
+	}
+
+	/**
+	 * <p>探索済みノードＩＤを設定します。</p>
+	 * 指定の探索済みノードＩＤに含まれるノードは探索されず、探索したノードは指定の探索済みノードＩＤに追加されます。<br/>
+	 * 複数の探索で同一の探索済みノードＩＤを共有することで、既に探索したノードの再取得を防ぐことができます。
+	 * @param visited 探索済みノードＩＤ
+	 * @return 本オブジェクトインスタンス
+	 */
+	public Traversal visited(Set<Long> visited) {
+		this.visited = visited;
+		return this;
+	}
+
+	/**
+	 * <p>探索を実行し、探索したノードのＩＤを取得します。</p>
+	 * ＩＤは探索した順（浅い階層から順）に格納され、起点のノードは含まれません。
+	 * @return 探索したノードＩＤ一覧
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	public Set<Long> selectIds() throws Neo4JDataStoreManagerCypherException {
+		return new LinkedHashSet<Long>(this.traverse(null).keySet());
+	}
+
+	/**
+	 * <p>探索を実行し、探索したノードを取得します。</p>
+	 * ノードは探索した順（浅い階層から順）に格納され、起点のノードは含まれません。<br/>
+	 * ノードは応答に含まれるプロパティを保持し、ラベルは一回の要求でまとめて取得されます。
+	 * @return 探索したノード一覧
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	public List<Node> selectNodes() throws Neo4JDataStoreManagerCypherException {
+		Map<Long, Node> nodes = new LinkedHashMap<Long, Node>();
+		this.traverse(nodes);
+		List<Node> nodeList = new ArrayList<Node>(nodes.values());
+		this.transaction.loadLabels(nodeList);
+		return nodeList;
+	}
+
+	/**
+	 * <p>探索を実行し、起点のノードから探索した各ノードまでの経路を取得します。</p>
+	 * 経路は起点のノードＩＤから探索したノードＩＤまでのノードＩＤ一覧として表され、探索した順（浅い階層から順）に格納されます。<br/>
+	 * 複数の経路が存在する場合、最も浅い経路のうちの一つが返却されます。
+	 * @return 経路一覧
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	public List<List<Long>> selectPaths() throws Neo4JDataStoreManagerCypherException {
+		Map<Long, Long> parents = this.traverse(null);
+		List<List<Long>> pathList = new ArrayList<List<Long>>(parents.size());
+		for (Long id : parents.keySet()) {
+			List<Long> path = new ArrayList<Long>();
+			for (Long current = id; current != null; current = parents.get(current)) path.add(current);
+			Collections.reverse(path);
+			pathList.add(path);
+		}
+		return pathList;
+	}
+
+	/**
+	 * <p>探索を実行し、探索したノードＩＤと、そのノードに到達した一つ上の階層のノードＩＤのマップを返却します。</p>
+	 * マップは探索した順に格納されます。
+	 * @param nodes 探索したノードを格納するマップ（ノードを取得しない場合null）
+	 * @return 探索したノードＩＤと一つ上の階層のノードＩＤのマップ
+	 * @throws Neo4JDataStoreManagerCypherException Cypherの実行に失敗した場合
+	 */
+	protected Map<Long, Long> traverse(Map<Long, Node> nodes) throws Neo4JDataStoreManagerCypherException {
+		Map<Long, Long> parents = new LinkedHashMap<Long, Long>();
+		Set<Long> visited = (this.visited == null) ? new HashSet<Long>() : this.visited;
+		List<Long> previous = new ArrayList<Long>(0);
+		List<Long> frontier = new ArrayList<Long>();
+		for (Long id : this.startIds) if (visited.add(id)) frontier.add(id);
+		String query = this.toQuery(nodes != null);
+		for (int depth = 0; depth < this.maxDepth && !frontier.isEmpty(); depth++) {
+			int remaining = (this.maxNodes > 0) ? this.maxNodes - parents.size() : 0;
+			if (this.maxNodes > 0 && remaining <= 0) break;
+			Map<String, Object> params = this.toParameters(frontier, previous, visited.size(), remaining);
+			List<Long> next = new ArrayList<Long>();
+			try (CypherResultReader reader = this.transaction.query(query, params)) {
+				List<Object> row;
+				while ((row = reader.nextRow()) != null) {
+					if (this.maxNodes > 0 && parents.size() >= this.maxNodes) break;
+					Long id = Long.valueOf(((Number)row.get(0)).longValue());
+					if (!visited.add(id)) continue;
+					parents.put(id, Long.valueOf(((Number)row.get(1)).longValue()));
+					next.add(id);
+					if (nodes != null) nodes.put(id, this.transaction.toNode(row.get(2)));
+				}
+			} catch (IOException e) {
+				throw new Neo4JDataStoreManagerCypherException(RESULT_FAILED_TO_READ, query, e);
+			}
+			previous = frontier;
+			frontier = next;
+		}
+		return parents;
+	}
+
+	/**
+	 * <p>一つの階層を探索するCypherのパラメータを生成します。</p>
+	 * 直前の階層と探索中の階層のノードＩＤを除外するノードＩＤとします。<br/>
+	 * 取得件数の上限には、残りの取得件数に、除外するノードＩＤ以外の探索済みノード数（応答の読込時に除外される最大の件数）を加えた件数を設定します。
+	 * @param frontier     探索中の階層のノードＩＤ一覧
+	 * @param previous     直前の階層のノードＩＤ一覧
+	 * @param visitedCount 探索済みノード数（探索中、直前の階層のノードを含む）
+	 * @param remaining    残りの取得件数（上限を設けない場合0）
+	 * @return パラメータ
+	 */
+	protected Map<String, Object> toParameters(List<Long> frontier, List<Long> previous, int visitedCount, int remaining) {
+		List<Long> excluded = new ArrayList<Long>(previous.size() + frontier.size());
+		excluded.addAll(previous);
+		excluded.addAll(frontier);
+		Map<String, Object> params = new HashMap<String, Object>(4);
+		params.put("ids"     , frontier);
+		params.put("excluded", excluded);
+		if (remaining > 0) params.put("limit", Integer.valueOf((int)Math.min(Integer.MAX_VALUE, (long)remaining + visitedCount - excluded.size())));
+		return params;
+	}
+
+	/**
+	 * <p>一つの階層を探索するCypher本文を生成します。</p>
+	 * フロンティアのノードＩＤは"{ids}"、除外するノードＩＤは"{excluded}"、取得件数の上限は"{limit}"のパラメータとして参照します。
+	 * @param withNode ノードの表現を取得する場合true
+	 * @return Cypher本文
+	 */
+	protected String toQuery(boolean withNode) {
+		StringBuilder query = new StringBuilder(160).append("START a=node({ids}) MATCH (a)");
+		query.append((this.direction == Direction.INCOMING) ? "<-[" : "-[");
+		for (int i=0; i<this.relationshipTypes.size(); i++) query.append((i == 0) ? ":" : "|").append(Cypher.escapeIdentifier(this.relationshipTypes.get(i)));
+		query.append((this.direction == Direction.OUTGOING) ? "]->(b)" : "]-(b)");
+		query.append(" WHERE NOT (id(b) IN {excluded}) RETURN id(b), min(id(a))");
+		if (withNode) query.append(", b");
+		if (this.maxNodes > 0) query.append(" LIMIT {limit}");
+		return query.toString();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("TRAVERSAL START=").append(this.startIds).append(" MAXDEPTH=").append(this.maxDepth).append(" MAXNODES=").append(this.maxNodes).append(" QUERY=[").append(this.toQuery(false)).append(']');
+		return builder.toString();
+	}
+}
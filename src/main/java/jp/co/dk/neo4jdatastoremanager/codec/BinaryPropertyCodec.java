@@ -0,0 +1,818 @@
+package jp.co.dk.neo4jdatastoremanager.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerException;
+
+import static jp.co.dk.neo4jdatastoremanager.message.Neo4JDataStoreManagerMessage.*;
+
+/**
+ * <p>BinaryPropertyCodecは、オブジェクトを型情報付きの簡潔なバイナリ形式に変換するデフォルトの変換方式です。</p>
+ * 以下の型は、クラス名等のメタ情報を出力せず、型を表す1バイトと値のみで表現します。
+ * <ul>
+ * <li>String、Integer、Long、Short、Byte、Character、Double、Float、Boolean</li>
+ * <li>BigInteger、BigDecimal、Date</li>
+ * <li>byte[]、int[]、long[]、double[]、String[]</li>
+ * <li>ArrayList、HashMap、LinkedHashMap、HashSet、LinkedHashSet（要素も本形式で変換）</li>
+ * </ul>
+ * 整数は可変長で出力するため、小さい値ほど短く表現されます。<br/>
+ * 上記以外のSerializableなクラスは、クラスごとのスキーマ（クラス名、フィールド名、フィールドの型）を一回の出力につき一度だけ出力し、
+ * 以降は各フィールドの値のみをスキーマの順に出力します。復元時はフィールド名で対応付けるため、フィールドの追加、削除、並び替えを行っても復元できます。
+ * スキーマを使用できるのは、以下の条件をすべて満たすクラスです。
+ * <ul>
+ * <li>java.*、javax.*等のJDKのクラスでないこと、列挙型、Externalizableでないこと</li>
+ * <li>スーパークラスがすべてSerializableであること</li>
+ * <li>引数なしのコンストラクタを持つこと</li>
+ * <li>writeObject、readObject、writeReplace、readResolve、serialPersistentFieldsを定義していないこと</li>
+ * <li>継承関係にあるクラス間で同名のフィールドを持たないこと</li>
+ * </ul>
+ * スキーマで出力したオブジェクトへの複数の参照は、復元時にそれぞれ別のオブジェクトとなります。
+ * 上記以外の型、および循環参照を含むオブジェクトはJavaの標準シリアライズで変換したものを格納します。<br/>
+ * 出力の先頭には本形式を表す識別子とバージョンが付与されます。バージョン1の形式で出力されたバイト配列も復元できます。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+public class BinaryPropertyCodec implements PropertyCodec {
+
+	/** 形式識別子 */
+	protected static final byte MAGIC = (byte)0xC7;
+
+	/** 形式バージョン */
+	protected static final byte VERSION = 2;
+
+	/** 復元可能な最も古い形式バージョン */
+	protected static final byte MIN_VERSION = 1;
+
+	/** JDKのクラスとしてスキーマを使用しないパッケージ */
+	protected static final String[] JDK_PACKAGES = {"java.", "javax.", "jdk.", "sun.", "com.sun."};
+
+	/** クラスごとのスキーマ */
+	protected static final ClassValue<Schema> SCHEMAS = new ClassValue<Schema>() {
+		@Override
+		protected Schema computeValue(Class<?> type) {
+			return Schema.of(type);
+		}
+	};
+
+	protected static final byte NULL          = 0;
+	protected static final byte STRING        = 1;
+	protected static final byte INTEGER       = 2;
+	protected static final byte LONG          = 3;
+	protected static final byte SHORT         = 4;
+	protected static final byte BYTE          = 5;
+	protected static final byte CHARACTER     = 6;
+	protected static final byte DOUBLE        = 7;
+	protected static final byte FLOAT         = 8;
+	protected static final byte TRUE          = 9;
+	protected static final byte FALSE         = 10;
+	protected static final byte BIG_INTEGER   = 11;
+	protected static final byte BIG_DECIMAL   = 12;
+	protected static final byte DATE          = 13;
+	protected static final byte BYTE_ARRAY    = 14;
+	protected static final byte INT_ARRAY     = 15;
+	protected static final byte LONG_ARRAY    = 16;
+	protected static final byte DOUBLE_ARRAY  = 17;
+	protected static final byte STRING_ARRAY  = 18;
+	protected static final byte ARRAY_LIST    = 19;
+	protected static final byte HASH_MAP      = 20;
+	protected static final byte LINKED_MAP    = 21;
+	protected static final byte HASH_SET      = 22;
+	protected static final byte LINKED_SET    = 23;
+	protected static final byte OBJECT        = 24;
+	protected static final byte SERIALIZED    = 127;
+
+	@Override
+	public byte[] encode(Serializable value) throws Neo4JDataStoreManagerException {
+		Writer writer = new Writer(64);
+		writer.writeByte(MAGIC);
+		writer.writeByte(VERSION);
+		try {
+			try {
+				this.write(writer, value);
+			} catch (CyclicReferenceException e) {
+				writer = new Writer(64);
+				writer.writeByte(MAGIC);
+				writer.writeByte(VERSION);
+				this.writeSerialized(writer, value);
+			}
+		} catch (IOException e) {
+			throw new Neo4JDataStoreManagerException(PROPERTY_FAILED_TO_ENCODE, value.getClass().getName(), e);
+		}
+		return writer.toByteArray();
+	}
+
+	@Override
+	public Object decode(byte[] data) throws Neo4JDataStoreManagerException {
+		if (!isEncoded(data)) throw new Neo4JDataStoreManagerException(PROPERTY_FAILED_TO_DECODE);
+		Reader reader = new Reader(data, 2, data[1]);
+		try {
+			return this.read(reader);
+		} catch (IOException | ClassNotFoundException | RuntimeException e) {
+			throw new Neo4JDataStoreManagerException(PROPERTY_FAILED_TO_DECODE, e);
+		}
+	}
+
+	/**
+	 * <p>指定のバイト配列が本形式で出力されたものであるかを判定します。</p>
+	 * @param data バイト配列
+	 * @return 本形式で出力されたものである場合true、それ以外の場合false
+	 */
+	public static boolean isEncoded(byte[] data) {
+		return data != null && data.length >= 2 && data[0] == MAGIC && data[1] >= MIN_VERSION && data[1] <= VERSION;
+	}
+
+	/**
+	 * <p>指定のオブジェクトを型を表す1バイトと値で出力します。</p>
+	 * @param writer 出力先
+	 * @param value  出力対象
+	 * @throws IOException 標準シリアライズに失敗した場合
+	 */
+	protected void write(Writer writer, Object value) throws IOException {
+		if (value == null) {
+			writer.writeByte(NULL);
+			return;
+		}
+		Class<?> type = value.getClass();
+		if (type == String.class) {
+			writer.writeByte(STRING);
+			writer.writeString((String)value);
+		} else if (type == Integer.class) {
+			writer.writeByte(INTEGER);
+			writer.writeVarLong(zigzag(((Integer)value).intValue()));
+		} else if (type == Long.class) {
+			writer.writeByte(LONG);
+			writer.writeVarLong(zigzag(((Long)value).longValue()));
+		} else if (type == Short.class) {
+			writer.writeByte(SHORT);
+			writer.writeVarLong(zigzag(((Short)value).shortValue()));
+		} else if (type == Byte.class) {
+			writer.writeByte(BYTE);
+			writer.writeByte(((Byte)value).byteValue());
+		} else if (type == Character.class) {
+			writer.writeByte(CHARACTER);
+			writer.writeVarLong(((Character)value).charValue());
+		} else if (type == Double.class) {
+			writer.writeByte(DOUBLE);
+			writer.writeFixedLong(Double.doubleToRawLongBits(((Double)value).doubleValue()));
+		} else if (type == Float.class) {
+			writer.writeByte(FLOAT);
+			writer.writeFixedInt(Float.floatToRawIntBits(((Float)value).floatValue()));
+		} else if (type == Boolean.class) {
+			writer.writeByte(((Boolean)value).booleanValue() ? TRUE : FALSE);
+		} else if (type == BigInteger.class) {
+			writer.writeByte(BIG_INTEGER);
+			writer.writeBytes(((BigInteger)value).toByteArray());
+		} else if (type == BigDecimal.class) {
+			BigDecimal decimal = (BigDecimal)value;
+			writer.writeByte(BIG_DECIMAL);
+			writer.writeVarLong(zigzag(decimal.scale()));
+			writer.writeBytes(decimal.unscaledValue().toByteArray());
+		} else if (type == Date.class) {
+			writer.writeByte(DATE);
+			writer.writeVarLong(zigzag(((Date)value).getTime()));
+		} else if (type == byte[].class) {
+			writer.writeByte(BYTE_ARRAY);
+			writer.writeBytes((byte[])value);
+		} else if (type == int[].class) {
+			int[] array = (int[])value;
+			writer.writeByte(INT_ARRAY);
+			writer.writeVarLong(array.length);
+			for (int element : array) writer.writeVarLong(zigzag(element));
+		} else if (type == long[].class) {
+			long[] array = (long[])value;
+			writer.writeByte(LONG_ARRAY);
+			writer.writeVarLong(array.length);
+			for (long element : array) writer.writeVarLong(zigzag(element));
+		} else if (type == double[].class) {
+			double[] array = (double[])value;
+			writer.writeByte(DOUBLE_ARRAY);
+			writer.writeVarLong(array.length);
+			for (double element : array) writer.writeFixedLong(Double.doubleToRawLongBits(element));
+		} else if (type == String[].class) {
+			String[] array = (String[])value;
+			writer.writeByte(STRING_ARRAY);
+			writer.writeVarLong(array.length);
+			for (String element : array) {
+				if (element == null) {
+					writer.writeByte(NULL);
+				} else {
+					writer.writeByte(STRING);
+					writer.writeString(element);
+				}
+			}
+		} else if (type == ArrayList.class) {
+			this.writeCollection(writer, ARRAY_LIST, (Collection<?>)value);
+		} else if (type == HashSet.class) {
+			this.writeCollection(writer, HASH_SET, (Collection<?>)value);
+		} else if (type == LinkedHashSet.class) {
+			this.writeCollection(writer, LINKED_SET, (Collection<?>)value);
+		} else if (type == HashMap.class) {
+			this.writeMap(writer, HASH_MAP, (Map<?, ?>)value);
+		} else if (type == LinkedHashMap.class) {
+			this.writeMap(writer, LINKED_MAP, (Map<?, ?>)value);
+		} else {
+			Schema schema = SCHEMAS.get(type);
+			if (schema.isSupported()) {
+				this.writeObject(writer, schema, value);
+			} else {
+				this.writeSerialized(writer, value);
+			}
+		}
+	}
+
+	/**
+	 * <p>指定のオブジェクトをJavaの標準シリアライズで出力します。</p>
+	 * @param writer 出力先
+	 * @param value  出力対象
+	 * @throws IOException 標準シリアライズに失敗した場合
+	 */
+	protected void writeSerialized(Writer writer, Object value) throws IOException {
+		writer.writeByte(SERIALIZED);
+		int lengthPosition = writer.reserveInt();
+		try (ObjectOutputStream oos = new ObjectOutputStream(writer)) {
+			oos.writeObject(value);
+		}
+		writer.fillInt(lengthPosition, writer.size() - lengthPosition - 4);
+	}
+
+	/**
+	 * <p>指定のオブジェクトをスキーマに従って出力します。</p>
+	 * 出力中に初めて出現したクラスの場合はスキーマを出力し、既に出力済みの場合はスキーマの番号のみを出力します。
+	 * @param writer 出力先
+	 * @param schema スキーマ
+	 * @param value  出力対象
+	 * @throws IOException フィールドの値の出力に失敗した場合
+	 * @throws CyclicReferenceException 出力中のオブジェクトへの参照が含まれていた場合
+	 */
+	protected void writeObject(Writer writer, Schema schema, Object value) throws IOException {
+		if (writer.writing.put(value, Boolean.TRUE) != null) throw new CyclicReferenceException();
+		writer.writeByte(OBJECT);
+		Integer index = writer.schemas.get(schema);
+		if (index != null) {
+			writer.writeVarLong(index.intValue());
+		} else {
+			writer.writeVarLong(writer.schemas.size());
+			writer.schemas.put(schema, Integer.valueOf(writer.schemas.size()));
+			writer.writeString(schema.type.getName());
+			writer.writeVarLong(schema.fields.length);
+			for (int i=0; i<schema.fields.length; i++) {
+				writer.writeString(schema.fields[i].getName());
+				writer.writeByte(schema.kinds[i]);
+			}
+		}
+		try {
+			for (int i=0; i<schema.fields.length; i++) this.writeField(writer, schema.kinds[i], schema.fields[i].get(value));
+		} catch (IllegalAccessException e) {
+			throw new IOException(e);
+		}
+		writer.writing.remove(value);
+	}
+
+	/**
+	 * <p>フィールドの値を出力します。</p>
+	 * プリミティブ型のフィールドは型を表す1バイトを出力せず、値のみを出力します。
+	 * @param writer 出力先
+	 * @param kind   フィールドの型（プリミティブ型以外の場合{@link #NULL}）
+	 * @param value  フィールドの値
+	 * @throws IOException 値の出力に失敗した場合
+	 */
+	protected void writeField(Writer writer, byte kind, Object value) throws IOException {
+		switch (kind) {
+			case INTEGER   : writer.writeVarLong(zigzag(((Integer)value).intValue())); break;
+			case LONG      : writer.writeVarLong(zigzag(((Long)value).longValue())); break;
+			case SHORT     : writer.writeVarLong(zigzag(((Short)value).shortValue())); break;
+			case BYTE      : writer.writeByte(((Byte)value).byteValue()); break;
+			case CHARACTER : writer.writeVarLong(((Character)value).charValue()); break;
+			case DOUBLE    : writer.writeFixedLong(Double.doubleToRawLongBits(((Double)value).doubleValue())); break;
+			case FLOAT     : writer.writeFixedInt(Float.floatToRawIntBits(((Float)value).floatValue())); break;
+			case TRUE      : writer.writeByte(((Boolean)value).booleanValue() ? TRUE : FALSE); break;
+			default        : this.write(writer, value);
+		}
+	}
+
+	protected void writeCollection(Writer writer, byte tag, Collection<?> collection) throws IOException {
+		writer.writeByte(tag);
+		writer.writeVarLong(collection.size());
+		for (Object element : collection) this.write(writer, element);
+	}
+
+	protected void writeMap(Writer writer, byte tag, Map<?, ?> map) throws IOException {
+		writer.writeByte(tag);
+		writer.writeVarLong(map.size());
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			this.write(writer, entry.getKey());
+			this.write(writer, entry.getValue());
+		}
+	}
+
+	/**
+	 * <p>型を表す1バイトと値からオブジェクトを復元します。</p>
+	 * @param reader 入力元
+	 * @return 復元したオブジェクト
+	 * @throws IOException 入力が不正な場合
+	 * @throws ClassNotFoundException 標準シリアライズで出力されたクラスが存在しない場合
+	 */
+	protected Object read(Reader reader) throws IOException, ClassNotFoundException {
+		byte tag = reader.readByte();
+		switch (tag) {
+			case NULL        : return null;
+			case STRING      : return reader.readString();
+			case INTEGER     : return Integer.valueOf((int)unzigzag(reader.readVarLong()));
+			case LONG        : return Long.valueOf(unzigzag(reader.readVarLong()));
+			case SHORT       : return Short.valueOf((short)unzigzag(reader.readVarLong()));
+			case BYTE        : return Byte.valueOf(reader.readByte());
+			case CHARACTER   : return Character.valueOf((char)reader.readVarLong());
+			case DOUBLE      : return Double.valueOf(Double.longBitsToDouble(reader.readFixedLong()));
+			case FLOAT       : return Float.valueOf(Float.intBitsToFloat((reader.version == 1) ? (int)reader.readFixedLong() : reader.readFixedInt()));
+			case TRUE        : return Boolean.TRUE;
+			case FALSE       : return Boolean.FALSE;
+			case BIG_INTEGER : return new BigInteger(reader.readBytes());
+			case BIG_DECIMAL : {
+				int scale = (int)unzigzag(reader.readVarLong());
+				return new BigDecimal(new BigInteger(reader.readBytes()), scale);
+			}
+			case DATE        : return new Date(unzigzag(reader.readVarLong()));
+			case BYTE_ARRAY  : return reader.readBytes();
+			case INT_ARRAY   : {
+				int[] array = new int[reader.readLength()];
+				for (int i=0; i<array.length; i++) array[i] = (int)unzigzag(reader.readVarLong());
+				return array;
+			}
+			case LONG_ARRAY  : {
+				long[] array = new long[reader.readLength()];
+				for (int i=0; i<array.length; i++) array[i] = unzigzag(reader.readVarLong());
+				return array;
+			}
+			case DOUBLE_ARRAY: {
+				double[] array = new double[reader.readLength()];
+				for (int i=0; i<array.length; i++) array[i] = Double.longBitsToDouble(reader.readFixedLong());
+				return array;
+			}
+			case STRING_ARRAY: {
+				String[] array = new String[reader.readLength()];
+				for (int i=0; i<array.length; i++) array[i] = (reader.readByte() == NULL) ? null : reader.readString();
+				return array;
+			}
+			case ARRAY_LIST  : {
+				int size = reader.readLength();
+				return this.readCollection(reader, size, new ArrayList<Object>(size));
+			}
+			case HASH_SET    : {
+				int size = reader.readLength();
+				return this.readCollection(reader, size, new HashSet<Object>(capacity(size)));
+			}
+			case LINKED_SET  : {
+				int size = reader.readLength();
+				return this.readCollection(reader, size, new LinkedHashSet<Object>(capacity(size)));
+			}
+			case HASH_MAP    : {
+				int size = reader.readLength();
+				return this.readMap(reader, size, new HashMap<Object, Object>(capacity(size)));
+			}
+			case LINKED_MAP  : {
+				int size = reader.readLength();
+				return this.readMap(reader, size, new LinkedHashMap<Object, Object>(capacity(size)));
+			}
+			case OBJECT      : return this.readObject(reader);
+			case SERIALIZED  : {
+				int length = reader.readFixedInt();
+				try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(reader.data, reader.position, length))) {
+					Object value = ois.readObject();
+					reader.position += length;
+					return value;
+				}
+			}
+			default: throw new IOException("unknown tag " + tag);
+		}
+	}
+
+	/**
+	 * <p>スキーマに従って出力されたオブジェクトを復元します。</p>
+	 * 出力時のフィールドのうち、復元先のクラスに同名のフィールドが存在しないものは読み飛ばします。
+	 * @param reader 入力元
+	 * @return 復元したオブジェクト
+	 * @throws IOException 入力が不正な場合、復元先のクラスがスキーマを使用できない場合、フィールドの型が一致しない場合
+	 * @throws ClassNotFoundException 復元先のクラスが存在しない場合
+	 */
+	protected Object readObject(Reader reader) throws IOException, ClassNotFoundException {
+		int index = (int)reader.readVarLong();
+		if (index > reader.schemas.size()) throw new IOException("illegal schema index " + index);
+		if (index == reader.schemas.size()) reader.schemas.add(this.readSchema(reader));
+		StreamSchema streamSchema = reader.schemas.get(index);
+		Object value;
+		try {
+			value = streamSchema.schema.constructor.newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new IOException(e);
+		}
+		for (int i=0; i<streamSchema.kinds.length; i++) {
+			Object fieldValue = this.readField(reader, streamSchema.kinds[i]);
+			Field field = streamSchema.fields[i];
+			if (field == null) continue;
+			try {
+				field.set(value, fieldValue);
+			} catch (IllegalArgumentException | IllegalAccessException e) {
+				throw new IOException("incompatible field " + field, e);
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * <p>出力されたスキーマを読み込み、復元先のクラスのフィールドと対応付けます。</p>
+	 * @param reader 入力元
+	 * @return 出力時のスキーマ
+	 * @throws IOException 入力が不正な場合、復元先のクラスがスキーマを使用できない場合、フィールドの型が一致しない場合
+	 * @throws ClassNotFoundException 復元先のクラスが存在しない場合
+	 */
+	protected StreamSchema readSchema(Reader reader) throws IOException, ClassNotFoundException {
+		String className = reader.readString();
+		ClassLoader loader = Thread.currentThread().getContextClassLoader();
+		Schema schema = SCHEMAS.get(Class.forName(className, false, (loader != null) ? loader : BinaryPropertyCodec.class.getClassLoader()));
+		if (!schema.isSupported()) throw new IOException("schema is not supported " + className);
+		int size = reader.readLength();
+		byte[]  kinds  = new byte[size];
+		Field[] fields = new Field[size];
+		for (int i=0; i<size; i++) {
+			String name = reader.readString();
+			kinds[i] = reader.readByte();
+			int local = schema.indexOf(name);
+			if (local < 0) continue;
+			if (schema.kinds[local] != kinds[i]) throw new IOException("incompatible field " + className + "." + name);
+			fields[i] = schema.fields[local];
+		}
+		return new StreamSchema(schema, kinds, fields);
+	}
+
+	/**
+	 * <p>{@link #writeField(Writer, byte, Object)}にて出力されたフィールドの値を復元します。</p>
+	 * @param reader 入力元
+	 * @param kind   フィールドの型（プリミティブ型以外の場合{@link #NULL}）
+	 * @return フィールドの値
+	 * @throws IOException 入力が不正な場合
+	 * @throws ClassNotFoundException 標準シリアライズで出力されたクラスが存在しない場合
+	 */
+	protected Object readField(Reader reader, byte kind) throws IOException, ClassNotFoundException {
+		switch (kind) {
+			case INTEGER   : return Integer.valueOf((int)unzigzag(reader.readVarLong()));
+			case LONG      : return Long.valueOf(unzigzag(reader.readVarLong()));
+			case SHORT     : return Short.valueOf((short)unzigzag(reader.readVarLong()));
+			case BYTE      : return Byte.valueOf(reader.readByte());
+			case CHARACTER : return Character.valueOf((char)reader.readVarLong());
+			case DOUBLE    : return Double.valueOf(Double.longBitsToDouble(reader.readFixedLong()));
+			case FLOAT     : return Float.valueOf(Float.intBitsToFloat(reader.readFixedInt()));
+			case TRUE      : return Boolean.valueOf(reader.readByte() == TRUE);
+			case NULL      : return this.read(reader);
+			default        : throw new IOException("unknown field kind " + kind);
+		}
+	}
+
+	protected Collection<Object> readCollection(Reader reader, int size, Collection<Object> collection) throws IOException, ClassNotFoundException {
+		for (int i=0; i<size; i++) collection.add(this.read(reader));
+		return collection;
+	}
+
+	protected Map<Object, Object> readMap(Reader reader, int size, Map<Object, Object> map) throws IOException, ClassNotFoundException {
+		for (int i=0; i<size; i++) map.put(this.read(reader), this.read(reader));
+		return map;
+	}
+
+	private static int capacity(int size) {
+		return (int)(size / 0.75f) + 1;
+	}
+
+	private static long zigzag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static long unzigzag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * <p>拡張可能なバイト配列への出力先です。</p>
+	 * 標準シリアライズの出力先として使用できるよう、OutputStreamを継承しています。
+	 */
+	protected static class Writer extends OutputStream {
+
+		protected byte[] buffer;
+
+		protected int size;
+
+		/** 出力済みのスキーマと、その番号 */
+		protected final Map<Schema, Integer> schemas = new HashMap<Schema, Integer>();
+
+		/** スキーマに従って出力中のオブジェクト */
+		protected final Map<Object, Boolean> writing = new IdentityHashMap<Object, Boolean>();
+
+		protected Writer(int capacity) {
+			this.buffer = new byte[capacity];
+		}
+
+		private void ensure(int additional) {
+			int required = this.size + additional;
+			if (required > this.buffer.length) {
+				byte[] newBuffer = new byte[Math.max(required, this.buffer.length << 1)];
+				System.arraycopy(this.buffer, 0, newBuffer, 0, this.size);
+				this.buffer = newBuffer;
+			}
+		}
+
+		@Override
+		public void write(int b) {
+			this.writeByte((byte)b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			this.ensure(len);
+			System.arraycopy(b, off, this.buffer, this.size, len);
+			this.size += len;
+		}
+
+		protected void writeByte(byte b) {
+			this.ensure(1);
+			this.buffer[this.size++] = b;
+		}
+
+		protected void writeVarLong(long value) {
+			this.ensure(10);
+			while ((value & ~0x7FL) != 0) {
+				this.buffer[this.size++] = (byte)((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			this.buffer[this.size++] = (byte)value;
+		}
+
+		protected void writeFixedLong(long value) {
+			this.ensure(8);
+			for (int shift = 56; shift >= 0; shift -= 8) this.buffer[this.size++] = (byte)(value >>> shift);
+		}
+
+		protected void writeFixedInt(int value) {
+			this.fillInt(this.reserveInt(), value);
+		}
+
+		protected void writeBytes(byte[] bytes) {
+			this.writeVarLong(bytes.length);
+			this.write(bytes, 0, bytes.length);
+		}
+
+		protected void writeString(String value) {
+			this.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+		}
+
+		protected int reserveInt() {
+			this.ensure(4);
+			int position = this.size;
+			this.size += 4;
+			return position;
+		}
+
+		protected void fillInt(int position, int value) {
+			this.buffer[position    ] = (byte)(value >>> 24);
+			this.buffer[position + 1] = (byte)(value >>> 16);
+			this.buffer[position + 2] = (byte)(value >>> 8);
+			this.buffer[position + 3] = (byte)value;
+		}
+
+		protected int size() {
+			return this.size;
+		}
+
+		protected byte[] toByteArray() {
+			byte[] result = new byte[this.size];
+			System.arraycopy(this.buffer, 0, result, 0, this.size);
+			return result;
+		}
+	}
+
+	/**
+	 * <p>バイト配列からの入力元です。</p>
+	 */
+	protected static class Reader {
+
+		protected byte[] data;
+
+		protected int position;
+
+		/** 形式バージョン */
+		protected int version;
+
+		/** 読込済みのスキーマ */
+		protected final List<StreamSchema> schemas = new ArrayList<StreamSchema>();
+
+		protected Reader(byte[] data, int position, int version) {
+			this.data     = data;
+			this.position = position;
+			this.version  = version;
+		}
+
+		protected byte readByte() throws IOException {
+			if (this.position >= this.data.length) throw new IOException("unexpected end of data");
+			return this.data[this.position++];
+		}
+
+		protected long readVarLong() throws IOException {
+			long value = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				byte b = this.readByte();
+				value |= (long)(b & 0x7F) << shift;
+				if ((b & 0x80) == 0) return value;
+			}
+			throw new IOException("malformed variable length value");
+		}
+
+		protected int readLength() throws IOException {
+			long length = this.readVarLong();
+			if (length < 0 || length > this.data.length - this.position) throw new IOException("illegal length " + length);
+			return (int)length;
+		}
+
+		protected long readFixedLong() throws IOException {
+			if (this.position + 8 > this.data.length) throw new IOException("unexpected end of data");
+			long value = 0;
+			for (int i=0; i<8; i++) value = (value << 8) | (this.data[this.position++] & 0xFF);
+			return value;
+		}
+
+		protected int readFixedInt() throws IOException {
+			if (this.position + 4 > this.data.length) throw new IOException("unexpected end of data");
+			int value = 0;
+			for (int i=0; i<4; i++) value = (value << 8) | (this.data[this.position++] & 0xFF);
+			return value;
+		}
+
+		protected byte[] readBytes() throws IOException {
+			int length = this.readLength();
+			byte[] bytes = new byte[length];
+			System.arraycopy(this.data, this.position, bytes, 0, length);
+			this.position += length;
+			return bytes;
+		}
+
+		protected String readString() throws IOException {
+			int length = this.readLength();
+			String value = new String(this.data, this.position, length, StandardCharsets.UTF_8);
+			this.position += length;
+			return value;
+		}
+	}
+
+	/**
+	 * <p>スキーマに従って出力するクラスの、出力対象のフィールドの一覧です。</p>
+	 * フィールドはスーパークラスから順に、クラスごとにフィールド名の順で並べます。
+	 */
+	protected static final class Schema {
+
+		/** スキーマを使用できないクラスを表すスキーマ */
+		protected static final Schema UNSUPPORTED = new Schema(null, null, new Field[0]);
+
+		/** 禁止するメソッド名（標準シリアライズの動作を変更するメソッド） */
+		protected static final String[] HOOK_METHODS = {"writeObject", "readObject", "readObjectNoData", "writeReplace", "readResolve"};
+
+		protected final Class<?> type;
+
+		protected final Constructor<?> constructor;
+
+		protected final Field[] fields;
+
+		/** フィールドごとの型（プリミティブ型以外の場合{@link BinaryPropertyCodec#NULL}） */
+		protected final byte[] kinds;
+
+		protected Schema(Class<?> type, Constructor<?> constructor, Field[] fields) {
+			this.type        = type;
+			this.constructor = constructor;
+			this.fields      = fields;
+			this.kinds       = new byte[fields.length];
+			for (int i=0; i<fields.length; i++) this.kinds[i] = kindOf(fields[i].getType());
+		}
+
+		/**
+		 * <p>指定のクラスのスキーマを生成します。</p>
+		 * @param type クラス
+		 * @return スキーマ（スキーマを使用できないクラスの場合{@link #UNSUPPORTED}）
+		 */
+		protected static Schema of(Class<?> type) {
+			if (!Serializable.class.isAssignableFrom(type) || Externalizable.class.isAssignableFrom(type)) return UNSUPPORTED;
+			if (type.isEnum() || type.isArray() || type.isInterface() || Modifier.isAbstract(type.getModifiers())) return UNSUPPORTED;
+			for (String jdkPackage : JDK_PACKAGES) if (type.getName().startsWith(jdkPackage)) return UNSUPPORTED;
+			List<Class<?>> hierarchy = new ArrayList<Class<?>>();
+			for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+				if (!Serializable.class.isAssignableFrom(current)) return UNSUPPORTED;
+				hierarchy.add(0, current);
+			}
+			try {
+				List<Field> fields = new ArrayList<Field>();
+				Set<String> names  = new HashSet<String>();
+				for (Class<?> current : hierarchy) {
+					for (Method method : current.getDeclaredMethods()) {
+						for (String hook : HOOK_METHODS) if (method.getName().equals(hook)) return UNSUPPORTED;
+					}
+					List<Field> declared = new ArrayList<Field>();
+					for (Field field : current.getDeclaredFields()) {
+						if (field.getName().equals("serialPersistentFields")) return UNSUPPORTED;
+						int modifiers = field.getModifiers();
+						if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) continue;
+						if (!names.add(field.getName())) return UNSUPPORTED;
+						field.setAccessible(true);
+						declared.add(field);
+					}
+					declared.sort((a, b) -> a.getName().compareTo(b.getName()));
+					fields.addAll(declared);
+				}
+				Constructor<?> constructor = type.getDeclaredConstructor();
+				constructor.setAccessible(true);
+				return new Schema(type, constructor, fields.toArray(new Field[fields.size()]));
+			} catch (NoSuchMethodException | RuntimeException e) {
+				return UNSUPPORTED;
+			}
+		}
+
+		/**
+		 * <p>指定のフィールドの型を、型を表す1バイトに変換します。</p>
+		 * @param type フィールドの型
+		 * @return 型を表す1バイト（プリミティブ型以外の場合{@link BinaryPropertyCodec#NULL}）
+		 */
+		protected static byte kindOf(Class<?> type) {
+			if (type == int.class)     return INTEGER;
+			if (type == long.class)    return LONG;
+			if (type == short.class)   return SHORT;
+			if (type == byte.class)    return BYTE;
+			if (type == char.class)    return CHARACTER;
+			if (type == double.class)  return DOUBLE;
+			if (type == float.class)   return FLOAT;
+			if (type == boolean.class) return TRUE;
+			return NULL;
+		}
+
+		protected boolean isSupported() {
+			return this != UNSUPPORTED;
+		}
+
+		/**
+		 * <p>指定のフィールド名のフィールドの位置を取得します。</p>
+		 * @param name フィールド名
+		 * @return 位置（存在しない場合-1）
+		 */
+		protected int indexOf(String name) {
+			for (int i=0; i<this.fields.length; i++) if (this.fields[i].getName().equals(name)) return i;
+			return -1;
+		}
+	}
+
+	/**
+	 * <p>入力元から読み込んだスキーマと、復元先のクラスのフィールドとの対応です。</p>
+	 */
+	protected static final class StreamSchema {
+
+		/** 復元先のクラスのスキーマ */
+		protected final Schema schema;
+
+		/** 出力時のフィールドごとの型 */
+		protected final byte[] kinds;
+
+		/** 出力時のフィールドに対応する復元先のフィールド（存在しない場合null） */
+		protected final Field[] fields;
+
+		protected StreamSchema(Schema schema, byte[] kinds, Field[] fields) {
+			this.schema = schema;
+			this.kinds  = kinds;
+			this.fields = fields;
+		}
+	}
+
+	/**
+	 * <p>スキーマに従って出力中のオブジェクトへの参照が見つかったことを表す例外です。</p>
+	 * 発生した場合、オブジェクト全体を標準シリアライズで出力し直します。
+	 */
+	protected static class CyclicReferenceException extends IOException {
+
+		private static final long serialVersionUID = 1L;
+	}
+}
@@ -0,0 +1,33 @@
+package jp.co.dk.neo4jdatastoremanager.codec;
+
+import java.io.Serializable;
+
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerException;
+
+/**
+ * <p>PropertyCodecは、ノードのプロパティにオブジェクトを格納する際の変換方式を定義するインターフェースです。</p>
+ * 実装クラスは引数なしのコンストラクタを持ち、スレッドセーフである必要があります。<br/>
+ * 使用する実装クラスはプロパティ"neo4j.property.codec"にクラス名を指定することで切り替えることができます。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+public interface PropertyCodec {
+
+	/**
+	 * <p>指定のオブジェクトをバイト配列に変換します。</p>
+	 * @param value 変換対象のオブジェクト
+	 * @return 変換後のバイト配列
+	 * @throws Neo4JDataStoreManagerException 変換に失敗した場合
+	 */
+	byte[] encode(Serializable value) throws Neo4JDataStoreManagerException;
+
+	/**
+	 * <p>{@link #encode(Serializable)}にて変換されたバイト配列をオブジェクトに復元します。</p>
+	 * @param data バイト配列
+	 * @return 復元したオブジェクト
+	 * @throws Neo4JDataStoreManagerException 復元に失敗した場合
+	 */
+	Object decode(byte[] data) throws Neo4JDataStoreManagerException;
+
+}
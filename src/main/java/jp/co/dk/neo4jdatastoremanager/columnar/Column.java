@@ -0,0 +1,368 @@
+package jp.co.dk.neo4jdatastoremanager.columnar;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+
+/**
+ * <p>Columnは、列形式の検索結果の一つの列を表すクラスです。</p>
+ * 列の値は型ごとの配列（long[]、double[]、boolean[]、文字列の場合は辞書の番号のint[]）に格納され、nullはビットマップで管理します。<br/>
+ * {@link #getLongs()}等にて取得した配列を{@link #size()}の範囲で直接走査することで、要素ごとのオブジェクトを生成せずに集計できます。<br/>
+ * 文字列の辞書は、同一の検索結果の列で共有されます。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+public class Column {
+
+	/** 初期容量（容量を拡張する場合） */
+	protected static final int INITIAL_CAPACITY = 1024;
+
+	/** 列名 */
+	protected final String name;
+
+	/** 列の型 */
+	protected ColumnType type = ColumnType.NULL;
+
+	/** 値の数 */
+	protected int size = 0;
+
+	/** 容量 */
+	protected int capacity;
+
+	/** 容量を拡張するか */
+	protected final boolean growable;
+
+	/** 整数の値 */
+	protected long[] longs;
+
+	/** 小数の値 */
+	protected double[] doubles;
+
+	/** 真偽値の値 */
+	protected boolean[] booleans;
+
+	/** 文字列の辞書の番号 */
+	protected int[] codes;
+
+	/** オブジェクトの値 */
+	protected Object[] objects;
+
+	/** nullのビットマップ */
+	protected long[] nulls;
+
+	/** 文字列の辞書 */
+	protected final StringDictionary dictionary;
+
+	/**
+	 * <p>指定の列名、容量、文字列の辞書を基に列を生成します。</p>
+	 * @param name       列名
+	 * @param capacity   容量（容量を拡張する場合0）
+	 * @param dictionary 文字列の辞書
+	 */
+	Column(String name, int capacity, StringDictionary dictionary) {
+		this.name       = name;
+		this.growable   = capacity <= 0;
+		this.capacity   = this.growable ? INITIAL_CAPACITY : capacity;
+		this.nulls      = new long[(this.capacity + 63) >>> 6];
+		this.dictionary = dictionary;
+	}
+
+	/**
+	 * <p>列名を取得します。</p>
+	 * @return 列名
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * <p>列の型を取得します。</p>
+	 * @return 列の型
+	 */
+	public ColumnType getType() {
+		return this.type;
+	}
+
+	/**
+	 * <p>値の数を取得します。</p>
+	 * @return 値の数
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * <p>指定の行の値がnullであるかを判定します。</p>
+	 * @param row 行の番号（0から開始）
+	 * @return 判定結果（true=null、false=nullでない）
+	 */
+	public boolean isNull(int row) {
+		this.check(row);
+		return (this.nulls[row >>> 6] & (1L << row)) != 0;
+	}
+
+	/**
+	 * <p>指定の行の値を整数として取得します。</p>
+	 * 値がnullの場合、0を返却します。
+	 * @param row 行の番号（0から開始）
+	 * @return 値
+	 */
+	public long getLong(int row) {
+		this.check(row);
+		switch (this.type) {
+			case LONG  : return this.longs[row];
+			case DOUBLE: return (long)this.doubles[row];
+			case NULL  : return 0L;
+			default    : throw new IllegalStateException("column=" + this.name + " type=" + this.type);
+		}
+	}
+
+	/**
+	 * <p>指定の行の値を小数として取得します。</p>
+	 * 値がnullの場合、0を返却します。
+	 * @param row 行の番号（0から開始）
+	 * @return 値
+	 */
+	public double getDouble(int row) {
+		this.check(row);
+		switch (this.type) {
+			case LONG  : return this.longs[row];
+			case DOUBLE: return this.doubles[row];
+			case NULL  : return 0.0d;
+			default    : throw new IllegalStateException("column=" + this.name + " type=" + this.type);
+		}
+	}
+
+	/**
+	 * <p>指定の行の値を真偽値として取得します。</p>
+	 * 値がnullの場合、falseを返却します。
+	 * @param row 行の番号（0から開始）
+	 * @return 値
+	 */
+	public boolean getBoolean(int row) {
+		this.check(row);
+		switch (this.type) {
+			case BOOLEAN: return this.booleans[row];
+			case NULL   : return false;
+			default     : throw new IllegalStateException("column=" + this.name + " type=" + this.type);
+		}
+	}
+
+	/**
+	 * <p>指定の行の文字列の辞書の番号を取得します。</p>
+	 * 値がnullの場合、-1を返却します。
+	 * @param row 行の番号（0から開始）
+	 * @return 辞書の番号
+	 */
+	public int getCode(int row) {
+		if (this.isNull(row)) return -1;
+		if (this.type != ColumnType.STRING) throw new IllegalStateException("column=" + this.name + " type=" + this.type);
+		return this.codes[row];
+	}
+
+	/**
+	 * <p>指定の行の値を文字列として取得します。</p>
+	 * @param row 行の番号（0から開始）
+	 * @return 値（nullの場合null）
+	 */
+	public String getString(int row) {
+		if (this.isNull(row)) return null;
+		if (this.type == ColumnType.STRING) return this.dictionary.get(this.codes[row]);
+		return String.valueOf(this.getObject(row));
+	}
+
+	/**
+	 * <p>指定の行の値をオブジェクトとして取得します。</p>
+	 * 整数、小数、真偽値の列の場合、値はオブジェクトに変換されます。
+	 * @param row 行の番号（0から開始）
+	 * @return 値（nullの場合null）
+	 */
+	public Object getObject(int row) {
+		if (this.isNull(row)) return null;
+		switch (this.type) {
+			case LONG   : return Long.valueOf(this.longs[row]);
+			case DOUBLE : return Double.valueOf(this.doubles[row]);
+			case BOOLEAN: return Boolean.valueOf(this.booleans[row]);
+			case STRING : return this.dictionary.get(this.codes[row]);
+			case OBJECT : return this.objects[row];
+			default     : return null;
+		}
+	}
+
+	/**
+	 * <p>整数の値の配列を取得します。</p>
+	 * 配列の長さは値の数より大きい場合があります。{@link #size()}の範囲で参照してください。
+	 * @return 整数の値の配列（列の型が{@link ColumnType#LONG}でない場合null）
+	 */
+	public long[] getLongs() {
+		return this.longs;
+	}
+
+	/**
+	 * <p>小数の値の配列を取得します。</p>
+	 * 配列の長さは値の数より大きい場合があります。{@link #size()}の範囲で参照してください。
+	 * @return 小数の値の配列（列の型が{@link ColumnType#DOUBLE}でない場合null）
+	 */
+	public double[] getDoubles() {
+		return this.doubles;
+	}
+
+	/**
+	 * <p>真偽値の値の配列を取得します。</p>
+	 * 配列の長さは値の数より大きい場合があります。{@link #size()}の範囲で参照してください。
+	 * @return 真偽値の値の配列（列の型が{@link ColumnType#BOOLEAN}でない場合null）
+	 */
+	public boolean[] getBooleans() {
+		return this.booleans;
+	}
+
+	/**
+	 * <p>文字列の辞書の番号の配列を取得します。</p>
+	 * 配列の長さは値の数より大きい場合があります。{@link #size()}の範囲で参照してください。
+	 * @return 辞書の番号の配列（列の型が{@link ColumnType#STRING}でない場合null）
+	 */
+	public int[] getCodes() {
+		return this.codes;
+	}
+
+	/**
+	 * <p>文字列の辞書を取得します。</p>
+	 * @return 文字列の辞書
+	 */
+	public StringDictionary getDictionary() {
+		return this.dictionary;
+	}
+
+	/**
+	 * <p>JSONパーサの現在位置の値をこの列に追加します。</p>
+	 * @param parser JSONパーサ
+	 * @throws IOException 値の読込に失敗した場合
+	 */
+	void read(JsonParser parser) throws IOException {
+		if (this.size == this.capacity) this.grow();
+		int row = this.size;
+		switch (parser.getCurrentToken()) {
+			case VALUE_NULL:
+				this.nulls[row >>> 6] |= 1L << row;
+				break;
+			case VALUE_NUMBER_INT:
+				if (this.type == ColumnType.NULL) this.changeType(ColumnType.LONG);
+				if (this.type == ColumnType.LONG) {
+					this.longs[row] = parser.getLongValue();
+				} else if (this.type == ColumnType.DOUBLE) {
+					this.doubles[row] = parser.getDoubleValue();
+				} else {
+					this.readObject(parser, row);
+				}
+				break;
+			case VALUE_NUMBER_FLOAT:
+				if (this.type == ColumnType.NULL || this.type == ColumnType.LONG) this.changeType(ColumnType.DOUBLE);
+				if (this.type == ColumnType.DOUBLE) {
+					this.doubles[row] = parser.getDoubleValue();
+				} else {
+					this.readObject(parser, row);
+				}
+				break;
+			case VALUE_TRUE:
+			case VALUE_FALSE:
+				if (this.type == ColumnType.NULL) this.changeType(ColumnType.BOOLEAN);
+				if (this.type == ColumnType.BOOLEAN) {
+					this.booleans[row] = parser.getCurrentToken() == JsonToken.VALUE_TRUE;
+				} else {
+					this.readObject(parser, row);
+				}
+				break;
+			case VALUE_STRING:
+				if (this.type == ColumnType.NULL) this.changeType(ColumnType.STRING);
+				if (this.type == ColumnType.STRING) {
+					this.codes[row] = this.dictionary.add(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+				} else {
+					this.readObject(parser, row);
+				}
+				break;
+			default:
+				this.readObject(parser, row);
+				break;
+		}
+		this.size++;
+	}
+
+	/**
+	 * <p>この列にnullを追加します。</p>
+	 */
+	void addNull() {
+		if (this.size == this.capacity) this.grow();
+		this.nulls[this.size >>> 6] |= 1L << this.size;
+		this.size++;
+	}
+
+	/**
+	 * <p>JSONパーサの現在位置の値をオブジェクトとしてこの列に追加します。</p>
+	 * 列の型が{@link ColumnType#OBJECT}でない場合、型を変更します。
+	 * @param parser JSONパーサ
+	 * @param row    行の番号
+	 * @throws IOException 値の読込に失敗した場合
+	 */
+	protected void readObject(JsonParser parser, int row) throws IOException {
+		if (this.type != ColumnType.OBJECT) this.changeType(ColumnType.OBJECT);
+		this.objects[row] = parser.readValueAs(Object.class);
+	}
+
+	/**
+	 * <p>列の型を変更し、既に格納されている値を変更後の型の配列に移し替えます。</p>
+	 * @param newType 変更後の型
+	 */
+	protected void changeType(ColumnType newType) {
+		switch (newType) {
+			case LONG   : this.longs    = new long[this.capacity];    break;
+			case BOOLEAN: this.booleans = new boolean[this.capacity]; break;
+			case STRING : this.codes    = new int[this.capacity];     break;
+			case DOUBLE :
+				this.doubles = new double[this.capacity];
+				if (this.type == ColumnType.LONG) for (int i=0; i<this.size; i++) this.doubles[i] = this.longs[i];
+				this.longs = null;
+				break;
+			case OBJECT :
+				Object[] values = new Object[this.capacity];
+				for (int i=0; i<this.size; i++) values[i] = this.getObject(i);
+				this.objects  = values;
+				this.longs    = null;
+				this.doubles  = null;
+				this.booleans = null;
+				this.codes    = null;
+				break;
+			default:
+				break;
+		}
+		this.type = newType;
+	}
+
+	/**
+	 * <p>容量を拡張します。</p>
+	 * 容量を拡張しない列の場合、例外を送出します。
+	 */
+	protected void grow() {
+		if (!this.growable) throw new IllegalStateException("column=" + this.name + " is full. capacity=" + this.capacity);
+		this.capacity <<= 1;
+		this.nulls = Arrays.copyOf(this.nulls, (this.capacity + 63) >>> 6);
+		if (this.longs    != null) this.longs    = Arrays.copyOf(this.longs   , this.capacity);
+		if (this.doubles  != null) this.doubles  = Arrays.copyOf(this.doubles , this.capacity);
+		if (this.booleans != null) this.booleans = Arrays.copyOf(this.booleans, this.capacity);
+		if (this.codes    != null) this.codes    = Arrays.copyOf(this.codes   , this.capacity);
+		if (this.objects  != null) this.objects  = Arrays.copyOf(this.objects , this.capacity);
+	}
+
+	protected void check(int row) {
+		if (row < 0 || row >= this.size) throw new IndexOutOfBoundsException("row=" + row + " size=" + this.size);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("COLUMN NAME=").append(this.name).append(" TYPE=").append(this.type).append(" SIZE=").append(this.size);
+		return builder.toString();
+	}
+}
@@ -0,0 +1,30 @@
+package jp.co.dk.neo4jdatastoremanager.columnar;
+
+/**
+ * <p>ColumnTypeは、列形式の検索結果における列の型を表す列挙です。</p>
+ * 列の型は最初のnullでない値で決定されます。整数の列に小数が含まれていた場合は{@link #DOUBLE}に、
+ * それ以外の型の異なる値が含まれていた場合は{@link #OBJECT}に変更されます。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+public enum ColumnType {
+
+	/** すべての値がnull */
+	NULL,
+
+	/** 整数（long） */
+	LONG,
+
+	/** 小数（double） */
+	DOUBLE,
+
+	/** 真偽値（boolean） */
+	BOOLEAN,
+
+	/** 文字列（辞書の番号） */
+	STRING,
+
+	/** 上記以外（一覧、マップ、ノード等のオブジェクト） */
+	OBJECT
+}
@@ -0,0 +1,93 @@
+package jp.co.dk.neo4jdatastoremanager.columnar;
+
+import java.util.Collections;
+import java.util.List;
+
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerFatalException;
+
+import static jp.co.dk.neo4jdatastoremanager.message.Neo4JDataStoreManagerMessage.*;
+
+/**
+ * <p>ColumnarResultは、検索結果を列形式で保持するクラスです。</p>
+ * 検索結果の各列は{@link Column}として型ごとの配列に格納され、行ごとのオブジェクトは生成されません。<br/>
+ * 集計、統計処理のように、多数の行の特定の列を走査する場合に使用します。<br/>
+ * 存在しない列を参照した場合、実行時例外を送出します。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+public class ColumnarResult {
+
+	/** 列名一覧 */
+	protected final List<String> names;
+
+	/** 列一覧（列の順序） */
+	protected final Column[] columns;
+
+	/** 行数 */
+	protected final int size;
+
+	/**
+	 * <p>指定の列名一覧、列一覧、行数を基に検索結果を生成します。</p>
+	 * @param names   列名一覧
+	 * @param columns 列一覧
+	 * @param size    行数
+	 */
+	ColumnarResult(List<String> names, Column[] columns, int size) {
+		this.names   = Collections.unmodifiableList(names);
+		this.columns = columns;
+		this.size    = size;
+	}
+
+	/**
+	 * <p>行数を取得します。</p>
+	 * @return 行数
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * <p>列名一覧を取得します。</p>
+	 * @return 列名一覧
+	 */
+	public List<String> getColumnNames() {
+		return this.names;
+	}
+
+	/**
+	 * <p>列数を取得します。</p>
+	 * @return 列数
+	 */
+	public int getColumnCount() {
+		return this.columns.length;
+	}
+
+	/**
+	 * <p>指定の番号の列を取得します。</p>
+	 * @param index 列の番号（0から開始）
+	 * @return 列
+	 */
+	public Column getColumn(int index) {
+		if (index < 0 || index >= this.columns.length) throw new Neo4JDataStoreManagerFatalException(COLUMN_IS_NOT_FOUND, Integer.toString(index));
+		return this.columns[index];
+	}
+
+	/**
+	 * <p>指定の列名の列を取得します。</p>
+	 * @param name 列名
+	 * @return 列
+	 */
+	public Column getColumn(String name) {
+		int index = this.names.indexOf(name);
+		if (index < 0) throw new Neo4JDataStoreManagerFatalException(COLUMN_IS_NOT_FOUND, name);
+		return this.columns[index];
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("COLUMNARRESULT COLUMNS=").append(this.names).append(" SIZE=").append(this.size);
+		return builder.toString();
+	}
+}
@@ -0,0 +1,119 @@
+package jp.co.dk.neo4jdatastoremanager.columnar;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+
+/**
+ * <p>ColumnarResultBuilderは、Cypherの応答の行を列形式の検索結果に読み込むクラスです。</p>
+ * 行の値はJSONパーサから各列の配列へ直接読み込まれ、行ごとの一覧、値ごとのオブジェクトは生成されません。<br/>
+ * 容量を指定した場合、容量に達するまで行を読み込み、容量を指定しない場合は必要に応じて容量を拡張します。<br/>
+ * 列数より値の少ない行はnullで補完し、列数を超える値は読み飛ばします。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+public class ColumnarResultBuilder {
+
+	/** 列名一覧 */
+	protected final List<String> names;
+
+	/** 列一覧（列の順序） */
+	protected final Column[] columns;
+
+	/** 容量（容量を拡張する場合0） */
+	protected final int capacity;
+
+	/** 行数 */
+	protected int size = 0;
+
+	/**
+	 * <p>指定の列名一覧、容量を基に生成します。</p>
+	 * @param names    列名一覧
+	 * @param capacity 容量（容量を拡張する場合0）
+	 */
+	public ColumnarResultBuilder(List<String> names, int capacity) {
+		this(names, capacity, newDictionaries(names.size()));
+	}
+
+	/**
+	 * <p>指定の列名一覧、容量、列ごとの文字列の辞書を基に生成します。</p>
+	 * 同一の検索結果を複数に分割して読み込む場合、同一の辞書を指定することで、分割後の検索結果で文字列の番号が共有されます。
+	 * @param names        列名一覧
+	 * @param capacity     容量（容量を拡張する場合0）
+	 * @param dictionaries 列ごとの文字列の辞書
+	 */
+	public ColumnarResultBuilder(List<String> names, int capacity, StringDictionary[] dictionaries) {
+		this.names    = new ArrayList<String>(names);
+		this.capacity = Math.max(capacity, 0);
+		this.columns  = new Column[this.names.size()];
+		for (int i=0; i<this.columns.length; i++) this.columns[i] = new Column(this.names.get(i), this.capacity, dictionaries[i]);
+	}
+
+	/**
+	 * <p>列ごとの文字列の辞書を生成します。</p>
+	 * @param count 列数
+	 * @return 文字列の辞書
+	 */
+	public static StringDictionary[] newDictionaries(int count) {
+		StringDictionary[] dictionaries = new StringDictionary[count];
+		for (int i=0; i<count; i++) dictionaries[i] = new StringDictionary();
+		return dictionaries;
+	}
+
+	/**
+	 * <p>JSONパーサの現在位置の行を読み込みます。</p>
+	 * パーサの現在位置は行の先頭列の値（列が存在しない場合は行の終端）である必要があり、読込後は行の終端となります。
+	 * @param parser JSONパーサ
+	 * @throws IOException 値の読込に失敗した場合
+	 * @throws IllegalStateException 容量に達している場合
+	 */
+	public void readRow(JsonParser parser) throws IOException {
+		if (this.isFull()) throw new IllegalStateException("capacity=" + this.capacity);
+		int index = 0;
+		for (JsonToken token = parser.getCurrentToken(); token != null && token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+			if (index < this.columns.length) {
+				this.columns[index].read(parser);
+			} else {
+				parser.skipChildren();
+			}
+			index++;
+		}
+		for (; index < this.columns.length; index++) this.columns[index].addNull();
+		this.size++;
+	}
+
+	/**
+	 * <p>読み込んだ行数を取得します。</p>
+	 * @return 行数
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * <p>容量に達しているかを判定します。</p>
+	 * @return 判定結果（true=容量に達している、false=容量に達していない、または容量を拡張する）
+	 */
+	public boolean isFull() {
+		return this.capacity > 0 && this.size >= this.capacity;
+	}
+
+	/**
+	 * <p>読み込んだ行を基に検索結果を生成します。</p>
+	 * @return 検索結果
+	 */
+	public ColumnarResult build() {
+		return new ColumnarResult(this.names, this.columns, this.size);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("COLUMNARRESULTBUILDER COLUMNS=").append(this.names).append(" SIZE=").append(this.size).append(" CAPACITY=").append(this.capacity);
+		return builder.toString();
+	}
+}
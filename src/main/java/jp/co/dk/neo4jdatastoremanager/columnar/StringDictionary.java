@@ -0,0 +1,126 @@
+package jp.co.dk.neo4jdatastoremanager.columnar;
+
+import java.util.Arrays;
+
+/**
+ * <p>StringDictionaryは、文字列の列の値を番号に変換する辞書です。</p>
+ * 同一の文字列には同一の番号（0から登録順）が割り当てられ、列は文字列の代わりに番号を保持します。<br/>
+ * 文字列の検索はJSONパーサの文字バッファに対して直接行うため、既に登録済みの文字列に対して新たな文字列は生成されません。<br/>
+ * 本クラスはスレッドセーフではありません。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+public class StringDictionary {
+
+	/** 登録済みの文字列（番号順） */
+	protected String[] values = new String[16];
+
+	/** 登録済みの文字列のハッシュ値（番号順） */
+	protected int[] hashes = new int[16];
+
+	/** 登録済みの文字列数 */
+	protected int size = 0;
+
+	/** ハッシュ表（番号+1、空の場合0） */
+	protected int[] table = new int[32];
+
+	/**
+	 * <p>登録済みの文字列数を取得します。</p>
+	 * @return 文字列数
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * <p>指定の番号の文字列を取得します。</p>
+	 * @param code 番号
+	 * @return 文字列
+	 */
+	public String get(int code) {
+		if (code < 0 || code >= this.size) throw new IndexOutOfBoundsException(Integer.toString(code));
+		return this.values[code];
+	}
+
+	/**
+	 * <p>指定の文字列の番号を取得します。</p>
+	 * @param value 文字列
+	 * @return 番号（登録されていない場合-1）
+	 */
+	public int indexOf(String value) {
+		char[] chars = value.toCharArray();
+		return this.find(chars, 0, chars.length, hash(chars, 0, chars.length));
+	}
+
+	/**
+	 * <p>指定の文字バッファの範囲の文字列を登録し、その番号を返却します。</p>
+	 * 既に登録済みの場合は登録済みの番号を返却し、文字列は生成しません。
+	 * @param chars  文字バッファ
+	 * @param offset 開始位置
+	 * @param length 長さ
+	 * @return 番号
+	 */
+	int add(char[] chars, int offset, int length) {
+		int hash = hash(chars, offset, length);
+		int code = this.find(chars, offset, length, hash);
+		if (code >= 0) return code;
+		if (this.size == this.values.length) {
+			this.values = Arrays.copyOf(this.values, this.size << 1);
+			this.hashes = Arrays.copyOf(this.hashes, this.size << 1);
+		}
+		code = this.size++;
+		this.values[code] = new String(chars, offset, length);
+		this.hashes[code] = hash;
+		if (this.size * 2 > this.table.length) {
+			this.rehash();
+		} else {
+			this.insert(code, hash);
+		}
+		return code;
+	}
+
+	/**
+	 * <p>指定の文字バッファの範囲の文字列の番号を検索します。</p>
+	 * @return 番号（登録されていない場合-1）
+	 */
+	protected int find(char[] chars, int offset, int length, int hash) {
+		int mask = this.table.length - 1;
+		for (int slot = hash & mask; this.table[slot] != 0; slot = (slot + 1) & mask) {
+			int code = this.table[slot] - 1;
+			if (this.hashes[code] == hash && equals(this.values[code], chars, offset, length)) return code;
+		}
+		return -1;
+	}
+
+	protected void insert(int code, int hash) {
+		int mask = this.table.length - 1;
+		int slot = hash & mask;
+		while (this.table[slot] != 0) slot = (slot + 1) & mask;
+		this.table[slot] = code + 1;
+	}
+
+	protected void rehash() {
+		this.table = new int[this.table.length << 1];
+		for (int code=0; code<this.size; code++) this.insert(code, this.hashes[code]);
+	}
+
+	protected static int hash(char[] chars, int offset, int length) {
+		int hash = 0;
+		for (int i=offset; i<offset+length; i++) hash = 31 * hash + chars[i];
+		return hash ^ (hash >>> 16);
+	}
+
+	protected static boolean equals(String value, char[] chars, int offset, int length) {
+		if (value.length() != length) return false;
+		for (int i=0; i<length; i++) if (value.charAt(i) != chars[offset + i]) return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("STRINGDICTIONARY SIZE=").append(this.size);
+		return builder.toString();
+	}
+}
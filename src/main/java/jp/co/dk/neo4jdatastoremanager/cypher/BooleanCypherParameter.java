@@ -2,7 +2,7 @@ package jp.co.dk.neo4jdatastoremanager.cypher;
 
 class BooleanCypherParameter extends CypherParameter{
 	
-	protected boolean parameter;
+	protected final boolean parameter;
 	
 	BooleanCypherParameter(boolean parameter) {
 		this.parameter = parameter;
@@ -15,16 +15,15 @@ class BooleanCypherParameter extends CypherParameter{
 	
 	@Override
 	public boolean equals(Object object) {
-		if (object == null) return false;
+		if (this == object) return true;
 		if (!(object instanceof BooleanCypherParameter)) return false;
 		BooleanCypherParameter thisClassObj = (BooleanCypherParameter) object;
-		if (thisClassObj.hashCode() == this.hashCode()) return true;
-		return false;
+		return this.parameter == thisClassObj.parameter;
 	}
 	
 	@Override
 	public int hashCode() {
-		return Boolean.valueOf(this.parameter).hashCode();
+		return Boolean.hashCode(this.parameter);
 	}
 	
 	@Override
@@ -1,7 +1,6 @@
 package jp.co.dk.neo4jdatastoremanager.cypher;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -11,6 +10,9 @@ import static jp.co.dk.neo4jdatastoremanager.message.Neo4JDataStoreManagerMessag
 /**
  * Cypherは、Cypher本文と、そのCypherに対するパラメータを保持し、単一のCypher本文を生成するクラスです。
  * 
+ * 同値性はCypher本文とパラメータの内容で判定されます。ハッシュ値は一度計算すると保持され、Cypher本文、パラメータが変更された際に再計算されます。<br/>
+ * キャッシュのキー等、複数のスレッドで共有する場合は{@link #freeze()}にて生成した不変のCypherを使用してください。
+ * 
  * @version 1.1
  * @author D.Kanno
  */
@@ -22,6 +24,30 @@ public class Cypher implements Cloneable {
 	/** パラメータ */
 	private List<CypherParameter> cypherParameter = new ArrayList<CypherParameter>();
 	
+	/** 変換済みのCypher本文（未変換、またはCypher本文が変更された場合null） */
+	private CypherTemplate template;
+	
+	/** ハッシュ値（未計算、またはCypher本文、パラメータが変更された場合0） */
+	private int hash;
+	
+	/**
+	 * コンストラクタ
+	 * 不変のCypherを生成するためのコンストラクタです。
+	 */
+	Cypher() {
+	}
+	
+	/**
+	 * コンストラクタ
+	 * 指定のCypher本文とパラメータの一覧の複製を保持するCypherを生成します。
+	 * @param cypher Cypher本文
+	 * @param cypherParameter パラメータの一覧
+	 */
+	Cypher(CharSequence cypher, List<CypherParameter> cypherParameter) {
+		this.cypher.append(cypher);
+		this.cypherParameter.addAll(cypherParameter);
+	}
+	
 	/**
 	 * コンストラクタ
 	 * 指定のCypherを表す文字列を元に、Cypherオブジェクトのインスタンスを生成します。
@@ -44,6 +70,7 @@ public class Cypher implements Cloneable {
 	public Cypher appendTop(String cypher) throws Neo4JDataStoreManagerCypherException {
 		if (cypher == null || cypher.equals("")) throw new Neo4JDataStoreManagerCypherException(CYPHER_IS_NOT_SET);
 		this.cypher = new StringBuilder(cypher).append(this.cypher);
+		this.modified();
 		return this;
 	}
 	
@@ -56,10 +83,11 @@ public class Cypher implements Cloneable {
 	 */
 	public Cypher appendTop(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
 		if (cypher == null) throw new Neo4JDataStoreManagerCypherException(CYPHER_IS_NOT_SET);
-		this.cypher = new StringBuilder(cypher.cypher.toString()).append(this.cypher);
-		List<CypherParameter> newCypherParameter = new ArrayList<>(cypher.cypherParameter);
+		this.cypher = new StringBuilder(cypher.getText()).append(this.cypher);
+		List<CypherParameter> newCypherParameter = new ArrayList<>(cypher.getCypherParameter());
 		newCypherParameter.addAll(this.cypherParameter);
 		this.cypherParameter = newCypherParameter;
+		this.modified();
 		return this;
 	}
 	
@@ -72,6 +100,7 @@ public class Cypher implements Cloneable {
 	public Cypher append(String cypher) throws Neo4JDataStoreManagerCypherException {
 		if (cypher == null || cypher.equals("")) throw new Neo4JDataStoreManagerCypherException(CYPHER_IS_NOT_SET); 
 		this.cypher.append(cypher);
+		this.modified();
 		return this;
 	}
 	
@@ -84,8 +113,9 @@ public class Cypher implements Cloneable {
 	 */
 	public Cypher append(Cypher cypher) throws Neo4JDataStoreManagerCypherException {
 		if (cypher == null) throw new Neo4JDataStoreManagerCypherException(CYPHER_IS_NOT_SET); 
-		this.cypher.append(cypher.cypher.toString());
-		this.cypherParameter.addAll(cypher.cypherParameter);
+		this.cypher.append(cypher.getText());
+		this.cypherParameter.addAll(cypher.getCypherParameter());
+		this.modified();
 		return this;
 	}
 	
@@ -96,6 +126,7 @@ public class Cypher implements Cloneable {
 	 */
 	public Cypher setParameter(String parameter){
 		this.cypherParameter.add(new StringCypherParameter(parameter));
+		this.modified();
 		return this;
 	}
 	
@@ -106,6 +137,7 @@ public class Cypher implements Cloneable {
 	 */
 	public Cypher setParameter(int parameter) {
 		this.cypherParameter.add(new NumericCypherParameter(parameter));
+		this.modified();
 		return this;
 	}
 	
@@ -116,18 +148,17 @@ public class Cypher implements Cloneable {
 	 */
 	public Cypher setParameter(boolean parameter) {
 		this.cypherParameter.add(new BooleanCypherParameter(parameter));
+		this.modified();
 		return this;
 	}
 	
+	/**
+	 * このCypherのCypher本文を、"?"を"{1}","{2}"...形式に変換した文字列で取得します。
+	 * 変換結果は同一のCypher本文を持つCypherオブジェクト間で共有され、Cypher本文が変更されるまで再変換は行われません。
+	 * @return 変換後のCypher本文
+	 */
 	public String getCypher() {
-		StringBuilder replacedCypher = new StringBuilder(this.cypher.toString());
-		for (int index=1; ; index++) {
-			int findIndex = replacedCypher.indexOf("?");
-			if (findIndex < 0) break;
-			replacedCypher.delete(findIndex, findIndex + 1);
-			replacedCypher.insert(findIndex, "{" + index + "}");
-		}
-		return replacedCypher.toString();
+		return this.getTemplate().getCypher();
 	}
 	
 	/**
@@ -135,36 +166,152 @@ public class Cypher implements Cloneable {
 	 * @return パラメータの一覧
 	 */
 	public Map<String, Object> getParameter() {
-		Map<String, Object> parameter = new HashMap<String, Object>();
-		for (int i=1; i<=this.cypherParameter.size(); i++) parameter.put(Integer.toString(i), this.cypherParameter.get(i-1).getParameter());
-		return parameter;
+		return this.getTemplate().bind(this.getCypherParameter());
+	}
+	
+	/**
+	 * このCypherに設定されたパラメータの数を取得します。
+	 * {@link #getParameterKey(int)}、{@link #getParameterValue(int)}と組み合わせることで、マップを生成せずにパラメータを参照できます。
+	 * @return パラメータの数
+	 */
+	public int getParameterSize() {
+		return this.getCypherParameter().size();
+	}
+	
+	/**
+	 * 指定の位置のパラメータのパラメータキー（"1","2"...）を取得します。
+	 * @param index パラメータの位置（0から開始）
+	 * @return パラメータキー
+	 */
+	public String getParameterKey(int index) {
+		return CypherTemplate.parameterKey(index + 1);
+	}
+	
+	/**
+	 * 指定の位置のパラメータの値を取得します。
+	 * @param index パラメータの位置（0から開始）
+	 * @return パラメータの値
+	 */
+	public Object getParameterValue(int index) {
+		return this.getCypherParameter().get(index).getParameter();
+	}
+	
+	/**
+	 * このCypherを基に、内容を変更できないCypherを生成します。
+	 * 生成されたCypherはスレッドセーフであり、キャッシュのキー等として複数のスレッドで共有することができます。
+	 * 生成されたCypherに対してCypher本文、パラメータを変更するメソッドを実行した場合、UnsupportedOperationExceptionが送出されます。
+	 * 
+	 * @return 内容を変更できないCypher（このCypherが既に変更できない場合、このCypher）
+	 */
+	public Cypher freeze() {
+		return new FrozenCypher(this);
+	}
+	
+	/**
+	 * このCypherが内容を変更できないCypherであるかを判定します。
+	 * @return 判定結果（true=変更できない、false=変更できる）
+	 */
+	public boolean isFrozen() {
+		return false;
+	}
+	
+	/**
+	 * 変換前のCypher本文を取得します。
+	 * @return 変換前のCypher本文
+	 */
+	CharSequence getText() {
+		return this.cypher;
+	}
+	
+	/**
+	 * このCypherに設定されたパラメータの一覧を取得します。
+	 * @return パラメータの一覧
+	 */
+	List<CypherParameter> getCypherParameter() {
+		return this.cypherParameter;
+	}
+	
+	/**
+	 * Cypher本文、またはパラメータが変更された際に、保持している変換済みのCypher本文、ハッシュ値を破棄します。
+	 */
+	private void modified() {
+		this.template = null;
+		this.hash     = 0;
+	}
+	
+	/**
+	 * このCypherのCypher本文を変換したテンプレートを取得します。
+	 * @return テンプレート
+	 */
+	CypherTemplate getTemplate() {
+		CypherTemplate template = this.template;
+		if (template == null) {
+			template = CypherTemplate.compile(this.cypher.toString());
+			this.template = template;
+		}
+		return template;
+	}
+	
+	/**
+	 * 指定のラベル、リレーション種別、プロパティキー等の識別子をCypher本文に埋め込める形式にエスケープします。
+	 * 識別子はバッククォートで囲まれ、識別子に含まれるバッククォートは二重化されます。
+	 * @param identifier 識別子
+	 * @return エスケープした識別子
+	 */
+	public static String escapeIdentifier(String identifier) {
+		return new StringBuilder(identifier.length() + 2).append('`').append(identifier.replace("`", "``")).append('`').toString();
 	}
 	
 	@Override
-	public int hashCode() { 
-		int hashcode = this.cypher.toString().hashCode();
-		for (CypherParameter param : this.cypherParameter) hashcode *= param.hashCode();
-		return hashcode *17;
+	public int hashCode() {
+		int hashcode = this.hash;
+		if (hashcode == 0) {
+			hashcode = computeHashCode(this.getText(), this.getCypherParameter());
+			this.hash = hashcode;
+		}
+		return hashcode;
+	}
+	
+	/**
+	 * 指定のCypher本文とパラメータの一覧からハッシュ値を算出します。
+	 * Cypher本文のハッシュ値は、同一内容のStringのハッシュ値と同じ値になります。
+	 * @param text Cypher本文
+	 * @param cypherParameter パラメータの一覧
+	 * @return ハッシュ値
+	 */
+	static int computeHashCode(CharSequence text, List<CypherParameter> cypherParameter) {
+		int textHash = 0;
+		for (int i=0; i<text.length(); i++) textHash = 31 * textHash + text.charAt(i);
+		int hashcode = 31 * textHash + cypherParameter.hashCode();
+		return (hashcode == 0) ? 17 : hashcode;
 	}
 	
 	@Override
 	public boolean equals(Object object) {
-		if (object == null) return false;
+		if (this == object) return true;
 		if (!(object instanceof Cypher)) return false;
 		Cypher thisClassObj = (Cypher) object;
-		if (thisClassObj.hashCode() == this.hashCode()) return true;
-		return false;
+		if (thisClassObj.hashCode() != this.hashCode()) return false;
+		CharSequence thisText  = this.getText();
+		CharSequence otherText = thisClassObj.getText();
+		int length = thisText.length();
+		if (length != otherText.length()) return false;
+		for (int i=0; i<length; i++) {
+			if (thisText.charAt(i) != otherText.charAt(i)) return false;
+		}
+		return this.getCypherParameter().equals(thisClassObj.getCypherParameter());
 	}
 	
 	@Override
 	public String toString() {
-		StringBuilder sqlstr = new StringBuilder("CYPHER=[").append(this.cypher).append(']');
+		List<CypherParameter> cypherParameter = this.getCypherParameter();
+		StringBuilder sqlstr = new StringBuilder("CYPHER=[").append(this.getText()).append(']');
 		if (cypherParameter.size() == 0) {
 			sqlstr.append(" PARAMETER=[NOTHING]");
 			return sqlstr.toString();
 		} else {
 			sqlstr.append(" PARAMETER=[");
-			for (CypherParameter param : this.cypherParameter) {
+			for (CypherParameter param : cypherParameter) {
 				sqlstr.append(param.toString()).append(", ");
 			}
 			int index = sqlstr.length();
@@ -1,7 +1,21 @@
 package jp.co.dk.neo4jdatastoremanager.cypher;
 
+/**
+ * CypherParameterは、Cypherの{x}部分にあたるパラメータを表すクラスです。
+ * 
+ * パラメータは不変であり、同値性はパラメータの型と値で判定されます。
+ * 
+ * @version 1.0
+ * @author D.Kanno
+ */
 abstract class CypherParameter {
 	
 	abstract Object getParameter();
 	
+	@Override
+	public abstract boolean equals(Object object);
+	
+	@Override
+	public abstract int hashCode();
+	
 }
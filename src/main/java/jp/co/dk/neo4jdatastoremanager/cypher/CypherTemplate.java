@@ -0,0 +1,141 @@
+package jp.co.dk.neo4jdatastoremanager.cypher;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CypherTemplateは、"?"で記述されたパラメータ位置を"{1}","{2}"...形式に変換済みのCypher本文を保持するクラスです。
+ *
+ * 変換は一度だけ行われ、変換結果はCypher本文の文字列をキーに共有されます。
+ * 同一のCypher本文に対しては同一のインスタンスが返却されるため、パラメータのバインド時に再解析は行われません。
+ * 共有するテンプレートが最大数を超えた場合、最も長く使用されていないテンプレートから破棄されます。<br/>
+ * 本クラスは不変であり、スレッドセーフです。
+ *
+ * @version 1.0
+ * @author D.Kanno
+ */
+class CypherTemplate {
+
+	/** 共有するテンプレートの最大数 */
+	protected static final int MAX_CACHE_SIZE = 1024;
+
+	/** Cypher本文をキーとしたテンプレート（参照順、同期化はこのマップで行う） */
+	protected static final LinkedHashMap<String, CypherTemplate> templateCache = new LinkedHashMap<String, CypherTemplate>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CypherTemplate> eldest) {
+			return this.size() > MAX_CACHE_SIZE;
+		}
+	};
+
+	/** パラメータキー（"1","2"...）のキャッシュ */
+	protected static volatile String[] parameterKeys = createParameterKeys(32);
+
+	/** 変換後のCypher本文 */
+	protected final String cypher;
+
+	/** パラメータ位置の数 */
+	protected final int parameterCount;
+
+	/**
+	 * 指定のCypher本文を変換したテンプレートを取得します。
+	 * 同一のCypher本文に対して既に変換済みのテンプレートが存在する場合、それを返却します。
+	 * 共有するテンプレートが最大数を超えた場合、最も長く使用されていないテンプレートを破棄します。
+	 * （破棄されたCypher本文は、次回の取得時に再度変換されます）
+	 *
+	 * @param cypher Cypher本文
+	 * @return テンプレート
+	 */
+	static CypherTemplate compile(String cypher) {
+		CypherTemplate template;
+		synchronized (templateCache) {
+			template = templateCache.get(cypher);
+		}
+		if (template != null) return template;
+		template = new CypherTemplate(cypher);
+		synchronized (templateCache) {
+			CypherTemplate cached = templateCache.putIfAbsent(cypher, template);
+			return (cached != null) ? cached : template;
+		}
+	}
+
+	/**
+	 * 指定のCypher本文を一回の走査で変換し、テンプレートを生成します。
+	 * @param cypher Cypher本文
+	 */
+	protected CypherTemplate(String cypher) {
+		int length = cypher.length();
+		int index  = cypher.indexOf('?');
+		if (index < 0) {
+			this.cypher         = cypher;
+			this.parameterCount = 0;
+			return;
+		}
+		StringBuilder compiled = new StringBuilder(length + 16);
+		int count = 0;
+		int start = 0;
+		while (index >= 0) {
+			compiled.append(cypher, start, index).append('{').append(++count).append('}');
+			start = index + 1;
+			index = cypher.indexOf('?', start);
+		}
+		compiled.append(cypher, start, length);
+		this.cypher         = compiled.toString();
+		this.parameterCount = count;
+	}
+
+	/**
+	 * 変換後のCypher本文を取得します。
+	 * @return 変換後のCypher本文
+	 */
+	String getCypher() {
+		return this.cypher;
+	}
+
+	/**
+	 * パラメータ位置の数を取得します。
+	 * @return パラメータ位置の数
+	 */
+	int getParameterCount() {
+		return this.parameterCount;
+	}
+
+	/**
+	 * 指定のパラメータ一覧を、パラメータキー（"1","2"...）とパラメータ値のマップに変換します。
+	 * @param cypherParameter パラメータ一覧
+	 * @return パラメータキーとパラメータ値のマップ
+	 */
+	Map<String, Object> bind(List<CypherParameter> cypherParameter) {
+		int size = cypherParameter.size();
+		Map<String, Object> parameter = new HashMap<String, Object>((int)(size / 0.75f) + 1);
+		for (int i=0; i<size; i++) parameter.put(parameterKey(i + 1), cypherParameter.get(i).getParameter());
+		return parameter;
+	}
+
+	/**
+	 * 指定の番号のパラメータキーを取得します。
+	 * @param index パラメータ番号（1から開始）
+	 * @return パラメータキー
+	 */
+	static String parameterKey(int index) {
+		String[] keys = parameterKeys;
+		if (index >= keys.length) {
+			keys = createParameterKeys(Math.max(index + 1, keys.length << 1));
+			parameterKeys = keys;
+		}
+		return keys[index];
+	}
+
+	private static String[] createParameterKeys(int size) {
+		String[] keys = new String[size];
+		for (int i=0; i<size; i++) keys[i] = Integer.toString(i).intern();
+		return keys;
+	}
+
+	@Override
+	public String toString() {
+		return new StringBuilder("CYPHERTEMPLATE=[").append(this.cypher).append("] PARAMETERCOUNT=").append(this.parameterCount).toString();
+	}
+}
@@ -0,0 +1,116 @@
+package jp.co.dk.neo4jdatastoremanager.cypher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * FrozenCypherは、Cypher本文とパラメータを変更できないCypherです。
+ * 
+ * Cypher本文、パラメータ、変換済みのCypher本文、ハッシュ値は生成時に確定し、finalフィールドとして保持されるため、
+ * 同期化を行わずに複数のスレッドで共有することができます。<br/>
+ * Cypher本文、パラメータを変更するメソッドを実行した場合、UnsupportedOperationExceptionを送出します。
+ * 
+ * @version 1.0
+ * @author D.Kanno
+ */
+final class FrozenCypher extends Cypher {
+	
+	/** Cypher本文 */
+	private final String text;
+	
+	/** パラメータ */
+	private final List<CypherParameter> frozenParameter;
+	
+	/** 変換済みのCypher本文 */
+	private final CypherTemplate frozenTemplate;
+	
+	/** ハッシュ値 */
+	private final int frozenHash;
+	
+	/**
+	 * コンストラクタ
+	 * 指定のCypherの現在の内容を複製し、変更できないCypherを生成します。
+	 * @param cypher 複製元のCypher
+	 */
+	FrozenCypher(Cypher cypher) {
+		this.text            = cypher.getText().toString();
+		this.frozenParameter = Collections.unmodifiableList(new ArrayList<CypherParameter>(cypher.getCypherParameter()));
+		this.frozenTemplate  = CypherTemplate.compile(this.text);
+		this.frozenHash      = computeHashCode(this.text, this.frozenParameter);
+	}
+	
+	@Override
+	public Cypher appendTop(String cypher) {
+		throw new UnsupportedOperationException(this.toString());
+	}
+	
+	@Override
+	public Cypher appendTop(Cypher cypher) {
+		throw new UnsupportedOperationException(this.toString());
+	}
+	
+	@Override
+	public Cypher append(String cypher) {
+		throw new UnsupportedOperationException(this.toString());
+	}
+	
+	@Override
+	public Cypher append(Cypher cypher) {
+		throw new UnsupportedOperationException(this.toString());
+	}
+	
+	@Override
+	public Cypher setParameter(String parameter) {
+		throw new UnsupportedOperationException(this.toString());
+	}
+	
+	@Override
+	public Cypher setParameter(int parameter) {
+		throw new UnsupportedOperationException(this.toString());
+	}
+	
+	@Override
+	public Cypher setParameter(boolean parameter) {
+		throw new UnsupportedOperationException(this.toString());
+	}
+	
+	@Override
+	public Cypher freeze() {
+		return this;
+	}
+	
+	@Override
+	public boolean isFrozen() {
+		return true;
+	}
+	
+	@Override
+	CharSequence getText() {
+		return this.text;
+	}
+	
+	@Override
+	List<CypherParameter> getCypherParameter() {
+		return this.frozenParameter;
+	}
+	
+	@Override
+	CypherTemplate getTemplate() {
+		return this.frozenTemplate;
+	}
+	
+	@Override
+	public int hashCode() {
+		return this.frozenHash;
+	}
+	
+	/**
+	 * このCypherと同じ内容を持つ、変更可能なCypherを生成します。
+	 * @return 変更可能なCypher
+	 */
+	@Override
+	public Cypher clone() {
+		return new Cypher(this.text, this.frozenParameter);
+	}
+}
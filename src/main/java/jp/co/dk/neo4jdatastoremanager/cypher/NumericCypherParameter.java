@@ -2,7 +2,7 @@ package jp.co.dk.neo4jdatastoremanager.cypher;
 
 class NumericCypherParameter extends CypherParameter{
 	
-	protected int parameter;
+	protected final int parameter;
 	
 	NumericCypherParameter(int parameter) {
 		this.parameter = parameter;
@@ -15,16 +15,15 @@ class NumericCypherParameter extends CypherParameter{
 	
 	@Override
 	public boolean equals(Object object) {
-		if (object == null) return false;
+		if (this == object) return true;
 		if (!(object instanceof NumericCypherParameter)) return false;
 		NumericCypherParameter thisClassObj = (NumericCypherParameter) object;
-		if (thisClassObj.hashCode() == this.hashCode()) return true;
-		return false;
+		return this.parameter == thisClassObj.parameter;
 	}
 	
 	@Override
 	public int hashCode() {
-		return (int) ((int)this.parameter * 17L);
+		return Integer.hashCode(this.parameter) * 17;
 	}
 	
 	@Override
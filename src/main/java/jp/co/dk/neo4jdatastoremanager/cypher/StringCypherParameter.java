@@ -2,7 +2,7 @@ package jp.co.dk.neo4jdatastoremanager.cypher;
 
 class StringCypherParameter extends CypherParameter{
 	
-	protected String parameter;
+	protected final String parameter;
 	
 	StringCypherParameter(String parameter) {
 		this.parameter = parameter;
@@ -10,16 +10,15 @@ class StringCypherParameter extends CypherParameter{
 
 	@Override
 	Object getParameter() {
-		return new String(this.parameter);
+		return this.parameter;
 	}
 	
 	@Override
 	public boolean equals(Object object) {
-		if (object == null) return false;
+		if (this == object) return true;
 		if (!(object instanceof StringCypherParameter)) return false;
 		StringCypherParameter thisClassObj = (StringCypherParameter) object;
-		if (thisClassObj.hashCode() == this.hashCode()) return true;
-		return false;
+		return (this.parameter == null) ? thisClassObj.parameter == null : this.parameter.equals(thisClassObj.parameter);
 	}
 	
 	@Override
@@ -47,4 +47,18 @@ public class Neo4JDataStoreManagerFatalException  extends AbstractMessageFatalEx
 	public Neo4JDataStoreManagerFatalException(Neo4JDataStoreManagerMessage msg, String... param){
 		super(msg, param);
 	}
+	
+	/**
+	 * コンストラクタ<p>
+	 * 
+	 * 指定のメッセージで例外を生成します。
+	 * 
+	 * @param msg メッセージ定数インスタンス
+	 * @param param 埋め込み文字
+	 * @param e 例外オブジェクト
+	 * @since 1.0
+	 */
+	public Neo4JDataStoreManagerFatalException(Neo4JDataStoreManagerMessage msg, String param, Throwable e){
+		super(msg, param, e);
+	}
 }
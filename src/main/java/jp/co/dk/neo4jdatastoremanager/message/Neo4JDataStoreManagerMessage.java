@@ -42,6 +42,45 @@ public class Neo4JDataStoreManagerMessage extends AbstractMessage implements Ser
 	/** パラメータの読込に失敗しました。KEY=[{0}] */
 	public static final Neo4JDataStoreManagerMessage PARAMETER_FAILED_TO_READ = new Neo4JDataStoreManagerMessage("E008");
 	
+	/** コネクションの取得がタイムアウトしました。PARAMETER=[{0}] */
+	public static final Neo4JDataStoreManagerMessage CONNECTION_ACQUIRE_TIMEOUT = new Neo4JDataStoreManagerMessage("E010");
+	
+	/** Cypherの実行に失敗しました。CYPHER=[{0}] */
+	public static final Neo4JDataStoreManagerMessage CYPHER_FAILED_TO_EXECUTE = new Neo4JDataStoreManagerMessage("E011");
+	
+	/** 検索結果の読込に失敗しました。CYPHER=[{0}] */
+	public static final Neo4JDataStoreManagerMessage RESULT_FAILED_TO_READ = new Neo4JDataStoreManagerMessage("E012");
+	
+	/** プロパティの変換に失敗しました。CLASS=[{0}] */
+	public static final Neo4JDataStoreManagerMessage PROPERTY_FAILED_TO_ENCODE = new Neo4JDataStoreManagerMessage("E013");
+	
+	/** プロパティの復元に失敗しました。 */
+	public static final Neo4JDataStoreManagerMessage PROPERTY_FAILED_TO_DECODE = new Neo4JDataStoreManagerMessage("E014");
+	
+	/** 複数のデータストアで処理に失敗しました。OPERATION=[{0}],COUNT=[{1}] */
+	public static final Neo4JDataStoreManagerMessage DATASTORES_FAILED = new Neo4JDataStoreManagerMessage("E015");
+	
+	/** パイプラインは既に終了しています。 */
+	public static final Neo4JDataStoreManagerMessage PIPELINE_IS_FINISHED = new Neo4JDataStoreManagerMessage("E016");
+	
+	/** ページングの指定が不正です。PARAMETER=[{0}] */
+	public static final Neo4JDataStoreManagerMessage PAGING_PARAMETER_IS_FRAUD = new Neo4JDataStoreManagerMessage("E017");
+	
+	/** 列が存在しません。COLUMN=[{0}] */
+	public static final Neo4JDataStoreManagerMessage COLUMN_IS_NOT_FOUND = new Neo4JDataStoreManagerMessage("E018");
+	
+	/** 組込みデータベースのパスが設定されていません。 */
+	public static final Neo4JDataStoreManagerMessage EMBEDDED_PATH_IS_NOT_SET = new Neo4JDataStoreManagerMessage("E019");
+	
+	/** 組込みデータベースの起動に失敗しました。PATH=[{0}] */
+	public static final Neo4JDataStoreManagerMessage EMBEDDED_DATABASE_FAILED_TO_START = new Neo4JDataStoreManagerMessage("E020");
+	
+	/** 組込みデータベースのCypher実行エンジンが見つかりません。CLASS=[{0}] */
+	public static final Neo4JDataStoreManagerMessage CYPHER_ENGINE_IS_NOT_FOUND = new Neo4JDataStoreManagerMessage("E021");
+	
+	/** ノードが存在しません。ID=[{0}] */
+	public static final Neo4JDataStoreManagerMessage NODE_IS_NOT_FOUND = new Neo4JDataStoreManagerMessage("E022");
+	
 	protected Neo4JDataStoreManagerMessage(String messageId) {
 		super(messageId);
 	}
@@ -0,0 +1,277 @@
+package jp.co.dk.neo4jdatastoremanager.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import jp.co.dk.neo4jdatastoremanager.cypher.Cypher;
+
+/**
+ * <p>CypherHistoryは、実行したCypherの履歴を最大件数まで保持するリングバッファです。</p>
+ * 最大件数を超えた場合は古い履歴から上書きされるため、使用するメモリは一定となります。<br/>
+ * 追加は番号の加算と配列への格納のみで行われ、ロックを取得しません。
+ * 追加と並行して取得した場合、取得中に上書きされた履歴は新しい履歴として返却される場合があります。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+public class CypherHistory {
+
+	/** 履歴（番号を最大件数で割った余りの位置に格納） */
+	protected final AtomicReferenceArray<Entry> entries;
+
+	/** 最大件数 */
+	protected final int capacity;
+
+	/** 次に追加する履歴の番号 */
+	protected final AtomicLong sequence = new AtomicLong();
+
+	/**
+	 * <p>指定の最大件数で履歴を生成します。</p>
+	 * @param capacity 最大件数
+	 */
+	public CypherHistory(int capacity) {
+		if (capacity < 1) throw new IllegalArgumentException("capacity=" + capacity);
+		this.capacity = capacity;
+		this.entries  = new AtomicReferenceArray<Entry>(capacity);
+	}
+
+	/**
+	 * <p>履歴を追加します。</p>
+	 * @param entry 履歴
+	 */
+	public void add(Entry entry) {
+		this.entries.set((int)(this.sequence.getAndIncrement() % this.capacity), entry);
+	}
+
+	/**
+	 * <p>保持している履歴を古い順に取得します。</p>
+	 * @return 履歴一覧
+	 */
+	public List<Entry> getEntries() {
+		long end   = this.sequence.get();
+		long start = Math.max(0L, end - this.capacity);
+		List<Entry> entries = new ArrayList<Entry>((int)(end - start));
+		for (long i=start; i<end; i++) {
+			Entry entry = this.entries.get((int)(i % this.capacity));
+			if (entry != null) entries.add(entry);
+		}
+		return entries;
+	}
+
+	/**
+	 * <p>最大件数を取得します。</p>
+	 * @return 最大件数
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * <p>これまでに追加した履歴の件数（上書きされた履歴を含む）を取得します。</p>
+	 * @return 件数
+	 */
+	public long getTotalCount() {
+		return this.sequence.get();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("CYPHERHISTORY CAPACITY=").append(this.capacity).append(" TOTAL=").append(this.getTotalCount());
+		return builder.toString();
+	}
+
+	/**
+	 * <p>Entryは、一回のCypherの実行の履歴を表すクラスです。</p>
+	 * 実行したCypherは内容を変更できないCypherとして保持し、パラメータの文字列表現は、
+	 * スロークエリの出力時や履歴の参照時にのみ、値を最大文字数に切り詰めた上で生成します。
+	 */
+	public static final class Entry {
+
+		/** 実行したCypher（内容を変更できないCypher） */
+		protected final Cypher cypher;
+
+		/** パラメータの値の最大文字数 */
+		protected final int maxParameterLength;
+
+		/** 検索の種類 */
+		protected final QueryType type;
+
+		/** 実行開始日時（ミリ秒） */
+		protected final long startTime;
+
+		/** 処理時間（ナノ秒） */
+		protected final long elapsed;
+
+		/** 取得した行数（不明な場合-1） */
+		protected final long rows;
+
+		/** 成否 */
+		protected final boolean succeeded;
+
+		/**
+		 * <p>指定の実行結果を基に履歴を生成します。</p>
+		 * 実行したCypherは内容を変更できないCypherに変換して保持します。
+		 * @param cypher             実行したCypher
+		 * @param type               検索の種類
+		 * @param startTime          実行開始日時（ミリ秒）
+		 * @param elapsed            処理時間（ナノ秒）
+		 * @param rows               取得した行数（不明な場合-1）
+		 * @param succeeded          成否（true=成功、false=失敗）
+		 * @param maxParameterLength パラメータの値の最大文字数
+		 */
+		public Entry(Cypher cypher, QueryType type, long startTime, long elapsed, long rows, boolean succeeded, int maxParameterLength) {
+			this.cypher             = cypher.freeze();
+			this.maxParameterLength = maxParameterLength;
+			this.type               = type;
+			this.startTime          = startTime;
+			this.elapsed            = elapsed;
+			this.rows               = rows;
+			this.succeeded          = succeeded;
+		}
+
+		/**
+		 * <p>パラメータの値を指定の文字数に切り詰めた文字列表現を生成します。</p>
+		 * @param parameter          パラメータ
+		 * @param maxParameterLength パラメータの値の最大文字数
+		 * @return 文字列表現
+		 */
+		protected static String truncate(Map<String, Object> parameter, int maxParameterLength) {
+			StringBuilder builder = new StringBuilder("{");
+			boolean first = true;
+			for (Map.Entry<String, Object> entry : parameter.entrySet()) {
+				if (!first) builder.append(", ");
+				first = false;
+				builder.append(entry.getKey()).append('=');
+				appendValue(builder, entry.getValue(), maxParameterLength);
+			}
+			return builder.append('}').toString();
+		}
+
+		/**
+		 * <p>指定の値を最大文字数に切り詰めた文字列表現を追加します。</p>
+		 * 文字列は最大文字数までの部分のみを追加し、コレクション、配列は最大文字数に達した時点で要素の走査を打ち切ります。<br/>
+		 * 値全体の文字列表現は生成しないため、大きな値に対しても処理量は最大文字数に比例します。
+		 * @param builder            追加先
+		 * @param value              値
+		 * @param maxParameterLength 最大文字数
+		 */
+		protected static void appendValue(StringBuilder builder, Object value, int maxParameterLength) {
+			if (value instanceof CharSequence) {
+				CharSequence text = (CharSequence)value;
+				if (text.length() > maxParameterLength) {
+					builder.append(text, 0, maxParameterLength).append("...(").append(text.length()).append(')');
+				} else {
+					builder.append(text);
+				}
+				return;
+			}
+			if (value instanceof Collection) {
+				appendElements(builder, (Collection<?>)value, maxParameterLength);
+				return;
+			}
+			if (value instanceof Object[]) {
+				appendElements(builder, Arrays.asList((Object[])value), maxParameterLength);
+				return;
+			}
+			appendValue(builder, String.valueOf(value), maxParameterLength);
+		}
+
+		/**
+		 * <p>指定のコレクションの要素を最大文字数に達するまで追加します。</p>
+		 * 最大文字数に達した場合、以降の要素は走査せずに要素数のみを追加します。
+		 * @param builder            追加先
+		 * @param elements           要素
+		 * @param maxParameterLength 最大文字数
+		 */
+		protected static void appendElements(StringBuilder builder, Collection<?> elements, int maxParameterLength) {
+			int start = builder.length();
+			builder.append('[');
+			boolean first = true;
+			for (Object element : elements) {
+				if (builder.length() - start > maxParameterLength) {
+					builder.append("...(").append(elements.size()).append(')');
+					break;
+				}
+				if (!first) builder.append(", ");
+				first = false;
+				appendValue(builder, element, maxParameterLength);
+			}
+			builder.append(']');
+		}
+
+		/**
+		 * <p>実行したCypher本文を取得します。</p>
+		 * @return Cypher本文
+		 */
+		public String getCypher() {
+			return this.cypher.getCypher();
+		}
+
+		/**
+		 * <p>パラメータの文字列表現を取得します。</p>
+		 * パラメータの値は、履歴の生成時に指定した最大文字数に切り詰められます。
+		 * @return パラメータの文字列表現
+		 */
+		public String getParameter() {
+			return truncate(this.cypher.getParameter(), this.maxParameterLength);
+		}
+
+		/**
+		 * <p>検索の種類を取得します。</p>
+		 * @return 検索の種類
+		 */
+		public QueryType getType() {
+			return this.type;
+		}
+
+		/**
+		 * <p>実行開始日時（ミリ秒）を取得します。</p>
+		 * @return 実行開始日時
+		 */
+		public long getStartTime() {
+			return this.startTime;
+		}
+
+		/**
+		 * <p>処理時間（ミリ秒）を取得します。</p>
+		 * @return 処理時間
+		 */
+		public double getElapsed() {
+			return this.elapsed / 1000000.0d;
+		}
+
+		/**
+		 * <p>取得した行数を取得します。</p>
+		 * 逐次取得の場合、失敗した場合は-1を返却します。
+		 * @return 行数
+		 */
+		public long getRows() {
+			return this.rows;
+		}
+
+		/**
+		 * <p>実行に成功したかを判定します。</p>
+		 * @return 判定結果（true=成功、false=失敗）
+		 */
+		public boolean isSucceeded() {
+			return this.succeeded;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder builder = new StringBuilder();
+			builder.append("TYPE=").append(this.type)
+				.append(" ELAPSED=").append(this.getElapsed()).append("ms")
+				.append(" ROWS=").append(this.rows)
+				.append(" SUCCEEDED=").append(this.succeeded)
+				.append(" CYPHER=[").append(this.getCypher()).append("] PARAMETER=").append(this.getParameter());
+			return builder.toString();
+		}
+	}
+}
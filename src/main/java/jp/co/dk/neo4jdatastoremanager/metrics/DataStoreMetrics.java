@@ -0,0 +1,339 @@
+package jp.co.dk.neo4jdatastoremanager.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import jp.co.dk.logger.Logger;
+import jp.co.dk.logger.LoggerFactory;
+
+/**
+ * <p>DataStoreMetricsは、単一のデータストアの統計情報（検索件数、行数、要求回数、処理時間、トランザクション数）を記録するクラスです。</p>
+ * 件数はLongAdder、処理時間は{@link LatencyHistogram}に記録されるため、記録時にロックを取得せず、常時有効にしたまま使用できます。<br/>
+ * {@link #getDataStoreMetrics(String)}にて取得した統計情報はデータストア名ごとにJVM内で共有され、
+ * "jp.co.dk.neo4jdatastoremanager:type=DataStore,name=データストア名"としてJMXに公開されます。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+public class DataStoreMetrics implements DataStoreMetricsMXBean {
+
+	/** JMXのドメイン */
+	public static final String JMX_DOMAIN = "jp.co.dk.neo4jdatastoremanager";
+
+	/** データストア名ごとの統計情報 */
+	protected static final Map<String, DataStoreMetrics> dataStoreMetrics = new ConcurrentHashMap<>();
+
+	/** 検索件数 */
+	protected final LongAdder queryCount = new LongAdder();
+
+	/** 失敗件数 */
+	protected final LongAdder errorCount = new LongAdder();
+
+	/** 行数 */
+	protected final LongAdder rowCount = new LongAdder();
+
+	/** 要求回数 */
+	protected final LongAdder roundTripCount = new LongAdder();
+
+	/** 開始中のトランザクション数 */
+	protected final LongAdder openTransactionCount = new LongAdder();
+
+	/** コミット件数 */
+	protected final LongAdder commitCount = new LongAdder();
+
+	/** ロールバック件数 */
+	protected final LongAdder rollbackCount = new LongAdder();
+
+	/** 検索の種類ごとの処理時間 */
+	protected final Map<QueryType, LatencyHistogram> latencies = new EnumMap<QueryType, LatencyHistogram>(QueryType.class);
+
+	/** JMXに登録した名称（登録していない場合null） */
+	protected ObjectName objectName;
+
+	/** ロガーインスタンス */
+	protected Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	/**
+	 * <p>統計情報を生成します。</p>
+	 */
+	public DataStoreMetrics() {
+		for (QueryType type : QueryType.values()) this.latencies.put(type, new LatencyHistogram());
+	}
+
+	/**
+	 * <p>指定のデータストア名に紐づく統計情報を取得します。</p>
+	 * 統計情報が存在しない場合、新たに生成してJMXに公開します。公開に失敗した場合も、警告を出力した上で統計情報を返却します。
+	 * @param name データストア名
+	 * @return 統計情報
+	 */
+	public static DataStoreMetrics getDataStoreMetrics(String name) {
+		return dataStoreMetrics.computeIfAbsent(name, key -> {
+			DataStoreMetrics metrics = new DataStoreMetrics();
+			try {
+				metrics.registerMBean(key);
+			} catch (JMException | RuntimeException e) {
+				metrics.logger.warn(e);
+			}
+			return metrics;
+		});
+	}
+
+	/**
+	 * <p>{@link #getDataStoreMetrics(String)}にて生成したすべての統計情報のJMXへの公開を解除し、破棄します。</p>
+	 */
+	public static void unregisterAll() {
+		for (String name : dataStoreMetrics.keySet()) {
+			DataStoreMetrics metrics = dataStoreMetrics.remove(name);
+			if (metrics == null) continue;
+			try {
+				metrics.unregisterMBean();
+			} catch (JMException | RuntimeException e) {
+				metrics.logger.warn(e);
+			}
+		}
+	}
+
+	/**
+	 * <p>指定の検索処理を実行し、その処理時間、成否を記録します。</p>
+	 * @param type  検索の種類
+	 * @param query 検索処理
+	 * @return 検索結果
+	 * @throws E 検索に失敗した場合
+	 */
+	public <T, E extends Exception> T record(QueryType type, Query<T, E> query) throws E {
+		long start = System.nanoTime();
+		boolean succeeded = false;
+		try {
+			T result = query.execute();
+			succeeded = true;
+			return result;
+		} finally {
+			this.recordQuery(type, System.nanoTime() - start, succeeded);
+		}
+	}
+
+	/**
+	 * <p>検索の処理時間、成否を記録します。</p>
+	 * @param type      検索の種類
+	 * @param nanos     処理時間（ナノ秒）
+	 * @param succeeded 成否（true=成功、false=失敗）
+	 */
+	public void recordQuery(QueryType type, long nanos, boolean succeeded) {
+		this.queryCount.increment();
+		if (!succeeded) this.errorCount.increment();
+		this.latencies.get(type).record(nanos);
+	}
+
+	/**
+	 * <p>応答から読み込んだ行数を記録します。</p>
+	 * @param rows 行数
+	 */
+	public void recordRows(long rows) {
+		if (rows > 0) this.rowCount.add(rows);
+	}
+
+	/**
+	 * <p>Neo4Jサーバへの要求を記録します。</p>
+	 */
+	public void recordRoundTrip() {
+		this.roundTripCount.increment();
+	}
+
+	/**
+	 * <p>トランザクションの開始を記録します。</p>
+	 */
+	public void recordTransactionStart() {
+		this.openTransactionCount.increment();
+	}
+
+	/**
+	 * <p>トランザクションの終了を記録します。</p>
+	 */
+	public void recordTransactionFinish() {
+		this.openTransactionCount.decrement();
+	}
+
+	/**
+	 * <p>コミットを記録します。</p>
+	 */
+	public void recordCommit() {
+		this.commitCount.increment();
+	}
+
+	/**
+	 * <p>ロールバックを記録します。</p>
+	 */
+	public void recordRollback() {
+		this.rollbackCount.increment();
+	}
+
+	/**
+	 * <p>指定の検索の種類の処理時間を取得します。</p>
+	 * @param type 検索の種類
+	 * @return 処理時間
+	 */
+	public LatencyHistogram getLatency(QueryType type) {
+		return this.latencies.get(type);
+	}
+
+	@Override
+	public long getQueryCount() {
+		return this.queryCount.sum();
+	}
+
+	@Override
+	public long getErrorCount() {
+		return this.errorCount.sum();
+	}
+
+	@Override
+	public double getErrorRate() {
+		long queries = this.queryCount.sum();
+		return (queries == 0) ? 0.0d : this.errorCount.sum() / (double)queries;
+	}
+
+	@Override
+	public long getRowCount() {
+		return this.rowCount.sum();
+	}
+
+	@Override
+	public long getRoundTripCount() {
+		return this.roundTripCount.sum();
+	}
+
+	@Override
+	public long getOpenTransactionCount() {
+		return this.openTransactionCount.sum();
+	}
+
+	@Override
+	public long getCommitCount() {
+		return this.commitCount.sum();
+	}
+
+	@Override
+	public long getRollbackCount() {
+		return this.rollbackCount.sum();
+	}
+
+	@Override
+	public Map<String, Long> getLatencyCount() {
+		Map<String, Long> counts = new LinkedHashMap<String, Long>();
+		for (Map.Entry<QueryType, LatencyHistogram> latency : this.latencies.entrySet()) counts.put(latency.getKey().name(), Long.valueOf(latency.getValue().getCount()));
+		return counts;
+	}
+
+	@Override
+	public Map<String, Double> getLatencyP50() {
+		return this.toMap(latency -> latency.getPercentile(50.0d));
+	}
+
+	@Override
+	public Map<String, Double> getLatencyP99() {
+		return this.toMap(latency -> latency.getPercentile(99.0d));
+	}
+
+	@Override
+	public Map<String, Double> getLatencyP999() {
+		return this.toMap(latency -> latency.getPercentile(99.9d));
+	}
+
+	@Override
+	public Map<String, Double> getLatencyMax() {
+		return this.toMap(LatencyHistogram::getMax);
+	}
+
+	@Override
+	public void reset() {
+		this.queryCount.reset();
+		this.errorCount.reset();
+		this.rowCount.reset();
+		this.roundTripCount.reset();
+		this.commitCount.reset();
+		this.rollbackCount.reset();
+		for (LatencyHistogram latency : this.latencies.values()) latency.reset();
+	}
+
+	/**
+	 * <p>検索の種類ごとの処理時間から指定の値を取得し、検索の種類の名称をキーとするマップを生成します。</p>
+	 * 一度も実行していない検索の種類は含まれません。
+	 * @param value 処理時間から値を取得する処理
+	 * @return マップ
+	 */
+	protected Map<String, Double> toMap(ToDoubleFunction<LatencyHistogram> value) {
+		Map<String, Double> values = new LinkedHashMap<String, Double>();
+		for (Map.Entry<QueryType, LatencyHistogram> latency : this.latencies.entrySet()) {
+			if (latency.getValue().getCount() == 0) continue;
+			values.put(latency.getKey().name(), Double.valueOf(value.applyAsDouble(latency.getValue())));
+		}
+		return values;
+	}
+
+	/**
+	 * <p>この統計情報を指定のデータストア名でJMXに登録します。</p>
+	 * 同一の名称で登録済みの統計情報が存在する場合、登録済みの統計情報を解除した上で登録します。
+	 * @param name データストア名
+	 * @throws JMException 登録に失敗した場合
+	 */
+	public synchronized void registerMBean(String name) throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=DataStore,name=" + ObjectName.quote(name));
+		if (server.isRegistered(objectName)) server.unregisterMBean(objectName);
+		server.registerMBean(this, objectName);
+		this.objectName = objectName;
+	}
+
+	/**
+	 * <p>この統計情報のJMXへの登録を解除します。</p>
+	 * 登録していない場合、何もしません。
+	 * @throws JMException 登録の解除に失敗した場合
+	 */
+	public synchronized void unregisterMBean() throws JMException {
+		if (this.objectName == null) return;
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			if (server.isRegistered(this.objectName)) server.unregisterMBean(this.objectName);
+		} finally {
+			this.objectName = null;
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("DATASTOREMETRICS QUERY=").append(this.getQueryCount())
+			.append(" ERROR=").append(this.getErrorCount())
+			.append(" ROW=").append(this.getRowCount())
+			.append(" ROUNDTRIP=").append(this.getRoundTripCount())
+			.append(" OPENTRANSACTION=").append(this.getOpenTransactionCount())
+			.append(" COMMIT=").append(this.getCommitCount())
+			.append(" ROLLBACK=").append(this.getRollbackCount());
+		return builder.toString();
+	}
+
+	/**
+	 * <p>Queryは、処理時間を記録する検索処理を表すインターフェースです。</p>
+	 * @param <T> 検索結果の型
+	 * @param <E> 検索処理が送出する例外の型
+	 */
+	@FunctionalInterface
+	public interface Query<T, E extends Exception> {
+
+		/**
+		 * <p>検索を実行します。</p>
+		 * @return 検索結果
+		 * @throws E 検索に失敗した場合
+		 */
+		T execute() throws E;
+	}
+}
@@ -0,0 +1,96 @@
+package jp.co.dk.neo4jdatastoremanager.metrics;
+
+import java.util.Map;
+
+/**
+ * <p>DataStoreMetricsMXBeanは、データストアの統計情報をJMXに公開するインターフェースです。</p>
+ * 処理時間はミリ秒で、検索の種類（{@link QueryType}の名称）をキーとするマップとして公開されます。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+public interface DataStoreMetricsMXBean {
+
+	/**
+	 * <p>検索の実行件数を取得します。</p>
+	 * @return 実行件数
+	 */
+	long getQueryCount();
+
+	/**
+	 * <p>検索に失敗した件数を取得します。</p>
+	 * @return 失敗件数
+	 */
+	long getErrorCount();
+
+	/**
+	 * <p>検索に失敗した割合を取得します。</p>
+	 * @return 失敗した割合（0～1、検索を実行していない場合0）
+	 */
+	double getErrorRate();
+
+	/**
+	 * <p>応答から読み込んだ行数を取得します。</p>
+	 * @return 行数
+	 */
+	long getRowCount();
+
+	/**
+	 * <p>Neo4Jサーバへの要求の回数を取得します。</p>
+	 * @return 要求の回数
+	 */
+	long getRoundTripCount();
+
+	/**
+	 * <p>開始中のトランザクション数を取得します。</p>
+	 * @return トランザクション数
+	 */
+	long getOpenTransactionCount();
+
+	/**
+	 * <p>コミットの実行件数を取得します。</p>
+	 * @return 実行件数
+	 */
+	long getCommitCount();
+
+	/**
+	 * <p>ロールバックの実行件数を取得します。</p>
+	 * @return 実行件数
+	 */
+	long getRollbackCount();
+
+	/**
+	 * <p>検索の種類ごとの実行件数を取得します。</p>
+	 * @return 実行件数
+	 */
+	Map<String, Long> getLatencyCount();
+
+	/**
+	 * <p>検索の種類ごとの処理時間の50パーセンタイルを取得します。</p>
+	 * @return 処理時間（ミリ秒）
+	 */
+	Map<String, Double> getLatencyP50();
+
+	/**
+	 * <p>検索の種類ごとの処理時間の99パーセンタイルを取得します。</p>
+	 * @return 処理時間（ミリ秒）
+	 */
+	Map<String, Double> getLatencyP99();
+
+	/**
+	 * <p>検索の種類ごとの処理時間の99.9パーセンタイルを取得します。</p>
+	 * @return 処理時間（ミリ秒）
+	 */
+	Map<String, Double> getLatencyP999();
+
+	/**
+	 * <p>検索の種類ごとの処理時間の最大値を取得します。</p>
+	 * @return 処理時間（ミリ秒）
+	 */
+	Map<String, Double> getLatencyMax();
+
+	/**
+	 * <p>開始中のトランザクション数を除くすべての統計情報を破棄します。</p>
+	 */
+	void reset();
+}
@@ -0,0 +1,141 @@
+package jp.co.dk.neo4jdatastoremanager.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>LatencyHistogramは、処理時間の分布を記録するヒストグラムです。</p>
+ * 処理時間（ナノ秒）は2のべき乗ごとの区間をさらに8分割した区間（相対誤差12.5%以内）に集計され、
+ * 記録は区間の件数の加算のみで行われるため、ロックを取得しません。<br/>
+ * パーセンタイルは区間の上限値で近似されます。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+public class LatencyHistogram {
+
+	/** 2のべき乗の区間あたりの分割数のビット数 */
+	protected static final int SUB_BUCKET_BITS = 3;
+
+	/** 2のべき乗の区間あたりの分割数 */
+	protected static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/** 区間数 */
+	protected static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+	/** 区間ごとの件数 */
+	protected final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	/** 件数 */
+	protected final LongAdder count = new LongAdder();
+
+	/** 合計（ナノ秒） */
+	protected final LongAdder total = new LongAdder();
+
+	/** 最大値（ナノ秒） */
+	protected final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+	/**
+	 * <p>処理時間を記録します。</p>
+	 * @param nanos 処理時間（ナノ秒）
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) nanos = 0;
+		this.counts.incrementAndGet(bucketOf(nanos));
+		this.count.increment();
+		this.total.add(nanos);
+		this.max.accumulate(nanos);
+	}
+
+	/**
+	 * <p>記録した件数を取得します。</p>
+	 * @return 件数
+	 */
+	public long getCount() {
+		return this.count.sum();
+	}
+
+	/**
+	 * <p>処理時間の平均（ミリ秒）を取得します。</p>
+	 * @return 平均（記録がない場合0）
+	 */
+	public double getMean() {
+		long count = this.count.sum();
+		return (count == 0) ? 0.0d : this.total.sum() / (double)count / 1000000.0d;
+	}
+
+	/**
+	 * <p>処理時間の最大値（ミリ秒）を取得します。</p>
+	 * @return 最大値（記録がない場合0）
+	 */
+	public double getMax() {
+		return this.max.get() / 1000000.0d;
+	}
+
+	/**
+	 * <p>指定のパーセンタイルの処理時間（ミリ秒）を取得します。</p>
+	 * 記録中に取得した場合、取得中に記録された処理時間は含まれない場合があります。
+	 * @param percentile パーセンタイル（0～100）
+	 * @return 処理時間（記録がない場合0）
+	 */
+	public double getPercentile(double percentile) {
+		long[] snapshot = new long[BUCKETS];
+		long count = 0;
+		for (int i=0; i<BUCKETS; i++) count += (snapshot[i] = this.counts.get(i));
+		if (count == 0) return 0.0d;
+		long rank = Math.max(1L, (long)Math.ceil(count * Math.min(Math.max(percentile, 0.0d), 100.0d) / 100.0d));
+		long seen = 0;
+		for (int i=0; i<BUCKETS; i++) {
+			seen += snapshot[i];
+			if (seen >= rank) return Math.min(upperBoundOf(i), this.max.get()) / 1000000.0d;
+		}
+		return this.getMax();
+	}
+
+	/**
+	 * <p>記録をすべて破棄します。</p>
+	 * 破棄中に記録された処理時間は破棄されない場合があります。
+	 */
+	public void reset() {
+		for (int i=0; i<BUCKETS; i++) this.counts.set(i, 0L);
+		this.count.reset();
+		this.total.reset();
+		this.max.reset();
+	}
+
+	/**
+	 * <p>指定の処理時間が属する区間の番号を取得します。</p>
+	 * @param value 処理時間（ナノ秒）
+	 * @return 区間の番号
+	 */
+	static int bucketOf(long value) {
+		if (value < SUB_BUCKETS) return (int)value;
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int sub      = (int)(value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+	}
+
+	/**
+	 * <p>指定の区間の上限値を取得します。</p>
+	 * @param bucket 区間の番号
+	 * @return 上限値（ナノ秒）
+	 */
+	static long upperBoundOf(int bucket) {
+		if (bucket < SUB_BUCKETS) return bucket;
+		int shift = bucket / SUB_BUCKETS - 1;
+		long lower = (long)(SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+		return lower + (1L << shift) - 1;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("COUNT=").append(this.getCount())
+			.append(" P50=").append(this.getPercentile(50.0d))
+			.append(" P99=").append(this.getPercentile(99.0d))
+			.append(" P999=").append(this.getPercentile(99.9d))
+			.append(" MAX=").append(this.getMax());
+		return builder.toString();
+	}
+}
@@ -0,0 +1,41 @@
+package jp.co.dk.neo4jdatastoremanager.metrics;
+
+/**
+ * <p>QueryTypeは、処理時間を集計する検索の種類を表す列挙です。</p>
+ * 逐次取得（ストリーム、ページ、バッチ）の処理時間は、最初の応答を受信するまでの時間となります。
+ *
+ * @version 0.1
+ * @author D.Kanno
+ */
+public enum QueryType {
+
+	/** 単一の値（文字列、数値、真偽値） */
+	VALUE,
+
+	/** 値の一覧（文字列、数値、真偽値） */
+	VALUE_LIST,
+
+	/** 単一のノード */
+	NODE,
+
+	/** 複数のノード */
+	NODE_LIST,
+
+	/** 逐次取得（文字列、数値、真偽値、ノード） */
+	STREAM,
+
+	/** 複数列 */
+	ROWS,
+
+	/** 数値の配列 */
+	ARRAY,
+
+	/** 列形式 */
+	COLUMNS,
+
+	/** ページ単位 */
+	PAGES,
+
+	/** ノードの作成 */
+	CREATE
+}
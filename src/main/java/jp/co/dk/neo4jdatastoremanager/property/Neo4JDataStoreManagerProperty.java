@@ -7,10 +7,13 @@ import java.util.List;
 import java.util.Map;
 
 import jp.co.dk.neo4jdatastoremanager.Neo4JDataStoreParameter;
+import jp.co.dk.neo4jdatastoremanager.codec.PropertyCodec;
 import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerException;
 import jp.co.dk.property.PropertiesFile;
 import jp.co.dk.property.exception.PropertyException;
 
+import static jp.co.dk.neo4jdatastoremanager.message.Neo4JDataStoreManagerMessage.*;
+
 /**
  * データストアに関するプロパティを定義するクラスです。
  * 
@@ -65,14 +68,31 @@ public class Neo4JDataStoreManagerProperty extends PropertiesFile {
 	 * @throws Neo4JDataStoreManagerException データストアパラメータの生成に失敗した場合
 	 */
 	public Neo4JDataStoreParameter getDefaultDataStoreParameter() throws Neo4JDataStoreManagerException {
+		String embeddedPath  = this.getString("neo4j.embedded.path");
 		String neo4jurl      = this.getString("neo4j.server"  );
 		String neo4juser     = this.getString("neo4j.user"    );
 		String neo4jpassword = this.getString("neo4j.password");
-		if (neo4juser != null && !neo4juser.equals("") && neo4jpassword != null && !neo4jpassword.equals("")) {
-			return new Neo4JDataStoreParameter(neo4jurl, neo4juser, neo4jpassword);
-		} else {
-			return new Neo4JDataStoreParameter(neo4jurl);
-		}
+		Neo4JDataStoreParameter parameter = this.newDataStoreParameter(embeddedPath, neo4jurl, neo4juser, neo4jpassword);
+		this.setConnectionPoolSetting(parameter, null);
+		parameter.setBatchChunkSize(this.getInt("neo4j.batch.chunkSize", 1000));
+		this.setPropertyCodec(parameter, null);
+		parameter.setAsyncThreads(this.getInt("neo4j.async.threads", 16));
+		parameter.setResultCacheSetting(this.getInt("neo4j.cache.size", 0), this.getLong("neo4j.cache.ttl", 60000L));
+		parameter.setCypherHistorySetting(this.getInt("neo4j.history.size", 100), this.getLong("neo4j.slowquery.threshold", 0L), this.getInt("neo4j.slowquery.parameterLength", 100));
+		return parameter;
+	}
+	
+	/**
+	 * このプロパティファイルから、各データストアに対するトランザクション操作を並列に実行する際の最大スレッド数を取得する。
+	 * "neo4j.manager.threads"が設定されていない場合、8を返却します。
+	 * 
+	 * @return 最大スレッド数
+	 * @throws Neo4JDataStoreManagerException 設定値が不正な場合
+	 */
+	public int getManagerThreads() throws Neo4JDataStoreManagerException {
+		int threads = this.getInt("neo4j.manager.threads", 8);
+		if (threads < 1) throw new Neo4JDataStoreManagerException(PARAMETER_IS_FRAUD, "neo4j.manager.threads", Integer.toString(threads));
+		return threads;
 	}
 	
 	/**
@@ -84,6 +104,7 @@ public class Neo4JDataStoreManagerProperty extends PropertiesFile {
 	public Map<String, Neo4JDataStoreParameter> getDataStoreParameters() throws Neo4JDataStoreManagerException {
 		Map<String, Neo4JDataStoreParameter> configurationMap = new HashMap<String, Neo4JDataStoreParameter>();
 		List<String> nameList = this.getNameList("neo4j.server");
+		for (String name : this.getNameList("neo4j.embedded.path")) if (!nameList.contains(name)) nameList.add(name);
 		for (String name : nameList) {
 			configurationMap.put(name, this.getDataStoreParameter(name));
 		}
@@ -112,14 +133,98 @@ public class Neo4JDataStoreManagerProperty extends PropertiesFile {
 	 * @throws Neo4JDataStoreManagerException データストアパラメータの生成に失敗した場合
 	 */
 	protected Neo4JDataStoreParameter getDataStoreParameter(String name) throws Neo4JDataStoreManagerException {
-		String neo4jurl      = this.getString("neo4j.server"  , name);
-		String neo4juser     = this.getString("neo4j.user"    , name);
-		String neo4jpassword = this.getString("neo4j.password", name);
-		if (neo4juser != null && neo4juser.equals("") && neo4jpassword != null && neo4jpassword.equals("")) {
+		String embeddedPath  = this.getStringWithName("neo4j.embedded.path", name);
+		String neo4jurl      = this.getString(this.getKeyWithName("neo4j.server"  , name));
+		String neo4juser     = this.getString(this.getKeyWithName("neo4j.user"    , name));
+		String neo4jpassword = this.getString(this.getKeyWithName("neo4j.password", name));
+		Neo4JDataStoreParameter parameter = this.newDataStoreParameter(embeddedPath, neo4jurl, neo4juser, neo4jpassword);
+		this.setConnectionPoolSetting(parameter, name);
+		parameter.setBatchChunkSize(this.getInt(this.getKeyWithName("neo4j.batch.chunkSize", name), 1000));
+		this.setPropertyCodec(parameter, name);
+		parameter.setAsyncThreads(this.getInt(this.getKeyWithName("neo4j.async.threads", name), 16));
+		parameter.setResultCacheSetting(this.getInt(this.getKeyWithName("neo4j.cache.size", name), 0), this.getLong(this.getKeyWithName("neo4j.cache.ttl", name), 60000L));
+		parameter.setCypherHistorySetting(this.getInt(this.getKeyWithName("neo4j.history.size", name), 100), this.getLong(this.getKeyWithName("neo4j.slowquery.threshold", name), 0L), this.getInt(this.getKeyWithName("neo4j.slowquery.parameterLength", name), 100));
+		return parameter;
+	}
+	
+	/**
+	 * 指定の接続先を基にデータストアパラメータオブジェクトを生成し、返却する。
+	 * 
+	 * 組込みデータベースのパス（"neo4j.embedded.path"）が設定されている場合、サーバの設定に関わらず組込みデータベースに接続するデータストアパラメータを生成します。
+	 * 名称付きのデータストアでは名称なしの"neo4j.embedded.path"は引き継がず、"neo4j.embedded.path.USERS"のように名称で補完したキーのみを参照します。
+	 * 
+	 * @param embeddedPath  組込みデータベースのパス
+	 * @param neo4jurl      NEO4JサーバURL
+	 * @param neo4juser     NEO4Jサーバユーザ名
+	 * @param neo4jpassword NEO4Jサーバパスワード
+	 * @return データストアパラメータ
+	 * @throws Neo4JDataStoreManagerException 必須情報が設定されていなかった場合
+	 */
+	protected Neo4JDataStoreParameter newDataStoreParameter(String embeddedPath, String neo4jurl, String neo4juser, String neo4jpassword) throws Neo4JDataStoreManagerException {
+		if (embeddedPath != null && !embeddedPath.equals("")) return Neo4JDataStoreParameter.newEmbeddedParameter(embeddedPath);
+		if (neo4juser != null && !neo4juser.equals("") && neo4jpassword != null && !neo4jpassword.equals("")) {
 			return new Neo4JDataStoreParameter(neo4jurl, neo4juser, neo4jpassword);
-		} else {
-			return new Neo4JDataStoreParameter(neo4jurl);
 		}
+		return new Neo4JDataStoreParameter(neo4jurl);
+	}
+	
+	/**
+	 * 指定のデータストアパラメータにこのプロパティファイルに定義されたコネクションプールの設定を行う。
+	 * 
+	 * ・"neo4j.pool.maxConnections"（最大接続数）
+	 * ・"neo4j.pool.idleTimeout"（アイドルタイムアウト（ミリ秒））
+	 * ・"neo4j.pool.acquireTimeout"（コネクション取得タイムアウト（ミリ秒））
+	 * ・"neo4j.pool.keepAlive"（HTTPキープアライブ有無）
+	 * 
+	 * 名称が指定された場合、"neo4j.pool.maxConnections.USERS"のように名称で補完したキーの値を優先し、
+	 * 設定されていない場合は名称なしのキーの値、それも設定されていない場合はデフォルト値を使用します。
+	 * 
+	 * @param parameter データストアパラメータ
+	 * @param name データストアパラメータ名称（デフォルトのデータストアの場合null）
+	 * @throws Neo4JDataStoreManagerException 設定値が不正な場合
+	 */
+	protected void setConnectionPoolSetting(Neo4JDataStoreParameter parameter, String name) throws Neo4JDataStoreManagerException {
+		int     maxConnections = this.getInt    (this.getKeyWithName("neo4j.pool.maxConnections", name), 10);
+		long    idleTimeout    = this.getLong   (this.getKeyWithName("neo4j.pool.idleTimeout"   , name), 60000L);
+		long    acquireTimeout = this.getLong   (this.getKeyWithName("neo4j.pool.acquireTimeout", name), 5000L);
+		boolean keepAlive      = this.getBoolean(this.getKeyWithName("neo4j.pool.keepAlive"     , name), true);
+		parameter.setConnectionPoolSetting(maxConnections, idleTimeout, acquireTimeout, keepAlive);
+	}
+	
+	/**
+	 * 指定のデータストアパラメータにこのプロパティファイルに定義されたオブジェクトプロパティ変換方式を設定する。
+	 * 
+	 * "neo4j.property.codec"に変換方式のクラス名が設定されている場合、そのクラスのインスタンスを生成し設定します。
+	 * 設定されていない場合はデフォルトの変換方式のままとなります。
+	 * 
+	 * @param parameter データストアパラメータ
+	 * @param name データストアパラメータ名称（デフォルトのデータストアの場合null）
+	 * @throws Neo4JDataStoreManagerException 変換方式のクラスのインスタンス生成に失敗した場合
+	 */
+	protected void setPropertyCodec(Neo4JDataStoreParameter parameter, String name) throws Neo4JDataStoreManagerException {
+		String key       = this.getKeyWithName("neo4j.property.codec", name);
+		String className = this.getString(key);
+		if (className == null || className.equals("")) return;
+		try {
+			parameter.setPropertyCodec(Class.forName(className).asSubclass(PropertyCodec.class).getDeclaredConstructor().newInstance());
+		} catch (ReflectiveOperationException | ClassCastException e) {
+			throw new Neo4JDataStoreManagerException(PARAMETER_IS_FRAUD, new String[]{key, className}, e);
+		}
+	}
+	
+	/**
+	 * このプロパティキーを指定の名称で補完したキーを返却します。
+	 * 名称で補完したキーがこのプロパティファイルに定義されていない場合、またはnameがnullの場合は補完前のキーを返却します。
+	 * 
+	 * @param key プロパティキー
+	 * @param name 名称
+	 * @return プロパティキー
+	 */
+	protected String getKeyWithName(String key, String name) {
+		if (name == null) return key;
+		String keyWithName = new StringBuilder(key).append('.').append(name).toString();
+		if (this.containsKey(keyWithName)) return keyWithName;
+		return key;
 	}
 	
 	/**
@@ -0,0 +1,47 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+
+import org.junit.Test;
+import org.neo4j.graphdb.DynamicLabel;
+import org.neo4j.graphdb.DynamicRelationshipType;
+
+public class CypherNodeSelectorTest {
+
+	@Test
+	public void toQuery() {
+		CypherNodeSelector sut = new CypherNodeSelector()
+			.relationshipType(DynamicRelationshipType.withName("FOLLOW"))
+			.relationshipType(DynamicRelationshipType.withName("LIKE"))
+			.label(DynamicLabel.label("User"))
+			.equal("status", "active")
+			.greaterThan("age", 20)
+			.hasProperty("mail");
+		assertEquals("START a=node({id}) MATCH (a)-[:`FOLLOW`|`LIKE`]->(b) WHERE b:`User` AND b.`status` = {p0} AND b.`age` > {p1} AND has(b.`mail`) RETURN b LIMIT 1", sut.toQuery(1));
+		Map<String, Object> params = sut.toParameters(5L);
+		assertEquals(3, params.size());
+		assertEquals(Long.valueOf(5L), params.get("id"));
+		assertEquals("active", params.get("p0"));
+		assertEquals(Integer.valueOf(20), params.get("p1"));
+	}
+
+	@Test
+	public void toQueryWithoutCondition() {
+		assertEquals("START a=node({id}) MATCH (a)-[]->(b) RETURN b", new CypherNodeSelector().toQuery(0));
+	}
+
+	@Test
+	public void condition() {
+		CypherNodeSelector.Condition greater = new CypherNodeSelector.Condition("age", CypherNodeSelector.Operator.GREATER_THAN, Integer.valueOf(20));
+		assertTrue(greater.test(Long.valueOf(21L)));
+		assertFalse(greater.test(Integer.valueOf(20)));
+		assertFalse(greater.test("21"));
+		assertFalse(greater.test(null));
+		CypherNodeSelector.Condition notEqual = new CypherNodeSelector.Condition("status", CypherNodeSelector.Operator.NOT_EQUAL, "active");
+		assertTrue(notEqual.test("stopped"));
+		assertFalse(notEqual.test("active"));
+		assertFalse(notEqual.test(null));
+	}
+}
@@ -0,0 +1,65 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.junit.Test;
+
+public class EmbeddedResultReaderTest {
+
+	@Test
+	public void nextRow() throws IOException {
+		EmbeddedResultReader sut = new EmbeddedResultReader(Arrays.asList("b", "a"), rows(2).iterator(), "test");
+		assertEquals(Arrays.asList("b", "a"), sut.getColumns());
+		assertEquals(Arrays.<Object>asList("b0", Integer.valueOf(0)), sut.nextRow());
+		assertEquals(Arrays.<Object>asList("b1", Integer.valueOf(1)), sut.nextRow());
+		assertNull(sut.nextRow());
+		assertNull(sut.nextRow());
+	}
+
+	@Test
+	public void nextFirstColumn() throws IOException {
+		EmbeddedResultReader sut = new EmbeddedResultReader(Arrays.asList("a", "b"), rows(2).iterator(), "test");
+		JsonParser parser = sut.nextFirstColumn();
+		assertEquals(JsonToken.VALUE_NUMBER_INT, parser.getCurrentToken());
+		assertEquals(0L, parser.getLongValue());
+		sut.skipRow();
+		parser = sut.nextFirstColumn();
+		assertEquals(1L, parser.getLongValue());
+		sut.skipRow();
+		assertNull(sut.nextFirstColumn());
+	}
+
+	@Test
+	public void toJsonNode() {
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("list", Arrays.asList(Long.valueOf(1L), "x"));
+		map.put("array", new long[]{2L, 3L});
+		JsonNode node = EmbeddedResultReader.toJsonNode(map);
+		assertEquals(1L , node.get("list").get(0).getLongValue());
+		assertEquals("x", node.get("list").get(1).getTextValue());
+		assertEquals(3L , node.get("array").get(1).getLongValue());
+		assertEquals(1.5d, EmbeddedResultReader.toJsonNode(Float.valueOf(1.5f)).getDoubleValue(), 0.0d);
+		assertTrue(EmbeddedResultReader.toJsonNode(null).isNull());
+	}
+
+	protected static List<Map<String, Object>> rows(int count) {
+		List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+		for (int i=0; i<count; i++) {
+			Map<String, Object> row = new HashMap<String, Object>();
+			row.put("a", Integer.valueOf(i));
+			row.put("b", "b" + i);
+			rows.add(row);
+		}
+		return rows;
+	}
+}
@@ -0,0 +1,86 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerException;
+import jp.co.dk.neo4jdatastoremanager.property.Neo4JDataStoreManagerProperty;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.graphdb.GraphDatabaseService;
+
+public class Neo4JDataStoreManagerThreadTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void threadBoundDataStoreRunsOnCallerThread() throws Exception {
+		Neo4JDataStoreManager sut = new Neo4JDataStoreManager(new Neo4JDataStoreManagerProperty());
+		Neo4JDataStoreParameter parameter = new Neo4JDataStoreParameter("http://localhost:7474/db/data");
+		sut.dataStores.put("bound", new ThreadDataStore(parameter, true));
+		sut.dataStores.put("free" , new ThreadDataStore(parameter, false));
+		sut.executorService = DaemonExecutors.newBoundedExecutor("test", 2);
+		Map<String, Thread> threads = new ConcurrentHashMap<String, Thread>();
+		try {
+			for (int i=0; i<10; i++) {
+				sut.executeAll("test", dataStore -> {
+					if (dataStore instanceof ThreadDataStore) threads.put(((ThreadDataStore)dataStore).isThreadBound ? "bound" : "free", Thread.currentThread());
+				});
+				assertSame(Thread.currentThread(), threads.get("bound"));
+				assertNotSame(Thread.currentThread(), threads.get("free"));
+			}
+		} finally {
+			sut.executorService.shutdown();
+		}
+	}
+
+	@Test
+	public void namedEmbeddedDataStore() throws Exception {
+		Neo4JDataStoreManagerProperty property = new Neo4JDataStoreManagerProperty();
+		property.setProperty("neo4j.embedded.path"     , this.folder.newFolder("default").getAbsolutePath());
+		property.setProperty("neo4j.embedded.path.EMB1", this.folder.newFolder("emb1").getAbsolutePath());
+		property.setProperty("neo4j.embedded.path.EMB2", this.folder.newFolder("emb2").getAbsolutePath());
+		property.setProperty("neo4j.manager.threads"   , "2");
+		try {
+			Node node;
+			ExecutorService executorService;
+			try (Neo4JDataStoreManager sut = new Neo4JDataStoreManager(property)) {
+				executorService = sut.executorService;
+				assertNotNull(executorService);
+				sut.startTrunsaction();
+				node = sut.getDataAccessObject("EMB1").createNode();
+				node.setProperty("name", "emb1");
+			}
+			assertTrue(executorService.isShutdown());
+			
+			GraphDatabaseService graphDatabaseService = EmbeddedDatabase.getEmbeddedDatabase(property.getString("neo4j.embedded.path.EMB1")).getGraphDatabaseService();
+			try (org.neo4j.graphdb.Transaction transaction = graphDatabaseService.beginTx()) {
+				assertEquals("emb1", graphDatabaseService.getNodeById(node.getID()).getProperty("name"));
+				transaction.success();
+			}
+		} finally {
+			Neo4JDataStoreManager.shutdownConnectionPool();
+		}
+	}
+
+	protected static class ThreadDataStore extends Neo4JDataStore {
+
+		protected final boolean isThreadBound;
+
+		ThreadDataStore(Neo4JDataStoreParameter parameter, boolean isThreadBound) throws Neo4JDataStoreManagerException {
+			super(parameter);
+			this.isThreadBound = isThreadBound;
+		}
+
+		@Override
+		boolean isThreadBound() {
+			return this.isThreadBound;
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import static org.junit.Assert.*;
+
+import jp.co.dk.neo4jdatastoremanager.cypher.Cypher;
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerCypherException;
+
+import org.junit.Test;
+
+public class NodePageIteratorTest {
+
+	@Test
+	public void toQuery() throws Neo4JDataStoreManagerCypherException {
+		NodePageIterator sut = new NodePageIterator(null, new Cypher("MATCH (n:User)"), 100, null);
+		assertEquals("MATCH (n:User) WITH n RETURN n ORDER BY id(n) LIMIT {pageSize}", sut.toQuery(false));
+		assertEquals("MATCH (n:User) WITH n WHERE id(n) > {pageCursorId} RETURN n ORDER BY id(n) LIMIT {pageSize}", sut.toQuery(true));
+		
+		NodePageIterator byName = new NodePageIterator(null, new Cypher("MATCH (n:User)"), 100, "name");
+		assertEquals("MATCH (n:User) WITH n WHERE has(n.`name`) AND (n.`name` > {pageCursorValue} OR (n.`name` = {pageCursorValue} AND id(n) > {pageCursorId})) RETURN n ORDER BY n.`name`, id(n) LIMIT {pageSize}", byName.toQuery(true));
+	}
+
+	@Test
+	public void cursor() throws Neo4JDataStoreManagerCypherException {
+		NodePageIterator sut = new NodePageIterator(null, new Cypher("MATCH (n:User)"), 100, "name");
+		sut.lastId    = Long.valueOf(42L);
+		sut.lastValue = "kanno";
+		String cursor = sut.getCursor();
+		
+		NodePageIterator resumed = new NodePageIterator(null, new Cypher("MATCH (n:User)"), 100, "name");
+		resumed.resume(cursor);
+		assertEquals(Long.valueOf(42L), resumed.lastId);
+		assertEquals("kanno", resumed.lastValue);
+		
+		try {
+			new NodePageIterator(null, new Cypher("MATCH (n:User)"), 100, null).resume(cursor);
+			fail();
+		} catch (Neo4JDataStoreManagerCypherException e) {
+		}
+		try {
+			resumed.resume("not a cursor");
+			fail();
+		} catch (Neo4JDataStoreManagerCypherException e) {
+		}
+	}
+}
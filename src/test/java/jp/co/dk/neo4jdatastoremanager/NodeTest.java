@@ -0,0 +1,68 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerFatalException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.rest.graphdb.RestAPI;
+import org.neo4j.rest.graphdb.batch.CypherResult;
+import org.neo4j.rest.graphdb.entity.RestNode;
+
+public class NodeTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void refreshDeletedRestNode() {
+		RestAPI restApi = (RestAPI)Proxy.newProxyInstance(RestAPI.class.getClassLoader(), new Class<?>[]{RestAPI.class}, (proxy, method, args) -> {
+			if (method.getName().equals("query") && args.length == 2) return new CypherResult(0L) {
+				@Override
+				public Iterable<List<Object>> getData() {
+					return Collections.emptyList();
+				}
+			};
+			throw new UnsupportedOperationException(method.getName());
+		});
+		Node sut = new Node(new RestNode("http://localhost:7474/db/data/node/5", restApi), null, null, null);
+		try {
+			sut.refresh();
+			fail();
+		} catch (Neo4JDataStoreManagerFatalException e) {
+			assertTrue(e.getMessage().contains("ID=[5]"));
+		}
+	}
+
+	@Test
+	public void refreshDeletedEmbeddedNode() throws Exception {
+		GraphDatabaseService graphDatabaseService = EmbeddedDatabase.getEmbeddedDatabase(this.folder.newFolder("db").getAbsolutePath()).getGraphDatabaseService();
+		try {
+			org.neo4j.graphdb.Node node;
+			try (org.neo4j.graphdb.Transaction transaction = graphDatabaseService.beginTx()) {
+				node = graphDatabaseService.createNode();
+				transaction.success();
+			}
+			try (org.neo4j.graphdb.Transaction transaction = graphDatabaseService.beginTx()) {
+				graphDatabaseService.getNodeById(node.getId()).delete();
+				transaction.success();
+			}
+			try (org.neo4j.graphdb.Transaction transaction = graphDatabaseService.beginTx()) {
+				new Node(node, null, null, null).refresh();
+				transaction.success();
+			}
+			fail();
+		} catch (Neo4JDataStoreManagerFatalException e) {
+			assertNotNull(e.getMessage());
+		} finally {
+			Neo4JDataStoreManager.shutdownConnectionPool();
+		}
+	}
+}
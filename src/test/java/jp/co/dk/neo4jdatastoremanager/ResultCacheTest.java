@@ -0,0 +1,148 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jp.co.dk.neo4jdatastoremanager.cypher.Cypher;
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerCypherException;
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.rest.graphdb.entity.RestNode;
+import org.neo4j.tooling.GlobalGraphOperations;
+
+public class ResultCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void hitAndMiss() throws Neo4JDataStoreManagerCypherException {
+		ResultCache sut = new ResultCache(10, 60000L);
+		AtomicInteger loadCount = new AtomicInteger();
+		Cypher cypher = new Cypher("MATCH (n) WHERE n.name = ? RETURN n.value").setParameter("a");
+		assertEquals("v", sut.get("string", cypher, () -> { loadCount.incrementAndGet(); return "v"; }));
+		assertEquals("v", sut.get("string", new Cypher("MATCH (n) WHERE n.name = ? RETURN n.value").setParameter("a"), () -> { loadCount.incrementAndGet(); return "x"; }));
+		assertEquals(1, loadCount.get());
+		assertEquals(1L, sut.getHitCount());
+		assertEquals(1L, sut.getMissCount());
+		
+		cypher.setParameter(1);
+		sut.get("string", cypher, () -> { loadCount.incrementAndGet(); return "w"; });
+		assertEquals(2, loadCount.get());
+	}
+
+	@Test
+	public void writeBypassesAndInvalidates() throws Neo4JDataStoreManagerCypherException {
+		ResultCache sut = new ResultCache(10, 60000L);
+		Cypher read  = new Cypher("MATCH (n) RETURN count(n)");
+		Cypher write = new Cypher("MATCH (n) SET n.x = ?").setParameter(1);
+		sut.get("int", read, () -> Integer.valueOf(1));
+		assertEquals(1, sut.size());
+		sut.get("int", write, () -> null);
+		assertEquals(0, sut.size());
+		assertEquals(Integer.valueOf(2), sut.get("int", read, () -> Integer.valueOf(2)));
+		assertTrue(ResultCache.isWrite(new Cypher("merge (n:A) return n")));
+		assertFalse(ResultCache.isWrite(new Cypher("MATCH (n:Settings) RETURN n.offset")));
+	}
+
+	@Test
+	public void lruAndTtl() throws Neo4JDataStoreManagerCypherException {
+		ResultCache sut = new ResultCache(2, 60000L);
+		sut.get("string", new Cypher("RETURN 1"), () -> "1");
+		sut.get("string", new Cypher("RETURN 2"), () -> "2");
+		sut.get("string", new Cypher("RETURN 1"), () -> "x");
+		sut.get("string", new Cypher("RETURN 3"), () -> "3");
+		assertEquals("1", sut.get("string", new Cypher("RETURN 1"), () -> "x"));
+		assertEquals("y", sut.get("string", new Cypher("RETURN 2"), () -> "y"));
+		
+		ResultCache expired = new ResultCache(2, 0L);
+		expired.get("string", new Cypher("RETURN 1"), () -> "1");
+		assertEquals("2", expired.get("string", new Cypher("RETURN 1"), () -> "2"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void cachedNodeIsImmutable() {
+		Map<String, Object> properties = new HashMap<String, Object>();
+		properties.put("name", "a");
+		properties.put("tags", new ArrayList<Object>(Arrays.asList("x", "y")));
+		Node node = new Node(new RestNode("http://localhost:7474/db/data/node/5", null), Arrays.asList("A"), properties, null);
+		CachedNode sut = new CachedNode(node);
+		node.properties.put("name", "b");
+		((List<Object>)node.properties.get("tags")).add("z");
+		assertEquals(5L, sut.id);
+		assertEquals("http://localhost:7474/db/data/node/5", sut.uri);
+		assertEquals(Arrays.asList("A"), sut.labels);
+		assertEquals("a", sut.properties.get("name"));
+		assertEquals(Arrays.asList("x", "y"), sut.properties.get("tags"));
+		
+		Map<String, Object> copy = sut.copyProperties();
+		((List<Object>)copy.get("tags")).add("w");
+		assertEquals(Arrays.asList("x", "y"), sut.properties.get("tags"));
+		try {
+			sut.properties.put("name", "c");
+			fail();
+		} catch (UnsupportedOperationException e) {
+		}
+	}
+
+	@Test
+	public void rollbackDoesNotLeakUncommittedResult() throws Exception {
+		Neo4JDataStoreParameter parameter = Neo4JDataStoreParameter.newEmbeddedParameter(this.folder.newFolder("db").getAbsolutePath());
+		parameter.setResultCacheSetting(10, 60000L);
+		Neo4JDataStore sut = new Neo4JDataStore(parameter) {
+			@Override
+			protected Transaction createTransaction() throws Neo4JDataStoreManagerException {
+				return new CountTransaction(this.dataBaseAccessParameter);
+			}
+		};
+		Cypher count = new Cypher("MATCH (n) RETURN count(n)");
+		try {
+			sut.startTransaction();
+			sut.createNode();
+			assertEquals(Integer.valueOf(1), sut.selectInt(count));
+			sut.rollback();
+			sut.finishTransaction();
+			assertEquals(0, sut.resultCache.size());
+			
+			sut.startTransaction();
+			assertEquals(Integer.valueOf(0), sut.selectInt(count));
+			sut.transaction.graphDatabaseService.createNode();
+			assertEquals(Integer.valueOf(0), sut.selectInt(count));
+			sut.rollback();
+			sut.finishTransaction();
+			
+			sut.startTransaction();
+			assertEquals(Integer.valueOf(0), sut.selectInt(count));
+			sut.finishTransaction();
+		} finally {
+			Neo4JDataStoreManager.shutdownConnectionPool();
+		}
+	}
+
+	/**
+	 * <p>Cypherを解釈せず、ノード数を返却するトランザクションです。</p>
+	 */
+	protected static class CountTransaction extends Transaction {
+
+		CountTransaction(Neo4JDataStoreParameter parameter) throws Neo4JDataStoreManagerException {
+			super(parameter);
+		}
+
+		@Override
+		public Integer selectInt(Cypher cypher) {
+			int count = 0;
+			for (@SuppressWarnings("unused") org.neo4j.graphdb.Node node : GlobalGraphOperations.at(this.graphDatabaseService).getAllNodes()) count++;
+			return Integer.valueOf(count);
+		}
+	}
+}
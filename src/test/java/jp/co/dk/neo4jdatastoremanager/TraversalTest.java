@@ -0,0 +1,34 @@
+package jp.co.dk.neo4jdatastoremanager;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.DynamicRelationshipType;
+
+public class TraversalTest {
+
+	@Test
+	public void toQuery() {
+		Traversal sut = new Traversal(null)
+			.relationshipType(DynamicRelationshipType.withName("FOLLOW"))
+			.relationshipType(DynamicRelationshipType.withName("LIKE"))
+			.maxNodes(10);
+		assertEquals("START a=node({ids}) MATCH (a)-[:`FOLLOW`|`LIKE`]->(b) WHERE NOT (id(b) IN {excluded}) RETURN id(b), min(id(a)), b LIMIT {limit}", sut.toQuery(true));
+		assertEquals("START a=node({ids}) MATCH (a)<-[]-(b) WHERE NOT (id(b) IN {excluded}) RETURN id(b), min(id(a))", new Traversal(null).direction(Direction.INCOMING).toQuery(false));
+	}
+
+	@Test
+	public void toParameters() {
+		Traversal sut = new Traversal(null);
+		Map<String, Object> params = sut.toParameters(Arrays.asList(3L, 4L), Arrays.asList(1L, 2L), 10, 5);
+		assertEquals(3, params.size());
+		assertEquals(Arrays.asList(3L, 4L), params.get("ids"));
+		assertEquals(Arrays.asList(1L, 2L, 3L, 4L), params.get("excluded"));
+		assertEquals(Integer.valueOf(11), params.get("limit"));
+		assertNull(sut.toParameters(Arrays.asList(3L, 4L), Arrays.asList(1L, 2L), 10, 0).get("limit"));
+	}
+}
@@ -0,0 +1,124 @@
+package jp.co.dk.neo4jdatastoremanager.codec;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerException;
+
+import org.junit.Test;
+
+public class BinaryPropertyCodecTest {
+
+	@Test
+	public void roundTrip() throws Neo4JDataStoreManagerException {
+		BinaryPropertyCodec sut = new BinaryPropertyCodec();
+		assertEquals("日本語テキスト", sut.decode(sut.encode("日本語テキスト")));
+		assertEquals(Integer.valueOf(-123456), sut.decode(sut.encode(Integer.valueOf(-123456))));
+		assertEquals(Long.valueOf(Long.MIN_VALUE), sut.decode(sut.encode(Long.valueOf(Long.MIN_VALUE))));
+		assertEquals(Double.valueOf(1.5), sut.decode(sut.encode(Double.valueOf(1.5))));
+		assertEquals(new BigDecimal("-12.345"), sut.decode(sut.encode(new BigDecimal("-12.345"))));
+		assertEquals(new Date(1000L), sut.decode(sut.encode(new Date(1000L))));
+		assertArrayEquals(new long[]{1L, -2L, 3L}, (long[])sut.decode(sut.encode(new long[]{1L, -2L, 3L})));
+		
+		List<Object> list = new ArrayList<Object>();
+		list.add("a");
+		list.add(null);
+		list.add(Boolean.TRUE);
+		Map<String, Object> map = new LinkedHashMap<String, Object>();
+		map.put("list", list);
+		map.put("bytes", new ArrayList<Object>());
+		assertEquals(map, sut.decode(sut.encode((Serializable)map)));
+		
+		TreeMap<String, Integer> serialized = new TreeMap<String, Integer>();
+		serialized.put("b", Integer.valueOf(2));
+		assertEquals(serialized, sut.decode(sut.encode(serialized)));
+	}
+
+	@Test
+	public void encodeIsCompact() throws Neo4JDataStoreManagerException {
+		BinaryPropertyCodec sut = new BinaryPropertyCodec();
+		assertEquals(4, sut.encode(Integer.valueOf(1)).length);
+	}
+
+	@Test
+	public void floatIsFixedFourBytes() throws Neo4JDataStoreManagerException {
+		BinaryPropertyCodec sut = new BinaryPropertyCodec();
+		assertEquals(7, sut.encode(Float.valueOf(1.5f)).length);
+		assertEquals(Float.valueOf(-1.5f), sut.decode(sut.encode(Float.valueOf(-1.5f))));
+		assertEquals(Float.valueOf(1.5f), sut.decode(new byte[]{(byte)0xC7, 1, 8, 0, 0, 0, 0, 0x3F, (byte)0xC0, 0, 0}));
+	}
+
+	@Test
+	public void schemaAwareObject() throws Exception {
+		BinaryPropertyCodec sut = new BinaryPropertyCodec();
+		List<Item> items = new ArrayList<Item>();
+		for (int i=0; i<10; i++) items.add(new Item("item" + i, i, i % 2 == 0, new Item("child" + i, -i, false, null)));
+		byte[] encoded = sut.encode((Serializable)items);
+		assertEquals(items, sut.decode(encoded));
+		
+		ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+		try (ObjectOutputStream oos = new ObjectOutputStream(serialized)) {
+			oos.writeObject(new ArrayList<Item>(items));
+		}
+		assertTrue(encoded.length < serialized.size());
+	}
+
+	@Test
+	public void cyclicObjectIsSerialized() throws Neo4JDataStoreManagerException {
+		BinaryPropertyCodec sut = new BinaryPropertyCodec();
+		Item item = new Item("cycle", 1, true, null);
+		item.child = item;
+		Item decoded = (Item)sut.decode(sut.encode(item));
+		assertEquals("cycle", decoded.name);
+		assertSame(decoded, decoded.child);
+	}
+
+	@Test(expected = Neo4JDataStoreManagerException.class)
+	public void decodeIllegalData() throws Neo4JDataStoreManagerException {
+		new BinaryPropertyCodec().decode(new byte[]{1, 2, 3});
+	}
+
+	protected static class Item implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		protected String name;
+
+		protected int count;
+
+		protected boolean enabled;
+
+		protected Item child;
+
+		protected Item() {}
+
+		protected Item(String name, int count, boolean enabled, Item child) {
+			this.name    = name;
+			this.count   = count;
+			this.enabled = enabled;
+			this.child   = child;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (!(object instanceof Item)) return false;
+			Item item = (Item)object;
+			return this.name.equals(item.name) && this.count == item.count && this.enabled == item.enabled && (this.child == null ? item.child == null : this.child.equals(item.child));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.name.hashCode();
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package jp.co.dk.neo4jdatastoremanager.columnar;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.Test;
+
+public class ColumnarResultBuilderTest {
+
+	@Test
+	public void readRow() throws Exception {
+		ColumnarResultBuilder sut = new ColumnarResultBuilder(Arrays.asList("i", "d", "s", "o"), 0);
+		read(sut, "[[1,1,\"a\",1],[2,2.5,\"b\",\"x\"],[null,3,\"a\"],[4,4,\"b\",[1],9]]");
+		ColumnarResult result = sut.build();
+		assertEquals(4, result.size());
+		Column i = result.getColumn("i");
+		assertEquals(ColumnType.LONG, i.getType());
+		assertTrue(i.isNull(2));
+		assertEquals(4L, i.getLongs()[3]);
+		Column d = result.getColumn("d");
+		assertEquals(ColumnType.DOUBLE, d.getType());
+		assertEquals(1.0d, d.getDouble(0), 0.0d);
+		assertEquals(2.5d, d.getDouble(1), 0.0d);
+		Column s = result.getColumn("s");
+		assertEquals(ColumnType.STRING, s.getType());
+		assertEquals(2, s.getDictionary().size());
+		assertEquals(s.getCode(0), s.getCode(2));
+		assertEquals("b", s.getString(3));
+		Column o = result.getColumn("o");
+		assertEquals(ColumnType.OBJECT, o.getType());
+		assertEquals(Long.valueOf(1L), o.getObject(0));
+		assertEquals("x", o.getObject(1));
+		assertTrue(o.isNull(2));
+		assertEquals(Arrays.asList(1), o.getObject(3));
+	}
+
+	@Test
+	public void capacity() throws Exception {
+		StringDictionary[] dictionaries = ColumnarResultBuilder.newDictionaries(1);
+		ColumnarResultBuilder first = new ColumnarResultBuilder(Arrays.asList("s"), 2, dictionaries);
+		read(first, "[[\"a\"],[\"b\"]]");
+		assertTrue(first.isFull());
+		ColumnarResultBuilder second = new ColumnarResultBuilder(Arrays.asList("s"), 2, dictionaries);
+		read(second, "[[\"b\"]]");
+		assertFalse(second.isFull());
+		assertEquals(first.build().getColumn(0).getCode(1), second.build().getColumn(0).getCode(0));
+	}
+
+	protected static void read(ColumnarResultBuilder builder, String rows) throws Exception {
+		JsonParser parser = new JsonFactory(new ObjectMapper()).createJsonParser(rows);
+		parser.nextToken();
+		while (parser.nextToken() == JsonToken.START_ARRAY) {
+			parser.nextToken();
+			builder.readRow(parser);
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package jp.co.dk.neo4jdatastoremanager.cypher;
+
+import static org.junit.Assert.*;
+
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerCypherException;
+
+import org.junit.Test;
+
+public class CypherTest {
+
+	@Test
+	public void getCypher() throws Neo4JDataStoreManagerCypherException {
+		Cypher sut = new Cypher("MATCH (n) WHERE n.a = ? AND n.b = ?").setParameter("x").setParameter(1);
+		assertEquals("MATCH (n) WHERE n.a = {1} AND n.b = {2}", sut.getCypher());
+		assertEquals("x", sut.getParameter().get("1"));
+		assertEquals(Integer.valueOf(1), sut.getParameter().get("2"));
+		sut.append(" RETURN ?").setParameter(true);
+		assertEquals("MATCH (n) WHERE n.a = {1} AND n.b = {2} RETURN {3}", sut.getCypher());
+		assertEquals(Boolean.TRUE, sut.getParameter().get("3"));
+		assertEquals(3, sut.getParameterSize());
+		assertEquals("2", sut.getParameterKey(1));
+		assertEquals(Integer.valueOf(1), sut.getParameterValue(1));
+	}
+
+	@Test
+	public void equalsAndHashCode() throws Neo4JDataStoreManagerCypherException {
+		Cypher cypher1 = new Cypher("MATCH (n) WHERE n.a = ? RETURN n").setParameter("x");
+		Cypher cypher2 = new Cypher("MATCH (n) WHERE n.a = ?").append(" RETURN n").setParameter("x");
+		assertEquals(cypher1, cypher2);
+		assertEquals(cypher1.hashCode(), cypher2.hashCode());
+		
+		int hashCode = cypher1.hashCode();
+		cypher1.setParameter(1);
+		assertTrue(hashCode != cypher1.hashCode());
+		assertFalse(cypher1.equals(cypher2));
+		
+		assertFalse(new Cypher("RETURN ?").setParameter(1).equals(new Cypher("RETURN ?").setParameter("1")));
+		assertFalse(new Cypher("RETURN ?").setParameter(1).equals(new Cypher("RETURN ?").setParameter(2)));
+		assertFalse(new Cypher("RETURN ?").setParameter(true).equals(new Cypher("RETURN ?").setParameter(false)));
+	}
+
+	@Test
+	public void freeze() throws Neo4JDataStoreManagerCypherException {
+		Cypher cypher = new Cypher("MATCH (n) WHERE n.a = ? RETURN n").setParameter("x");
+		Cypher sut    = cypher.freeze();
+		assertTrue(sut.isFrozen());
+		assertSame(sut, sut.freeze());
+		assertEquals(cypher, sut);
+		assertEquals(sut, cypher);
+		assertEquals(cypher.hashCode(), sut.hashCode());
+		assertEquals(cypher.getCypher(), sut.getCypher());
+		
+		cypher.setParameter(1);
+		assertFalse(cypher.equals(sut));
+		
+		try {
+			sut.setParameter(1);
+			fail();
+		} catch (UnsupportedOperationException e) {
+		}
+		
+		Cypher thawed = sut.clone();
+		assertFalse(thawed.isFrozen());
+		thawed.setParameter(1);
+		assertEquals(cypher, thawed);
+	}
+
+	@Test
+	public void templateCacheEvictsWhenFull() {
+		String cypher = "MATCH (n) WHERE n.name = ? RETURN n";
+		CypherTemplate hot = CypherTemplate.compile(cypher);
+		for (int i=0; i<CypherTemplate.MAX_CACHE_SIZE + 10; i++) {
+			CypherTemplate.compile("MATCH (n) WHERE id(n) = " + i + " RETURN n");
+			assertSame(hot, CypherTemplate.compile(cypher));
+		}
+		assertEquals(CypherTemplate.MAX_CACHE_SIZE, CypherTemplate.templateCache.size());
+		assertFalse(CypherTemplate.templateCache.containsKey("MATCH (n) WHERE id(n) = 0 RETURN n"));
+	}
+}
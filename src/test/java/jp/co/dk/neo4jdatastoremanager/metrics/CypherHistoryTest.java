@@ -0,0 +1,50 @@
+package jp.co.dk.neo4jdatastoremanager.metrics;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jp.co.dk.neo4jdatastoremanager.cypher.Cypher;
+import jp.co.dk.neo4jdatastoremanager.exception.Neo4JDataStoreManagerCypherException;
+
+import org.junit.Test;
+
+public class CypherHistoryTest {
+
+	@Test
+	public void add() throws Neo4JDataStoreManagerCypherException {
+		CypherHistory sut = new CypherHistory(3);
+		assertEquals(0, sut.getEntries().size());
+		for (int i=0; i<5; i++) sut.add(new CypherHistory.Entry(new Cypher("RETURN " + i), QueryType.VALUE, i, i * 1000000L, 1L, true, 100));
+		List<CypherHistory.Entry> entries = sut.getEntries();
+		assertEquals(3, entries.size());
+		assertEquals(5L, sut.getTotalCount());
+		assertEquals(2L, entries.get(0).getStartTime());
+		assertEquals(4L, entries.get(2).getStartTime());
+		assertEquals(4.0d, entries.get(2).getElapsed(), 0.0d);
+	}
+
+	@Test
+	public void truncate() throws Neo4JDataStoreManagerCypherException {
+		Cypher cypher = new Cypher("MATCH (n) WHERE n.name = ? RETURN n").setParameter("abcdefghij");
+		CypherHistory.Entry sut = new CypherHistory.Entry(cypher, QueryType.NODE, 0L, 0L, 1L, true, 4);
+		assertEquals("{1=abcd...(10)}", sut.getParameter());
+		assertTrue(sut.toString().contains("PARAMETER={1=abcd...(10)}"));
+		assertTrue(new CypherHistory.Entry(cypher, QueryType.NODE, 0L, 0L, 1L, true, 10).toString().contains("=abcdefghij}"));
+		cypher.setParameter("klmn");
+		assertEquals("{1=abcd...(10)}", sut.getParameter());
+	}
+
+	@Test
+	public void truncateCollection() {
+		List<String> values = new ArrayList<String>();
+		for (int i=0; i<10000; i++) values.add("value" + i);
+		StringBuilder builder = new StringBuilder();
+		CypherHistory.Entry.appendValue(builder, values, 20);
+		assertEquals("[value0, value1, value2...(10000)]", builder.toString());
+		builder.setLength(0);
+		CypherHistory.Entry.appendValue(builder, new Object[]{"abcdefghij", 1}, 4);
+		assertEquals("[abcd...(10)...(2)]", builder.toString());
+	}
+}
@@ -0,0 +1,33 @@
+package jp.co.dk.neo4jdatastoremanager.metrics;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void bucket() {
+		for (long value : new long[]{0L, 7L, 8L, 15L, 16L, 17L, 1000L, 123456789L, Long.MAX_VALUE}) {
+			long upper = LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(value));
+			assertTrue(value <= upper);
+			assertTrue(upper - value <= value / 8);
+		}
+	}
+
+	@Test
+	public void percentile() {
+		LatencyHistogram sut = new LatencyHistogram();
+		assertEquals(0.0d, sut.getPercentile(99.0d), 0.0d);
+		for (int i=1; i<=1000; i++) sut.record(i * 1000000L);
+		assertEquals(1000L, sut.getCount());
+		assertEquals(500.0d, sut.getPercentile(50.0d), 500.0d / 8);
+		assertEquals(990.0d, sut.getPercentile(99.0d), 990.0d / 8);
+		assertEquals(1000.0d, sut.getPercentile(99.9d), 0.0d);
+		assertEquals(1000.0d, sut.getMax(), 0.0d);
+		assertEquals(500.5d, sut.getMean(), 0.001d);
+		sut.reset();
+		assertEquals(0L, sut.getCount());
+		assertEquals(0.0d, sut.getPercentile(50.0d), 0.0d);
+	}
+}